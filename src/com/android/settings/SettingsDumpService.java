@@ -35,8 +35,14 @@ import android.telephony.TelephonyManager;
 import androidx.annotation.VisibleForTesting;
 
 import com.android.settings.applications.ProcStatsData;
+import com.android.settings.core.instrumentation.ControllerTimingRecorder;
+import com.android.settings.core.instrumentation.SettingsMetricsFeatureProvider;
 import com.android.settings.datausage.lib.DataUsageLib;
 import com.android.settings.fuelgauge.batterytip.AnomalyConfigJobService;
+import com.android.settings.network.CarrierConfigCache;
+import com.android.settings.network.ims.ImsQueryEngine;
+import com.android.settings.overlay.FeatureFactory;
+import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
 import com.android.settingslib.net.DataUsageController;
 
 import org.json.JSONArray;
@@ -61,6 +67,14 @@ public class SettingsDumpService extends Service {
     @VisibleForTesting
     static final String KEY_ANOMALY_DETECTION = "anomaly_detection";
     @VisibleForTesting
+    static final String KEY_CONTROLLER_TIMING = "controller_timing";
+    @VisibleForTesting
+    static final String KEY_IMS_QUERY = "ims_query";
+    @VisibleForTesting
+    static final String KEY_CARRIER_CONFIG_CACHE = "carrier_config_cache";
+    @VisibleForTesting
+    static final String KEY_LOG_WRITERS = "log_writers";
+    @VisibleForTesting
     static final Intent BROWSER_INTENT =
             new Intent("android.intent.action.VIEW", Uri.parse("http://"));
 
@@ -80,6 +94,10 @@ public class SettingsDumpService extends Service {
             dump.put(KEY_MEMORY, dumpMemory());
             dump.put(KEY_DEFAULT_BROWSER_APP, dumpDefaultBrowser());
             dump.put(KEY_ANOMALY_DETECTION, dumpAnomalyDetection());
+            dump.put(KEY_CONTROLLER_TIMING, ControllerTimingRecorder.getInstance().dump());
+            dump.put(KEY_IMS_QUERY, ImsQueryEngine.getInstance().dump());
+            dump.put(KEY_CARRIER_CONFIG_CACHE, CarrierConfigCache.dump());
+            dump.put(KEY_LOG_WRITERS, dumpLogWriters());
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -87,6 +105,16 @@ public class SettingsDumpService extends Service {
         writer.println(dump);
     }
 
+    @VisibleForTesting
+    JSONObject dumpLogWriters() throws JSONException {
+        final MetricsFeatureProvider metricsFeatureProvider =
+                FeatureFactory.getFactory(this).getMetricsFeatureProvider();
+        if (metricsFeatureProvider instanceof SettingsMetricsFeatureProvider) {
+            return ((SettingsMetricsFeatureProvider) metricsFeatureProvider).dump();
+        }
+        return new JSONObject();
+    }
+
     private JSONObject dumpMemory() throws JSONException {
         JSONObject obj = new JSONObject();
         ProcStatsData statsManager = new ProcStatsData(this, false);
@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.accessibility;
+
+import android.accessibilityservice.AccessibilityServiceInfo;
+import android.accessibilityservice.AccessibilityShortcutInfo;
+import android.app.AppOpsManager;
+import android.app.admin.DevicePolicyManager;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.pm.ActivityInfo;
+import android.content.pm.ComponentInfo;
+import android.content.pm.PackageManager;
+import android.content.pm.ServiceInfo;
+import android.os.UserHandle;
+import android.util.ArrayMap;
+import android.util.ArraySet;
+import android.view.accessibility.AccessibilityManager;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.settings.accessibility.AccessibilityUtil.AccessibilityServiceFragmentType;
+import com.android.settingslib.RestrictedPreference;
+import com.android.settingslib.accessibility.AccessibilityUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Catalog of the accessibility services and shortcuts listed by {@link AccessibilitySettings},
+ * keyed by component.
+ *
+ * <p>The label and the category of every component are loaded once, and loaded again only when
+ * its package changes. Each refresh compares the state shown by the preference of every component
+ * with its current state, and only creates the preferences of the components that were added or
+ * whose state changed, so the page is not rebuilt when, for instance, a shortcut is toggled.
+ */
+class AccessibilityServiceCatalog {
+
+    // The state of a component shown by its preference.
+    private static final int STATE_ENABLED = 1;
+    private static final int STATE_CRASHED = 1 << 1;
+    private static final int STATE_SHORTCUT_ENABLED = 1 << 2;
+    private static final int STATE_PERMITTED = 1 << 3;
+    private static final int STATE_RESTRICTED_SETTINGS_ALLOWED = 1 << 4;
+
+    /** The changes of the listed preferences since the previous refresh. */
+    static class Update {
+        /** The preferences to remove from the page. */
+        final List<RestrictedPreference> mRemoved = new ArrayList<>();
+        /** The preferences to add to the page, and the key of their category. */
+        final Map<RestrictedPreference, String> mAdded = new ArrayMap<>();
+
+        boolean isEmpty() {
+            return mRemoved.isEmpty() && mAdded.isEmpty();
+        }
+    }
+
+    /** An installed accessibility service or shortcut, and how it is currently shown. */
+    private static class Entry {
+        final String mPackageName;
+        final CharSequence mLabel;
+        final String mCategoryKey;
+        int mState;
+        RestrictedPreference mPreference;
+
+        Entry(String packageName, CharSequence label, String categoryKey) {
+            mPackageName = packageName;
+            mLabel = label;
+            mCategoryKey = categoryKey;
+        }
+    }
+
+    private final Context mContext;
+    private final PackageManager mPackageManager;
+    private final AppOpsManager mAppOps;
+    private final Map<ComponentName, String> mPreBundledCategoryKeys;
+    private final String mDefaultCategoryKey;
+
+    @GuardedBy("this")
+    private final ArrayMap<ComponentName, Entry> mEntries = new ArrayMap<>();
+    @GuardedBy("mChangedPackages")
+    private final Set<String> mChangedPackages = new ArraySet<>();
+
+    /**
+     * @param context                A context themed for the preferences of the page
+     * @param preBundledCategoryKeys The category of the services which come pre-installed
+     * @param defaultCategoryKey     The category of the other services
+     */
+    AccessibilityServiceCatalog(Context context, Map<ComponentName, String> preBundledCategoryKeys,
+            String defaultCategoryKey) {
+        mContext = context;
+        mPackageManager = context.getPackageManager();
+        mAppOps = context.getSystemService(AppOpsManager.class);
+        mPreBundledCategoryKeys = preBundledCategoryKeys;
+        mDefaultCategoryKey = defaultCategoryKey;
+    }
+
+    /** Reloads the components of {@code packageName} on the next refresh. */
+    void invalidatePackage(String packageName) {
+        // Not guarded by the catalog, so that the main thread is not blocked by a refresh.
+        synchronized (mChangedPackages) {
+            mChangedPackages.add(packageName);
+        }
+    }
+
+    /**
+     * Reads the installed accessibility services and shortcuts, and returns the changes of their
+     * preferences since the previous refresh.
+     */
+    @WorkerThread
+    synchronized Update refresh() {
+        final Set<String> changedPackages;
+        synchronized (mChangedPackages) {
+            changedPackages = new ArraySet<>(mChangedPackages);
+            mChangedPackages.clear();
+        }
+        final AccessibilityManager a11yManager = AccessibilityManager.getInstance(mContext);
+        final List<AccessibilityShortcutInfo> installedShortcuts =
+                a11yManager.getInstalledAccessibilityShortcutListAsUser(mContext,
+                        UserHandle.myUserId());
+        final List<AccessibilityServiceInfo> installedServices =
+                a11yManager.getInstalledAccessibilityServiceList();
+
+        final Set<ComponentName> enabledServices =
+                AccessibilityUtils.getEnabledServicesFromSettings(mContext);
+        final DevicePolicyManager dpm = mContext.getSystemService(DevicePolicyManager.class);
+        final List<String> permittedServices = dpm == null
+                ? null : dpm.getPermittedAccessibilityServices(UserHandle.myUserId());
+
+        final ArrayMap<ComponentName, Entry> entries = new ArrayMap<>();
+        final List<AccessibilityShortcutInfo> shortcutsToRender = new ArrayList<>();
+        final List<AccessibilityServiceInfo> servicesToRender = new ArrayList<>();
+        // The components of the shortcuts to render, then of the services to render.
+        final List<ComponentName> componentsToRender = new ArrayList<>();
+
+        // A service is hidden behind a shortcut of the same package with the same label.
+        final Set<String> shortcutLabels = new ArraySet<>();
+        for (int i = 0, count = installedShortcuts.size(); i < count; ++i) {
+            final AccessibilityShortcutInfo info = installedShortcuts.get(i);
+            final ActivityInfo activityInfo = info.getActivityInfo();
+            final ComponentName componentName = info.getComponentName();
+            final Entry entry = getEntry(componentName, activityInfo.packageName, activityInfo,
+                    changedPackages);
+            shortcutLabels.add(getLabelKey(entry));
+            entries.put(componentName, entry);
+            if (updateState(entry, getState(componentName, activityInfo.applicationInfo.uid,
+                    enabledServices, permittedServices, /* info= */ null))) {
+                shortcutsToRender.add(info);
+                componentsToRender.add(componentName);
+            }
+        }
+        for (int i = 0, count = installedServices.size(); i < count; ++i) {
+            final AccessibilityServiceInfo info = installedServices.get(i);
+            final ServiceInfo serviceInfo = info.getResolveInfo().serviceInfo;
+            final ComponentName componentName =
+                    new ComponentName(serviceInfo.packageName, serviceInfo.name);
+            final Entry entry = getEntry(componentName, serviceInfo.packageName, serviceInfo,
+                    changedPackages);
+            if (shortcutLabels.contains(getLabelKey(entry)) || entries.containsKey(componentName)) {
+                continue;
+            }
+            entries.put(componentName, entry);
+            if (updateState(entry, getState(componentName, serviceInfo.applicationInfo.uid,
+                    enabledServices, permittedServices, info))) {
+                servicesToRender.add(info);
+                componentsToRender.add(componentName);
+            }
+        }
+
+        final Update update = new Update();
+        for (int i = 0, count = mEntries.size(); i < count; ++i) {
+            final Entry oldEntry = mEntries.valueAt(i);
+            final Entry entry = entries.get(mEntries.keyAt(i));
+            if (oldEntry.mPreference != null
+                    && (entry == null || entry.mPreference != oldEntry.mPreference)) {
+                update.mRemoved.add(oldEntry.mPreference);
+            }
+        }
+
+        final RestrictedPreferenceHelper helper = new RestrictedPreferenceHelper(mContext);
+        final List<RestrictedPreference> rendered = new ArrayList<>();
+        rendered.addAll(helper.createAccessibilityActivityPreferenceList(shortcutsToRender));
+        rendered.addAll(helper.createAccessibilityServicePreferenceList(servicesToRender));
+        for (int i = 0, count = rendered.size(); i < count; ++i) {
+            final RestrictedPreference preference = rendered.get(i);
+            final Entry entry = entries.get(componentsToRender.get(i));
+            entry.mPreference = preference;
+            update.mAdded.put(preference, entry.mCategoryKey);
+        }
+
+        mEntries.clear();
+        mEntries.putAll(entries);
+        return update;
+    }
+
+    /** Returns the keys of the listed components. */
+    @VisibleForTesting
+    synchronized Set<ComponentName> getComponentNames() {
+        return new ArraySet<>(mEntries.keySet());
+    }
+
+    /**
+     * Returns the entry of {@code componentName}, keeping the cached label and category unless
+     * its package changed.
+     */
+    @GuardedBy("this")
+    private Entry getEntry(ComponentName componentName, String packageName,
+            ComponentInfo componentInfo, Set<String> changedPackages) {
+        final Entry cached = mEntries.get(componentName);
+        final Entry entry;
+        if (cached != null && !changedPackages.contains(packageName)) {
+            entry = new Entry(packageName, cached.mLabel, cached.mCategoryKey);
+            entry.mState = cached.mState;
+            entry.mPreference = cached.mPreference;
+        } else {
+            final String categoryKey = mPreBundledCategoryKeys.get(componentName);
+            entry = new Entry(packageName, componentInfo.loadLabel(mPackageManager),
+                    categoryKey == null ? mDefaultCategoryKey : categoryKey);
+        }
+        return entry;
+    }
+
+    /**
+     * Sets the state of {@code entry}, and returns whether its preference has to be created
+     * because it has none or shows another state.
+     */
+    private static boolean updateState(Entry entry, int state) {
+        if (entry.mPreference != null && entry.mState == state) {
+            return false;
+        }
+        entry.mState = state;
+        entry.mPreference = null;
+        return true;
+    }
+
+    /**
+     * Returns the state of a component shown by its preference, as read by
+     * {@link RestrictedPreferenceHelper} when it creates the preference.
+     */
+    private int getState(ComponentName componentName, int uid, Set<ComponentName> enabledServices,
+            @Nullable List<String> permittedServices, @Nullable AccessibilityServiceInfo info) {
+        int state = 0;
+        if (enabledServices.contains(componentName)) {
+            state |= STATE_ENABLED;
+        }
+        // permittedServices null means all accessibility services are allowed.
+        if (permittedServices == null
+                || permittedServices.contains(componentName.getPackageName())) {
+            state |= STATE_PERMITTED;
+            // Restricted settings may be allowed from App info while the page is in background.
+            if (isRestrictedSettingsAllowed(uid, componentName.getPackageName())) {
+                state |= STATE_RESTRICTED_SETTINGS_ALLOWED;
+            }
+        }
+        if (info != null) {
+            if (info.crashed) {
+                state |= STATE_CRASHED;
+            }
+            if (AccessibilityUtil.getAccessibilityServiceFragmentType(info)
+                    == AccessibilityServiceFragmentType.INVISIBLE_TOGGLE
+                    && AccessibilityUtil.getUserShortcutTypesFromSettings(mContext, componentName)
+                    != AccessibilityUtil.UserShortcutType.EMPTY) {
+                state |= STATE_SHORTCUT_ENABLED;
+            }
+        }
+        return state;
+    }
+
+    private boolean isRestrictedSettingsAllowed(int uid, String packageName) {
+        if (!mContext.getResources().getBoolean(
+                com.android.internal.R.bool.config_enhancedConfirmationModeEnabled)) {
+            return true;
+        }
+        try {
+            return mAppOps.checkOpNoThrow(AppOpsManager.OP_ACCESS_RESTRICTED_SETTINGS, uid,
+                    packageName) == AppOpsManager.MODE_ALLOWED;
+        } catch (Exception e) {
+            // Allowed in case app ops is not available in testing, as by the helper.
+            return true;
+        }
+    }
+
+    private static String getLabelKey(Entry entry) {
+        return entry.mPackageName + '/' + entry.mLabel;
+    }
+}
@@ -17,19 +17,14 @@
 package com.android.settings.accessibility;
 
 import android.accessibilityservice.AccessibilityServiceInfo;
-import android.accessibilityservice.AccessibilityShortcutInfo;
 import android.app.settings.SettingsEnums;
 import android.content.ComponentName;
 import android.content.Context;
-import android.content.pm.ActivityInfo;
-import android.content.pm.ServiceInfo;
 import android.os.Bundle;
 import android.os.Handler;
-import android.os.UserHandle;
 import android.provider.Settings;
 import android.text.TextUtils;
 import android.util.ArrayMap;
-import android.view.accessibility.AccessibilityManager;
 
 import androidx.annotation.VisibleForTesting;
 import androidx.preference.Preference;
@@ -45,6 +40,7 @@ import com.android.settings.search.BaseSearchIndexProvider;
 import com.android.settingslib.RestrictedPreference;
 import com.android.settingslib.search.SearchIndexable;
 import com.android.settingslib.search.SearchIndexableRaw;
+import com.android.settingslib.utils.ThreadUtils;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -108,25 +104,29 @@ public class AccessibilitySettings extends DashboardFragment {
     private final PackageMonitor mSettingsPackageMonitor = new PackageMonitor() {
         @Override
         public void onPackageAdded(String packageName, int uid) {
-            sendUpdate();
+            sendUpdate(packageName);
         }
 
         @Override
         public void onPackageAppeared(String packageName, int reason) {
-            sendUpdate();
+            sendUpdate(packageName);
         }
 
         @Override
         public void onPackageDisappeared(String packageName, int reason) {
-            sendUpdate();
+            sendUpdate(packageName);
         }
 
         @Override
         public void onPackageRemoved(String packageName, int uid) {
-            sendUpdate();
+            sendUpdate(packageName);
         }
 
-        private void sendUpdate() {
+        private void sendUpdate(String packageName) {
+            if (mServiceCatalog != null) {
+                mServiceCatalog.invalidatePackage(packageName);
+            }
+            mHandler.removeCallbacks(mUpdateRunnable);
             mHandler.postDelayed(mUpdateRunnable, DELAY_UPDATE_SERVICES_MILLIS);
         }
     };
@@ -138,9 +138,11 @@ public class AccessibilitySettings extends DashboardFragment {
             new ArrayMap<>();
     private final Map<Preference, PreferenceCategory> mServicePreferenceToPreferenceCategoryMap =
             new ArrayMap<>();
-    private final Map<ComponentName, PreferenceCategory> mPreBundledServiceComponentToCategoryMap =
+    private final Map<ComponentName, String> mPreBundledServiceComponentToCategoryMap =
             new ArrayMap<>();
 
+    private AccessibilityServiceCatalog mServiceCatalog;
+
     private boolean mNeedPreferencesUpdate = false;
     private boolean mIsForeground = true;
 
@@ -211,6 +213,9 @@ public class AccessibilitySettings extends DashboardFragment {
     @Override
     public void onDestroy() {
         unregisterContentMonitors();
+        mHandler.removeCallbacks(mUpdateRunnable);
+        // Drops the service preferences still being created.
+        mServiceCatalog = null;
         super.onDestroy();
     }
 
@@ -296,6 +301,19 @@ public class AccessibilitySettings extends DashboardFragment {
             PreferenceCategory prefCategory = findPreference(CATEGORIES[i]);
             mCategoryToPrefCategoryMap.put(CATEGORIES[i], prefCategory);
         }
+
+        initializePreBundledServicesMapFromArray(CATEGORY_SCREEN_READER,
+                R.array.config_preinstalled_screen_reader_services);
+        initializePreBundledServicesMapFromArray(CATEGORY_CAPTIONS,
+                R.array.config_preinstalled_captions_services);
+        initializePreBundledServicesMapFromArray(CATEGORY_AUDIO,
+                R.array.config_preinstalled_audio_services);
+        initializePreBundledServicesMapFromArray(CATEGORY_DISPLAY,
+                R.array.config_preinstalled_display_services);
+        initializePreBundledServicesMapFromArray(CATEGORY_INTERACTION_CONTROL,
+                R.array.config_preinstalled_interaction_control_services);
+        mServiceCatalog = new AccessibilityServiceCatalog(getPrefContext(),
+                mPreBundledServiceComponentToCategoryMap, CATEGORY_DOWNLOADED_SERVICES);
     }
 
     @VisibleForTesting
@@ -321,42 +339,35 @@ public class AccessibilitySettings extends DashboardFragment {
         // Since services category is auto generated we have to do a pass
         // to generate it since services can come and go and then based on
         // the global accessibility state to decided whether it is enabled.
-        final ArrayList<Preference> servicePreferences =
-                new ArrayList<>(mServicePreferenceToPreferenceCategoryMap.keySet());
-        for (int i = 0; i < servicePreferences.size(); i++) {
-            Preference service = servicePreferences.get(i);
-            PreferenceCategory category = mServicePreferenceToPreferenceCategoryMap.get(service);
-            category.removePreference(service);
-        }
-
-        initializePreBundledServicesMapFromArray(CATEGORY_SCREEN_READER,
-                R.array.config_preinstalled_screen_reader_services);
-        initializePreBundledServicesMapFromArray(CATEGORY_CAPTIONS,
-                R.array.config_preinstalled_captions_services);
-        initializePreBundledServicesMapFromArray(CATEGORY_AUDIO,
-                R.array.config_preinstalled_audio_services);
-        initializePreBundledServicesMapFromArray(CATEGORY_DISPLAY,
-                R.array.config_preinstalled_display_services);
-        initializePreBundledServicesMapFromArray(CATEGORY_INTERACTION_CONTROL,
-                R.array.config_preinstalled_interaction_control_services);
-
-        final List<RestrictedPreference> preferenceList = getInstalledAccessibilityList(
-                getPrefContext());
-
-        final PreferenceCategory downloadedServicesCategory =
-                mCategoryToPrefCategoryMap.get(CATEGORY_DOWNLOADED_SERVICES);
+        // Only the preferences of the services which changed are created, off the main thread.
+        final AccessibilityServiceCatalog catalog = mServiceCatalog;
+        ThreadUtils.postOnBackgroundThread(() -> {
+            // Each update is relative to the previous one, they are applied in order.
+            synchronized (catalog) {
+                final AccessibilityServiceCatalog.Update update = catalog.refresh();
+                ThreadUtils.postOnMainThread(() -> {
+                    if (catalog == mServiceCatalog) {
+                        applyServicePreferencesUpdate(update);
+                    }
+                });
+            }
+        });
+    }
 
-        for (int i = 0, count = preferenceList.size(); i < count; ++i) {
-            final RestrictedPreference preference = preferenceList.get(i);
-            final ComponentName componentName = preference.getExtras().getParcelable(
-                    EXTRA_COMPONENT_NAME);
-            PreferenceCategory prefCategory = downloadedServicesCategory;
-            // Set the appropriate category if the service comes pre-installed.
-            if (mPreBundledServiceComponentToCategoryMap.containsKey(componentName)) {
-                prefCategory = mPreBundledServiceComponentToCategoryMap.get(componentName);
+    private void applyServicePreferencesUpdate(AccessibilityServiceCatalog.Update update) {
+        for (int i = 0, count = update.mRemoved.size(); i < count; ++i) {
+            final Preference preference = update.mRemoved.get(i);
+            final PreferenceCategory category =
+                    mServicePreferenceToPreferenceCategoryMap.remove(preference);
+            if (category != null) {
+                category.removePreference(preference);
             }
-            prefCategory.addPreference(preference);
-            mServicePreferenceToPreferenceCategoryMap.put(preference, prefCategory);
+        }
+
+        for (Map.Entry<RestrictedPreference, String> added : update.mAdded.entrySet()) {
+            final PreferenceCategory category = mCategoryToPrefCategoryMap.get(added.getValue());
+            category.addPreference(added.getKey());
+            mServicePreferenceToPreferenceCategoryMap.put(added.getKey(), category);
         }
 
         // Update the order of all the category according to the order defined in xml file.
@@ -372,6 +383,8 @@ public class AccessibilitySettings extends DashboardFragment {
                 R.array.config_order_display_services);
 
         // Need to check each time when updateServicePreferences() called.
+        final PreferenceCategory downloadedServicesCategory =
+                mCategoryToPrefCategoryMap.get(CATEGORY_DOWNLOADED_SERVICES);
         if (downloadedServicesCategory.getPreferenceCount() == 0) {
             getPreferenceScreen().removePreference(downloadedServicesCategory);
         } else {
@@ -382,58 +395,11 @@ public class AccessibilitySettings extends DashboardFragment {
         updatePreferenceCategoryVisibility(CATEGORY_SCREEN_READER);
     }
 
-    private List<RestrictedPreference> getInstalledAccessibilityList(Context context) {
-        final AccessibilityManager a11yManager = AccessibilityManager.getInstance(context);
-        final RestrictedPreferenceHelper preferenceHelper = new RestrictedPreferenceHelper(context);
-
-        final List<AccessibilityShortcutInfo> installedShortcutList =
-                a11yManager.getInstalledAccessibilityShortcutListAsUser(context,
-                        UserHandle.myUserId());
-
-        // Remove duplicate item here, new a ArrayList to copy unmodifiable list result
-        // (getInstalledAccessibilityServiceList).
-        final List<AccessibilityServiceInfo> installedServiceList = new ArrayList<>(
-                a11yManager.getInstalledAccessibilityServiceList());
-        installedServiceList.removeIf(
-                target -> containsTargetNameInList(installedShortcutList, target));
-
-        final List<RestrictedPreference> activityList =
-                preferenceHelper.createAccessibilityActivityPreferenceList(installedShortcutList);
-
-        final List<RestrictedPreference> serviceList =
-                preferenceHelper.createAccessibilityServicePreferenceList(installedServiceList);
-
-        final List<RestrictedPreference> preferenceList = new ArrayList<>();
-        preferenceList.addAll(activityList);
-        preferenceList.addAll(serviceList);
-
-        return preferenceList;
-    }
-
-    private boolean containsTargetNameInList(List<AccessibilityShortcutInfo> shortcutInfos,
-            AccessibilityServiceInfo targetServiceInfo) {
-        final ServiceInfo serviceInfo = targetServiceInfo.getResolveInfo().serviceInfo;
-        final String servicePackageName = serviceInfo.packageName;
-        final CharSequence serviceLabel = serviceInfo.loadLabel(getPackageManager());
-
-        for (int i = 0, count = shortcutInfos.size(); i < count; ++i) {
-            final ActivityInfo activityInfo = shortcutInfos.get(i).getActivityInfo();
-            final String activityPackageName = activityInfo.packageName;
-            final CharSequence activityLabel = activityInfo.loadLabel(getPackageManager());
-            if (servicePackageName.equals(activityPackageName)
-                    && serviceLabel.equals(activityLabel)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     private void initializePreBundledServicesMapFromArray(String categoryKey, int key) {
         String[] services = getResources().getStringArray(key);
-        PreferenceCategory category = mCategoryToPrefCategoryMap.get(categoryKey);
         for (int i = 0; i < services.length; i++) {
             ComponentName component = ComponentName.unflattenFromString(services[i]);
-            mPreBundledServiceComponentToCategoryMap.put(component, category);
+            mPreBundledServiceComponentToCategoryMap.put(component, categoryKey);
         }
     }
 
@@ -41,7 +41,6 @@ import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.UserInfo;
 import android.content.res.Resources;
-import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.os.UserHandle;
 import android.os.UserManager;
@@ -80,7 +79,8 @@ import java.util.List;
 
 public class AccountPreferenceController extends AbstractPreferenceController
         implements PreferenceControllerMixin, AuthenticatorHelper.OnAccountsUpdateListener,
-        OnPreferenceClickListener, LifecycleObserver, OnPause, OnResume {
+        OnPreferenceClickListener, AccountTypeMetadataCache.OnInvalidatedListener,
+        LifecycleObserver, OnPause, OnResume {
 
     private static final String TAG = "AccountPrefController";
 
@@ -104,6 +104,7 @@ public class AccountPreferenceController extends AbstractPreferenceController
     private DashboardFragment mFragment;
     private int mAccountProfileOrder = ORDER_ACCOUNT_PROFILES;
     private AccountRestrictionHelper mHelper;
+    private AccountTypeMetadataCache mMetadataCache;
     private MetricsFeatureProvider mMetricsFeatureProvider;
     private @ProfileSelectFragment.ProfileType int mType;
 
@@ -165,6 +166,7 @@ public class AccountPreferenceController extends AbstractPreferenceController
         final FeatureFactory featureFactory = FeatureFactory.getFactory(mContext);
         mMetricsFeatureProvider = featureFactory.getMetricsFeatureProvider();
         mHelper = helper;
+        mMetadataCache = AccountTypeMetadataCache.getInstance(context);
         mType = type;
     }
 
@@ -219,12 +221,14 @@ public class AccountPreferenceController extends AbstractPreferenceController
     public void onResume() {
         updateUi();
         mManagedProfileBroadcastReceiver.register(mContext);
+        mMetadataCache.addOnInvalidatedListener(this);
         listenToAccountUpdates();
     }
 
     @Override
     public void onPause() {
         stopListeningToAccountUpdates();
+        mMetadataCache.removeOnInvalidatedListener(this);
         mManagedProfileBroadcastReceiver.unregister(mContext);
     }
 
@@ -238,6 +242,25 @@ public class AccountPreferenceController extends AbstractPreferenceController
         }
     }
 
+    @Override
+    public void onAccountTypeMetadataInvalidated(int userId) {
+        final ProfileData profileData = mProfiles.get(userId);
+        if (profileData == null || profileData.authenticatorHelper == null) {
+            return;
+        }
+        // Only the accounts of this profile show the stale labels and icons, rebuild them with a
+        // new helper since the helper keeps its own copy of the icons.
+        for (AccountTypePreference preference : profileData.accountPreferences.values()) {
+            profileData.preferenceGroup.removePreference(preference);
+        }
+        profileData.accountPreferences.clear();
+        profileData.authenticatorHelper.stopListeningToAccountUpdates();
+        profileData.authenticatorHelper = new AuthenticatorHelper(mContext,
+                profileData.userInfo.getUserHandle(), this);
+        profileData.authenticatorHelper.listenToAccountUpdates();
+        updateAccountTypes(profileData);
+    }
+
     @Override
     public boolean onPreferenceClick(Preference preference) {
         final int metricsCategory = mFragment.getMetricsCategory();
@@ -535,16 +558,17 @@ public class AccountPreferenceController extends AbstractPreferenceController
             if (!accountTypeHasAnyRequestedAuthorities(helper, accountType)) {
                 continue;
             }
-            final CharSequence label = helper.getLabelForType(mContext, accountType);
-            if (label == null) {
+            final AccountTypeMetadataCache.Metadata metadata =
+                    mMetadataCache.get(mContext, helper, userHandle, accountType);
+            if (metadata == null) {
                 continue;
             }
-            final String titleResPackageName = helper.getPackageForType(accountType);
-            final int titleResId = helper.getLabelIdForType(accountType);
+            final CharSequence label = metadata.mLabel;
+            final String titleResPackageName = metadata.mPackageName;
+            final int titleResId = metadata.mLabelResId;
 
             final Account[] accounts = AccountManager.get(mContext)
                     .getAccountsByTypeAsUser(accountType, userHandle);
-            final Drawable icon = helper.getDrawableForType(mContext, accountType);
             final Context prefContext = mFragment.getPreferenceManager().getContext();
 
             // Add a preference row for each individual account
@@ -575,9 +599,9 @@ public class AccountPreferenceController extends AbstractPreferenceController
                 accountTypePreferences.add(new AccountTypePreference(
                         prefContext, mMetricsFeatureProvider.getMetricsCategory(mFragment),
                         account, titleResPackageName, titleResId, label,
-                        AccountDetailDashboardFragment.class.getName(), fragmentArguments, icon));
+                        AccountDetailDashboardFragment.class.getName(), fragmentArguments,
+                        metadata.newIcon()));
             }
-            helper.preloadDrawableForType(mContext, accountType);
         }
         // Sort by label
         Collections.sort(accountTypePreferences, new Comparator<AccountTypePreference>() {
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.accounts;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.os.UserHandle;
+import android.text.TextUtils;
+import android.util.ArrayMap;
+import android.util.ArraySet;
+import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.accounts.AuthenticatorHelper;
+
+/**
+ * Process wide cache of the label and the badged icon of the account types shown by
+ * {@link AccountPreferenceController}, per user.
+ *
+ * <p>Loading the icon of an account type reads the resources of its authenticator and badges the
+ * icon for the user, which is too slow to repeat every time the Accounts page is resumed or an
+ * account changes. The entries of an authenticator are dropped when its package is updated,
+ * changed or removed for their user, and every entry is dropped when the locale changes.
+ *
+ * <p>Must only be used on the main thread.
+ */
+class AccountTypeMetadataCache {
+    private static final String TAG = "AccountTypeMetadata";
+
+    private static AccountTypeMetadataCache sInstance;
+
+    /** Notified when cached metadata is dropped, so that the affected accounts are reloaded. */
+    interface OnInvalidatedListener {
+        /** Called when metadata of the account types of {@code userId} has been dropped. */
+        void onAccountTypeMetadataInvalidated(int userId);
+    }
+
+    /** The label and the badged icon of an account type. */
+    static class Metadata {
+        final String mPackageName;
+        final int mLabelResId;
+        final CharSequence mLabel;
+        @Nullable
+        private final Drawable mIcon;
+
+        Metadata(String packageName, int labelResId, CharSequence label,
+                @Nullable Drawable icon) {
+            mPackageName = packageName;
+            mLabelResId = labelResId;
+            mLabel = label;
+            mIcon = icon;
+        }
+
+        /** Returns a copy of the icon, the cached one may be shown by several pages. */
+        @Nullable
+        Drawable newIcon() {
+            if (mIcon == null) {
+                return null;
+            }
+            final Drawable.ConstantState state = mIcon.getConstantState();
+            return state == null ? mIcon : state.newDrawable();
+        }
+    }
+
+    private final Context mContext;
+    /** Metadata per user id, then per account type. */
+    private final SparseArray<ArrayMap<String, Metadata>> mEntries = new SparseArray<>();
+    private final ArraySet<OnInvalidatedListener> mListeners = new ArraySet<>();
+    private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            if (Intent.ACTION_LOCALE_CHANGED.equals(intent.getAction())) {
+                invalidateAll();
+                return;
+            }
+            final Uri data = intent.getData();
+            final int uid = intent.getIntExtra(Intent.EXTRA_UID, -1);
+            if (data == null || uid < 0) {
+                return;
+            }
+            invalidatePackage(UserHandle.getUserId(uid), data.getSchemeSpecificPart());
+        }
+    };
+    private boolean mReceiverRegistered;
+
+    static AccountTypeMetadataCache getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new AccountTypeMetadataCache(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    static void reset() {
+        sInstance = null;
+    }
+
+    @VisibleForTesting
+    AccountTypeMetadataCache(Context context) {
+        mContext = context;
+    }
+
+    /**
+     * Returns the metadata of {@code accountType} for the user of {@code helper}, loading it if
+     * it is not cached yet. Returns {@code null} if the account type has no label.
+     */
+    @Nullable
+    Metadata get(Context context, AuthenticatorHelper helper, UserHandle userHandle,
+            String accountType) {
+        registerReceiverIfNeeded();
+        final int userId = userHandle.getIdentifier();
+        ArrayMap<String, Metadata> entries = mEntries.get(userId);
+        final String packageName = helper.getPackageForType(accountType);
+        final int labelResId = helper.getLabelIdForType(accountType);
+        Metadata metadata = entries == null ? null : entries.get(accountType);
+        // The authenticator of the type may have moved to another package since it was cached.
+        if (metadata != null && TextUtils.equals(metadata.mPackageName, packageName)
+                && metadata.mLabelResId == labelResId) {
+            return metadata;
+        }
+        final CharSequence label = helper.getLabelForType(context, accountType);
+        if (label == null) {
+            if (entries != null) {
+                entries.remove(accountType);
+            }
+            return null;
+        }
+        metadata = new Metadata(packageName, labelResId, label,
+                helper.getDrawableForType(context, accountType));
+        if (entries == null) {
+            entries = new ArrayMap<>();
+            mEntries.put(userId, entries);
+        }
+        entries.put(accountType, metadata);
+        return metadata;
+    }
+
+    void addOnInvalidatedListener(OnInvalidatedListener listener) {
+        mListeners.add(listener);
+    }
+
+    void removeOnInvalidatedListener(OnInvalidatedListener listener) {
+        mListeners.remove(listener);
+    }
+
+    @VisibleForTesting
+    void invalidatePackage(int userId, String packageName) {
+        final ArrayMap<String, Metadata> entries = mEntries.get(userId);
+        if (entries == null) {
+            return;
+        }
+        boolean changed = false;
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            if (TextUtils.equals(entries.valueAt(i).mPackageName, packageName)) {
+                entries.removeAt(i);
+                changed = true;
+            }
+        }
+        if (changed) {
+            Log.d(TAG, "Authenticator changed: " + packageName + " for user " + userId);
+            notifyInvalidated(userId);
+        }
+    }
+
+    private void invalidateAll() {
+        final int[] userIds = new int[mEntries.size()];
+        for (int i = 0; i < userIds.length; i++) {
+            userIds[i] = mEntries.keyAt(i);
+        }
+        mEntries.clear();
+        for (int userId : userIds) {
+            notifyInvalidated(userId);
+        }
+    }
+
+    private void notifyInvalidated(int userId) {
+        // Listeners may unregister themselves while being notified.
+        for (OnInvalidatedListener listener : new ArraySet<>(mListeners)) {
+            listener.onAccountTypeMetadataInvalidated(userId);
+        }
+    }
+
+    private void registerReceiverIfNeeded() {
+        if (mReceiverRegistered) {
+            return;
+        }
+        // The authenticator of an account type may be installed, updated or removed in any user:
+        // only the metadata of that package in that user is dropped. Labels are resources, so a
+        // locale change drops everything.
+        final IntentFilter packageFilter = new IntentFilter();
+        packageFilter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        packageFilter.addDataScheme("package");
+        mContext.registerReceiverAsUser(mReceiver, UserHandle.ALL, packageFilter, null, null);
+        mContext.registerReceiverAsUser(mReceiver, UserHandle.ALL,
+                new IntentFilter(Intent.ACTION_LOCALE_CHANGED), null, null);
+        mReceiverRegistered = true;
+    }
+}
@@ -19,7 +19,6 @@ package com.android.settings.applications.appinfo;
 import android.content.Context;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
-import android.os.AsyncTask;
 import android.os.BatteryUsageStats;
 import android.os.Bundle;
 import android.os.UidBatteryConsumer;
@@ -40,7 +39,6 @@ import com.android.settings.core.BasePreferenceController;
 import com.android.settings.fuelgauge.AdvancedPowerUsageDetail;
 import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settings.fuelgauge.PowerUsageFeatureProvider;
-import com.android.settings.fuelgauge.batteryusage.BatteryChartPreferenceController;
 import com.android.settings.fuelgauge.batteryusage.BatteryDiffEntry;
 import com.android.settings.fuelgauge.batteryusage.BatteryEntry;
 import com.android.settings.fuelgauge.batteryusage.BatteryUsageStatsLoader;
@@ -79,7 +77,6 @@ public class AppBatteryPreferenceController extends BasePreferenceController
     private String mBatteryPercent;
     private final String mPackageName;
     private final int mUid;
-    private final int mUserId;
     private boolean mBatteryUsageStatsLoaded = false;
     private boolean mBatteryDiffEntriesLoaded = false;
 
@@ -90,7 +87,6 @@ public class AppBatteryPreferenceController extends BasePreferenceController
         mBatteryUtils = BatteryUtils.getInstance(mContext);
         mPackageName = packageName;
         mUid = uid;
-        mUserId = mContext.getUserId();
         refreshFeatureFlag(mContext);
         if (lifecycle != null) {
             lifecycle.addObserver(this);
@@ -173,25 +169,15 @@ public class AppBatteryPreferenceController extends BasePreferenceController
     }
 
     private void loadBatteryDiffEntries() {
-        new AsyncTask<Void, Void, BatteryDiffEntry>() {
-            @Override
-            protected BatteryDiffEntry doInBackground(Void... unused) {
-                if (mPackageName == null) {
-                    return null;
-                }
-                final BatteryDiffEntry entry =
-                        BatteryChartPreferenceController.getAppBatteryUsageData(
-                                mContext, mPackageName, mUserId);
-                Log.d(TAG, "loadBatteryDiffEntries():\n" + entry);
-                return entry;
-            }
-
-            @Override
-            protected void onPostExecute(BatteryDiffEntry batteryDiffEntry) {
-                mBatteryDiffEntry = batteryDiffEntry;
-                updateBatteryWithDiffEntry();
-            }
-        }.execute();
+        if (mPackageName == null) {
+            updateBatteryWithDiffEntry();
+            return;
+        }
+        mParent.getStatsAggregator().requestBatteryDiffEntry(batteryDiffEntry -> {
+            Log.d(TAG, "loadBatteryDiffEntries():\n" + batteryDiffEntry);
+            mBatteryDiffEntry = batteryDiffEntry;
+            updateBatteryWithDiffEntry();
+        });
     }
 
     @VisibleForTesting
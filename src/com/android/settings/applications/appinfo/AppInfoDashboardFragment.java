@@ -140,6 +140,7 @@ public class AppInfoDashboardFragment extends DashboardFragment
 
     private List<Callback> mCallbacks = new ArrayList<>();
 
+    private AppStatsAggregator mStatsAggregator;
     private InstantAppButtonsPreferenceController mInstantAppButtonPreferenceController;
     private AppButtonsPreferenceController mAppButtonsPreferenceController;
 
@@ -262,6 +263,9 @@ public class AppInfoDashboardFragment extends DashboardFragment
     @Override
     public void onDestroy() {
         stopListeningToPackageRemove();
+        if (mStatsAggregator != null) {
+            mStatsAggregator.release();
+        }
         super.onDestroy();
     }
 
@@ -353,6 +357,14 @@ public class AppInfoDashboardFragment extends DashboardFragment
         return mPackageInfo;
     }
 
+    /** Returns the loader of the usage stats shown by the controllers of this page. */
+    AppStatsAggregator getStatsAggregator() {
+        if (mStatsAggregator == null) {
+            mStatsAggregator = new AppStatsAggregator(getContext(), getPackageName());
+        }
+        return mStatsAggregator;
+    }
+
     @Override
     public void onPackageSizeChanged(String packageName) {
         if (!TextUtils.equals(packageName, mPackageName)) {
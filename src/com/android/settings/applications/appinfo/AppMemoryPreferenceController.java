@@ -16,10 +16,8 @@
 
 package com.android.settings.applications.appinfo;
 
-import android.app.Activity;
 import android.content.Context;
 import android.content.pm.PackageInfo;
-import android.os.AsyncTask;
 import android.text.format.Formatter;
 
 import androidx.preference.Preference;
@@ -28,7 +26,6 @@ import androidx.preference.PreferenceScreen;
 import com.android.settings.R;
 import com.android.settings.SettingsActivity;
 import com.android.settings.applications.ProcStatsData;
-import com.android.settings.applications.ProcStatsEntry;
 import com.android.settings.applications.ProcStatsPackageEntry;
 import com.android.settings.applications.ProcessStatsBase;
 import com.android.settings.core.BasePreferenceController;
@@ -47,53 +44,6 @@ public class AppMemoryPreferenceController extends BasePreferenceController
     private ProcStatsData mStatsManager;
     private ProcStatsPackageEntry mStats;
 
-    private class MemoryUpdater extends AsyncTask<Void, Void, ProcStatsPackageEntry> {
-
-        @Override
-        protected ProcStatsPackageEntry doInBackground(Void... params) {
-            final Activity activity = mParent.getActivity();
-            if (activity == null) {
-                return null;
-            }
-            PackageInfo packageInfo = mParent.getPackageInfo();
-            if (packageInfo == null) {
-                return null;
-            }
-            if (mStatsManager == null) {
-                mStatsManager = new ProcStatsData(activity, false);
-                mStatsManager.setDuration(ProcessStatsBase.sDurations[0]);
-            }
-            mStatsManager.refreshStats(true);
-            for (ProcStatsPackageEntry pkgEntry : mStatsManager.getEntries()) {
-                for (ProcStatsEntry entry : pkgEntry.getEntries()) {
-                    if (entry.getUid() == packageInfo.applicationInfo.uid) {
-                        pkgEntry.updateMetrics();
-                        return pkgEntry;
-                    }
-                }
-            }
-            return null;
-        }
-
-        @Override
-        protected void onPostExecute(ProcStatsPackageEntry entry) {
-            if (mParent.getActivity() == null) {
-                return;
-            }
-            if (entry != null) {
-                mStats = entry;
-                mPreference.setEnabled(true);
-                double amount = Math.max(entry.getRunWeight(), entry.getBgWeight())
-                        * mStatsManager.getMemInfo().getWeightToRam();
-                mPreference.setSummary(mContext.getString(R.string.memory_use_summary,
-                        Formatter.formatShortFileSize(mContext, (long) amount)));
-            } else {
-                mPreference.setEnabled(false);
-                mPreference.setSummary(mContext.getString(R.string.no_memory_use_summary));
-            }
-        }
-    }
-
     public AppMemoryPreferenceController(Context context, AppInfoDashboardFragment parent,
             Lifecycle lifecycle) {
         super(context, KEY_MEMORY);
@@ -131,8 +81,32 @@ public class AppMemoryPreferenceController extends BasePreferenceController
 
     @Override
     public void onResume() {
-        if (isAvailable()) {
-            new MemoryUpdater().execute();
+        if (!isAvailable() || mParent.getActivity() == null) {
+            return;
+        }
+        final PackageInfo packageInfo = mParent.getPackageInfo();
+        if (packageInfo == null) {
+            return;
+        }
+        mParent.getStatsAggregator().requestMemoryUsage(packageInfo.applicationInfo.uid,
+                this::updateMemoryUsage);
+    }
+
+    private void updateMemoryUsage(AppStatsAggregator.MemoryUsage usage) {
+        if (mParent.getActivity() == null) {
+            return;
+        }
+        if (usage != null) {
+            mStatsManager = usage.mStats;
+            mStats = usage.mEntry;
+            mPreference.setEnabled(true);
+            double amount = Math.max(mStats.getRunWeight(), mStats.getBgWeight())
+                    * mStatsManager.getMemInfo().getWeightToRam();
+            mPreference.setSummary(mContext.getString(R.string.memory_use_summary,
+                    Formatter.formatShortFileSize(mContext, (long) amount)));
+        } else {
+            mPreference.setEnabled(false);
+            mPreference.setSummary(mContext.getString(R.string.no_memory_use_summary));
         }
     }
 
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications.appinfo;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settings.applications.ProcStatsData;
+import com.android.settings.applications.ProcStatsEntry;
+import com.android.settings.applications.ProcStatsPackageEntry;
+import com.android.settings.applications.ProcessStatsBase;
+import com.android.settings.fuelgauge.batteryusage.BatteryChartPreferenceController;
+import com.android.settings.fuelgauge.batteryusage.BatteryDiffEntry;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Loads the usage stats of the package shown by {@link AppInfoDashboardFragment}.
+ *
+ * <p>Every request runs concurrently on a background thread and its result is delivered on the
+ * main thread as soon as it is ready, so the stats show up independently of each other. The
+ * device wide data the stats are extracted from, the battery usage of every app and the process
+ * stats, is shared by every App info page while it is younger than
+ * {@link #SNAPSHOT_MAX_AGE_MILLIS}.
+ */
+class AppStatsAggregator {
+    private static final String TAG = "AppStatsAggregator";
+
+    @VisibleForTesting
+    static final long SNAPSHOT_MAX_AGE_MILLIS = 60_000;
+
+    @VisibleForTesting
+    static final SharedSnapshot<List<BatteryDiffEntry>> sBatteryUsageSnapshot =
+            new SharedSnapshot<>();
+    @VisibleForTesting
+    static final SharedSnapshot<ProcStatsData> sProcStatsSnapshot = new SharedSnapshot<>();
+
+    /** Receives the result of a request on the main thread. */
+    interface Callback<T> {
+        /** Called with the result, or {@code null} if the package has no such stats. */
+        void onResult(@Nullable T result);
+    }
+
+    /** Memory usage of the package, along with the process stats it is extracted from. */
+    static class MemoryUsage {
+        final ProcStatsData mStats;
+        final ProcStatsPackageEntry mEntry;
+
+        MemoryUsage(ProcStatsData stats, ProcStatsPackageEntry entry) {
+            mStats = stats;
+            mEntry = entry;
+        }
+    }
+
+    private final Context mContext;
+    private final String mPackageName;
+    private final int mUserId;
+    private final Executor mExecutor;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private volatile boolean mReleased;
+
+    AppStatsAggregator(Context context, String packageName) {
+        this(context, packageName, ThreadUtils::postOnBackgroundThread);
+    }
+
+    @VisibleForTesting
+    AppStatsAggregator(Context context, String packageName, Executor executor) {
+        mContext = context.getApplicationContext();
+        mPackageName = packageName;
+        mUserId = context.getUserId();
+        mExecutor = executor;
+    }
+
+    /** Loads the battery usage of the package since the last full charge. */
+    void requestBatteryDiffEntry(Callback<BatteryDiffEntry> callback) {
+        request(() -> BatteryChartPreferenceController.findAppBatteryUsageData(
+                sBatteryUsageSnapshot.get(
+                        () -> BatteryChartPreferenceController.getAppBatteryUsageData(mContext)),
+                mPackageName, mUserId), callback);
+    }
+
+    /** Loads the memory usage of the processes running as {@code uid}. */
+    void requestMemoryUsage(int uid, Callback<MemoryUsage> callback) {
+        request(() -> {
+            final ProcStatsData stats = sProcStatsSnapshot.get(() -> {
+                final ProcStatsData data = new ProcStatsData(mContext, false);
+                data.setDuration(ProcessStatsBase.sDurations[0]);
+                data.refreshStats(true);
+                return data;
+            });
+            final ProcStatsPackageEntry entry = findProcStatsEntry(stats, uid);
+            return entry == null ? null : new MemoryUsage(stats, entry);
+        }, callback);
+    }
+
+    /** Drops the results of the pending requests. */
+    void release() {
+        mReleased = true;
+        mMainHandler.removeCallbacksAndMessages(null);
+    }
+
+    private <T> void request(Supplier<T> loader, Callback<T> callback) {
+        if (mReleased) {
+            return;
+        }
+        mExecutor.execute(() -> {
+            if (mReleased) {
+                return;
+            }
+            T result = null;
+            try {
+                result = loader.get();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to load the stats of " + mPackageName, e);
+            }
+            final T finalResult = result;
+            mMainHandler.post(() -> {
+                if (!mReleased) {
+                    callback.onResult(finalResult);
+                }
+            });
+        });
+    }
+
+    private static ProcStatsPackageEntry findProcStatsEntry(@Nullable ProcStatsData stats,
+            int uid) {
+        if (stats == null) {
+            return null;
+        }
+        for (ProcStatsPackageEntry pkgEntry : stats.getEntries()) {
+            for (ProcStatsEntry entry : pkgEntry.getEntries()) {
+                if (entry.getUid() == uid) {
+                    // The entry is shared with the other App info pages.
+                    synchronized (pkgEntry) {
+                        pkgEntry.updateMetrics();
+                    }
+                    return pkgEntry;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Device wide data shared by the App info pages. Concurrent callers wait for a single load
+     * instead of each loading the data.
+     */
+    @VisibleForTesting
+    static class SharedSnapshot<T> {
+        @GuardedBy("this")
+        private T mValue;
+        @GuardedBy("this")
+        private long mLoadTime;
+
+        synchronized T get(Supplier<T> loader) {
+            final long now = SystemClock.elapsedRealtime();
+            if (mValue == null || now - mLoadTime > SNAPSHOT_MAX_AGE_MILLIS) {
+                mValue = loader.get();
+                mLoadTime = now;
+            }
+            return mValue;
+        }
+
+        synchronized void clear() {
+            mValue = null;
+        }
+    }
+}
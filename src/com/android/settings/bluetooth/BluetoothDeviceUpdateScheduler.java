@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.bluetooth;
+
+import android.bluetooth.BluetoothDevice;
+import android.view.Choreographer;
+
+import com.android.settingslib.bluetooth.CachedBluetoothDevice;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Batches device events so each device is processed at most once per frame.
+ *
+ * <p>While scanning, the event manager can report the same device many times in a row (found,
+ * name changed, bond state, ACL state...). Events are keyed by {@link BluetoothDevice}, only the
+ * latest {@link CachedBluetoothDevice} of each key is kept, and the pending devices are handed to
+ * the consumer in arrival order on the next frame. Must be used from the main thread.
+ */
+class BluetoothDeviceUpdateScheduler {
+
+    private final Consumer<CachedBluetoothDevice> mConsumer;
+    private final LinkedHashMap<BluetoothDevice, CachedBluetoothDevice> mPendingDevices =
+            new LinkedHashMap<>();
+    private final Choreographer.FrameCallback mFrameCallback = frameTimeNanos -> flush();
+    private Choreographer mChoreographer;
+    private boolean mScheduled;
+
+    BluetoothDeviceUpdateScheduler(Consumer<CachedBluetoothDevice> consumer) {
+        mConsumer = consumer;
+    }
+
+    /** Queues {@code cachedDevice} to be processed on the next frame. */
+    void schedule(CachedBluetoothDevice cachedDevice) {
+        mPendingDevices.put(cachedDevice.getDevice(), cachedDevice);
+        if (!mScheduled) {
+            mScheduled = true;
+            getChoreographer().postFrameCallback(mFrameCallback);
+        }
+    }
+
+    /**
+     * Drops the pending event of {@code cachedDevice}, used when the device is handled right away
+     * and the queued event would be outdated.
+     */
+    void cancel(CachedBluetoothDevice cachedDevice) {
+        mPendingDevices.remove(cachedDevice.getDevice());
+    }
+
+    /** Drops every pending event. */
+    void clear() {
+        mPendingDevices.clear();
+        if (mScheduled) {
+            mScheduled = false;
+            getChoreographer().removeFrameCallback(mFrameCallback);
+        }
+    }
+
+    /** Processes every pending event now. */
+    void flush() {
+        mScheduled = false;
+        if (mPendingDevices.isEmpty()) {
+            return;
+        }
+        final List<CachedBluetoothDevice> devices = new ArrayList<>(mPendingDevices.values());
+        mPendingDevices.clear();
+        for (CachedBluetoothDevice device : devices) {
+            mConsumer.accept(device);
+        }
+    }
+
+    boolean hasPendingUpdates() {
+        return !mPendingDevices.isEmpty();
+    }
+
+    private Choreographer getChoreographer() {
+        if (mChoreographer == null) {
+            mChoreographer = Choreographer.getInstance();
+        }
+        return mChoreographer;
+    }
+}
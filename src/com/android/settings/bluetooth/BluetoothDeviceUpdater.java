@@ -39,7 +39,9 @@ import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Update the bluetooth devices. It gets bluetooth event from {@link LocalBluetoothManager} using
@@ -61,6 +63,12 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
     protected DashboardFragment mFragment;
     @VisibleForTesting
     protected LocalBluetoothManager mLocalManager;
+    // Coalesces the bursts of per device events received while scanning.
+    @VisibleForTesting
+    final BluetoothDeviceUpdateScheduler mUpdateScheduler =
+            new BluetoothDeviceUpdateScheduler(this::update);
+    // Snapshot of the cached devices, only set while forceUpdate() iterates over them.
+    private Set<CachedBluetoothDevice> mCachedDevicesSnapshot;
 
     @VisibleForTesting
     final GearPreference.OnGearClickListener mDeviceProfilesListener = pref -> {
@@ -107,6 +115,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
         mLocalManager.setForegroundActivity(null);
         mLocalManager.getEventManager().unregisterCallback(this);
         mLocalManager.getProfileManager().removeServiceListener(this);
+        mUpdateScheduler.clear();
     }
 
     /**
@@ -117,11 +126,20 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
             Log.e(TAG, "forceUpdate() Bluetooth is not supported on this device");
             return;
         }
+        // Every cached device is updated below, including the ones with pending events.
+        mUpdateScheduler.clear();
         if (BluetoothAdapter.getDefaultAdapter().isEnabled()) {
             final Collection<CachedBluetoothDevice> cachedDevices =
                     mLocalManager.getCachedDeviceManager().getCachedDevicesCopy();
-            for (CachedBluetoothDevice cachedBluetoothDevice : cachedDevices) {
-                update(cachedBluetoothDevice);
+            // Filters check membership for each device, share one copy instead of taking one
+            // per check.
+            mCachedDevicesSnapshot = new HashSet<>(cachedDevices);
+            try {
+                for (CachedBluetoothDevice cachedBluetoothDevice : cachedDevices) {
+                    update(cachedBluetoothDevice);
+                }
+            } finally {
+                mCachedDevicesSnapshot = null;
             }
         } else {
           removeAllDevicesFromPreference();
@@ -133,6 +151,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
             Log.e(TAG, "removeAllDevicesFromPreference() BT is not supported on this device");
             return;
         }
+        mUpdateScheduler.clear();
         final Collection<CachedBluetoothDevice> cachedDevices =
                 mLocalManager.getCachedDeviceManager().getCachedDevicesCopy();
         for (CachedBluetoothDevice cachedBluetoothDevice : cachedDevices) {
@@ -151,7 +170,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
 
     @Override
     public void onDeviceAdded(CachedBluetoothDevice cachedDevice) {
-        update(cachedDevice);
+        mUpdateScheduler.schedule(cachedDevice);
     }
 
     @Override
@@ -159,12 +178,13 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
         // Used to combine the hearing aid entries just after pairing. Once both the hearing aids
         // get connected and their hiSyncId gets populated, this gets called for one of the
         // 2 hearing aids so that only one entry in the connected devices list will be seen.
+        mUpdateScheduler.cancel(cachedDevice);
         removePreference(cachedDevice);
     }
 
     @Override
     public void onDeviceBondStateChanged(CachedBluetoothDevice cachedDevice, int bondState) {
-        update(cachedDevice);
+        mUpdateScheduler.schedule(cachedDevice);
     }
 
     @Override
@@ -183,7 +203,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
             Log.d(TAG, "onAclConnectionStateChanged() device: " + cachedDevice.getName()
                     + ", state: " + state);
         }
-        update(cachedDevice);
+        mUpdateScheduler.schedule(cachedDevice);
     }
 
     @Override
@@ -328,6 +348,9 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
     }
 
     protected boolean isDeviceInCachedDevicesList(CachedBluetoothDevice cachedDevice){
+        if (mCachedDevicesSnapshot != null) {
+            return mCachedDevicesSnapshot.contains(cachedDevice);
+        }
         return mLocalManager.getCachedDeviceManager().getCachedDevicesCopy().contains(cachedDevice);
     }
 }
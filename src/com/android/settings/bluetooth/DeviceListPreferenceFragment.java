@@ -77,6 +77,11 @@ public abstract class DeviceListPreferenceFragment extends
 
     boolean mShowDevicesWithoutNames;
 
+    // Coalesces the bursts of device added events received while scanning.
+    @VisibleForTesting
+    final BluetoothDeviceUpdateScheduler mUpdateScheduler =
+            new BluetoothDeviceUpdateScheduler(this::addDevice);
+
     DeviceListPreferenceFragment(String restrictedKey) {
         super(restrictedKey);
         mFilter = BluetoothDeviceFilter.ALL_FILTER;
@@ -133,6 +138,7 @@ public abstract class DeviceListPreferenceFragment extends
     }
 
     void removeAllDevices() {
+        mUpdateScheduler.clear();
         mDevicePreferenceMap.clear();
         mDeviceListGroup.removeAll();
     }
@@ -141,7 +147,9 @@ public abstract class DeviceListPreferenceFragment extends
         Collection<CachedBluetoothDevice> cachedDevices =
                 mLocalManager.getCachedDeviceManager().getCachedDevicesCopy();
         for (CachedBluetoothDevice cachedDevice : cachedDevices) {
-            onDeviceAdded(cachedDevice);
+            // Added right away, with the filter set by the caller.
+            mUpdateScheduler.cancel(cachedDevice);
+            addDevice(cachedDevice);
         }
     }
 
@@ -170,6 +178,10 @@ public abstract class DeviceListPreferenceFragment extends
 
     @Override
     public void onDeviceAdded(CachedBluetoothDevice cachedDevice) {
+        mUpdateScheduler.schedule(cachedDevice);
+    }
+
+    private void addDevice(CachedBluetoothDevice cachedDevice) {
         if (mDevicePreferenceMap.get(cachedDevice) != null) {
             return;
         }
@@ -220,6 +232,7 @@ public abstract class DeviceListPreferenceFragment extends
 
     @Override
     public void onDeviceDeleted(CachedBluetoothDevice cachedDevice) {
+        mUpdateScheduler.cancel(cachedDevice);
         BluetoothDevicePreference preference = mDevicePreferenceMap.remove(cachedDevice);
         if (preference != null) {
             mDeviceListGroup.removePreference(preference);
@@ -28,6 +28,7 @@ import android.text.TextUtils;
 import android.util.Log;
 
 import com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag;
+import com.android.settings.core.instrumentation.ControllerTimingRecorder;
 import com.android.settingslib.core.AbstractPreferenceController;
 
 import org.xmlpull.v1.XmlPullParserException;
@@ -62,36 +63,49 @@ public class PreferenceControllerListHelper {
             return controllers;
         }
 
+        final ControllerTimingRecorder recorder = ControllerTimingRecorder.getInstance();
         for (Bundle metadata : preferenceMetadata) {
             final String controllerName = metadata.getString(METADATA_CONTROLLER);
             if (TextUtils.isEmpty(controllerName)) {
                 continue;
             }
-            BasePreferenceController controller;
-            try {
-                controller = BasePreferenceController.createInstance(context, controllerName);
-            } catch (IllegalStateException e) {
-                Log.d(TAG, "Could not find Context-only controller for pref: " + controllerName);
-                final String key = metadata.getString(METADATA_KEY);
-                final boolean isWorkProfile = metadata.getBoolean(METADATA_FOR_WORK, false);
-                if (TextUtils.isEmpty(key)) {
-                    Log.w(TAG, "Controller requires key but it's not defined in xml: "
-                            + controllerName);
-                    continue;
-                }
-                try {
-                    controller = BasePreferenceController.createInstance(context, controllerName,
-                            key, isWorkProfile);
-                } catch (IllegalStateException e2) {
-                    Log.w(TAG, "Cannot instantiate controller from reflection: " + controllerName);
-                    continue;
-                }
+            final long token = recorder.begin(ControllerTimingRecorder.PHASE_CREATE,
+                    controllerName);
+            final BasePreferenceController controller =
+                    createController(context, controllerName, metadata);
+            recorder.end(ControllerTimingRecorder.PHASE_CREATE, controllerName, token);
+            if (controller != null) {
+                controllers.add(controller);
             }
-            controllers.add(controller);
         }
         return controllers;
     }
 
+    private static BasePreferenceController createController(Context context,
+            String controllerName, Bundle metadata) {
+        BasePreferenceController controller;
+        try {
+            controller = BasePreferenceController.createInstance(context, controllerName);
+        } catch (IllegalStateException e) {
+            Log.d(TAG, "Could not find Context-only controller for pref: " + controllerName);
+            final String key = metadata.getString(METADATA_KEY);
+            final boolean isWorkProfile = metadata.getBoolean(METADATA_FOR_WORK, false);
+            if (TextUtils.isEmpty(key)) {
+                Log.w(TAG, "Controller requires key but it's not defined in xml: "
+                        + controllerName);
+                return null;
+            }
+            try {
+                controller = BasePreferenceController.createInstance(context, controllerName,
+                        key, isWorkProfile);
+            } catch (IllegalStateException e2) {
+                Log.w(TAG, "Cannot instantiate controller from reflection: " + controllerName);
+                return null;
+            }
+        }
+        return controller;
+    }
+
     /**
      * Return a sub list of {@link AbstractPreferenceController} to only contain controller that
      * doesn't exist in filter.
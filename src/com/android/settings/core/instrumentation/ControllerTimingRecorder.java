@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core.instrumentation;
+
+import android.os.SystemClock;
+import android.os.SystemProperties;
+import android.os.Trace;
+import android.util.ArrayMap;
+
+import androidx.annotation.VisibleForTesting;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Map;
+
+/**
+ * Records how long each preference controller spends in its lifecycle callbacks.
+ *
+ * <p>Disabled by default, enable it with {@code adb shell setprop debug.settings.controller_timing
+ * true} and restart Settings. While enabled every measured call is also emitted as a
+ * {@link Trace} section, and the aggregated timings are part of {@code dumpsys activity service
+ * SettingsDumpService}.
+ */
+public class ControllerTimingRecorder {
+
+    @VisibleForTesting
+    static final String PROPERTY_ENABLED = "debug.settings.controller_timing";
+
+    public static final int PHASE_CREATE = 0;
+    public static final int PHASE_IS_AVAILABLE = 1;
+    public static final int PHASE_DISPLAY_PREFERENCE = 2;
+    public static final int PHASE_UPDATE_STATE = 3;
+    private static final String[] PHASE_NAMES =
+            {"create", "isAvailable", "displayPreference", "updateState"};
+
+    // Bucket i counts calls that took less than 2^i microseconds, the last bucket the rest.
+    @VisibleForTesting
+    static final int BUCKET_COUNT = 16;
+    // Trace section names longer than this are rejected by the framework.
+    private static final int MAX_SECTION_NAME_LENGTH = 127;
+    private static final long NOT_RECORDING = -1L;
+
+    private static ControllerTimingRecorder sInstance;
+
+    private final boolean mEnabled;
+    private final Map<String, PhaseStats[]> mStats = new ArrayMap<>();
+
+    /** Returns the process wide recorder. */
+    public static synchronized ControllerTimingRecorder getInstance() {
+        if (sInstance == null) {
+            sInstance = new ControllerTimingRecorder(
+                    SystemProperties.getBoolean(PROPERTY_ENABLED, false));
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    ControllerTimingRecorder(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * Starts measuring {@code phase} of {@code controllerName}.
+     *
+     * @return a token to pass to {@link #end}.
+     */
+    public long begin(int phase, String controllerName) {
+        if (!mEnabled) {
+            return NOT_RECORDING;
+        }
+        String sectionName = getSimpleName(controllerName) + "#" + PHASE_NAMES[phase];
+        if (sectionName.length() > MAX_SECTION_NAME_LENGTH) {
+            sectionName = sectionName.substring(0, MAX_SECTION_NAME_LENGTH);
+        }
+        Trace.beginSection(sectionName);
+        return SystemClock.elapsedRealtimeNanos();
+    }
+
+    /** Stops measuring a call started by {@link #begin}. */
+    public void end(int phase, String controllerName, long token) {
+        if (token == NOT_RECORDING) {
+            return;
+        }
+        final long durationNanos = SystemClock.elapsedRealtimeNanos() - token;
+        Trace.endSection();
+        record(phase, controllerName, durationNanos);
+    }
+
+    @VisibleForTesting
+    synchronized void record(int phase, String controllerName, long durationNanos) {
+        PhaseStats[] phases = mStats.get(controllerName);
+        if (phases == null) {
+            phases = new PhaseStats[PHASE_NAMES.length];
+            mStats.put(controllerName, phases);
+        }
+        if (phases[phase] == null) {
+            phases[phase] = new PhaseStats();
+        }
+        phases[phase].add(durationNanos);
+    }
+
+    /** Drops every recorded timing. */
+    public synchronized void reset() {
+        mStats.clear();
+    }
+
+    /**
+     * Returns the recorded timings, one entry per controller sorted by total time spent, slowest
+     * first.
+     */
+    public synchronized JSONObject dump() throws JSONException {
+        final JSONObject obj = new JSONObject();
+        obj.put("enabled", mEnabled);
+        final JSONArray controllers = new JSONArray();
+        mStats.entrySet().stream()
+                .sorted((a, b) -> Long.compare(getTotalNanos(b.getValue()),
+                        getTotalNanos(a.getValue())))
+                .forEach(entry -> {
+                    try {
+                        controllers.put(dumpController(entry.getKey(), entry.getValue()));
+                    } catch (JSONException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+        obj.put("controllers", controllers);
+        return obj;
+    }
+
+    private static JSONObject dumpController(String name, PhaseStats[] phases)
+            throws JSONException {
+        final JSONObject obj = new JSONObject();
+        obj.put("name", name);
+        for (int i = 0; i < phases.length; i++) {
+            final PhaseStats stats = phases[i];
+            if (stats == null) {
+                continue;
+            }
+            final JSONObject phaseObj = new JSONObject();
+            phaseObj.put("count", stats.mCount);
+            phaseObj.put("total_us", stats.mTotalNanos / 1000);
+            phaseObj.put("max_us", stats.mMaxNanos / 1000);
+            final JSONArray buckets = new JSONArray();
+            for (int count : stats.mBuckets) {
+                buckets.put(count);
+            }
+            phaseObj.put("histogram_log2_us", buckets);
+            obj.put(PHASE_NAMES[i], phaseObj);
+        }
+        return obj;
+    }
+
+    private static long getTotalNanos(PhaseStats[] phases) {
+        long total = 0;
+        for (PhaseStats stats : phases) {
+            if (stats != null) {
+                total += stats.mTotalNanos;
+            }
+        }
+        return total;
+    }
+
+    private static String getSimpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    @VisibleForTesting
+    static int getBucket(long durationNanos) {
+        final long micros = durationNanos / 1000;
+        final int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    private static class PhaseStats {
+        final int[] mBuckets = new int[BUCKET_COUNT];
+        int mCount;
+        long mTotalNanos;
+        long mMaxNanos;
+
+        void add(long durationNanos) {
+            mCount++;
+            mTotalNanos += durationNanos;
+            mMaxNanos = Math.max(mMaxNanos, durationNanos);
+            mBuckets[getBucket(durationNanos)]++;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core.instrumentation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size, preallocated ring buffer holding metric events as primitive records.
+ *
+ * <p>Any thread may call {@link #offer}, slots are claimed with a CAS on the write sequence so
+ * producers never block. Only one thread may call {@link #drain}. When the buffer is full new
+ * events are dropped and counted instead of growing the buffer.
+ */
+class LogEventRingBuffer {
+
+    /** Receives the events stored in the buffer, in insertion order. */
+    interface EventConsumer {
+        void accept(long timestampMillis, int attribution, int action, int pageId, String key,
+                int value);
+    }
+
+    private final int mCapacity;
+    private final int mMask;
+    private final long[] mTimestamps;
+    private final int[] mAttributions;
+    private final int[] mActions;
+    private final int[] mPageIds;
+    private final int[] mValues;
+    private final String[] mKeys;
+    // Sequence number of the event stored in each slot, or -1 if the slot is not published yet.
+    private final AtomicLongArray mPublished;
+    private final AtomicLong mWriteSequence = new AtomicLong();
+    private final AtomicLong mDroppedCount = new AtomicLong();
+    private volatile long mReadSequence;
+
+    /**
+     * @param capacity the number of events the buffer can hold, rounded up to a power of two.
+     */
+    LogEventRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int roundedCapacity = 1;
+        while (roundedCapacity < capacity) {
+            roundedCapacity <<= 1;
+        }
+        mCapacity = roundedCapacity;
+        mMask = mCapacity - 1;
+        mTimestamps = new long[mCapacity];
+        mAttributions = new int[mCapacity];
+        mActions = new int[mCapacity];
+        mPageIds = new int[mCapacity];
+        mValues = new int[mCapacity];
+        mKeys = new String[mCapacity];
+        mPublished = new AtomicLongArray(mCapacity);
+        for (int i = 0; i < mCapacity; i++) {
+            mPublished.set(i, -1);
+        }
+    }
+
+    /**
+     * Stores an event in the buffer.
+     *
+     * @return {@code false} if the buffer is full and the event was dropped.
+     */
+    boolean offer(long timestampMillis, int attribution, int action, int pageId, String key,
+            int value) {
+        long sequence;
+        do {
+            sequence = mWriteSequence.get();
+            if (sequence - mReadSequence >= mCapacity) {
+                mDroppedCount.incrementAndGet();
+                return false;
+            }
+        } while (!mWriteSequence.compareAndSet(sequence, sequence + 1));
+
+        final int index = (int) (sequence & mMask);
+        mTimestamps[index] = timestampMillis;
+        mAttributions[index] = attribution;
+        mActions[index] = action;
+        mPageIds[index] = pageId;
+        mKeys[index] = key;
+        mValues[index] = value;
+        // Volatile write, makes the fields above visible to the draining thread.
+        mPublished.set(index, sequence);
+        return true;
+    }
+
+    /**
+     * Hands every published event to {@code consumer} and frees its slot. Must only be called
+     * from a single thread.
+     *
+     * @return the number of drained events.
+     */
+    int drain(EventConsumer consumer) {
+        long sequence = mReadSequence;
+        int count = 0;
+        while (true) {
+            final int index = (int) (sequence & mMask);
+            if (mPublished.get(index) != sequence) {
+                break;
+            }
+            consumer.accept(mTimestamps[index], mAttributions[index], mActions[index],
+                    mPageIds[index], mKeys[index], mValues[index]);
+            mKeys[index] = null;
+            sequence++;
+            count++;
+            mReadSequence = sequence;
+        }
+        return count;
+    }
+
+    /** Returns the number of events claimed but not drained yet. */
+    int size() {
+        return (int) (mWriteSequence.get() - mReadSequence);
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    int capacity() {
+        return mCapacity;
+    }
+
+    /** Returns the number of events dropped because the buffer was full. */
+    long getDroppedCount() {
+        return mDroppedCount.get();
+    }
+}
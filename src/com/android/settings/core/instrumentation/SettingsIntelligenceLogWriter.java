@@ -23,6 +23,7 @@ import android.os.Handler;
 import android.os.HandlerThread;
 import android.os.Looper;
 import android.os.Process;
+import android.os.SystemClock;
 import android.os.UserHandle;
 import android.text.TextUtils;
 import android.text.format.DateUtils;
@@ -36,11 +37,14 @@ import com.android.settings.intelligence.LogProto.SettingsLog;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.core.instrumentation.LogWriter;
 
+import org.json.JSONException;
+import org.json.JSONObject;
+
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
+import java.time.Instant;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 public class SettingsIntelligenceLogWriter implements LogWriter {
@@ -51,11 +55,33 @@ public class SettingsIntelligenceLogWriter implements LogWriter {
     // Based on the exp, 99.5% users collect less than 150 data in 1 minute.
     private static final int CACHE_LOG_THRESHOLD = 150;
 
-    private List<SettingsLog> mSettingsLogList;
+    // Leaves room for events logged while a flush triggered by the threshold is pending.
+    private static final int EVENT_BUFFER_CAPACITY = 256;
+
+    private final LogEventRingBuffer mEventBuffer;
+    // Only touched from the worker thread while flushing.
+    private final List<SettingsLog> mPendingLogs = new ArrayList<>();
+    private final ByteArrayOutputStream mOutputBuffer = new ByteArrayOutputStream();
+    private final SettingsLog.Builder mLogBuilder = SettingsLog.newBuilder();
+    private final LogEventRingBuffer.EventConsumer mEventConsumer =
+            (timestampMillis, attribution, action, pageId, key, value) -> {
+                mPendingLogs.add(mLogBuilder.clear()
+                        .setAttribution(attribution)
+                        .setAction(action)
+                        .setPageId(pageId)
+                        .setChangedPreferenceKey(key)
+                        .setChangedPreferenceIntValue(value)
+                        .setTimestamp(Instant.ofEpochMilli(timestampMillis)
+                                .atZone(ZoneId.systemDefault()).toString())
+                        .build());
+            };
     private SendLogHandler mLogHandler;
+    private volatile long mLastFlushLatencyMillis;
+    private volatile long mMaxFlushLatencyMillis;
+    private long mReportedDroppedCount;
 
     public SettingsIntelligenceLogWriter() {
-        mSettingsLogList = new LinkedList<>();
+        mEventBuffer = new LogEventRingBuffer(EVENT_BUFFER_CAPACITY);
         final HandlerThread workerThread = new HandlerThread("SettingsIntelligenceLogWriter",
                 Process.THREAD_PRIORITY_BACKGROUND);
         workerThread.start();
@@ -118,20 +144,10 @@ public class SettingsIntelligenceLogWriter implements LogWriter {
 
     @Override
     public void action(int attribution, int action, int pageId, String key, int value) {
-        final ZonedDateTime now = ZonedDateTime.now(ZoneId.systemDefault());
-        final SettingsLog settingsLog = SettingsLog.newBuilder()
-                .setAttribution(attribution)
-                .setAction(action)
-                .setPageId(pageId)
-                .setChangedPreferenceKey(key != null ? key : "")
-                .setChangedPreferenceIntValue(value)
-                .setTimestamp(now.toString())
-                .build();
-        mLogHandler.post(() -> {
-            mSettingsLogList.add(settingsLog);
-        });
+        mEventBuffer.offer(System.currentTimeMillis(), attribution, action, pageId,
+                key != null ? key : "", value);
         if (action == SettingsEnums.ACTION_CONTEXTUAL_CARD_DISMISS
-                || mSettingsLogList.size() >= CACHE_LOG_THRESHOLD) {
+                || mEventBuffer.size() >= CACHE_LOG_THRESHOLD) {
             // Directly send this event to notify SI instantly that the card is dismissed
             mLogHandler.sendLog();
         } else {
@@ -139,29 +155,84 @@ public class SettingsIntelligenceLogWriter implements LogWriter {
         }
     }
 
+    /** Returns the number of events dropped because the event buffer was full. */
+    long getDroppedEventCount() {
+        return mEventBuffer.getDroppedCount();
+    }
+
+    /** Returns the time spent encoding and sending the last batch of events. */
+    long getLastFlushLatencyMillis() {
+        return mLastFlushLatencyMillis;
+    }
+
+    /** Returns the longest time spent encoding and sending a batch of events. */
+    long getMaxFlushLatencyMillis() {
+        return mMaxFlushLatencyMillis;
+    }
+
+    /** Returns the state of the event buffer and of the flushes, for dumpsys. */
+    public JSONObject dump() throws JSONException {
+        final JSONObject obj = new JSONObject();
+        obj.put("buffer_capacity", mEventBuffer.capacity());
+        obj.put("buffered_events", mEventBuffer.size());
+        obj.put("dropped_events", getDroppedEventCount());
+        obj.put("last_flush_latency_ms", getLastFlushLatencyMillis());
+        obj.put("max_flush_latency_ms", getMaxFlushLatencyMillis());
+        return obj;
+    }
+
     @VisibleForTesting
     static byte[] serialize(List<SettingsLog> settingsLogs) {
+        return serialize(settingsLogs, new ByteArrayOutputStream());
+    }
+
+    /**
+     * Writes {@code settingsLogs} into {@code bout}, which is reset first so the same stream can
+     * be reused across flushes.
+     */
+    @VisibleForTesting
+    static byte[] serialize(List<SettingsLog> settingsLogs, ByteArrayOutputStream bout) {
+        bout.reset();
         final int size = settingsLogs.size();
-        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
         final DataOutputStream output = new DataOutputStream(bout);
         // The data format is "size, length, byte array, length, byte array ..."
         try {
             output.writeInt(size);
             for (SettingsLog settingsLog : settingsLogs) {
-                final byte[] data = settingsLog.toByteArray();
-                output.writeInt(data.length);
-                output.write(data);
+                output.writeInt(settingsLog.getSerializedSize());
+                settingsLog.writeTo(output);
             }
+            output.flush();
             return bout.toByteArray();
         } catch (Exception e) {
             Log.e(TAG, "serialize error", e);
             return null;
-        } finally {
-            try {
-                output.close();
-            } catch (Exception e) {
-                Log.e(TAG, "close error", e);
-            }
+        }
+    }
+
+    private void flushEvents(Context context, String action) {
+        final long startTime = SystemClock.elapsedRealtime();
+        mPendingLogs.clear();
+        mEventBuffer.drain(mEventConsumer);
+        if (mPendingLogs.isEmpty()) {
+            return;
+        }
+        final Intent intent = new Intent();
+        intent.setPackage(context.getString(R.string
+                .config_settingsintelligence_package_name));
+        intent.setAction(action);
+        intent.putExtra(LOG, serialize(mPendingLogs, mOutputBuffer));
+        context.sendBroadcastAsUser(intent, UserHandle.CURRENT);
+        mPendingLogs.clear();
+
+        final long latency = SystemClock.elapsedRealtime() - startTime;
+        mLastFlushLatencyMillis = latency;
+        mMaxFlushLatencyMillis = Math.max(mMaxFlushLatencyMillis, latency);
+        final long droppedCount = mEventBuffer.getDroppedCount();
+        if (droppedCount != mReportedDroppedCount) {
+            Log.w(TAG, "Dropped " + (droppedCount - mReportedDroppedCount)
+                    + " events since last flush, buffer capacity " + mEventBuffer.capacity());
+            mReportedDroppedCount = droppedCount;
         }
     }
 
@@ -190,14 +261,8 @@ public class SettingsIntelligenceLogWriter implements LogWriter {
         }
         final String action = context.getString(R.string
                 .config_settingsintelligence_log_action);
-        if (!TextUtils.isEmpty(action) && !mSettingsLogList.isEmpty()) {
-            final Intent intent = new Intent();
-            intent.setPackage(context.getString(R.string
-                    .config_settingsintelligence_package_name));
-            intent.setAction(action);
-            intent.putExtra(LOG, serialize(mSettingsLogList));
-            context.sendBroadcastAsUser(intent, UserHandle.CURRENT);
-            mSettingsLogList.clear();
+        if (!TextUtils.isEmpty(action) && !mEventBuffer.isEmpty()) {
+            flushEvents(context, action);
         }
     };
 }
@@ -20,8 +20,12 @@ import android.content.Context;
 import android.util.Log;
 import android.util.Pair;
 
+import com.android.settingslib.core.instrumentation.LogWriter;
 import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
 
+import org.json.JSONException;
+import org.json.JSONObject;
+
 public class SettingsMetricsFeatureProvider extends MetricsFeatureProvider {
     private static final String TAG = "SettingsMetricsFeature";
 
@@ -32,6 +36,17 @@ public class SettingsMetricsFeatureProvider extends MetricsFeatureProvider {
         mLoggerWriters.add(new SettingsIntelligenceLogWriter());
     }
 
+    /** Returns the state of the log writers that keep any, for dumpsys. */
+    public JSONObject dump() throws JSONException {
+        final JSONObject obj = new JSONObject();
+        for (LogWriter writer : mLoggerWriters) {
+            if (writer instanceof SettingsIntelligenceLogWriter) {
+                obj.put("intelligence", ((SettingsIntelligenceLogWriter) writer).dump());
+            }
+        }
+        return obj;
+    }
+
     /**
      * @deprecated Use {@link #action(int, int, int, String, int)} instead.
      */
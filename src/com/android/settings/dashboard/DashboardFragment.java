@@ -39,6 +39,7 @@ import com.android.settings.core.BasePreferenceController;
 import com.android.settings.core.CategoryMixin.CategoryHandler;
 import com.android.settings.core.CategoryMixin.CategoryListener;
 import com.android.settings.core.PreferenceControllerListHelper;
+import com.android.settings.core.instrumentation.ControllerTimingRecorder;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.PrimarySwitchPreference;
 import com.android.settingslib.core.AbstractPreferenceController;
@@ -347,8 +348,15 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
      * on all {@link AbstractPreferenceController}s.
      */
     protected void displayResourceTilesToScreen(PreferenceScreen screen) {
+        final ControllerTimingRecorder recorder = ControllerTimingRecorder.getInstance();
         mPreferenceControllers.values().stream().flatMap(Collection::stream).forEach(
-                controller -> controller.displayPreference(screen));
+                controller -> {
+                    final String name = controller.getClass().getName();
+                    final long token = recorder.begin(
+                            ControllerTimingRecorder.PHASE_DISPLAY_PREFERENCE, name);
+                    controller.displayPreference(screen);
+                    recorder.end(ControllerTimingRecorder.PHASE_DISPLAY_PREFERENCE, name, token);
+                });
     }
 
     /**
@@ -363,11 +371,16 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
      */
     protected void updatePreferenceStates() {
         final PreferenceScreen screen = getPreferenceScreen();
+        final ControllerTimingRecorder recorder = ControllerTimingRecorder.getInstance();
         Collection<List<AbstractPreferenceController>> controllerLists =
                 mPreferenceControllers.values();
         for (List<AbstractPreferenceController> controllerList : controllerLists) {
             for (AbstractPreferenceController controller : controllerList) {
-                if (!controller.isAvailable()) {
+                final String name = controller.getClass().getName();
+                long token = recorder.begin(ControllerTimingRecorder.PHASE_IS_AVAILABLE, name);
+                final boolean available = controller.isAvailable();
+                recorder.end(ControllerTimingRecorder.PHASE_IS_AVAILABLE, name, token);
+                if (!available) {
                     continue;
                 }
 
@@ -384,7 +397,9 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
                             key, controller.getClass().getSimpleName()));
                     continue;
                 }
+                token = recorder.begin(ControllerTimingRecorder.PHASE_UPDATE_STATE, name);
                 controller.updateState(preference);
+                recorder.end(ControllerTimingRecorder.PHASE_UPDATE_STATE, name, token);
             }
         }
     }
@@ -16,7 +16,6 @@
 
 package com.android.settings.datetime.timezone;
 
-import android.icu.text.BreakIterator;
 import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -33,7 +32,6 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.android.settings.R;
 import com.android.settings.datetime.timezone.BaseTimeZonePicker.OnListItemClickListener;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
@@ -225,14 +223,14 @@ public class BaseTimeZoneAdapter<T extends BaseTimeZoneAdapter.AdapterItem>
      * a prefix. Each item that does not start with the supplied prefix
      * is removed from the list.</p>
      *
-     * The filtering operation is not optimized, due to small data size (~260 regions),
-     * require additional pre-processing. Potentially, a trie structure can be used to match
-     * prefixes of the search keys.
+     * The prefix is looked up in a {@link TimeZoneSearchIndex} of the search keys, built on the
+     * first search and shared with the other pickers listing the same items.
      */
     @VisibleForTesting
     public class ArrayFilter extends Filter {
 
-        private BreakIterator mBreakIterator = BreakIterator.getWordInstance(mLocale);
+        private final TimeZoneSearchIndex.Cursor mCursor = new TimeZoneSearchIndex.Cursor();
+        private TimeZoneSearchIndex mSearchIndex;
 
         @WorkerThread
         @Override
@@ -241,32 +239,10 @@ public class BaseTimeZoneAdapter<T extends BaseTimeZoneAdapter.AdapterItem>
             if (TextUtils.isEmpty(prefix)) {
                 newItems = mOriginalItems;
             } else {
-                final String prefixString = prefix.toString().toLowerCase(mLocale);
-                newItems = new ArrayList<>();
-
-                for (T item : mOriginalItems) {
-                    outer:
-                    for (String searchKey : item.getSearchKeys()) {
-                        searchKey = searchKey.toLowerCase(mLocale);
-                        // First match against the whole, non-splitted value
-                        if (searchKey.startsWith(prefixString)) {
-                            newItems.add(item);
-                            break outer;
-                        } else {
-                            mBreakIterator.setText(searchKey);
-                            for (int wordStart = 0, wordLimit = mBreakIterator.next();
-                                    wordLimit != BreakIterator.DONE;
-                                    wordStart = wordLimit,
-                                            wordLimit = mBreakIterator.next()) {
-                                if (mBreakIterator.getRuleStatus() != BreakIterator.WORD_NONE
-                                        && searchKey.startsWith(prefixString, wordStart)) {
-                                    newItems.add(item);
-                                    break outer;
-                                }
-                            }
-                        }
-                    }
+                if (mSearchIndex == null) {
+                    mSearchIndex = TimeZoneSearchIndex.get(mLocale, mOriginalItems);
                 }
+                newItems = mSearchIndex.search(mCursor, prefix, mOriginalItems);
             }
 
             final FilterResults results = new FilterResults();
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.datetime.timezone;
+
+import android.icu.text.BreakIterator;
+import android.icu.text.Transliterator;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix index over the search keys of the items of a {@link BaseTimeZoneAdapter}.
+ *
+ * <p>Every search key is indexed from its start and from the start of each of its words, after
+ * being folded: lower cased, without accents, and also transliterated to Latin when written in
+ * another script, e.g. "Zürich" is found by "zur" and "Москва" by "mosk". The folded keys are
+ * kept sorted, so the keys starting with a prefix are contiguous and found with two binary
+ * searches. A {@link Cursor} remembers the last match, so that typing one more character only
+ * searches the previous match.
+ *
+ * <p>Indexes are immutable and shared by the pickers listing the same search keys.
+ */
+class TimeZoneSearchIndex {
+    private static final String TAG = "TimeZoneSearchIndex";
+
+    private static final int CACHE_SIZE = 4;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final LruCache<CacheKey, TimeZoneSearchIndex> sCache =
+            new LruCache<>(CACHE_SIZE);
+
+    private final Locale mLocale;
+    /** Sorted folded keys, and the index of the item each of them belongs to. */
+    private final String[] mKeys;
+    private final int[] mItemIndices;
+    private final int mItemCount;
+
+    /** The range of the keys matching the last prefix searched. */
+    static class Cursor {
+        private String mPrefix;
+        private int mStart;
+        private int mEnd;
+    }
+
+    /**
+     * Returns the index of the search keys of {@code items}, building it if no picker listed the
+     * same keys recently.
+     */
+    @WorkerThread
+    static TimeZoneSearchIndex get(Locale locale,
+            List<? extends BaseTimeZoneAdapter.AdapterItem> items) {
+        final CacheKey key = new CacheKey(locale, items);
+        TimeZoneSearchIndex index = sCache.get(key);
+        if (index == null) {
+            index = new TimeZoneSearchIndex(locale, key.mSearchKeys);
+            sCache.put(key, index);
+        }
+        return index;
+    }
+
+    @VisibleForTesting
+    static void clearCache() {
+        sCache.evictAll();
+    }
+
+    private TimeZoneSearchIndex(Locale locale, List<List<String>> searchKeys) {
+        mLocale = locale;
+        mItemCount = searchKeys.size();
+        final Transliterator transliterator = createTransliterator();
+        final BreakIterator breakIterator = BreakIterator.getWordInstance(locale);
+        final List<Entry> entries = new ArrayList<>();
+        for (int item = 0; item < mItemCount; item++) {
+            for (String searchKey : searchKeys.get(item)) {
+                final String lowerCaseKey = searchKey.toLowerCase(locale);
+                addEntries(entries, lowerCaseKey, item, transliterator);
+                breakIterator.setText(lowerCaseKey);
+                for (int wordStart = 0, wordLimit = breakIterator.next();
+                        wordLimit != BreakIterator.DONE;
+                        wordStart = wordLimit, wordLimit = breakIterator.next()) {
+                    if (wordStart > 0 && breakIterator.getRuleStatus() != BreakIterator.WORD_NONE) {
+                        addEntries(entries, lowerCaseKey.substring(wordStart), item,
+                                transliterator);
+                    }
+                }
+            }
+        }
+        Collections.sort(entries);
+        mKeys = new String[entries.size()];
+        mItemIndices = new int[entries.size()];
+        for (int i = 0; i < mKeys.length; i++) {
+            mKeys[i] = entries.get(i).mKey;
+            mItemIndices[i] = entries.get(i).mItem;
+        }
+    }
+
+    /**
+     * Returns the items with a search key, or a word of a search key, starting with
+     * {@code prefix}, in their original order. {@code cursor} is narrowed to the matching keys.
+     */
+    <T> List<T> search(Cursor cursor, CharSequence prefix, List<T> items) {
+        final String foldedPrefix = fold(prefix.toString().toLowerCase(mLocale));
+        if (cursor.mPrefix == null || !foldedPrefix.startsWith(cursor.mPrefix)) {
+            cursor.mStart = 0;
+            cursor.mEnd = mKeys.length;
+        }
+        cursor.mStart = lowerBound(foldedPrefix, cursor.mStart, cursor.mEnd);
+        cursor.mEnd = prefixEnd(foldedPrefix, cursor.mStart, cursor.mEnd);
+        cursor.mPrefix = foldedPrefix;
+
+        final BitSet matches = new BitSet(mItemCount);
+        for (int i = cursor.mStart; i < cursor.mEnd; i++) {
+            matches.set(mItemIndices[i]);
+        }
+        final List<T> result = new ArrayList<>(matches.cardinality());
+        for (int item = matches.nextSetBit(0); item >= 0; item = matches.nextSetBit(item + 1)) {
+            result.add(items.get(item));
+        }
+        return result;
+    }
+
+    /** Returns the first key in [start, end) not smaller than {@code prefix}. */
+    private int lowerBound(String prefix, int start, int end) {
+        while (start < end) {
+            final int middle = (start + end) >>> 1;
+            if (mKeys[middle].compareTo(prefix) < 0) {
+                start = middle + 1;
+            } else {
+                end = middle;
+            }
+        }
+        return start;
+    }
+
+    /** Returns the first key in [start, end) not starting with {@code prefix}. */
+    private int prefixEnd(String prefix, int start, int end) {
+        while (start < end) {
+            final int middle = (start + end) >>> 1;
+            if (mKeys[middle].startsWith(prefix)) {
+                start = middle + 1;
+            } else {
+                end = middle;
+            }
+        }
+        return start;
+    }
+
+    private static void addEntries(List<Entry> entries, String lowerCaseKey, int item,
+            Transliterator transliterator) {
+        final String folded = fold(lowerCaseKey);
+        entries.add(new Entry(folded, item));
+        if (transliterator != null) {
+            final String transliterated = fold(transliterator.transliterate(lowerCaseKey));
+            if (!transliterated.equals(folded)) {
+                entries.add(new Entry(transliterated, item));
+            }
+        }
+    }
+
+    /** Removes the accents of a lower cased string, so that "é" is searched as "e". */
+    @VisibleForTesting
+    static String fold(String lowerCaseString) {
+        return COMBINING_MARKS.matcher(
+                Normalizer.normalize(lowerCaseString, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    private static Transliterator createTransliterator() {
+        try {
+            return Transliterator.getInstance("Any-Latin; Latin-ASCII; Lower");
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Transliteration to Latin is not available", e);
+            return null;
+        }
+    }
+
+    private static class Entry implements Comparable<Entry> {
+        final String mKey;
+        final int mItem;
+
+        Entry(String key, int item) {
+            mKey = key;
+            mItem = item;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return mKey.compareTo(other.mKey);
+        }
+    }
+
+    /** Indexes are shared by the item lists with the same search keys, in the same order. */
+    private static class CacheKey {
+        final Locale mLocale;
+        final List<List<String>> mSearchKeys;
+        private final int mHashCode;
+
+        CacheKey(Locale locale, List<? extends BaseTimeZoneAdapter.AdapterItem> items) {
+            mLocale = locale;
+            mSearchKeys = new ArrayList<>(items.size());
+            for (BaseTimeZoneAdapter.AdapterItem item : items) {
+                final String[] keys = item.getSearchKeys();
+                mSearchKeys.add(keys == null
+                        ? Collections.emptyList() : Arrays.asList(keys.clone()));
+            }
+            mHashCode = Objects.hash(mLocale, mSearchKeys);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            final CacheKey other = (CacheKey) o;
+            return mLocale.equals(other.mLocale) && mSearchKeys.equals(other.mSearchKeys);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+}
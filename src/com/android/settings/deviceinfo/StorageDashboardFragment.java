@@ -106,6 +106,7 @@ public class StorageDashboardFragment extends DashboardFragment
     private int mUserId;
     private boolean mIsLoadedFromCache;
     private StorageCacheHelper mStorageCacheHelper;
+    private String mCachedFsUuid;
 
     private final StorageEventListener mStorageEventListener = new StorageEventListener() {
         @Override
@@ -225,6 +226,7 @@ public class StorageDashboardFragment extends DashboardFragment
     };
 
     private void refreshUi() {
+        updateStorageCacheHelper();
         mStorageSelectionController.setStorageEntries(mStorageEntries);
         mStorageSelectionController.setSelectedStorageEntry(mSelectedStorageEntry);
         mStorageUsageProgressBarController.setSelectedStorageEntry(mSelectedStorageEntry);
@@ -291,6 +293,7 @@ public class StorageDashboardFragment extends DashboardFragment
 
         initializeOptionsMenu(activity);
 
+        updateStorageCacheHelper();
         if (mStorageCacheHelper.hasCachedSizeInfo()) {
             mIsLoadedFromCache = true;
             mStorageEntries.clear();
@@ -302,6 +305,15 @@ public class StorageDashboardFragment extends DashboardFragment
         }
     }
 
+    /** Points the cache at the selected volume, each volume keeps its own cached sizes. */
+    private void updateStorageCacheHelper() {
+        final String fsUuid = mSelectedStorageEntry.getFsUuid();
+        if (!TextUtils.equals(fsUuid, mCachedFsUuid)) {
+            mCachedFsUuid = fsUuid;
+            mStorageCacheHelper = new StorageCacheHelper(getContext(), mUserId, fsUuid);
+        }
+    }
+
     @Override
     public void onAttach(Context context) {
         // These member variables are initialized befoer super.onAttach for
@@ -486,10 +498,24 @@ public class StorageDashboardFragment extends DashboardFragment
     public Loader<SparseArray<StorageAsyncLoader.StorageResult>> onCreateLoader(int id,
             Bundle args) {
         final Context context = getContext();
-        return new StorageAsyncLoader(context, mUserManager,
+        final StorageAsyncLoader loader = new StorageAsyncLoader(context, mUserManager,
                 mSelectedStorageEntry.getFsUuid(),
                 new StorageStatsSource(context),
                 context.getPackageManager());
+        // Show each category as soon as it's loaded, the full result still arrives in
+        // onLoadFinished to compute the system size and the secondary users.
+        // Only the categories whose data changed since the cached sizes are recomputed.
+        loader.setCacheHelper(mUserId, mStorageCacheHelper);
+        final String fsUuid = mSelectedStorageEntry.getFsUuid();
+        loader.setProgressListener((userId, category, size) -> {
+            // Drop the progress of a loader replaced since, or of a volume no longer selected.
+            if (userId == mUserId && mSelectedStorageEntry.isPrivate()
+                    && TextUtils.equals(fsUuid, mSelectedStorageEntry.getFsUuid())
+                    && getLoaderManager().getLoader(STORAGE_JOB_ID) == loader) {
+                mPreferenceController.onCategorySizeLoaded(category, size);
+            }
+        });
+        return loader;
     }
 
     @Override
@@ -35,16 +35,26 @@ import android.os.UserManager;
 import android.provider.MediaStore;
 import android.provider.MediaStore.Files.FileColumns;
 import android.provider.MediaStore.MediaColumns;
+import android.util.ArrayMap;
 import android.util.ArraySet;
 import android.util.Log;
 import android.util.SparseArray;
 
 import com.android.settingslib.applications.StorageStatsSource;
 import com.android.settingslib.utils.AsyncLoaderCompat;
+import com.android.settingslib.utils.ThreadUtils;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * StorageAsyncLoader is a Loader which loads categorized app information and external stats for all
@@ -55,10 +65,28 @@ public class StorageAsyncLoader
     private UserManager mUserManager;
     private static final String TAG = "StorageAsyncLoader";
 
+    public static final int CATEGORY_IMAGES = 0;
+    public static final int CATEGORY_VIDEOS = 1;
+    public static final int CATEGORY_AUDIO = 2;
+    public static final int CATEGORY_DOCUMENTS_AND_OTHER = 3;
+    public static final int CATEGORY_TRASH = 4;
+    public static final int CATEGORY_APPS = 5;
+    public static final int CATEGORY_GAMES = 6;
+
+    // Bounds the number of concurrent binder calls made by the loads.
+    private static final int MAX_PARALLELISM = 6;
+    private static final long KEEP_ALIVE_SECONDS = 10;
+    // Shared by the loads, its threads stop once idle for KEEP_ALIVE_SECONDS.
+    private static final ThreadPoolExecutor sExecutor = createExecutor();
+
     private String mUuid;
     private StorageStatsSource mStatsManager;
     private PackageManager mPackageManager;
-    private ArraySet<String> mSeenPackages;
+    private volatile ProgressListener mProgressListener;
+    private int mCachedUserId = UserHandle.USER_NULL;
+    private StorageCacheHelper mCacheHelper;
+    // Identifies the latest load, the progress of an older one is dropped.
+    private final AtomicInteger mLoadId = new AtomicInteger();
 
     public StorageAsyncLoader(Context context, UserManager userManager,
             String uuid, StorageStatsSource source, PackageManager pm) {
@@ -69,50 +97,249 @@ public class StorageAsyncLoader
         mPackageManager = pm;
     }
 
+    /**
+     * Sets a listener notified on the main thread as soon as each category of a user is computed,
+     * before the whole result is delivered. Nothing is notified once the loader is abandoned or
+     * reset, or for a load that was superseded by a newer one.
+     */
+    public void setProgressListener(ProgressListener listener) {
+        mProgressListener = listener;
+    }
+
+    /**
+     * Sets the cache of {@code userId}. Categories whose underlying data didn't change since they
+     * were cached are taken from it instead of being recomputed.
+     */
+    public void setCacheHelper(int userId, StorageCacheHelper cacheHelper) {
+        mCachedUserId = userId;
+        mCacheHelper = cacheHelper;
+    }
+
     @Override
     public SparseArray<StorageResult> loadInBackground() {
         return getStorageResultsForUsers();
     }
 
     private SparseArray<StorageResult> getStorageResultsForUsers() {
-        mSeenPackages = new ArraySet<>();
+        final int loadId = mLoadId.incrementAndGet();
         final SparseArray<StorageResult> results = new SparseArray<>();
+        // Captured before querying anything, so that a change made meanwhile leaves the cached
+        // sizes stale.
+        final StorageCacheHelper.ValidationTokens tokens =
+                mCacheHelper == null ? null : mCacheHelper.captureValidationTokens();
         final List<UserInfo> infos = mUserManager.getUsers();
 
         // Sort the users by user id ascending.
         Collections.sort(infos,
                 (userInfo, otherUser) -> Integer.compare(userInfo.id, otherUser.id));
 
-        for (UserInfo info : infos) {
-            final StorageResult result = getAppsAndGamesSize(info.id);
-
-            result.imagesSize = getFilesSize(info.id, MediaStore.Images.Media.EXTERNAL_CONTENT_URI,
-                    null /* queryArgs */);
-            result.videosSize = getFilesSize(info.id, MediaStore.Video.Media.EXTERNAL_CONTENT_URI,
-                    null /* queryArgs */);
-            result.audioSize = getFilesSize(info.id, MediaStore.Audio.Media.EXTERNAL_CONTENT_URI,
-                    null /* queryArgs */);
-
-            final Bundle documentsAndOtherQueryArgs = new Bundle();
-            documentsAndOtherQueryArgs.putString(ContentResolver.QUERY_ARG_SQL_SELECTION,
-                    FileColumns.MEDIA_TYPE + "!=" + FileColumns.MEDIA_TYPE_IMAGE
-                    + " AND " + FileColumns.MEDIA_TYPE + "!=" + FileColumns.MEDIA_TYPE_VIDEO
-                    + " AND " + FileColumns.MEDIA_TYPE + "!=" + FileColumns.MEDIA_TYPE_AUDIO
-                    + " AND " + FileColumns.MIME_TYPE + " IS NOT NULL");
-            result.documentsAndOtherSize = getFilesSize(info.id,
-                    MediaStore.Files.getContentUri(MediaStore.VOLUME_EXTERNAL),
-                    documentsAndOtherQueryArgs);
-
-            final Bundle trashQueryArgs = new Bundle();
-            trashQueryArgs.putInt(MediaStore.QUERY_ARG_MATCH_TRASHED, MediaStore.MATCH_ONLY);
-            result.trashSize = getFilesSize(info.id,
-                    MediaStore.Files.getContentUri(MediaStore.VOLUME_EXTERNAL), trashQueryArgs);
-
-            results.put(info.id, result);
+        // App stats and the MediaStore queries of every user are independent binder calls, run
+        // them concurrently so the slowest one bounds the load time instead of their sum.
+        final ExecutorService executor = sExecutor;
+        final List<Future<AppsResult>> appsFutures = new ArrayList<>(infos.size());
+        final List<Future<?>> filesFutures = new ArrayList<>();
+        try {
+            for (UserInfo info : infos) {
+                final int userId = info.id;
+                final StorageResult result = new StorageResult();
+                if (userId == mCachedUserId) {
+                    result.validationTokens = tokens;
+                }
+                results.put(userId, result);
+                final int freshCategories = getFreshCategories(userId, infos.size());
+                if (freshCategories != 0) {
+                    setCachedSizes(result, mCacheHelper.retrieveCachedSize(), freshCategories);
+                }
+                final boolean reuseApps = (freshCategories & (1 << CATEGORY_APPS)) != 0;
+                appsFutures.add(executor.submit(() -> reuseApps
+                        ? getExternalStatsOnly(userId) : getAppsAndGamesSize(loadId, userId)));
+                if ((freshCategories & (1 << CATEGORY_IMAGES)) == 0) {
+                    filesFutures.add(submitFilesSize(loadId, executor, result, userId,
+                            CATEGORY_IMAGES, MediaStore.Images.Media.EXTERNAL_CONTENT_URI,
+                            null /* queryArgs */));
+                }
+                if ((freshCategories & (1 << CATEGORY_VIDEOS)) == 0) {
+                    filesFutures.add(submitFilesSize(loadId, executor, result, userId,
+                            CATEGORY_VIDEOS, MediaStore.Video.Media.EXTERNAL_CONTENT_URI,
+                            null /* queryArgs */));
+                }
+                if ((freshCategories & (1 << CATEGORY_AUDIO)) == 0) {
+                    filesFutures.add(submitFilesSize(loadId, executor, result, userId,
+                            CATEGORY_AUDIO, MediaStore.Audio.Media.EXTERNAL_CONTENT_URI,
+                            null /* queryArgs */));
+                }
+
+                if ((freshCategories & (1 << CATEGORY_DOCUMENTS_AND_OTHER)) == 0) {
+                    final Bundle documentsAndOtherQueryArgs = new Bundle();
+                    documentsAndOtherQueryArgs.putString(ContentResolver.QUERY_ARG_SQL_SELECTION,
+                            FileColumns.MEDIA_TYPE + "!=" + FileColumns.MEDIA_TYPE_IMAGE
+                            + " AND " + FileColumns.MEDIA_TYPE + "!="
+                            + FileColumns.MEDIA_TYPE_VIDEO
+                            + " AND " + FileColumns.MEDIA_TYPE + "!="
+                            + FileColumns.MEDIA_TYPE_AUDIO
+                            + " AND " + FileColumns.MIME_TYPE + " IS NOT NULL");
+                    filesFutures.add(submitFilesSize(loadId, executor, result, userId,
+                            CATEGORY_DOCUMENTS_AND_OTHER,
+                            MediaStore.Files.getContentUri(MediaStore.VOLUME_EXTERNAL),
+                            documentsAndOtherQueryArgs));
+                }
+
+                if ((freshCategories & (1 << CATEGORY_TRASH)) == 0) {
+                    final Bundle trashQueryArgs = new Bundle();
+                    trashQueryArgs.putInt(MediaStore.QUERY_ARG_MATCH_TRASHED,
+                            MediaStore.MATCH_ONLY);
+                    filesFutures.add(submitFilesSize(loadId, executor, result, userId,
+                            CATEGORY_TRASH,
+                            MediaStore.Files.getContentUri(MediaStore.VOLUME_EXTERNAL),
+                            trashQueryArgs));
+                }
+            }
+
+            // Code bytes shared between profiles are attributed to the user with the lowest id,
+            // so merge the app results in user order once they are all available.
+            final ArraySet<String> seenPackages = new ArraySet<>();
+            for (int i = 0; i < infos.size(); i++) {
+                final AppsResult appsResult = getResult(appsFutures.get(i));
+                if (appsResult == null) {
+                    continue;
+                }
+                final StorageResult result = results.get(infos.get(i).id);
+                result.externalStats = appsResult.externalStats;
+                if (appsResult.fromCache) {
+                    continue;
+                }
+                result.gamesSize = appsResult.gamesSize;
+                result.allAppsExceptGamesSize = appsResult.allAppsExceptGamesSize;
+                for (int j = 0, size = appsResult.codeBytes.size(); j < size; j++) {
+                    final String packageName = appsResult.codeBytes.keyAt(j);
+                    if (seenPackages.contains(packageName)) {
+                        result.duplicateCodeSize += appsResult.codeBytes.valueAt(j);
+                    } else {
+                        seenPackages.add(packageName);
+                    }
+                }
+            }
+
+            // Each query writes its own field of the result, waiting on the futures publishes
+            // those writes to this thread.
+            for (Future<?> future : filesFutures) {
+                getResult(future);
+            }
+        } finally {
+            // Only left running when interrupted or failed, then nobody waits for them.
+            for (Future<?> future : appsFutures) {
+                future.cancel(true /* mayInterruptIfRunning */);
+            }
+            for (Future<?> future : filesFutures) {
+                future.cancel(true /* mayInterruptIfRunning */);
+            }
         }
         return results;
     }
 
+    private static ThreadPoolExecutor createExecutor() {
+        final int threadCount =
+                Math.min(MAX_PARALLELISM, Runtime.getRuntime().availableProcessors() + 1);
+        final AtomicInteger threadId = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, TAG + "-" + threadId.incrementAndGet()));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private int getFreshCategories(int userId, int userCount) {
+        if (userId != mCachedUserId || mCacheHelper == null
+                || !mCacheHelper.hasCachedSizeInfo()) {
+            return 0;
+        }
+        int freshCategories = StorageCacheHelper.ALL_CATEGORIES
+                & ~mCacheHelper.getStaleCategories();
+        if (userCount > 1) {
+            // Duplicate code of other profiles is computed from the package list of every user,
+            // so app sizes can't be reused when there is more than one.
+            freshCategories &= ~((1 << CATEGORY_APPS) | (1 << CATEGORY_GAMES));
+        } else if ((freshCategories & (1 << CATEGORY_GAMES)) == 0) {
+            // Apps and games come from the same pass over the installed packages.
+            freshCategories &= ~(1 << CATEGORY_APPS);
+        }
+        return freshCategories;
+    }
+
+    private static void setCachedSizes(StorageResult result, StorageCacheHelper.StorageCache cache,
+            int freshCategories) {
+        if ((freshCategories & (1 << CATEGORY_IMAGES)) != 0) {
+            result.imagesSize = cache.imagesSize;
+        }
+        if ((freshCategories & (1 << CATEGORY_VIDEOS)) != 0) {
+            result.videosSize = cache.videosSize;
+        }
+        if ((freshCategories & (1 << CATEGORY_AUDIO)) != 0) {
+            result.audioSize = cache.audioSize;
+        }
+        if ((freshCategories & (1 << CATEGORY_DOCUMENTS_AND_OTHER)) != 0) {
+            result.documentsAndOtherSize = cache.documentsAndOtherSize;
+        }
+        if ((freshCategories & (1 << CATEGORY_TRASH)) != 0) {
+            result.trashSize = cache.trashSize;
+        }
+        if ((freshCategories & (1 << CATEGORY_APPS)) != 0) {
+            result.allAppsExceptGamesSize = cache.allAppsExceptGamesSize;
+            result.gamesSize = cache.gamesSize;
+        }
+    }
+
+    private Future<?> submitFilesSize(int loadId, ExecutorService executor, StorageResult result,
+            int userId, int category, Uri uri, Bundle queryArgs) {
+        return executor.submit(() -> {
+            final long size = getFilesSize(userId, uri, queryArgs);
+            switch (category) {
+                case CATEGORY_IMAGES:
+                    result.imagesSize = size;
+                    break;
+                case CATEGORY_VIDEOS:
+                    result.videosSize = size;
+                    break;
+                case CATEGORY_AUDIO:
+                    result.audioSize = size;
+                    break;
+                case CATEGORY_DOCUMENTS_AND_OTHER:
+                    result.documentsAndOtherSize = size;
+                    break;
+                case CATEGORY_TRASH:
+                    result.trashSize = size;
+                    break;
+            }
+            notifyProgress(loadId, userId, category, size);
+        });
+    }
+
+    private void notifyProgress(int loadId, int userId, int category, long size) {
+        final ProgressListener listener = mProgressListener;
+        if (listener == null) {
+            return;
+        }
+        ThreadUtils.postOnMainThread(() -> {
+            // A restarted or destroyed loader must neither update the page nor the cached sizes,
+            // which may already be the ones of another volume.
+            if (isAbandoned() || isReset() || loadId != mLoadId.get()) {
+                return;
+            }
+            listener.onCategorySizeLoaded(userId, category, size);
+        });
+    }
+
+    private <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Log.w(TAG, "Failed to load storage stats", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
     private long getFilesSize(int userId, Uri uri, Bundle queryArgs) {
         final Context perUserContext;
         try {
@@ -137,11 +364,11 @@ public class StorageAsyncLoader
         }
     }
 
-    private StorageResult getAppsAndGamesSize(int userId) {
+    private AppsResult getAppsAndGamesSize(int loadId, int userId) {
         Log.d(TAG, "Loading apps");
         final List<ApplicationInfo> applicationInfos =
                 mPackageManager.getInstalledApplicationsAsUser(0, userId);
-        final StorageResult result = new StorageResult();
+        final AppsResult result = new AppsResult();
         final UserHandle myUser = UserHandle.of(userId);
         for (int i = 0, size = applicationInfos.size(); i < size; i++) {
             final ApplicationInfo app = applicationInfos.get(i);
@@ -169,11 +396,7 @@ public class StorageAsyncLoader
 
             // Code bytes may share between different profiles. To know all the duplicate code size
             // and we can get a reasonable system size in StorageItemPreferenceController.
-            if (mSeenPackages.contains(app.packageName)) {
-                result.duplicateCodeSize += stats.getCodeBytes();
-            } else {
-                mSeenPackages.add(app.packageName);
-            }
+            result.codeBytes.put(app.packageName, stats.getCodeBytes());
 
             switch (app.category) {
                 case CATEGORY_GAME:
@@ -194,6 +417,8 @@ public class StorageAsyncLoader
                     break;
             }
         }
+        notifyProgress(loadId, userId, CATEGORY_APPS, result.allAppsExceptGamesSize);
+        notifyProgress(loadId, userId, CATEGORY_GAMES, result.gamesSize);
 
         Log.d(TAG, "Loading external stats");
         try {
@@ -206,6 +431,18 @@ public class StorageAsyncLoader
         return result;
     }
 
+    private AppsResult getExternalStatsOnly(int userId) {
+        final AppsResult result = new AppsResult();
+        result.fromCache = true;
+        try {
+            result.externalStats = mStatsManager.getExternalStorageStats(mUuid,
+                    UserHandle.of(userId));
+        } catch (IOException e) {
+            Log.w(TAG, e);
+        }
+        return result;
+    }
+
     @Override
     protected void onDiscardResult(SparseArray<StorageResult> result) {
     }
@@ -226,6 +463,31 @@ public class StorageAsyncLoader
         public long cacheSize;
         public long duplicateCodeSize;
         public StorageStatsSource.ExternalStorageStats externalStats;
+        // State of the data captured before computing the sizes, null for uncached users.
+        public StorageCacheHelper.ValidationTokens validationTokens;
+    }
+
+    /** App based sizes of a single user, before duplicate code is attributed. */
+    private static class AppsResult {
+        long gamesSize;
+        long allAppsExceptGamesSize;
+        // Code size of each package installed for the user.
+        final ArrayMap<String, Long> codeBytes = new ArrayMap<>();
+        StorageStatsSource.ExternalStorageStats externalStats;
+        // True if the app sizes were not recomputed because the cached ones are still valid.
+        boolean fromCache;
+    }
+
+    /**
+     * Receives the size of each category as soon as it's computed by {@link StorageAsyncLoader}.
+     */
+    public interface ProgressListener {
+        /**
+         * Called on the main thread when a category of {@code userId} is loaded.
+         *
+         * @param category one of the {@code CATEGORY_*} constants of {@link StorageAsyncLoader}.
+         */
+        void onCategorySizeLoaded(int userId, int category, long size);
     }
 
     /**
@@ -18,9 +18,23 @@ package com.android.settings.deviceinfo.storage;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.pm.ChangedPackages;
+import android.os.UserHandle;
+import android.provider.MediaStore;
+import android.provider.Settings;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 /**
  * A utility class to cache and restore the storage size information.
+ *
+ * <p>The cache is kept per user and volume. Besides the sizes it records when each category was
+ * last computed, along with the MediaStore generation and the package change sequence number at
+ * that time, so {@link #getStaleCategories()} can tell which categories need to be recomputed
+ * while the cached values are already on screen. App data and caches grow without any package
+ * change, so the app categories are also recomputed once older than
+ * {@link #APP_SIZES_MAX_AGE_MILLIS}.
  */
 public class StorageCacheHelper {
 
@@ -36,28 +50,148 @@ public class StorageCacheHelper {
     private static final String TRASH_SIZE_KEY = "trash_size_key";
     private static final String SYSTEM_SIZE_KEY = "system_size_key";
     private static final String USED_SIZE_KEY = "used_size_key";
+    private static final String[] SIZE_KEYS = {TOTAL_SIZE_KEY, TOTAL_USED_SIZE_KEY,
+            IMAGES_SIZE_KEY, VIDEOS_SIZE_KEY, AUDIO_SIZE_KEY, APPS_SIZE_KEY, GAMES_SIZE_KEY,
+            DOCUMENTS_AND_OTHER_SIZE_KEY, TRASH_SIZE_KEY, SYSTEM_SIZE_KEY, USED_SIZE_KEY};
+
+    private static final String CACHE_VERSION_KEY = "cache_version_key";
+    private static final String MEDIA_GENERATION_KEY = "media_generation_key";
+    private static final String PACKAGE_SEQUENCE_KEY = "package_sequence_key";
+    private static final String BOOT_COUNT_KEY = "boot_count_key";
+    private static final String UPDATED_TIME_SUFFIX = "_updated_time";
+    // Bump when the meaning of a stored value changes, older caches are then dropped.
+    @VisibleForTesting
+    static final int CACHE_VERSION = 1;
+    private static final long UNKNOWN = -1L;
+    @VisibleForTesting
+    static final long APP_SIZES_MAX_AGE_MILLIS = 5 * 60 * 1000L;
 
+    private static final int FILE_CATEGORIES = (1 << StorageAsyncLoader.CATEGORY_IMAGES)
+            | (1 << StorageAsyncLoader.CATEGORY_VIDEOS)
+            | (1 << StorageAsyncLoader.CATEGORY_AUDIO)
+            | (1 << StorageAsyncLoader.CATEGORY_DOCUMENTS_AND_OTHER)
+            | (1 << StorageAsyncLoader.CATEGORY_TRASH);
+    private static final int APP_CATEGORIES = (1 << StorageAsyncLoader.CATEGORY_APPS)
+            | (1 << StorageAsyncLoader.CATEGORY_GAMES);
+    /** Bit mask with the bit of every category set. */
+    public static final int ALL_CATEGORIES = FILE_CATEGORIES | APP_CATEGORIES;
+
+    private final Context mContext;
+    private final int mUserId;
     private final SharedPreferences mSharedPreferences;
 
     public StorageCacheHelper(Context context, int userId) {
+        this(context, userId, null /* volumeUuid */);
+    }
+
+    /**
+     * @param volumeUuid the fs uuid of the volume, or {@code null} for the internal storage.
+     */
+    public StorageCacheHelper(Context context, int userId, @Nullable String volumeUuid) {
+        mContext = context;
+        mUserId = userId;
         String sharedPrefName = SHARED_PREFERENCE_NAME + userId;
+        if (volumeUuid != null) {
+            sharedPrefName += "_" + volumeUuid;
+        }
         mSharedPreferences = context.getSharedPreferences(sharedPrefName, Context.MODE_PRIVATE);
+        final int version = mSharedPreferences.getInt(CACHE_VERSION_KEY, CACHE_VERSION);
+        if (version != CACHE_VERSION) {
+            mSharedPreferences.edit().clear().apply();
+        }
     }
 
     /**
      * Returns true if there's a cached size info.
      */
     public boolean hasCachedSizeInfo() {
-        return mSharedPreferences.getAll().size() > 0;
+        for (String key : SIZE_KEYS) {
+            if (mSharedPreferences.contains(key)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * Cache the size info
+     * Returns a bit mask of the categories, as {@code 1 << StorageAsyncLoader.CATEGORY_*}, whose
+     * underlying data changed since they were cached. Categories never cached are stale.
+     */
+    public int getStaleCategories() {
+        int staleCategories = 0;
+        final long cachedGeneration = mSharedPreferences.getLong(MEDIA_GENERATION_KEY, UNKNOWN);
+        if (cachedGeneration == UNKNOWN || cachedGeneration != getMediaGeneration()) {
+            staleCategories |= FILE_CATEGORIES;
+        }
+        final long cachedSequence = mSharedPreferences.getLong(PACKAGE_SEQUENCE_KEY, UNKNOWN);
+        if (cachedSequence == UNKNOWN
+                || mSharedPreferences.getInt(BOOT_COUNT_KEY, -1) != getBootCount()
+                || hasPackagesChangedSince(cachedSequence)) {
+            staleCategories |= APP_CATEGORIES;
+        }
+        for (int category = 0; category <= StorageAsyncLoader.CATEGORY_GAMES; category++) {
+            if (!mSharedPreferences.contains(getCategoryKey(category))) {
+                staleCategories |= 1 << category;
+            } else if ((APP_CATEGORIES & (1 << category)) != 0) {
+                final long age = getCategoryAgeMillis(category);
+                if (age < 0 || age >= APP_SIZES_MAX_AGE_MILLIS) {
+                    staleCategories |= 1 << category;
+                }
+            }
+        }
+        return staleCategories;
+    }
+
+    /**
+     * Returns how long ago {@code category} was cached, or {@code -1} if it never was.
+     */
+    public long getCategoryAgeMillis(int category) {
+        final long updatedTime = mSharedPreferences.getLong(
+                getCategoryKey(category) + UPDATED_TIME_SUFFIX, UNKNOWN);
+        return updatedTime == UNKNOWN ? UNKNOWN : System.currentTimeMillis() - updatedTime;
+    }
+
+    /**
+     * Captures the state of the data the sizes are computed from. Must be called before they are
+     * computed, so that a change made while computing them leaves them stale.
+     */
+    public ValidationTokens captureValidationTokens() {
+        return new ValidationTokens(getMediaGeneration(), getPackageSequenceNumber(),
+                getBootCount());
+    }
+
+    /**
+     * Cache the size info, it is recomputed on the next load.
      * @param data a data about the file size info.
      */
     public void cacheSizeInfo(StorageCache data) {
-        mSharedPreferences
-                .edit()
+        cacheSizeInfo(data, null /* tokens */);
+    }
+
+    /**
+     * Cache the size info
+     * @param data a data about the file size info.
+     * @param tokens the state captured before computing {@code data}, or {@code null} if unknown
+     *               in which case every category is stale.
+     */
+    public void cacheSizeInfo(StorageCache data, @Nullable ValidationTokens tokens) {
+        final long now = System.currentTimeMillis();
+        final SharedPreferences.Editor editor = mSharedPreferences.edit();
+        for (int category = 0; category <= StorageAsyncLoader.CATEGORY_GAMES; category++) {
+            editor.putLong(getCategoryKey(category) + UPDATED_TIME_SUFFIX, now);
+        }
+        editor.putInt(CACHE_VERSION_KEY, CACHE_VERSION);
+        if (tokens != null) {
+            // Sequence numbers restart from zero on every boot.
+            editor.putLong(MEDIA_GENERATION_KEY, tokens.mMediaGeneration)
+                    .putLong(PACKAGE_SEQUENCE_KEY, tokens.mPackageSequence)
+                    .putInt(BOOT_COUNT_KEY, tokens.mBootCount);
+        } else {
+            editor.remove(MEDIA_GENERATION_KEY)
+                    .remove(PACKAGE_SEQUENCE_KEY)
+                    .remove(BOOT_COUNT_KEY);
+        }
+        editor
                 .putLong(IMAGES_SIZE_KEY, data.imagesSize)
                 .putLong(VIDEOS_SIZE_KEY, data.videosSize)
                 .putLong(AUDIO_SIZE_KEY, data.audioSize)
@@ -69,6 +203,75 @@ public class StorageCacheHelper {
                 .apply();
     }
 
+    /**
+     * Cache the size of a single category as soon as it's loaded.
+     * @param category one of the {@code CATEGORY_*} constants of {@link StorageAsyncLoader}.
+     */
+    public void cacheCategorySize(int category, long size) {
+        final String key = getCategoryKey(category);
+        if (key != null) {
+            mSharedPreferences.edit()
+                    .putInt(CACHE_VERSION_KEY, CACHE_VERSION)
+                    .putLong(key, size)
+                    .putLong(key + UPDATED_TIME_SUFFIX, System.currentTimeMillis())
+                    .apply();
+        }
+    }
+
+    @VisibleForTesting
+    long getMediaGeneration() {
+        if (mUserId != UserHandle.myUserId()) {
+            // The generation of another user's MediaStore can't be read from this context.
+            return UNKNOWN;
+        }
+        try {
+            // StorageAsyncLoader sums the files of MediaStore.VOLUME_EXTERNAL, whose generation
+            // changes along with the files of any external volume.
+            return MediaStore.getGeneration(mContext, MediaStore.VOLUME_EXTERNAL);
+        } catch (RuntimeException e) {
+            return UNKNOWN;
+        }
+    }
+
+    @VisibleForTesting
+    long getPackageSequenceNumber() {
+        final ChangedPackages changedPackages =
+                mContext.getPackageManager().getChangedPackages(0 /* sequenceNumber */);
+        // No change since boot yet, any later change makes getChangedPackages(0) non null.
+        return changedPackages == null ? 0 : changedPackages.getSequenceNumber();
+    }
+
+    @VisibleForTesting
+    boolean hasPackagesChangedSince(long sequenceNumber) {
+        return mContext.getPackageManager().getChangedPackages((int) sequenceNumber) != null;
+    }
+
+    private int getBootCount() {
+        return Settings.Global.getInt(mContext.getContentResolver(), Settings.Global.BOOT_COUNT,
+                0 /* def */);
+    }
+
+    private static String getCategoryKey(int category) {
+        switch (category) {
+            case StorageAsyncLoader.CATEGORY_IMAGES:
+                return IMAGES_SIZE_KEY;
+            case StorageAsyncLoader.CATEGORY_VIDEOS:
+                return VIDEOS_SIZE_KEY;
+            case StorageAsyncLoader.CATEGORY_AUDIO:
+                return AUDIO_SIZE_KEY;
+            case StorageAsyncLoader.CATEGORY_DOCUMENTS_AND_OTHER:
+                return DOCUMENTS_AND_OTHER_SIZE_KEY;
+            case StorageAsyncLoader.CATEGORY_TRASH:
+                return TRASH_SIZE_KEY;
+            case StorageAsyncLoader.CATEGORY_APPS:
+                return APPS_SIZE_KEY;
+            case StorageAsyncLoader.CATEGORY_GAMES:
+                return GAMES_SIZE_KEY;
+            default:
+                return null;
+        }
+    }
+
     /**
      * Cache total size and total used size
      */
@@ -112,6 +315,19 @@ public class StorageCacheHelper {
         return result;
     }
 
+    /** The state of the data sizes are computed from, see {@link #captureValidationTokens()}. */
+    public static class ValidationTokens {
+        final long mMediaGeneration;
+        final long mPackageSequence;
+        final int mBootCount;
+
+        ValidationTokens(long mediaGeneration, long packageSequence, int bootCount) {
+            mMediaGeneration = mediaGeneration;
+            mPackageSequence = packageSequence;
+            mBootCount = bootCount;
+        }
+    }
+
     /**
      *  All the cached data about the file size information.
      */
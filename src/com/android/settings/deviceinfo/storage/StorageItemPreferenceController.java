@@ -227,6 +227,9 @@ public class StorageItemPreferenceController extends AbstractPreferenceControlle
      */
     public void setVolume(VolumeInfo volume) {
         mVolume = volume;
+        if (volume != null) {
+            mStorageCacheHelper = new StorageCacheHelper(mContext, mUserId, volume.getFsUuid());
+        }
 
         if (mPublicStoragePreference != null) {
             mPublicStoragePreference.setVisible(isValidPublicVolume());
@@ -399,7 +402,9 @@ public class StorageItemPreferenceController extends AbstractPreferenceControlle
         }
         // Cache the size info
         if (result != null) {
-            mStorageCacheHelper.cacheSizeInfo(storageCache);
+            final StorageAsyncLoader.StorageResult userResult = result.get(userId);
+            mStorageCacheHelper.cacheSizeInfo(storageCache,
+                    userResult == null ? null : userResult.validationTokens);
         }
 
         // Sort the preference according to size info in descending order
@@ -410,6 +415,42 @@ public class StorageItemPreferenceController extends AbstractPreferenceControlle
         setPrivateStorageCategoryPreferencesVisibility(true);
     }
 
+    /**
+     * Updates a single category while {@link StorageAsyncLoader} is still loading the others.
+     *
+     * @param category one of the {@code CATEGORY_*} constants of {@link StorageAsyncLoader}.
+     */
+    public void onCategorySizeLoaded(int category, long size) {
+        final StorageItemPreference preference = getCategoryPreference(category);
+        // Without a volume the categories are hidden, and the cache may be another volume's.
+        if (preference == null || mVolume == null) {
+            return;
+        }
+        preference.setStorageSize(size, mTotalSize, false /* animate */);
+        mStorageCacheHelper.cacheCategorySize(category, size);
+    }
+
+    private StorageItemPreference getCategoryPreference(int category) {
+        switch (category) {
+            case StorageAsyncLoader.CATEGORY_IMAGES:
+                return mImagesPreference;
+            case StorageAsyncLoader.CATEGORY_VIDEOS:
+                return mVideosPreference;
+            case StorageAsyncLoader.CATEGORY_AUDIO:
+                return mAudioPreference;
+            case StorageAsyncLoader.CATEGORY_DOCUMENTS_AND_OTHER:
+                return mDocumentsAndOtherPreference;
+            case StorageAsyncLoader.CATEGORY_TRASH:
+                return mTrashPreference;
+            case StorageAsyncLoader.CATEGORY_APPS:
+                return mAppsPreference;
+            case StorageAsyncLoader.CATEGORY_GAMES:
+                return mGamesPreference;
+            default:
+                return null;
+        }
+    }
+
     private StorageCacheHelper.StorageCache getSizeInfo(
             SparseArray<StorageAsyncLoader.StorageResult> result, int userId) {
         if (result == null) {
@@ -18,12 +18,15 @@ package com.android.settings.deviceinfo.storage;
 
 import android.content.Context;
 import android.content.pm.UserInfo;
+import android.content.res.Resources;
 import android.graphics.drawable.Drawable;
 import android.os.UserManager;
 import android.util.SparseArray;
 
 import com.android.internal.util.Preconditions;
 import com.android.settings.Utils;
+import com.android.settings.users.UserIconCache;
+import com.android.settingslib.drawable.UserIconDrawable;
 import com.android.settingslib.utils.AsyncLoaderCompat;
 
 /**
@@ -66,8 +69,17 @@ public class UserIconLoader extends AsyncLoaderCompat<SparseArray<Drawable>> {
     public static SparseArray<Drawable> loadUserIconsWithContext(Context context) {
         SparseArray<Drawable> value = new SparseArray<>();
         UserManager um = context.getSystemService(UserManager.class);
+        final UserIconCache cache = UserIconCache.getInstance(context);
+        final Resources res = context.getResources();
+        final int iconSize = UserIconDrawable.getDefaultSize(context);
         for (UserInfo userInfo : um.getUsers()) {
-            value.put(userInfo.id, Utils.getUserIcon(context, um, userInfo));
+            Drawable icon = cache.get(res, userInfo.id, iconSize);
+            if (icon == null) {
+                final int generation = cache.getGeneration(userInfo.id);
+                icon = cache.putDrawable(res, userInfo.id,
+                        Utils.getUserIcon(context, um, userInfo), iconSize, generation);
+            }
+            value.put(userInfo.id, icon);
         }
         return value;
     }
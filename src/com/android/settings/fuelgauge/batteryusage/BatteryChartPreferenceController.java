@@ -802,8 +802,16 @@ public class BatteryChartPreferenceController extends AbstractPreferenceControll
         if (packageName == null) {
             return null;
         }
-        final List<BatteryDiffEntry> entries = getAppBatteryUsageData(context);
-        if (entries == null) {
+        return findAppBatteryUsageData(getAppBatteryUsageData(context), packageName, userId);
+    }
+
+    /**
+     * Returns the entry of {@code packageName} in {@code entries} loaded by
+     * {@link #getAppBatteryUsageData(Context)}, or {@code null} if there is none.
+     */
+    public static BatteryDiffEntry findAppBatteryUsageData(
+            List<BatteryDiffEntry> entries, String packageName, int userId) {
+        if (entries == null || packageName == null) {
             return null;
         }
         for (BatteryDiffEntry entry : entries) {
@@ -20,6 +20,7 @@ import android.app.admin.DevicePolicyManager;
 import android.app.settings.SettingsEnums;
 import android.content.Context;
 import android.content.res.Configuration;
+import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.os.UserHandle;
 import android.os.UserManager;
@@ -123,6 +124,7 @@ public class AvailableVirtualKeyboardFragment extends DashboardFragment
                 getContext().getSystemService(
                         InputMethodManager.class).getInputMethodListAsUser(mUserId),
                 hasHardwareKeyboard, mUserId);
+        InputMethodCatalog.getInstance(getContext()).invalidate();
         // Update input method settings and preference list.
         mInputMethodSettingValues.refreshAllInputMethodAndSubtypes();
         for (final InputMethodPreference p : mInputMethodPreferenceList) {
@@ -160,7 +162,7 @@ public class AvailableVirtualKeyboardFragment extends DashboardFragment
                     || enabledImis.contains(imi);
             final InputMethodPreference pref = new InputMethodPreference(prefContext, imi,
                     isAllowedByOrganization, this, mUserId);
-            pref.setIcon(imi.loadIcon(mUserAwareContext.getPackageManager()));
+            setIcon(pref, imi);
             mInputMethodPreferenceList.add(pref);
         }
         final Collator collator = Collator.getInstance();
@@ -175,6 +177,18 @@ public class AvailableVirtualKeyboardFragment extends DashboardFragment
         }
     }
 
+    private void setIcon(InputMethodPreference pref, InputMethodInfo imi) {
+        final InputMethodCatalog catalog = InputMethodCatalog.getInstance(getContext());
+        final Drawable icon = catalog.getCachedIcon(imi, mUserId);
+        if (icon != null) {
+            pref.setIcon(icon);
+            return;
+        }
+        // Keep the room of the icon while it is loading, so that the title doesn't move.
+        pref.setIcon(R.drawable.empty_icon);
+        catalog.loadIcon(imi, mUserId, mUserAwareContext.getPackageManager(), pref::setIcon);
+    }
+
     public static final BaseSearchIndexProvider SEARCH_INDEX_DATA_PROVIDER =
             new BaseSearchIndexProvider() {
                 @Override
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.inputmethod;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.PackageManager;
+import android.database.ContentObserver;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.UserHandle;
+import android.provider.Settings;
+import android.text.TextUtils;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.inputmethod.InputMethodInfo;
+import android.view.inputmethod.InputMethodManager;
+import android.view.inputmethod.InputMethodSubtype;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Process wide catalog of the input methods, shared by the keyboard settings pages.
+ *
+ * <p>The enabled input methods of the user and their enabled subtypes are read once into a
+ * {@link Snapshot}, which is dropped when a package changes or when the enabled input methods,
+ * their subtypes or the locale change. The icons of the input methods are loaded on a
+ * background thread into a small LRU cache, so the pages listing input methods don't load them
+ * on the main thread.
+ */
+public class InputMethodCatalog {
+    private static final String TAG = "InputMethodCatalog";
+
+    @VisibleForTesting
+    static final int ICON_CACHE_SIZE = 32;
+
+    private static InputMethodCatalog sInstance;
+
+    /** The enabled input methods of the user and their enabled subtypes. */
+    public static class Snapshot {
+        private final List<InputMethodInfo> mEnabledInputMethods;
+        private final Set<String> mEnabledSubtypeLocales;
+
+        @VisibleForTesting
+        Snapshot(List<InputMethodInfo> enabledInputMethods, Set<String> enabledSubtypeLocales) {
+            mEnabledInputMethods = Collections.unmodifiableList(enabledInputMethods);
+            mEnabledSubtypeLocales = Collections.unmodifiableSet(enabledSubtypeLocales);
+        }
+
+        /** Returns the enabled input methods. */
+        public List<InputMethodInfo> getEnabledInputMethods() {
+            return mEnabledInputMethods;
+        }
+
+        /**
+         * Returns the locales of the enabled subtypes of the enabled input methods, including
+         * the implicitly enabled ones.
+         */
+        public Set<String> getEnabledSubtypeLocales() {
+            return mEnabledSubtypeLocales;
+        }
+    }
+
+    private final Context mContext;
+    private final Object mLock = new Object();
+    private final LruCache<String, Drawable> mIcons = new LruCache<>(ICON_CACHE_SIZE);
+    private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            final Uri data = intent.getData();
+            if (data != null) {
+                removeIcons(data.getSchemeSpecificPart());
+            }
+            invalidate();
+        }
+    };
+
+    @GuardedBy("mLock")
+    private Snapshot mSnapshot;
+    @GuardedBy("mLock")
+    private boolean mListening;
+
+    /** Returns the catalog of the input methods. */
+    public static synchronized InputMethodCatalog getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new InputMethodCatalog(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    InputMethodCatalog(Context context) {
+        mContext = context;
+    }
+
+    /** Returns the snapshot of the input methods of the user, reading it if it was dropped. */
+    @NonNull
+    public Snapshot getSnapshot() {
+        synchronized (mLock) {
+            startListeningLocked();
+            if (mSnapshot == null) {
+                mSnapshot = createSnapshot(mContext.getSystemService(InputMethodManager.class));
+            }
+            return mSnapshot;
+        }
+    }
+
+    /** Drops the snapshot, it is read again when used next. */
+    public void invalidate() {
+        synchronized (mLock) {
+            mSnapshot = null;
+        }
+    }
+
+    /** Returns the icon of {@code imi} for {@code userId} if it is cached, or null. */
+    @Nullable
+    public Drawable getCachedIcon(InputMethodInfo imi, int userId) {
+        final Drawable icon = mIcons.get(getIconKey(imi, userId));
+        return icon == null ? null : copyOf(icon);
+    }
+
+    /**
+     * Loads the icon of {@code imi} for {@code userId} on a background thread, and delivers it
+     * to {@code callback} on the main thread.
+     */
+    public void loadIcon(InputMethodInfo imi, int userId, PackageManager packageManager,
+            Consumer<Drawable> callback) {
+        synchronized (mLock) {
+            startListeningLocked();
+        }
+        final String key = getIconKey(imi, userId);
+        ThreadUtils.postOnBackgroundThread(() -> {
+            Drawable icon = mIcons.get(key);
+            if (icon == null) {
+                icon = imi.loadIcon(packageManager);
+                if (icon == null) {
+                    return;
+                }
+                mIcons.put(key, icon);
+            }
+            final Drawable copy = copyOf(icon);
+            ThreadUtils.postOnMainThread(() -> callback.accept(copy));
+        });
+    }
+
+    @VisibleForTesting
+    static Snapshot createSnapshot(InputMethodManager imm) {
+        final List<InputMethodInfo> imis = new ArrayList<>(imm.getEnabledInputMethodList());
+        final Set<String> locales = new TreeSet<>();
+        for (final InputMethodInfo imi : imis) {
+            final List<InputMethodSubtype> subtypes =
+                    imm.getEnabledInputMethodSubtypeList(
+                            imi, true /* allowsImplicitlySelectedSubtypes */);
+            for (InputMethodSubtype subtype : subtypes) {
+                final String locale = subtype.getLocale();
+                if (!TextUtils.isEmpty(locale)) {
+                    locales.add(locale);
+                }
+            }
+        }
+        return new Snapshot(imis, locales);
+    }
+
+    @GuardedBy("mLock")
+    private void startListeningLocked() {
+        if (mListening) {
+            return;
+        }
+        // An input method of any user may be installed, updated or removed: the snapshot is
+        // rebuilt, and the icons of that package are dropped.
+        final IntentFilter packageFilter = new IntentFilter();
+        packageFilter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        packageFilter.addDataScheme("package");
+        mContext.registerReceiverAsUser(mReceiver, UserHandle.ALL, packageFilter, null, null);
+        // Implicitly enabled subtypes follow the system locale.
+        mContext.registerReceiver(mReceiver, new IntentFilter(Intent.ACTION_LOCALE_CHANGED));
+        final ContentObserver observer = new ContentObserver(new Handler(Looper.getMainLooper())) {
+            @Override
+            public void onChange(boolean selfChange) {
+                invalidate();
+            }
+        };
+        mContext.getContentResolver().registerContentObserver(
+                Settings.Secure.getUriFor(Settings.Secure.ENABLED_INPUT_METHODS),
+                false /* notifyForDescendants */, observer);
+        mListening = true;
+    }
+
+    private void removeIcons(String packageName) {
+        final String packagePrefix = packageName + "/";
+        for (String key : mIcons.snapshot().keySet()) {
+            // The key is "<userId>:<package>/<class>".
+            if (key.startsWith(packagePrefix, key.indexOf(':') + 1)) {
+                mIcons.remove(key);
+            }
+        }
+    }
+
+    private static String getIconKey(InputMethodInfo imi, int userId) {
+        return userId + ":" + imi.getId();
+    }
+
+    /** The cached icons may be shown by several pages, each one gets its own copy. */
+    private static Drawable copyOf(Drawable icon) {
+        final Drawable.ConstantState state = icon.getConstantState();
+        if (state == null) {
+            Log.d(TAG, "Sharing an icon without constant state");
+            return icon;
+        }
+        return state.newDrawable();
+    }
+}
@@ -20,15 +20,29 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.MatrixCursor;
 import android.provider.UserDictionary;
+import android.text.TextUtils;
 import android.util.ArraySet;
 
+import androidx.annotation.GuardedBy;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.loader.content.CursorLoader;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Loads the words of a locale from the user dictionary, one page at a time.
+ *
+ * <p>Pages are read in {@code UPPER(word)} order, each one starting after the last word read, so
+ * loading a page does not scan the words before it. {@link #loadNextPage()} appends a page to
+ * the loaded words. When the dictionary changes, only the words up to the last one loaded are
+ * read again, so the list keeps its length and scroll position.
+ */
 public class UserDictionaryCursorLoader extends CursorLoader {
 
     @VisibleForTesting
@@ -41,12 +55,24 @@ public class UserDictionaryCursorLoader extends CursorLoader {
     // The index of the shortcut in the above array.
     static final int INDEX_SHORTCUT = 2;
 
+    @VisibleForTesting
+    static final int PAGE_SIZE = 200;
+
     // Either the locale is empty (means the word is applicable to all locales)
     // or the word equals our current locale
     private static final String QUERY_SELECTION =
             UserDictionary.Words.LOCALE + "=?";
     private static final String QUERY_SELECTION_ALL_LOCALES =
             UserDictionary.Words.LOCALE + " is null";
+    private static final String QUERY_SELECTION_PREFIX =
+            UserDictionary.Words.WORD + " LIKE ? ESCAPE '\\'";
+    // Case-insensitive sort, the id breaks the ties so that every row has a unique position.
+    private static final String SORT_KEY = "UPPER(" + UserDictionary.Words.WORD + ")";
+    private static final String QUERY_SORT_ORDER = SORT_KEY + ", " + UserDictionary.Words._ID;
+    private static final String QUERY_SELECTION_AFTER = "(" + SORT_KEY + ">? OR (" + SORT_KEY
+            + "=? AND " + UserDictionary.Words._ID + ">?))";
+    private static final String QUERY_SELECTION_UP_TO = "(" + SORT_KEY + "<? OR (" + SORT_KEY
+            + "=? AND " + UserDictionary.Words._ID + "<=?))";
 
 
     // Locale can be any of:
@@ -60,42 +86,155 @@ public class UserDictionaryCursorLoader extends CursorLoader {
     // human-readable, like "all_locales" and "current_locales" strings, provided they
     // can be guaranteed not to match locales that may exist.
     private final String mLocale;
+    // Only the words starting with this prefix are loaded, if not empty.
+    private final String mPrefix;
+    private final ForceLoadContentObserver mObserver = new ForceLoadContentObserver();
+    private final AtomicBoolean mNextPageRequested = new AtomicBoolean();
+    private final Object mLock = new Object();
+
+    @GuardedBy("mLock")
+    private final List<Object[]> mRows = new ArrayList<>();
+    @GuardedBy("mLock")
+    private boolean mLoaded;
+    private volatile boolean mHasMore;
 
     public UserDictionaryCursorLoader(Context context, String locale) {
+        this(context, locale, null /* prefix */);
+    }
+
+    public UserDictionaryCursorLoader(Context context, String locale, @Nullable String prefix) {
         super(context);
         mLocale = locale;
+        mPrefix = prefix;
+    }
+
+    /** Returns whether words remain after the last page loaded. */
+    public boolean hasMore() {
+        return mHasMore;
+    }
+
+    /** Loads the next page, if any, and delivers the words loaded so far along with it. */
+    public void loadNextPage() {
+        if (mHasMore && mNextPageRequested.compareAndSet(false, true)) {
+            onContentChanged();
+        }
     }
 
     @Override
     public Cursor loadInBackground() {
-        final MatrixCursor result = new MatrixCursor(QUERY_PROJECTION);
-        final Cursor candidate;
+        synchronized (mLock) {
+            final boolean nextPage = mNextPageRequested.getAndSet(false);
+            if (!mLoaded) {
+                mHasMore = queryRows(mRows, null /* after */, null /* upTo */, PAGE_SIZE);
+                mLoaded = true;
+            } else if (nextPage && mHasMore && !mRows.isEmpty()) {
+                mHasMore = queryRows(mRows, mRows.get(mRows.size() - 1), null /* upTo */,
+                        PAGE_SIZE);
+            } else {
+                // The dictionary changed, read the loaded words again.
+                final List<Object[]> rows = new ArrayList<>(mRows.size());
+                if (mHasMore && !mRows.isEmpty()) {
+                    queryRows(rows, null /* after */, mRows.get(mRows.size() - 1),
+                            Integer.MAX_VALUE);
+                } else {
+                    mHasMore = queryRows(rows, null /* after */, null /* upTo */,
+                            mRows.size() + PAGE_SIZE);
+                }
+                mRows.clear();
+                mRows.addAll(rows);
+            }
+
+            final MatrixCursor result = new MatrixCursor(QUERY_PROJECTION, mRows.size());
+            final Set<Integer> hashSet = new ArraySet<>();
+            for (Object[] row : mRows) {
+                final int hash = Objects.hash(row[1], row[2]);
+                if (hashSet.contains(hash)) {
+                    continue;
+                }
+                hashSet.add(hash);
+                result.addRow(row);
+            }
+            result.setNotificationUri(getContext().getContentResolver(),
+                    UserDictionary.Words.CONTENT_URI);
+            result.registerContentObserver(mObserver);
+            return result;
+        }
+    }
+
+    /**
+     * Appends at most {@code limit} rows sorted after {@code after} and up to {@code upTo} to
+     * {@code rows}, and returns whether more rows follow.
+     */
+    private boolean queryRows(List<Object[]> rows, @Nullable Object[] after,
+            @Nullable Object[] upTo, int limit) {
+        final StringBuilder selection = new StringBuilder();
+        final List<String> selectionArgs = new ArrayList<>();
         if ("".equals(mLocale)) {
-            // Case-insensitive sort
-            candidate = getContext().getContentResolver().query(
-                    UserDictionary.Words.CONTENT_URI, QUERY_PROJECTION,
-                    QUERY_SELECTION_ALL_LOCALES, null,
-                    "UPPER(" + UserDictionary.Words.WORD + ")");
+            selection.append(QUERY_SELECTION_ALL_LOCALES);
         } else {
-            final String queryLocale = null != mLocale ? mLocale : Locale.getDefault().toString();
-            candidate = getContext().getContentResolver().query(UserDictionary.Words.CONTENT_URI,
-                    QUERY_PROJECTION, QUERY_SELECTION,
-                    new String[]{queryLocale}, "UPPER(" + UserDictionary.Words.WORD + ")");
+            selection.append(QUERY_SELECTION);
+            selectionArgs.add(null != mLocale ? mLocale : Locale.getDefault().toString());
         }
-        final Set<Integer> hashSet = new ArraySet<>();
-        for (candidate.moveToFirst(); !candidate.isAfterLast(); candidate.moveToNext()) {
-            final int id = candidate.getInt(0);
-            final String word = candidate.getString(1);
-            final String shortcut = candidate.getString(2);
-            final int hash = Objects.hash(word, shortcut);
-            if (hashSet.contains(hash)) {
-                continue;
-            }
-            hashSet.add(hash);
-            result.addRow(new Object[]{id, word, shortcut});
+        if (!TextUtils.isEmpty(mPrefix)) {
+            selection.append(" AND ").append(QUERY_SELECTION_PREFIX);
+            selectionArgs.add(escapeLikePattern(mPrefix) + "%");
+        }
+        if (after != null) {
+            selection.append(" AND ").append(QUERY_SELECTION_AFTER);
+            addKeyArgs(selectionArgs, after);
+        }
+        if (upTo != null) {
+            selection.append(" AND ").append(QUERY_SELECTION_UP_TO);
+            addKeyArgs(selectionArgs, upTo);
+        }
+        final boolean limited = limit != Integer.MAX_VALUE;
+        // The user dictionary provider passes the sort order through to SQLite. One more row
+        // than needed is read to know whether another page follows.
+        final String sortOrder = limited
+                ? QUERY_SORT_ORDER + " LIMIT " + (limit + 1) : QUERY_SORT_ORDER;
+        final Cursor candidate = getContext().getContentResolver().query(
+                UserDictionary.Words.CONTENT_URI, QUERY_PROJECTION, selection.toString(),
+                selectionArgs.toArray(new String[0]), sortOrder);
+        if (candidate == null) {
+            return false;
         }
         // The cursor needs to be closed after use, otherwise it will cause resource leakage
-        candidate.close();
-        return result;
+        try {
+            int count = 0;
+            for (candidate.moveToFirst(); !candidate.isAfterLast(); candidate.moveToNext()) {
+                if (limited && count == limit) {
+                    return true;
+                }
+                rows.add(new Object[]{candidate.getLong(0), candidate.getString(1),
+                        candidate.getString(2)});
+                count++;
+            }
+            return false;
+        } finally {
+            candidate.close();
+        }
+    }
+
+    private static void addKeyArgs(List<String> selectionArgs, Object[] row) {
+        final String sortKey = toSqlUpperCase((String) row[1]);
+        selectionArgs.add(sortKey);
+        selectionArgs.add(sortKey);
+        selectionArgs.add(String.valueOf(row[0]));
+    }
+
+    /** Same as the SQLite UPPER() function, which only converts the ASCII characters. */
+    @VisibleForTesting
+    static String toSqlUpperCase(String word) {
+        final char[] chars = word.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'a' && chars[i] <= 'z') {
+                chars[i] = (char) (chars[i] - 'a' + 'A');
+            }
+        }
+        return new String(chars);
+    }
+
+    private static String escapeLikePattern(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 }
@@ -21,9 +21,6 @@ import android.content.Intent;
 import android.database.Cursor;
 import android.provider.UserDictionary;
 import android.text.TextUtils;
-import android.view.inputmethod.InputMethodInfo;
-import android.view.inputmethod.InputMethodManager;
-import android.view.inputmethod.InputMethodSubtype;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
@@ -36,7 +33,6 @@ import com.android.settings.core.BasePreferenceController;
 import com.android.settingslib.core.lifecycle.LifecycleObserver;
 import com.android.settingslib.core.lifecycle.events.OnStart;
 
-import java.util.List;
 import java.util.Locale;
 import java.util.TreeSet;
 
@@ -105,20 +101,8 @@ public class UserDictionaryListPreferenceController extends BasePreferenceContro
         //     localeSet.add("");
         // }
 
-        final InputMethodManager imm =
-                (InputMethodManager) context.getSystemService(Context.INPUT_METHOD_SERVICE);
-        final List<InputMethodInfo> imis = imm.getEnabledInputMethodList();
-        for (final InputMethodInfo imi : imis) {
-            final List<InputMethodSubtype> subtypes =
-                    imm.getEnabledInputMethodSubtypeList(
-                            imi, true /* allowsImplicitlySelectedSubtypes */);
-            for (InputMethodSubtype subtype : subtypes) {
-                final String locale = subtype.getLocale();
-                if (!TextUtils.isEmpty(locale)) {
-                    localeSet.add(locale);
-                }
-            }
-        }
+        localeSet.addAll(
+                InputMethodCatalog.getInstance(context).getSnapshot().getEnabledSubtypeLocales());
 
         // We come here after we have collected locales from existing user dictionary entries and
         // enabled subtypes. If we already have the locale-without-country version of the system
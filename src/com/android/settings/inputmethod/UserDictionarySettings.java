@@ -32,9 +32,10 @@ import android.view.MenuInflater;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
 import android.widget.AlphabetIndexer;
-import android.widget.ListAdapter;
 import android.widget.ListView;
+import android.widget.SearchView;
 import android.widget.SectionIndexer;
 import android.widget.SimpleCursorAdapter;
 import android.widget.TextView;
@@ -49,6 +50,8 @@ import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.core.instrumentation.Instrumentable;
 import com.android.settingslib.core.instrumentation.VisibilityLoggerMixin;
 
+import java.util.Objects;
+
 public class UserDictionarySettings extends ListFragment implements Instrumentable,
         LoaderManager.LoaderCallbacks<Cursor> {
 
@@ -59,12 +62,20 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
             + UserDictionary.Words.SHORTCUT + "=''";
 
     private static final int OPTIONS_MENU_ADD = Menu.FIRST;
+    private static final int OPTIONS_MENU_SEARCH = Menu.FIRST + 1;
     private static final int LOADER_ID = 1;
+    private static final String ARG_PREFIX = "prefix";
+    private static final String KEY_PREFIX = "search_prefix";
+    // The next page is loaded when the list is scrolled this close to the last loaded word.
+    private static final int NEXT_PAGE_THRESHOLD = 50;
 
     private VisibilityLoggerMixin mVisibilityLoggerMixin;
 
     private Cursor mCursor;
+    private MyAdapter mAdapter;
     private String mLocale;
+    private String mPrefix;
+    private boolean mScrollToTop;
 
     @Override
     public int getMetricsCategory() {
@@ -96,9 +107,12 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
         }
 
         mLocale = locale;
+        if (savedInstanceState != null) {
+            mPrefix = savedInstanceState.getString(KEY_PREFIX);
+        }
 
         setHasOptionsMenu(true);
-        getLoaderManager().initLoader(LOADER_ID, null, this /* callback */);
+        getLoaderManager().initLoader(LOADER_ID, createLoaderArgs(mPrefix), this /* callback */);
     }
 
     @Override
@@ -126,16 +140,59 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
         final ListView listView = getListView();
         listView.setFastScrollEnabled(true);
         listView.setEmptyView(emptyView);
+        listView.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {
+            }
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount,
+                    int totalItemCount) {
+                if (totalItemCount > 0
+                        && firstVisibleItem + visibleItemCount
+                                >= totalItemCount - NEXT_PAGE_THRESHOLD) {
+                    loadNextPage();
+                }
+            }
+        });
+        if (mAdapter != null) {
+            // The view was recreated, the loader keeps the words loaded so far.
+            listView.setAdapter(mAdapter);
+        }
     }
 
     @Override
     public void onResume() {
         super.onResume();
         mVisibilityLoggerMixin.onResume();
-        getLoaderManager().restartLoader(LOADER_ID, null, this /* callback */);
+        // The loader observes the dictionary, the words edited meanwhile are already reloaded.
     }
 
-    private ListAdapter createAdapter() {
+    private void loadNextPage() {
+        final Loader<Cursor> loader = getLoaderManager().getLoader(LOADER_ID);
+        if (loader instanceof UserDictionaryCursorLoader) {
+            ((UserDictionaryCursorLoader) loader).loadNextPage();
+        }
+    }
+
+    private void search(String prefix) {
+        final String newPrefix = TextUtils.isEmpty(prefix) ? null : prefix;
+        if (Objects.equals(mPrefix, newPrefix)) {
+            return;
+        }
+        mPrefix = newPrefix;
+        mScrollToTop = true;
+        getLoaderManager().restartLoader(LOADER_ID, createLoaderArgs(newPrefix),
+                this /* callback */);
+    }
+
+    private static Bundle createLoaderArgs(String prefix) {
+        final Bundle args = new Bundle();
+        args.putString(ARG_PREFIX, prefix);
+        return args;
+    }
+
+    private MyAdapter createAdapter() {
         return new MyAdapter(getActivity(),
                 R.layout.user_dictionary_item, mCursor,
                 new String[]{UserDictionary.Words.WORD, UserDictionary.Words.SHORTCUT},
@@ -158,6 +215,31 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
                         .setIcon(R.drawable.ic_add_24dp);
         actionItem.setShowAsAction(MenuItem.SHOW_AS_ACTION_IF_ROOM |
                 MenuItem.SHOW_AS_ACTION_WITH_TEXT);
+
+        final SearchView searchView = new SearchView(getContext());
+        searchView.setMaxWidth(Integer.MAX_VALUE);
+        final MenuItem searchItem = menu.add(0, OPTIONS_MENU_SEARCH, 0, R.string.search_settings)
+                .setIcon(R.drawable.ic_search_24dp)
+                .setActionView(searchView);
+        searchItem.setShowAsAction(MenuItem.SHOW_AS_ACTION_IF_ROOM
+                | MenuItem.SHOW_AS_ACTION_COLLAPSE_ACTION_VIEW);
+        // Restored before listening, expanding the view clears its query.
+        if (!TextUtils.isEmpty(mPrefix)) {
+            searchItem.expandActionView();
+            searchView.setQuery(mPrefix, false /* submit */);
+        }
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                return false;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                search(newText);
+                return true;
+            }
+        });
     }
 
     @Override
@@ -169,6 +251,12 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
         return false;
     }
 
+    @Override
+    public void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putString(KEY_PREFIX, mPrefix);
+    }
+
     @Override
     public void onPause() {
         super.onPause();
@@ -234,18 +322,32 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
 
     @Override
     public Loader<Cursor> onCreateLoader(int id, Bundle args) {
-        return new UserDictionaryCursorLoader(getContext(), mLocale);
+        return new UserDictionaryCursorLoader(getContext(), mLocale,
+                args == null ? null : args.getString(ARG_PREFIX));
     }
 
     @Override
     public void onLoadFinished(Loader<Cursor> loader, Cursor data) {
         mCursor = data;
-        getListView().setAdapter(createAdapter());
+        if (mAdapter == null) {
+            mAdapter = createAdapter();
+            getListView().setAdapter(mAdapter);
+        } else {
+            // Keep the adapter, so that the list only rebinds the rows and keeps its position.
+            mAdapter.swapCursor(data);
+        }
+        if (mScrollToTop) {
+            mScrollToTop = false;
+            getListView().setSelection(0);
+        }
     }
 
     @Override
     public void onLoaderReset(Loader<Cursor> loader) {
-
+        mCursor = null;
+        if (mAdapter != null) {
+            mAdapter.swapCursor(null);
+        }
     }
 
     private static class MyAdapter extends SimpleCursorAdapter implements SectionIndexer {
@@ -284,6 +386,14 @@ public class UserDictionarySettings extends ListFragment implements Instrumentab
             setViewBinder(mViewBinder);
         }
 
+        @Override
+        public Cursor swapCursor(Cursor c) {
+            if (mIndexer != null && c != null) {
+                mIndexer.setCursor(c);
+            }
+            return super.swapCursor(c);
+        }
+
         @Override
         public int getPositionForSection(int section) {
             return null == mIndexer ? 0 : mIndexer.getPositionForSection(section);
@@ -27,6 +27,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.os.PersistableBundle;
+import android.os.SystemClock;
 import android.telephony.CarrierConfigManager;
 import android.telephony.SubscriptionManager;
 import android.util.Log;
@@ -34,11 +35,21 @@ import android.util.Log;
 import androidx.annotation.GuardedBy;
 import androidx.annotation.VisibleForTesting;
 
+import com.android.settings.network.telephony.TelephonyStateSnapshot;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This is a singleton class for Carrier-Configuration cache.
+ *
+ * <p>Cached configs are read without locking, only loading a config from
+ * {@link CarrierConfigManager} is serialized. A {@link CarrierConfigProjection} is built along
+ * with every loaded config, see {@link #getProjectionForSubId(int)}.
  */
 public class CarrierConfigCache {
     private static final String TAG = "CarrConfCache";
@@ -65,6 +76,15 @@ public class CarrierConfigCache {
     @VisibleForTesting
     protected static CarrierConfigManager sCarrierConfigManager;
 
+    // Serializes the loads and the invalidations, the cached configs are read without it.
+    private static final Object sLoadLock = new Object();
+    private static final Map<Integer, CachedProjection> sProjections = new ConcurrentHashMap<>();
+
+    private static final AtomicLong sHitCount = new AtomicLong();
+    private static final AtomicLong sMissCount = new AtomicLong();
+    private static final AtomicLong sProjectionCount = new AtomicLong();
+    private static final AtomicLong sProjectionTimeNanos = new AtomicLong();
+
     /**
      * Static method to create a singleton class for Carrier-Configuration cache.
      *
@@ -139,20 +159,89 @@ public class CarrierConfigCache {
     public PersistableBundle getConfigForSubId(int subId) {
         if (sCarrierConfigManager == null) return null;
 
-        synchronized (sCarrierConfigs) {
-            if (sCarrierConfigs.containsKey(subId)) {
-                return sCarrierConfigs.get(subId);
+        PersistableBundle config = sCarrierConfigs.get(subId);
+        if (config != null) {
+            sHitCount.incrementAndGet();
+            return config;
+        }
+        synchronized (sLoadLock) {
+            config = sCarrierConfigs.get(subId);
+            if (config != null) {
+                sHitCount.incrementAndGet();
+                return config;
             }
-            final PersistableBundle config = sCarrierConfigManager.getConfigForSubId(subId);
+            sMissCount.incrementAndGet();
+            config = sCarrierConfigManager.getConfigForSubId(subId);
             if (config == null) {
                 Log.e(TAG, "Could not get carrier config, subId:" + subId);
                 return null;
             }
+            // Publish the projection first, so it is never older than the cached config.
+            sProjections.put(subId, new CachedProjection(config, buildProjection(config)));
             sCarrierConfigs.put(subId, config);
             return config;
         }
     }
 
+    /**
+     * Gets the {@link CarrierConfigProjection} of the Carrier-Configuration for a particular
+     * subscription.
+     *
+     * @param subId the subscription ID, normally obtained from {@link SubscriptionManager}.
+     * @return the projection of {@link #getConfigForSubId(int)}, or {@code null} if there is no
+     * config.
+     */
+    public final CarrierConfigProjection getProjectionForSubId(int subId) {
+        final PersistableBundle config = getConfigForSubId(subId);
+        if (config == null) return null;
+
+        final CachedProjection cached = sProjections.get(subId);
+        if (cached != null && cached.mConfig == config) {
+            return cached.mProjection;
+        }
+        // The config was not loaded by this cache, e.g. it was provided by a test instance.
+        return CarrierConfigProjection.from(config);
+    }
+
+    /**
+     * Gets the {@link CarrierConfigProjection} of the Carrier-Configuration for the default
+     * subscription.
+     *
+     * @see #getConfig
+     */
+    public final CarrierConfigProjection getProjection() {
+        final PersistableBundle config = getConfig();
+        if (config == null) return null;
+
+        final CachedProjection cached =
+                sProjections.get(SubscriptionManager.getDefaultSubscriptionId());
+        if (cached != null && cached.mConfig == config) {
+            return cached.mProjection;
+        }
+        return CarrierConfigProjection.from(config);
+    }
+
+    /** Returns the cache statistics, for dumpsys. */
+    public static JSONObject dump() throws JSONException {
+        final JSONObject obj = new JSONObject();
+        final long projectionCount = sProjectionCount.get();
+        obj.put("hits", sHitCount.get());
+        obj.put("misses", sMissCount.get());
+        obj.put("cached_configs", sCarrierConfigs.size());
+        obj.put("projections", projectionCount);
+        obj.put("avg_projection_us", projectionCount > 0
+                ? sProjectionTimeNanos.get() / projectionCount / 1000 : 0);
+        return obj;
+    }
+
+    private static CarrierConfigProjection buildProjection(PersistableBundle config) {
+        final long startTime = SystemClock.elapsedRealtimeNanos();
+        final CarrierConfigProjection projection = CarrierConfigProjection.from(config);
+        sProjectionTimeNanos.addAndGet(SystemClock.elapsedRealtimeNanos() - startTime);
+        sProjectionCount.incrementAndGet();
+        return projection;
+    }
+
     /**
      * Gets the Carrier-Configuration for the default subscription.
      *
@@ -170,13 +259,27 @@ public class CarrierConfigCache {
             if (!ACTION_CARRIER_CONFIG_CHANGED.equals(intent.getAction())) return;
 
             final int subId = intent.getIntExtra(EXTRA_SUBSCRIPTION_INDEX, INVALID_SUBSCRIPTION_ID);
-            synchronized (sCarrierConfigs) {
+            synchronized (sLoadLock) {
                 if (SubscriptionManager.isValidSubscriptionId(subId)) {
                     sCarrierConfigs.remove(subId);
+                    sProjections.remove(subId);
+                    TelephonyStateSnapshot.invalidate(subId);
                 } else {
                     sCarrierConfigs.clear();
+                    sProjections.clear();
+                    TelephonyStateSnapshot.invalidateAll();
                 }
             }
         }
     }
+
+    private static class CachedProjection {
+        final PersistableBundle mConfig;
+        final CarrierConfigProjection mProjection;
+
+        CachedProjection(PersistableBundle config, CarrierConfigProjection projection) {
+            mConfig = config;
+            mProjection = projection;
+        }
+    }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network;
+
+import android.os.PersistableBundle;
+import android.telephony.CarrierConfigManager;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, typed view of the carrier config values read by the network settings.
+ *
+ * <p>Projections are built once per carrier config by {@link CarrierConfigCache}, so reading a
+ * value neither takes a lock nor looks up a string key in the {@link PersistableBundle}.
+ */
+public final class CarrierConfigProjection {
+
+    private final boolean mHideCarrierNetworkSettings;
+    private final boolean mWorldPhone;
+    private final boolean mWorldModeEnabled;
+    private final boolean mOperatorSelectionExpand;
+    private final boolean mCspEnabled;
+    private final boolean mSupportTdscdma;
+    @Nullable
+    private final List<String> mSupportTdscdmaRoamingNetworks;
+    private final boolean mShowApnSettingCdma;
+    private final boolean mApnExpand;
+    private final boolean mShowCdmaChoices;
+    private final boolean mCarrierProvisionsWifiMergedNetworks;
+
+    /** Returns the projection of {@code config}, or {@code null} if {@code config} is null. */
+    @Nullable
+    public static CarrierConfigProjection from(@Nullable PersistableBundle config) {
+        return config == null ? null : new CarrierConfigProjection(config);
+    }
+
+    private CarrierConfigProjection(@NonNull PersistableBundle config) {
+        mHideCarrierNetworkSettings = config.getBoolean(
+                CarrierConfigManager.KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL);
+        mWorldPhone = config.getBoolean(CarrierConfigManager.KEY_WORLD_PHONE_BOOL);
+        mWorldModeEnabled = config.getBoolean(CarrierConfigManager.KEY_WORLD_MODE_ENABLED_BOOL);
+        mOperatorSelectionExpand = config.getBoolean(
+                CarrierConfigManager.KEY_OPERATOR_SELECTION_EXPAND_BOOL);
+        mCspEnabled = config.getBoolean(CarrierConfigManager.KEY_CSP_ENABLED_BOOL);
+        mSupportTdscdma = config.getBoolean(CarrierConfigManager.KEY_SUPPORT_TDSCDMA_BOOL);
+        final String[] roamingNetworks = config.getStringArray(
+                CarrierConfigManager.KEY_SUPPORT_TDSCDMA_ROAMING_NETWORKS_STRING_ARRAY);
+        mSupportTdscdmaRoamingNetworks = roamingNetworks == null ? null
+                : Collections.unmodifiableList(Arrays.asList(roamingNetworks.clone()));
+        mShowApnSettingCdma = config.getBoolean(
+                CarrierConfigManager.KEY_SHOW_APN_SETTING_CDMA_BOOL);
+        mApnExpand = config.getBoolean(CarrierConfigManager.KEY_APN_EXPAND_BOOL);
+        mShowCdmaChoices = config.getBoolean(CarrierConfigManager.KEY_SHOW_CDMA_CHOICES_BOOL);
+        mCarrierProvisionsWifiMergedNetworks = config.getBoolean(
+                CarrierConfigManager.KEY_CARRIER_PROVISIONS_WIFI_MERGED_NETWORKS_BOOL);
+    }
+
+    /** See {@link CarrierConfigManager#KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL}. */
+    public boolean hideCarrierNetworkSettings() {
+        return mHideCarrierNetworkSettings;
+    }
+
+    /** See {@link CarrierConfigManager#KEY_WORLD_PHONE_BOOL}. */
+    public boolean isWorldPhone() {
+        return mWorldPhone;
+    }
+
+    /** See {@link CarrierConfigManager#KEY_WORLD_MODE_ENABLED_BOOL}. */
+    public boolean isWorldModeEnabled() {
+        return mWorldModeEnabled;
+    }
+
+    /** See {@link CarrierConfigManager#KEY_OPERATOR_SELECTION_EXPAND_BOOL}. */
+    public boolean isOperatorSelectionExpand() {
+        return mOperatorSelectionExpand;
+    }
+
+    /** See {@link CarrierConfigManager#KEY_CSP_ENABLED_BOOL}. */
+    public boolean isCspEnabled() {
+        return mCspEnabled;
+    }
+
+    /** See {@link CarrierConfigManager#KEY_SUPPORT_TDSCDMA_BOOL}. */
+    public boolean isTdscdmaSupported() {
+        return mSupportTdscdma;
+    }
+
+    /**
+     * See {@link CarrierConfigManager#KEY_SUPPORT_TDSCDMA_ROAMING_NETWORKS_STRING_ARRAY}, may be
+     * null.
+     */
+    @Nullable
+    public List<String> getTdscdmaRoamingNetworks() {
+        return mSupportTdscdmaRoamingNetworks;
+    }
+
+    /** See {@link CarrierConfigManager#KEY_SHOW_APN_SETTING_CDMA_BOOL}. */
+    public boolean showApnSettingCdma() {
+        return mShowApnSettingCdma;
+    }
+
+    /** See {@link CarrierConfigManager#KEY_APN_EXPAND_BOOL}. */
+    public boolean isApnExpand() {
+        return mApnExpand;
+    }
+
+    /** See {@link CarrierConfigManager#KEY_SHOW_CDMA_CHOICES_BOOL}. */
+    public boolean showCdmaChoices() {
+        return mShowCdmaChoices;
+    }
+
+    /** See {@link CarrierConfigManager#KEY_CARRIER_PROVISIONS_WIFI_MERGED_NETWORKS_BOOL}. */
+    public boolean carrierProvisionsWifiMergedNetworks() {
+        return mCarrierProvisionsWifiMergedNetworks;
+    }
+}
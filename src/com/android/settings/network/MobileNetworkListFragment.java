@@ -64,6 +64,7 @@ public class MobileNetworkListFragment extends DashboardFragment {
             finish();
             return controllers;
         }
+        SubscriptionSnapshotService.observe(context, getSettingsLifecycle());
 
         NetworkProviderSimsCategoryController simCategoryPrefCtrl =
                 new NetworkProviderSimsCategoryController(context, KEY_PREFERENCE_CATEGORY_SIM,
@@ -56,6 +56,7 @@ public class NetworkProviderCallsSmsFragment extends DashboardFragment {
 
     @Override
     protected List<AbstractPreferenceController> createPreferenceControllers(Context context) {
+        SubscriptionSnapshotService.observe(context, getSettingsLifecycle());
         final List<AbstractPreferenceController> controllers = new ArrayList<>();
         controllers.add(new CallsDefaultSubscriptionController(context, KEY_PREFERENCE_CALLS));
         controllers.add(new SmsDefaultSubscriptionController(context, KEY_PREFERENCE_SMS));
@@ -32,7 +32,6 @@ import android.net.NetworkTemplate;
 import android.net.wifi.WifiConfiguration;
 import android.net.wifi.WifiManager;
 import android.os.Bundle;
-import android.os.Handler;
 import android.os.PowerManager;
 import android.os.UserHandle;
 import android.os.UserManager;
@@ -195,8 +194,10 @@ public class NetworkProviderSettings extends RestrictedSettingsFragment
     };
 
     private boolean mIsWifiEntryListStale = true;
+    private boolean mIsWifiEntryUpdatePending;
     @VisibleForTesting
     final Runnable mUpdateWifiEntryPreferencesRunnable = () -> {
+        mIsWifiEntryUpdatePending = false;
         updateWifiEntryPreferences();
         getView().postDelayed(mRemoveLoadingRunnable, 10);
     };
@@ -432,7 +433,8 @@ public class NetworkProviderSettings extends RestrictedSettingsFragment
 
         if (hasWifiManager()) {
             mWifiPickerTrackerHelper =
-                    new WifiPickerTrackerHelper(getSettingsLifecycle(), getContext(), this);
+                    new WifiPickerTrackerHelper(getSettingsLifecycle(), getContext(), this,
+                            true /* shared */);
             mWifiPickerTracker = mWifiPickerTrackerHelper.getWifiPickerTracker();
         }
         mInternetUpdater = new InternetUpdater(getContext(), getSettingsLifecycle(), this);
@@ -500,6 +502,7 @@ public class NetworkProviderSettings extends RestrictedSettingsFragment
     public void onAttach(Context context) {
         super.onAttach(context);
 
+        SubscriptionSnapshotService.observe(context, getSettingsLifecycle());
     }
 
     @Override
@@ -549,6 +552,7 @@ public class NetworkProviderSettings extends RestrictedSettingsFragment
     @Override
     public void onStop() {
         mIsWifiEntryListStale = true;
+        mIsWifiEntryUpdatePending = false;
         getView().removeCallbacks(mRemoveLoadingRunnable);
         getView().removeCallbacks(mUpdateWifiEntryPreferencesRunnable);
         getView().removeCallbacks(mHideProgressBarRunnable);
@@ -962,20 +966,20 @@ public class NetworkProviderSettings extends RestrictedSettingsFragment
     }
 
     /**
-     * Updates WifiEntries from {@link WifiPickerTracker#getWifiEntries()}. Adds a delay to have
-     * progress bar displayed before starting to modify entries.
+     * Updates WifiEntries from {@link WifiPickerTracker#getWifiEntries()} on the next frame, so
+     * the progress bar is displayed before starting to modify entries. Changes reported until
+     * then are applied by the same update, at most once per frame.
      */
     private void updateWifiEntryPreferencesDelayed() {
         // Safeguard from some delayed event handling
         if (getActivity() != null && getView() != null && !mIsRestricted && mWifiPickerTracker != null
                 && mWifiPickerTracker.getWifiState() == WifiManager.WIFI_STATE_ENABLED) {
-            final View view = getView();
-            final Handler handler = view.getHandler();
-            if (handler != null && handler.hasCallbacks(mUpdateWifiEntryPreferencesRunnable)) {
+            if (mIsWifiEntryUpdatePending) {
                 return;
             }
+            mIsWifiEntryUpdatePending = true;
             setProgressBarVisible(true);
-            view.postDelayed(mUpdateWifiEntryPreferencesRunnable, 300);
+            getView().postOnAnimation(mUpdateWifiEntryPreferencesRunnable);
         }
     }
 
@@ -1039,13 +1043,11 @@ public class NetworkProviderSettings extends RestrictedSettingsFragment
             LongPressWifiEntryPreference pref =
                     (LongPressWifiEntryPreference) getCachedPreference(key);
             if (pref != null) {
-                if (pref.getWifiEntry() == wifiEntry) {
-                    pref.setOrder(index++);
-                    continue;
-                } else {
-                    // Create a new preference if the underlying WifiEntry object has changed
-                    removePreference(key);
-                }
+                // Preferences are matched by key, a new WifiEntry object for the same network
+                // is rebound in place and only the changed title, summary or icon is redrawn.
+                pref.setWifiEntry(wifiEntry);
+                pref.setOrder(index++);
+                continue;
             }
 
             pref = createLongPressWifiEntryPreference(wifiEntry);
@@ -1053,11 +1055,10 @@ public class NetworkProviderSettings extends RestrictedSettingsFragment
             pref.setOrder(index++);
             pref.refresh();
 
-            if (wifiEntry.getHelpUriString() != null) {
-                pref.setOnButtonClickListener(preference -> {
-                    openSubscriptionHelpPage(wifiEntry);
-                });
-            }
+            // Only shown when the bound WifiEntry has a help URI.
+            pref.setOnButtonClickListener(preference -> {
+                openSubscriptionHelpPage(preference.getWifiEntry());
+            });
             mWifiEntryPreferenceCategory.addPreference(pref);
         }
         removeCachedPrefs(mWifiEntryPreferenceCategory);
@@ -1072,6 +1073,7 @@ public class NetworkProviderSettings extends RestrictedSettingsFragment
             mWifiEntryPreferenceCategory.addPreference(pref);
         } else {
             // Continuing showing progress bar for an additional delay to overlap with animation
+            getView().removeCallbacks(mHideProgressBarRunnable);
             getView().postDelayed(mHideProgressBarRunnable, 1700 /* delay millis */);
         }
 
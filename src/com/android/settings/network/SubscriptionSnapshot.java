@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network;
+
+import static android.telephony.SubscriptionManager.INVALID_SIM_SLOT_INDEX;
+
+import android.content.Context;
+import android.os.ParcelUuid;
+import android.telephony.SubscriptionInfo;
+import android.telephony.SubscriptionManager;
+import android.telephony.TelephonyManager;
+import android.telephony.UiccSlotInfo;
+import android.util.ArrayMap;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of the subscriptions, along with the data {@link SubscriptionUtil} derives from
+ * them: the user selectable subscriptions, their unique display names, the eSIM groups and the
+ * logical slot of every subscription.
+ *
+ * <p>Snapshots are built off the main thread by {@link SubscriptionSnapshotService} and can be
+ * read from any thread without locking. {@link #getVersion()} increases with every rebuild.
+ */
+public class SubscriptionSnapshot {
+
+    private final long mVersion;
+    @Nullable
+    private final List<SubscriptionInfo> mAvailableSubscriptions;
+    @Nullable
+    private final List<SubscriptionInfo> mSelectableSubscriptions;
+    private final Map<Integer, SubscriptionInfo> mAllSubscriptions;
+    private final Map<Integer, CharSequence> mUniqueDisplayNames;
+    private final Map<ParcelUuid, List<SubscriptionInfo>> mEmbeddedGroups;
+    @Nullable
+    private final UiccSlotInfo[] mUiccSlotsInfo;
+
+    /** Reads the current subscriptions and computes the derived data. */
+    static SubscriptionSnapshot create(Context context, long version) {
+        final SubscriptionManager subManager = context.getSystemService(SubscriptionManager.class);
+        final TelephonyManager telManager = context.getSystemService(TelephonyManager.class);
+        final List<SubscriptionInfo> available = subManager.getAvailableSubscriptionInfoList();
+        final List<SubscriptionInfo> all = subManager.getAllSubscriptionInfoList();
+        final List<SubscriptionInfo> selectable =
+                SubscriptionUtil.computeSelectableSubscriptionInfoList(context, subManager,
+                        available);
+        final Map<Integer, CharSequence> uniqueDisplayNames =
+                SubscriptionUtil.computeUniqueSubscriptionDisplayNames(context,
+                        selectable == null ? Collections.emptyList() : selectable);
+        return new SubscriptionSnapshot(version, available, selectable, all, uniqueDisplayNames,
+                telManager.getUiccSlotsInfo());
+    }
+
+    @VisibleForTesting
+    SubscriptionSnapshot(long version, @Nullable List<SubscriptionInfo> available,
+            @Nullable List<SubscriptionInfo> selectable, @Nullable List<SubscriptionInfo> all,
+            Map<Integer, CharSequence> uniqueDisplayNames, @Nullable UiccSlotInfo[] slotsInfo) {
+        mVersion = version;
+        mAvailableSubscriptions = available == null ? null
+                : Collections.unmodifiableList(new ArrayList<>(available));
+        mSelectableSubscriptions = selectable == null ? null
+                : Collections.unmodifiableList(new ArrayList<>(selectable));
+        mUniqueDisplayNames = Collections.unmodifiableMap(new ArrayMap<>(uniqueDisplayNames));
+        mUiccSlotsInfo = slotsInfo;
+
+        final Map<Integer, SubscriptionInfo> allSubscriptions = new ArrayMap<>();
+        if (all != null) {
+            for (SubscriptionInfo info : all) {
+                allSubscriptions.put(info.getSubscriptionId(), info);
+            }
+        }
+        mAllSubscriptions = Collections.unmodifiableMap(allSubscriptions);
+
+        final Map<ParcelUuid, List<SubscriptionInfo>> embeddedGroups = new ArrayMap<>();
+        if (mAvailableSubscriptions != null) {
+            for (SubscriptionInfo info : mAvailableSubscriptions) {
+                final ParcelUuid groupUuid = info.getGroupUuid();
+                if (info.isEmbedded() && groupUuid != null) {
+                    embeddedGroups.computeIfAbsent(groupUuid, uuid -> new ArrayList<>()).add(info);
+                }
+            }
+        }
+        mEmbeddedGroups = Collections.unmodifiableMap(embeddedGroups);
+    }
+
+    /** Returns the version of this snapshot, higher for newer snapshots. */
+    public long getVersion() {
+        return mVersion;
+    }
+
+    /** Returns {@link SubscriptionManager#getAvailableSubscriptionInfoList()}, may be null. */
+    @Nullable
+    public List<SubscriptionInfo> getAvailableSubscriptionInfoList() {
+        return mAvailableSubscriptions;
+    }
+
+    /** See {@link SubscriptionUtil#getSelectableSubscriptionInfoList(Context)}. */
+    @Nullable
+    public List<SubscriptionInfo> getSelectableSubscriptionInfoList() {
+        return mSelectableSubscriptions;
+    }
+
+    /** See {@link SubscriptionUtil#getUniqueSubscriptionDisplayNames(Context)}. */
+    public Map<Integer, CharSequence> getUniqueDisplayNames() {
+        return mUniqueDisplayNames;
+    }
+
+    /** Returns the subscription {@code subId}, active or not, or null if there is none. */
+    @Nullable
+    public SubscriptionInfo getSubscription(int subId) {
+        return mAllSubscriptions.get(subId);
+    }
+
+    /**
+     * Returns the logical slot of {@code subId}, or {@code INVALID_SIM_SLOT_INDEX} if it is not
+     * active.
+     */
+    public int getSimSlotIndex(int subId) {
+        final SubscriptionInfo info = mAllSubscriptions.get(subId);
+        return info == null ? INVALID_SIM_SLOT_INDEX : info.getSimSlotIndex();
+    }
+
+    /** See {@link SubscriptionUtil#findAllSubscriptionsInGroup(SubscriptionManager, int)}. */
+    public List<SubscriptionInfo> findAllSubscriptionsInGroup(int subId) {
+        final SubscriptionInfo subscription = getSubscription(subId);
+        if (subscription == null) {
+            return Collections.emptyList();
+        }
+        final ParcelUuid groupUuid = subscription.getGroupUuid();
+        if (mAvailableSubscriptions == null || mAvailableSubscriptions.isEmpty()
+                || groupUuid == null) {
+            return Collections.singletonList(subscription);
+        }
+        final List<SubscriptionInfo> group = mEmbeddedGroups.get(groupUuid);
+        return group == null ? new ArrayList<>() : new ArrayList<>(group);
+    }
+
+    /** Returns {@link TelephonyManager#getUiccSlotsInfo()}, may be null. */
+    @Nullable
+    public UiccSlotInfo[] getUiccSlotsInfo() {
+        return mUiccSlotsInfo;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.telephony.SubscriptionManager;
+import android.telephony.TelephonyManager;
+import android.util.Log;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleObserver;
+import androidx.lifecycle.OnLifecycleEvent;
+
+/**
+ * Keeps a {@link SubscriptionSnapshot} up to date while at least one network screen is started.
+ *
+ * <p>The snapshot is rebuilt on a worker thread once per {@link SubscriptionManager} change, and
+ * once per SIM slot change since it also holds the UICC slots.
+ * It is dropped as soon as a change is reported, so {@link #getSnapshot()} returns
+ * {@code null} and {@link SubscriptionUtil} queries the subscriptions directly until the new
+ * snapshot is ready.
+ */
+public class SubscriptionSnapshotService {
+    private static final String TAG = "SubscriptionSnapshot";
+
+    private static final SubscriptionSnapshotService sInstance = new SubscriptionSnapshotService();
+
+    private final Object mLock = new Object();
+    private final Runnable mRebuildRunnable = this::rebuild;
+    private final SubscriptionManager.OnSubscriptionsChangedListener mListener =
+            new SubscriptionManager.OnSubscriptionsChangedListener() {
+                @Override
+                public void onSubscriptionsChanged() {
+                    onChanged();
+                }
+            };
+    // A SIM slot can change, for example its active port, without any subscription changing.
+    private final BroadcastReceiver mSlotReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            onChanged();
+        }
+    };
+
+    private volatile SubscriptionSnapshot mSnapshot;
+
+    @GuardedBy("mLock")
+    private int mStartedCount;
+    @GuardedBy("mLock")
+    private long mVersion;
+    @GuardedBy("mLock")
+    private Context mContext;
+    @GuardedBy("mLock")
+    private HandlerThread mWorkerThread;
+    @GuardedBy("mLock")
+    private Handler mWorkerHandler;
+
+    /**
+     * Returns the current snapshot, or {@code null} if no screen observes the subscriptions or
+     * the snapshot is being rebuilt.
+     */
+    @Nullable
+    public static SubscriptionSnapshot getSnapshot() {
+        return sInstance.mSnapshot;
+    }
+
+    /** Keeps the snapshot up to date while {@code lifecycle} is started. */
+    public static void observe(@NonNull Context context, @NonNull Lifecycle lifecycle) {
+        final Context appContext = context.getApplicationContext();
+        lifecycle.addObserver(new LifecycleObserver() {
+            /** @OnLifecycleEvent(ON_START) */
+            @OnLifecycleEvent(Lifecycle.Event.ON_START)
+            public void onStart() {
+                sInstance.start(appContext);
+            }
+
+            /** @OnLifecycleEvent(ON_STOP) */
+            @OnLifecycleEvent(Lifecycle.Event.ON_STOP)
+            public void onStop() {
+                sInstance.stop();
+            }
+        });
+    }
+
+    @VisibleForTesting
+    SubscriptionSnapshotService() {
+    }
+
+    @VisibleForTesting
+    void start(Context context) {
+        synchronized (mLock) {
+            if (mStartedCount++ > 0) {
+                return;
+            }
+            mContext = context;
+            mWorkerThread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+            mWorkerThread.start();
+            mWorkerHandler = mWorkerThread.getThreadHandler();
+            // The listener reports a change once registered, which builds the first snapshot.
+            // It runs on the binder thread so the snapshot is dropped as early as possible.
+            context.getSystemService(SubscriptionManager.class)
+                    .addOnSubscriptionsChangedListener(Runnable::run, mListener);
+            context.registerReceiver(mSlotReceiver,
+                    new IntentFilter(TelephonyManager.ACTION_SIM_SLOT_STATUS_CHANGED));
+        }
+    }
+
+    @VisibleForTesting
+    void stop() {
+        synchronized (mLock) {
+            if (mStartedCount == 0 || --mStartedCount > 0) {
+                return;
+            }
+            mContext.getSystemService(SubscriptionManager.class)
+                    .removeOnSubscriptionsChangedListener(mListener);
+            mContext.unregisterReceiver(mSlotReceiver);
+            mWorkerThread.quit();
+            mWorkerThread = null;
+            mWorkerHandler = null;
+            mContext = null;
+            mVersion++;
+            mSnapshot = null;
+        }
+    }
+
+    @VisibleForTesting
+    void onChanged() {
+        synchronized (mLock) {
+            mVersion++;
+            mSnapshot = null;
+            if (mWorkerHandler != null) {
+                // Changes reported before the rebuild runs are coalesced into it.
+                mWorkerHandler.removeCallbacks(mRebuildRunnable);
+                mWorkerHandler.post(mRebuildRunnable);
+            }
+        }
+    }
+
+    private void rebuild() {
+        final Context context;
+        final long version;
+        synchronized (mLock) {
+            if (mContext == null) {
+                return;
+            }
+            context = mContext;
+            version = mVersion;
+        }
+        final SubscriptionSnapshot snapshot;
+        try {
+            snapshot = SubscriptionSnapshot.create(context, version);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Failed to build the subscription snapshot", e);
+            return;
+        }
+        synchronized (mLock) {
+            // Publish only if nothing changed meanwhile, otherwise another rebuild is pending.
+            if (version == mVersion) {
+                mSnapshot = snapshot;
+            }
+        }
+    }
+}
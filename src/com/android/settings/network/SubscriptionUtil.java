@@ -72,6 +72,24 @@ public class SubscriptionUtil {
         sActiveResultsForTesting = results;
     }
 
+    /** Returns the subscription snapshot, or {@code null} if it is absent or overridden by tests. */
+    @Nullable
+    private static SubscriptionSnapshot getSnapshot() {
+        return sAvailableResultsForTesting == null ? SubscriptionSnapshotService.getSnapshot()
+                : null;
+    }
+
+    /**
+     * Returns the subscription snapshot if it holds what {@code subscriptionManager} would return,
+     * that is if it is the system service and not one substituted by a caller or a test.
+     */
+    @Nullable
+    private static SubscriptionSnapshot getSnapshot(SubscriptionManager subscriptionManager) {
+        return subscriptionManager != null
+                && subscriptionManager.getClass() == SubscriptionManager.class
+                ? getSnapshot() : null;
+    }
+
     public static List<SubscriptionInfo> getActiveSubscriptions(SubscriptionManager manager) {
         if (sActiveResultsForTesting != null) {
             return sActiveResultsForTesting;
@@ -148,6 +166,10 @@ public class SubscriptionUtil {
     }
 
     private static UiccSlotInfo [] getUiccSlotsInfo(Context context) {
+        final SubscriptionSnapshot snapshot = getSnapshot();
+        if (snapshot != null) {
+            return snapshot.getUiccSlotsInfo();
+        }
         final TelephonyManager telMgr = context.getSystemService(TelephonyManager.class);
         return telMgr.getUiccSlotsInfo();
     }
@@ -254,6 +276,19 @@ public class SubscriptionUtil {
      */
     @VisibleForTesting
     public static Map<Integer, CharSequence> getUniqueSubscriptionDisplayNames(Context context) {
+        final SubscriptionSnapshot snapshot = getSnapshot();
+        if (snapshot != null) {
+            return new HashMap<>(snapshot.getUniqueDisplayNames());
+        }
+        return computeUniqueSubscriptionDisplayNames(context, getAvailableSubscriptions(context));
+    }
+
+    /**
+     * Computes the unique display names of {@code availableSubscriptions}, see
+     * {@link #getUniqueSubscriptionDisplayNames(Context)}.
+     */
+    static Map<Integer, CharSequence> computeUniqueSubscriptionDisplayNames(Context context,
+            List<SubscriptionInfo> availableSubscriptions) {
         class DisplayInfo {
             public SubscriptionInfo subscriptionInfo;
             public CharSequence originalName;
@@ -262,7 +297,7 @@ public class SubscriptionUtil {
 
         // Map of SubscriptionId to DisplayName
         final Supplier<Stream<DisplayInfo>> originalInfos =
-                () -> getAvailableSubscriptions(context)
+                () -> availableSubscriptions
                 .stream()
                 .filter(i -> {
                     // Filter out null values.
@@ -388,6 +423,10 @@ public class SubscriptionUtil {
      * Get phoneId or logical slot index for a subId if active, or INVALID_PHONE_INDEX if inactive.
      */
     public static int getPhoneId(Context context, int subId) {
+        final SubscriptionSnapshot snapshot = getSnapshot();
+        if (snapshot != null) {
+            return snapshot.getSimSlotIndex(subId);
+        }
         final SubscriptionManager subManager = context.getSystemService(SubscriptionManager.class);
         if (subManager == null) {
             return INVALID_SIM_SLOT_INDEX;
@@ -405,8 +444,23 @@ public class SubscriptionUtil {
      * @return list of user selectable subscriptions.
      */
     public static List<SubscriptionInfo> getSelectableSubscriptionInfoList(Context context) {
+        final SubscriptionSnapshot snapshot = getSnapshot();
+        if (snapshot != null) {
+            final List<SubscriptionInfo> selectableList =
+                    snapshot.getSelectableSubscriptionInfoList();
+            return selectableList == null ? null : new ArrayList<>(selectableList);
+        }
         SubscriptionManager subManager = context.getSystemService(SubscriptionManager.class);
-        List<SubscriptionInfo> availableList = subManager.getAvailableSubscriptionInfoList();
+        return computeSelectableSubscriptionInfoList(context, subManager,
+                subManager.getAvailableSubscriptionInfoList());
+    }
+
+    /**
+     * Computes the subscriptions of {@code availableList} which are visible to the user, see
+     * {@link #getSelectableSubscriptionInfoList(Context)}.
+     */
+    static List<SubscriptionInfo> computeSelectableSubscriptionInfoList(Context context,
+            SubscriptionManager subManager, List<SubscriptionInfo> availableList) {
         if (availableList == null) {
             return null;
         } else {
@@ -482,6 +536,10 @@ public class SubscriptionUtil {
         if (subId == SubscriptionManager.INVALID_SUBSCRIPTION_ID) {
             return null;
         }
+        final SubscriptionSnapshot snapshot = getSnapshot(subscriptionManager);
+        if (snapshot != null) {
+            return snapshot.getSubscription(subId);
+        }
         return subscriptionManager
                 .getAllSubscriptionInfoList()
                 .stream()
@@ -522,6 +580,10 @@ public class SubscriptionUtil {
      */
     public static List<SubscriptionInfo> findAllSubscriptionsInGroup(
             SubscriptionManager subscriptionManager, int subId) {
+        final SubscriptionSnapshot snapshot = getSnapshot(subscriptionManager);
+        if (snapshot != null) {
+            return snapshot.findAllSubscriptionsInGroup(subId);
+        }
 
         SubscriptionInfo subscription = getSubById(subscriptionManager, subId);
         if (subscription == null) {
@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network.apn;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.Telephony;
+import android.util.Log;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the APNs shown by {@link ApnSettings} off the main thread.
+ *
+ * <p>Rows are read from the cursor in windows of {@link #WINDOW_SIZE} and each window is posted
+ * to the main thread as soon as it is read, so the first APNs show up before a long list is fully
+ * loaded. Starting a load supersedes the previous one, whose remaining windows are dropped.
+ * The preferred APN is queried at most once until {@link #invalidatePreferredApn()} is called.
+ */
+class ApnListLoader {
+    private static final String TAG = "ApnListLoader";
+
+    @VisibleForTesting
+    static final int WINDOW_SIZE = 50;
+
+    @VisibleForTesting
+    static final String[] CARRIERS_PROJECTION = new String[] {
+            Telephony.Carriers._ID,
+            Telephony.Carriers.NAME,
+            Telephony.Carriers.APN,
+            Telephony.Carriers.TYPE,
+            Telephony.Carriers.MVNO_TYPE,
+            Telephony.Carriers.MVNO_MATCH_DATA,
+            Telephony.Carriers.EDITED_STATUS,
+    };
+
+    private static final int ID_INDEX = 0;
+    private static final int NAME_INDEX = 1;
+    private static final int APN_INDEX = 2;
+    private static final int TYPES_INDEX = 3;
+    private static final int MVNO_TYPE_INDEX = 4;
+    private static final int MVNO_MATCH_DATA_INDEX = 5;
+    private static final int EDITED_INDEX = 6;
+
+    /** Receives the result of a load on the main thread. */
+    interface Callback {
+        /**
+         * Called with the next window of rows, in the provider order.
+         *
+         * @param preferredKey the key of the preferred APN, or {@code null} if there is none.
+         */
+        void onApnsLoaded(List<ApnEntry> entries, String preferredKey);
+
+        /** Called once every row of the load was delivered. */
+        void onLoadFinished();
+    }
+
+    /** One row of the APN provider. */
+    static class ApnEntry {
+        final String mKey;
+        final String mName;
+        final String mApn;
+        final String mType;
+        final String mMvnoType;
+        final String mMvnoMatchData;
+        final int mEdited;
+
+        ApnEntry(String key, String name, String apn, String type, String mvnoType,
+                String mvnoMatchData, int edited) {
+            mKey = key;
+            mName = name;
+            mApn = apn;
+            mType = type;
+            mMvnoType = mvnoType;
+            mMvnoMatchData = mvnoMatchData;
+            mEdited = edited;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ApnEntry)) {
+                return false;
+            }
+            final ApnEntry other = (ApnEntry) o;
+            return mEdited == other.mEdited
+                    && Objects.equals(mKey, other.mKey)
+                    && Objects.equals(mName, other.mName)
+                    && Objects.equals(mApn, other.mApn)
+                    && Objects.equals(mType, other.mType)
+                    && Objects.equals(mMvnoType, other.mMvnoType)
+                    && Objects.equals(mMvnoMatchData, other.mMvnoMatchData);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mKey, mName, mApn, mType, mMvnoType, mMvnoMatchData, mEdited);
+        }
+    }
+
+    private final ContentResolver mContentResolver;
+    private final Callback mCallback;
+    private final Executor mExecutor;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger mGeneration = new AtomicInteger();
+    // Only accessed on the main thread.
+    private boolean mReleased;
+
+    @GuardedBy("this")
+    private Uri mPreferredApnUri;
+    @GuardedBy("this")
+    private String mPreferredKey;
+    // Bumped on every change of the cached value, so a stale query does not overwrite it.
+    @GuardedBy("this")
+    private int mPreferredApnVersion;
+
+    ApnListLoader(ContentResolver contentResolver, Callback callback) {
+        this(contentResolver, callback, Executors.newSingleThreadExecutor());
+    }
+
+    @VisibleForTesting
+    ApnListLoader(ContentResolver contentResolver, Callback callback, Executor executor) {
+        mContentResolver = contentResolver;
+        mCallback = callback;
+        mExecutor = executor;
+    }
+
+    /**
+     * Loads the rows of {@code apnUri} matching {@code selection}, along with the preferred APN
+     * stored at {@code preferredApnUri}.
+     */
+    void load(Uri apnUri, String selection, Uri preferredApnUri) {
+        if (mReleased) {
+            return;
+        }
+        final int generation = mGeneration.incrementAndGet();
+        mExecutor.execute(() -> loadInBackground(generation, apnUri, selection, preferredApnUri));
+    }
+
+    /**
+     * Stores {@code key} as the preferred APN at {@code preferredApnUri}. Loads started afterwards
+     * see the new value without querying it, and the loads in progress deliver it instead of the
+     * value they read.
+     */
+    void setPreferredApn(Uri preferredApnUri, String key) {
+        if (mReleased) {
+            return;
+        }
+        synchronized (this) {
+            mPreferredApnUri = preferredApnUri;
+            mPreferredKey = key;
+            mPreferredApnVersion++;
+        }
+        final ContentValues values = new ContentValues();
+        values.put(ApnSettings.APN_ID, key);
+        mExecutor.execute(() -> mContentResolver.update(preferredApnUri, values, null, null));
+    }
+
+    /** Makes the next load query the preferred APN again. */
+    synchronized void invalidatePreferredApn() {
+        mPreferredApnUri = null;
+        mPreferredKey = null;
+        mPreferredApnVersion++;
+    }
+
+    /** Drops the pending results and stops the background thread. */
+    void release() {
+        mReleased = true;
+        mGeneration.incrementAndGet();
+        mMainHandler.removeCallbacksAndMessages(null);
+        if (mExecutor instanceof ExecutorService) {
+            ((ExecutorService) mExecutor).shutdown();
+        }
+    }
+
+    private void loadInBackground(int generation, Uri apnUri, String selection,
+            Uri preferredApnUri) {
+        if (generation != mGeneration.get()) {
+            return;
+        }
+        final int preferredApnVersion;
+        synchronized (this) {
+            preferredApnVersion = mPreferredApnVersion;
+        }
+        final String preferredKey = getPreferredKey(preferredApnUri);
+        try (Cursor cursor = mContentResolver.query(apnUri, CARRIERS_PROJECTION, selection, null,
+                Telephony.Carriers.DEFAULT_SORT_ORDER)) {
+            if (cursor == null) {
+                Log.w(TAG, "No cursor for " + apnUri);
+                return;
+            }
+            List<ApnEntry> window = new ArrayList<>(Math.min(cursor.getCount(), WINDOW_SIZE));
+            while (cursor.moveToNext()) {
+                window.add(new ApnEntry(
+                        cursor.getString(ID_INDEX),
+                        cursor.getString(NAME_INDEX),
+                        cursor.getString(APN_INDEX),
+                        cursor.getString(TYPES_INDEX),
+                        cursor.getString(MVNO_TYPE_INDEX),
+                        cursor.getString(MVNO_MATCH_DATA_INDEX),
+                        cursor.getInt(EDITED_INDEX)));
+                if (window.size() == WINDOW_SIZE) {
+                    if (generation != mGeneration.get()) {
+                        return;
+                    }
+                    postWindow(generation, window, preferredKey, preferredApnVersion);
+                    window = new ArrayList<>(WINDOW_SIZE);
+                }
+            }
+            if (!window.isEmpty()) {
+                postWindow(generation, window, preferredKey, preferredApnVersion);
+            }
+        }
+        mMainHandler.post(() -> {
+            if (generation == mGeneration.get()) {
+                mCallback.onLoadFinished();
+            }
+        });
+    }
+
+    private void postWindow(int generation, List<ApnEntry> window, String preferredKey,
+            int preferredApnVersion) {
+        mMainHandler.post(() -> {
+            if (generation == mGeneration.get()) {
+                mCallback.onApnsLoaded(window,
+                        getDeliveredPreferredKey(preferredKey, preferredApnVersion));
+            }
+        });
+    }
+
+    /** Returns the APN selected since {@code preferredKey} was read, if any. */
+    private synchronized String getDeliveredPreferredKey(String preferredKey,
+            int preferredApnVersion) {
+        // An invalidated value is read again by the load that follows.
+        if (preferredApnVersion != mPreferredApnVersion && mPreferredKey != null) {
+            return mPreferredKey;
+        }
+        return preferredKey;
+    }
+
+    private String getPreferredKey(Uri preferredApnUri) {
+        final int version;
+        synchronized (this) {
+            if (preferredApnUri.equals(mPreferredApnUri)) {
+                return mPreferredKey;
+            }
+            version = mPreferredApnVersion;
+        }
+        String key = null;
+        try (Cursor cursor = mContentResolver.query(preferredApnUri, new String[] {"_id"},
+                null, null, Telephony.Carriers.DEFAULT_SORT_ORDER)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                key = cursor.getString(ID_INDEX);
+            }
+        }
+        synchronized (this) {
+            if (version == mPreferredApnVersion) {
+                mPreferredApnUri = preferredApnUri;
+                mPreferredKey = key;
+            }
+        }
+        return key;
+    }
+}
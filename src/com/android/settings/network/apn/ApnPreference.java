@@ -114,6 +114,13 @@ public class ApnPreference extends Preference implements CompoundButton.OnChecke
         sSelectedKey = getKey();
     }
 
+    /**
+     * Set the key of the checked preference, {@code null} if none is checked.
+     */
+    static void setSelectedKey(String key) {
+        sSelectedKey = key;
+    }
+
     /**
      * Change the preference status.
      */
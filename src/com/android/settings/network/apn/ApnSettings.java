@@ -22,11 +22,9 @@ import android.app.ProgressDialog;
 import android.app.settings.SettingsEnums;
 import android.content.BroadcastReceiver;
 import android.content.ContentResolver;
-import android.content.ContentValues;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.database.Cursor;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
@@ -45,6 +43,8 @@ import android.telephony.SubscriptionManager;
 import android.telephony.TelephonyManager;
 import android.telephony.data.ApnSetting;
 import android.text.TextUtils;
+import android.util.ArrayMap;
+import android.util.ArraySet;
 import android.util.Log;
 import android.view.Menu;
 import android.view.MenuInflater;
@@ -58,13 +58,14 @@ import androidx.preference.PreferenceGroup;
 import com.android.settings.R;
 import com.android.settings.RestrictedSettingsFragment;
 import com.android.settings.network.SubscriptionUtil;
+import com.android.settings.network.apn.ApnListLoader.ApnEntry;
 import com.android.settingslib.RestrictedLockUtils.EnforcedAdmin;
 
-import java.util.ArrayList;
+import java.util.List;
 
 /** Handle each different apn setting. */
 public class ApnSettings extends RestrictedSettingsFragment
-        implements Preference.OnPreferenceChangeListener {
+        implements Preference.OnPreferenceChangeListener, ApnListLoader.Callback {
     static final String TAG = "ApnSettings";
 
     public static final String EXTRA_POSITION = "position";
@@ -78,16 +79,6 @@ public class ApnSettings extends RestrictedSettingsFragment
     public static final String MVNO_TYPE = "mvno_type";
     public static final String MVNO_MATCH_DATA = "mvno_match_data";
 
-    private static final String[] CARRIERS_PROJECTION = new String[] {
-            Telephony.Carriers._ID,
-            Telephony.Carriers.NAME,
-            Telephony.Carriers.APN,
-            Telephony.Carriers.TYPE,
-            Telephony.Carriers.MVNO_TYPE,
-            Telephony.Carriers.MVNO_MATCH_DATA,
-            Telephony.Carriers.EDITED_STATUS,
-    };
-
     /** Copied from {@code com.android.internal.telephony.TelephonyIntents} */
     private static final String ACTION_SIM_STATE_CHANGED =
             "android.intent.action.SIM_STATE_CHANGED";
@@ -95,13 +86,8 @@ public class ApnSettings extends RestrictedSettingsFragment
     public static final String INTENT_KEY_ICC_STATE = "ss";
     public static final String INTENT_VALUE_ICC_ABSENT = "ABSENT";
 
-    private static final int ID_INDEX = 0;
-    private static final int NAME_INDEX = 1;
-    private static final int APN_INDEX = 2;
-    private static final int TYPES_INDEX = 3;
-    private static final int MVNO_TYPE_INDEX = 4;
-    private static final int MVNO_MATCH_DATA_INDEX = 5;
-    private static final int EDITED_INDEX = 6;
+    // Orders of the APNs that cannot be selected start here, they are listed after the others.
+    private static final int UNSELECTABLE_ORDER_START = 10000;
 
     private static final int MENU_NEW = Menu.FIRST;
     private static final int MENU_RESTORE = Menu.FIRST + 1;
@@ -128,6 +114,18 @@ public class ApnSettings extends RestrictedSettingsFragment
     private String mMvnoMatchData;
 
     private String mSelectedKey;
+    // The MVNO of the new APNs is known once the APNs are loaded.
+    private boolean mApnsLoaded;
+
+    private ApnListLoader mApnListLoader;
+    // Rows bound to the current preferences, keyed by APN id.
+    private final ArrayMap<String, ApnEntry> mBoundEntries = new ArrayMap<>();
+    // Ids of the preferences whose radio button is checked.
+    private final ArraySet<String> mCheckedKeys = new ArraySet<>();
+    // Ids delivered by the running load, the others are removed once it finishes.
+    private final ArraySet<String> mLoadedKeys = new ArraySet<>();
+    private int mSelectableCount;
+    private int mUnselectableCount;
 
     private IntentFilter mIntentFilter;
 
@@ -146,6 +144,8 @@ public class ApnSettings extends RestrictedSettingsFragment
                 PreciseDataConnectionState dataConnectionState) {
             if (dataConnectionState.getState() == TelephonyManager.DATA_CONNECTED) {
                 if (!mRestoreDefaultApnMode) {
+                    // The data connection may have switched to another APN.
+                    mApnListLoader.invalidatePreferredApn();
                     fillList();
                 } else {
                     showRestoreDefaultApnDialog();
@@ -181,6 +181,7 @@ public class ApnSettings extends RestrictedSettingsFragment
                     mSubscriptionInfo = getSubscriptionInfo(mSubId);
                     restartPhoneStateListener(mSubId);
                 }
+                mApnListLoader.invalidatePreferredApn();
                 fillList();
             }
         }
@@ -231,6 +232,7 @@ public class ApnSettings extends RestrictedSettingsFragment
         mHideImsApn = b.getBoolean(CarrierConfigManager.KEY_HIDE_IMS_APN_BOOL);
         mHidePresetApnDetails = b.getBoolean(CarrierConfigManager.KEY_HIDE_PRESET_APN_DETAILS_BOOL);
         mUserManager = UserManager.get(activity);
+        mApnListLoader = new ApnListLoader(activity.getContentResolver(), this);
     }
 
     @Override
@@ -262,6 +264,8 @@ public class ApnSettings extends RestrictedSettingsFragment
         restartPhoneStateListener(mSubId);
 
         if (!mRestoreDefaultApnMode) {
+            // The preferred APN may have been changed elsewhere while this screen was paused.
+            mApnListLoader.invalidatePreferredApn();
             fillList();
         }
     }
@@ -284,6 +288,7 @@ public class ApnSettings extends RestrictedSettingsFragment
     public void onDestroy() {
         super.onDestroy();
 
+        mApnListLoader.release();
         if (mRestoreDefaultApnThread != null) {
             mRestoreDefaultApnThread.quit();
         }
@@ -319,65 +324,95 @@ public class ApnSettings extends RestrictedSettingsFragment
             where.append(" AND NOT (type='ims')");
         }
 
-        final Cursor cursor = getContentResolver().query(simApnUri,
-                CARRIERS_PROJECTION, where.toString(), null,
-                Telephony.Carriers.DEFAULT_SORT_ORDER);
-
-        if (cursor != null) {
-            final PreferenceGroup apnPrefList = (PreferenceGroup) findPreference("apn_list");
-            apnPrefList.removeAll();
-
-            final ArrayList<ApnPreference> apnList = new ArrayList<ApnPreference>();
-            final ArrayList<ApnPreference> mmsApnList = new ArrayList<ApnPreference>();
-
-            mSelectedKey = getSelectedApnKey();
-            cursor.moveToFirst();
-            while (!cursor.isAfterLast()) {
-                final String name = cursor.getString(NAME_INDEX);
-                final String apn = cursor.getString(APN_INDEX);
-                final String key = cursor.getString(ID_INDEX);
-                final String type = cursor.getString(TYPES_INDEX);
-                final int edited = cursor.getInt(EDITED_INDEX);
-                mMvnoType = cursor.getString(MVNO_TYPE_INDEX);
-                mMvnoMatchData = cursor.getString(MVNO_MATCH_DATA_INDEX);
-
-                final ApnPreference pref = new ApnPreference(getPrefContext());
-
-                pref.setKey(key);
-                pref.setTitle(name);
-                pref.setPersistent(false);
-                pref.setOnPreferenceChangeListener(this);
-                pref.setSubId(subId);
-                if (mHidePresetApnDetails && edited == Telephony.Carriers.UNEDITED) {
-                    pref.setHideDetails();
-                } else {
-                    pref.setSummary(apn);
-                }
+        mLoadedKeys.clear();
+        mSelectableCount = 0;
+        mUnselectableCount = 0;
+        mApnListLoader.load(simApnUri, where.toString(), getUriForCurrSubId(PREFERAPN_URI));
+    }
 
-                final boolean selectable =
-                        ((type == null) || type.contains(ApnSetting.TYPE_DEFAULT_STRING));
-                pref.setSelectable(selectable);
-                if (selectable) {
-                    if ((mSelectedKey != null) && mSelectedKey.equals(key)) {
-                        pref.setChecked();
-                    }
-                    apnList.add(pref);
+    @Override
+    public void onApnsLoaded(List<ApnEntry> entries, String preferredKey) {
+        final PreferenceGroup apnPrefList = (PreferenceGroup) findPreference("apn_list");
+        if (apnPrefList == null) {
+            return;
+        }
+        mSelectedKey = preferredKey;
+        ApnPreference.setSelectedKey(preferredKey);
+        final int subId = mSubscriptionInfo != null ? mSubscriptionInfo.getSubscriptionId()
+                : SubscriptionManager.INVALID_SUBSCRIPTION_ID;
+        for (ApnEntry entry : entries) {
+            final String key = entry.mKey;
+            mMvnoType = entry.mMvnoType;
+            mMvnoMatchData = entry.mMvnoMatchData;
+            mLoadedKeys.add(key);
+
+            final boolean selectable = (entry.mType == null)
+                    || entry.mType.contains(ApnSetting.TYPE_DEFAULT_STRING);
+            final boolean checked = selectable && key.equals(preferredKey);
+            final int order = selectable ? mSelectableCount++
+                    : UNSELECTABLE_ORDER_START + mUnselectableCount++;
+
+            // APNs are matched by id, unchanged rows keep their preference.
+            Preference pref = apnPrefList.findPreference(key);
+            if (pref != null && (!entry.equals(mBoundEntries.get(key))
+                    || checked != mCheckedKeys.contains(key))) {
+                apnPrefList.removePreference(pref);
+                pref = null;
+            }
+            if (pref == null) {
+                pref = createApnPreference(entry, subId, selectable);
+                pref.setOrder(order);
+                apnPrefList.addPreference(pref);
+                mBoundEntries.put(key, entry);
+                if (checked) {
+                    mCheckedKeys.add(key);
                 } else {
-                    mmsApnList.add(pref);
+                    mCheckedKeys.remove(key);
                 }
-                cursor.moveToNext();
+            } else {
+                pref.setOrder(order);
             }
-            cursor.close();
+        }
+    }
 
-            for (Preference preference : apnList) {
-                apnPrefList.addPreference(preference);
-            }
-            for (Preference preference : mmsApnList) {
-                apnPrefList.addPreference(preference);
+    @Override
+    public void onLoadFinished() {
+        final PreferenceGroup apnPrefList = (PreferenceGroup) findPreference("apn_list");
+        if (apnPrefList == null) {
+            return;
+        }
+        if (!mApnsLoaded) {
+            mApnsLoaded = true;
+            getActivity().invalidateOptionsMenu();
+        }
+        for (int i = apnPrefList.getPreferenceCount() - 1; i >= 0; i--) {
+            final Preference pref = apnPrefList.getPreference(i);
+            final String key = pref.getKey();
+            if (!mLoadedKeys.contains(key)) {
+                apnPrefList.removePreference(pref);
+                mBoundEntries.remove(key);
+                mCheckedKeys.remove(key);
             }
         }
     }
 
+    private ApnPreference createApnPreference(ApnEntry entry, int subId, boolean selectable) {
+        final ApnPreference pref = new ApnPreference(getPrefContext());
+
+        pref.setKey(entry.mKey);
+        pref.setTitle(entry.mName);
+        pref.setPersistent(false);
+        pref.setOnPreferenceChangeListener(this);
+        pref.setSubId(subId);
+        if (mHidePresetApnDetails && entry.mEdited == Telephony.Carriers.UNEDITED) {
+            pref.setHideDetails();
+        } else {
+            pref.setSummary(entry.mApn);
+        }
+        pref.setSelectable(selectable);
+        return pref;
+    }
+
     @Override
     public void onCreateOptionsMenu(Menu menu, MenuInflater inflater) {
         if (!mUnavailable) {
@@ -393,6 +428,15 @@ public class ApnSettings extends RestrictedSettingsFragment
         super.onCreateOptionsMenu(menu, inflater);
     }
 
+    @Override
+    public void onPrepareOptionsMenu(Menu menu) {
+        final MenuItem newItem = menu.findItem(MENU_NEW);
+        if (newItem != null) {
+            newItem.setEnabled(mApnsLoaded);
+        }
+        super.onPrepareOptionsMenu(menu);
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         switch (item.getItemId()) {
@@ -433,24 +477,10 @@ public class ApnSettings extends RestrictedSettingsFragment
 
     private void setSelectedApnKey(String key) {
         mSelectedKey = key;
-        final ContentResolver resolver = getContentResolver();
-
-        final ContentValues values = new ContentValues();
-        values.put(APN_ID, mSelectedKey);
-        resolver.update(getUriForCurrSubId(PREFERAPN_URI), values, null, null);
-    }
-
-    private String getSelectedApnKey() {
-        String key = null;
-
-        final Cursor cursor = getContentResolver().query(getUriForCurrSubId(PREFERAPN_URI),
-                new String[] {"_id"}, null, null, Telephony.Carriers.DEFAULT_SORT_ORDER);
-        if (cursor.getCount() > 0) {
-            cursor.moveToFirst();
-            key = cursor.getString(ID_INDEX);
-        }
-        cursor.close();
-        return key;
+        // The radio buttons already show the new selection.
+        mCheckedKeys.clear();
+        mCheckedKeys.add(key);
+        mApnListLoader.setPreferredApn(getUriForCurrSubId(PREFERAPN_URI), key);
     }
 
     private boolean restoreDefaultApn() {
@@ -498,6 +528,7 @@ public class ApnSettings extends RestrictedSettingsFragment
                         mRestoreDefaultApnMode = false;
                         return;
                     }
+                    mApnListLoader.invalidatePreferredApn();
                     fillList();
                     getPreferenceScreen().setEnabled(true);
                     mRestoreDefaultApnMode = false;
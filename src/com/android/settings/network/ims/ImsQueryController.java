@@ -19,16 +19,12 @@ package com.android.settings.network.ims;
 import android.telephony.AccessNetworkConstants;
 import android.telephony.SubscriptionManager;
 import android.telephony.ims.ImsException;
-import android.telephony.ims.ImsMmTelManager;
 import android.telephony.ims.feature.ImsFeature;
 import android.telephony.ims.feature.MmTelFeature;
 import android.telephony.ims.stub.ImsRegistrationImplBase;
 
 import androidx.annotation.VisibleForTesting;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
 /**
  * Controller class for querying IMS status
  */
@@ -70,15 +66,10 @@ abstract class ImsQueryController {
             return false;
         }
 
-        final ImsMmTelManager imsMmTelManager = ImsMmTelManager.createForSubscriptionId(subId);
-        // TODO: have a shared thread pool instead of create ExecutorService
-        //       everytime to improve performance.
-        final ExecutorService executor = Executors.newSingleThreadExecutor();
-        final BooleanConsumer booleanResult = new BooleanConsumer();
-        imsMmTelManager.isSupported(mCapability, mTransportType, executor, booleanResult);
-        // get() will be blocked until end of execution(isSupported()) within thread(executor)
-        // or timeout after TIMEOUT_MILLIS milliseconds
-        return booleanResult.get(TIMEOUT_MILLIS);
+        final ImsQueryEngine engine = ImsQueryEngine.getInstance();
+        // Blocked until the query completes, or returns false after TIMEOUT_MILLIS milliseconds
+        return engine.await(engine.querySupported(subId, mCapability, mTransportType),
+                TIMEOUT_MILLIS, false);
     }
 
     @VisibleForTesting
@@ -96,12 +87,8 @@ abstract class ImsQueryController {
             return false;
         }
 
-        final ImsMmTelManager imsMmTelManager = ImsMmTelManager.createForSubscriptionId(subId);
-        // TODO: have a shared thread pool instead of create ExecutorService
-        //       everytime to improve performance.
-        final ExecutorService executor = Executors.newSingleThreadExecutor();
-        final IntegerConsumer intResult = new IntegerConsumer();
-        imsMmTelManager.getFeatureState(executor, intResult);
-        return (intResult.get(TIMEOUT_MILLIS) == ImsFeature.STATE_READY);
+        final ImsQueryEngine engine = ImsQueryEngine.getInstance();
+        return (engine.await(engine.queryFeatureState(subId), TIMEOUT_MILLIS,
+                ImsFeature.STATE_UNAVAILABLE) == ImsFeature.STATE_READY);
     }
 }
@@ -0,0 +1,430 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network.ims;
+
+import android.os.SystemClock;
+import android.telephony.AccessNetworkConstants;
+import android.telephony.SubscriptionManager;
+import android.telephony.ims.ImsException;
+import android.telephony.ims.ImsMmTelManager;
+import android.telephony.ims.ImsReasonInfo;
+import android.telephony.ims.feature.MmTelFeature;
+import android.util.ArrayMap;
+import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.util.SparseLongArray;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process wide engine running the asynchronous queries of {@link ImsMmTelManager}.
+ *
+ * <p>All the callbacks are delivered on one small shared pool instead of a new thread per query.
+ * Identical queries issued while one is pending share its result, and results are cached for
+ * {@link #CACHE_TTL_MILLIS}. The cache of a subscription is dropped as soon as its IMS
+ * registration changes, results are only cached for subscriptions whose registration is
+ * monitored. The registration of a subscription stops being monitored once the subscription is
+ * no longer active. A query the framework never answers fails after
+ * {@link #QUERY_TIMEOUT_MILLIS}, so that the next identical query is issued again instead of
+ * waiting on it.
+ */
+public class ImsQueryEngine {
+
+    private static final String TAG = "ImsQueryEngine";
+
+    @VisibleForTesting
+    static final long CACHE_TTL_MILLIS = 3000;
+    @VisibleForTesting
+    static final long QUERY_TIMEOUT_MILLIS = 5000;
+    /** Delay before monitoring the registration of a subscription is attempted again. */
+    @VisibleForTesting
+    static final long REGISTRATION_RETRY_MILLIS = 30_000;
+    private static final int MAX_THREADS = 2;
+    private static final long KEEP_ALIVE_SECONDS = 10;
+
+    private static final int QUERY_SUPPORTED = 0;
+    private static final int QUERY_FEATURE_STATE = 1;
+
+    private static ImsQueryEngine sInstance;
+
+    private final ThreadPoolExecutor mExecutor;
+    private final Object mLock = new Object();
+    // Guarded by mLock.
+    private final Map<QueryKey, CompletableFuture<Integer>> mInFlight = new ArrayMap<>();
+    private final Map<QueryKey, CachedResult> mCache = new ArrayMap<>();
+    private final SparseIntArray mGenerations = new SparseIntArray();
+    private final SparseArray<ImsMmTelManager.RegistrationCallback> mRegistrationCallbacks =
+            new SparseArray<>();
+    /** When monitoring the registration of a subscription last failed. */
+    private final SparseLongArray mRegistrationFailures = new SparseLongArray();
+
+    private final AtomicLong mQueryCount = new AtomicLong();
+    private final AtomicLong mCacheHitCount = new AtomicLong();
+    private final AtomicLong mCoalescedCount = new AtomicLong();
+    private final AtomicLong mTimeoutCount = new AtomicLong();
+    private final AtomicLong mFailureCount = new AtomicLong();
+    private final AtomicLong mCompletedCount = new AtomicLong();
+    private final AtomicLong mTotalLatencyNanos = new AtomicLong();
+    private final AtomicLong mMaxLatencyNanos = new AtomicLong();
+
+    /** Returns the process wide engine. */
+    public static synchronized ImsQueryEngine getInstance() {
+        if (sInstance == null) {
+            sInstance = new ImsQueryEngine();
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    ImsQueryEngine() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        mExecutor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, TAG + "-" + threadCount.incrementAndGet()));
+        mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queries whether {@code capability} is supported over {@code transportType}, see
+     * {@link ImsMmTelManager#isSupported}.
+     *
+     * <p>The returned future completes on an engine thread, or exceptionally with the
+     * {@link ImsException} or {@link IllegalArgumentException} raised by the framework.
+     */
+    public CompletableFuture<Boolean> querySupported(int subId,
+            @MmTelFeature.MmTelCapabilities.MmTelCapability int capability,
+            @AccessNetworkConstants.TransportType int transportType) {
+        return query(new QueryKey(subId, QUERY_SUPPORTED, capability, transportType))
+                .thenApply(value -> value != 0);
+    }
+
+    /**
+     * Queries the state of the MmTel feature, see {@link ImsMmTelManager#getFeatureState}.
+     *
+     * @see #querySupported
+     */
+    public CompletableFuture<Integer> queryFeatureState(int subId) {
+        return query(new QueryKey(subId, QUERY_FEATURE_STATE, 0 /* capability */,
+                0 /* transportType */));
+    }
+
+    /**
+     * Waits up to {@code timeoutMillis} for {@code future}, and returns {@code defaultValue} if
+     * it didn't complete in time.
+     */
+    <T> T await(CompletableFuture<T> future, long timeoutMillis, T defaultValue)
+            throws InterruptedException, ImsException {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException exception) {
+            mTimeoutCount.incrementAndGet();
+            return defaultValue;
+        } catch (ExecutionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof TimeoutException) {
+                // The framework never answered, see QUERY_TIMEOUT_MILLIS.
+                mTimeoutCount.incrementAndGet();
+                return defaultValue;
+            }
+            if (cause instanceof ImsException) {
+                throw (ImsException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /** Drops every cached result of {@code subId}. */
+    public void invalidate(int subId) {
+        synchronized (mLock) {
+            mGenerations.put(subId, mGenerations.get(subId) + 1);
+            final Iterator<QueryKey> iterator = mCache.keySet().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().mSubId == subId) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<Integer> query(QueryKey key) {
+        mQueryCount.incrementAndGet();
+        if (!SubscriptionManager.isValidSubscriptionId(key.mSubId)) {
+            final CompletableFuture<Integer> future = new CompletableFuture<>();
+            future.completeExceptionally(
+                    new IllegalArgumentException("Invalid subId " + key.mSubId));
+            return future;
+        }
+
+        final CompletableFuture<Integer> future;
+        final int generation;
+        synchronized (mLock) {
+            final CachedResult cached = mCache.get(key);
+            if (cached != null) {
+                if (SystemClock.elapsedRealtime() - cached.mTimeMillis < CACHE_TTL_MILLIS) {
+                    mCacheHitCount.incrementAndGet();
+                    return CompletableFuture.completedFuture(cached.mValue);
+                }
+                mCache.remove(key);
+            }
+            final CompletableFuture<Integer> inFlight = mInFlight.get(key);
+            if (inFlight != null) {
+                mCoalescedCount.incrementAndGet();
+                return inFlight;
+            }
+            future = new CompletableFuture<>();
+            mInFlight.put(key, future);
+            generation = mGenerations.get(key.mSubId);
+        }
+        future.orTimeout(QUERY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                .whenComplete((value, throwable) -> {
+                    synchronized (mLock) {
+                        mInFlight.remove(key, future);
+                    }
+                });
+
+        final long startNanos = SystemClock.elapsedRealtimeNanos();
+        try {
+            final ImsMmTelManager imsMmTelManager =
+                    ImsMmTelManager.createForSubscriptionId(key.mSubId);
+            final boolean monitored = ensureRegistrationCallback(imsMmTelManager, key.mSubId);
+            if (key.mType == QUERY_SUPPORTED) {
+                imsMmTelManager.isSupported(key.mCapability, key.mTransportType, mExecutor,
+                        value -> onQueryCompleted(key, future, generation, monitored, startNanos,
+                                value == null ? null : (value ? 1 : 0)));
+            } else {
+                imsMmTelManager.getFeatureState(mExecutor,
+                        value -> onQueryCompleted(key, future, generation, monitored,
+                                startNanos, value));
+            }
+        } catch (ImsException | RuntimeException exception) {
+            mFailureCount.incrementAndGet();
+            future.completeExceptionally(exception);
+        }
+        return future;
+    }
+
+    private void onQueryCompleted(QueryKey key, CompletableFuture<Integer> future,
+            int generation, boolean monitored, long startNanos, @Nullable Integer value) {
+        final long latencyNanos = SystemClock.elapsedRealtimeNanos() - startNanos;
+        mCompletedCount.incrementAndGet();
+        mTotalLatencyNanos.addAndGet(latencyNanos);
+        mMaxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+
+        // Same default as the former blocking consumers when the framework reports nothing.
+        final int result = value == null ? 0 : value;
+        synchronized (mLock) {
+            if (future.isDone()) {
+                // Answered after QUERY_TIMEOUT_MILLIS, a later query may already be in flight.
+                return;
+            }
+            if (monitored && value != null && mGenerations.get(key.mSubId) == generation) {
+                mCache.put(key, new CachedResult(result, SystemClock.elapsedRealtime()));
+            }
+        }
+        future.complete(result);
+    }
+
+    /**
+     * Monitors the IMS registration of {@code subId} to invalidate its cache.
+     *
+     * @return whether the registration is monitored.
+     */
+    @VisibleForTesting
+    boolean ensureRegistrationCallback(ImsMmTelManager imsMmTelManager, int subId) {
+        synchronized (mLock) {
+            if (mRegistrationCallbacks.get(subId) != null) {
+                return true;
+            }
+            final long failureTime = mRegistrationFailures.get(subId, -1);
+            if (failureTime >= 0
+                    && SystemClock.elapsedRealtime() - failureTime < REGISTRATION_RETRY_MILLIS) {
+                return false;
+            }
+        }
+        // A new subscription may replace one that is no longer monitored.
+        releaseInactiveSubscriptions();
+        final ImsMmTelManager.RegistrationCallback callback = new RegistrationCallback(subId);
+        try {
+            imsMmTelManager.registerImsRegistrationCallback(mExecutor, callback);
+        } catch (ImsException | RuntimeException exception) {
+            Log.w(TAG, "fail to monitor IMS registration. subId=" + subId, exception);
+            synchronized (mLock) {
+                mRegistrationFailures.put(subId, SystemClock.elapsedRealtime());
+            }
+            return false;
+        }
+        synchronized (mLock) {
+            mRegistrationFailures.delete(subId);
+            if (mRegistrationCallbacks.get(subId) == null) {
+                mRegistrationCallbacks.put(subId, callback);
+                return true;
+            }
+        }
+        // Another query registered one in the meantime.
+        imsMmTelManager.unregisterImsRegistrationCallback(callback);
+        return true;
+    }
+
+    /**
+     * Stops monitoring the registrations of the subscriptions which are no longer active, and
+     * drops their cached results.
+     */
+    @VisibleForTesting
+    void releaseInactiveSubscriptions() {
+        final SparseArray<ImsMmTelManager.RegistrationCallback> callbacks = new SparseArray<>();
+        synchronized (mLock) {
+            for (int i = mRegistrationCallbacks.size() - 1; i >= 0; i--) {
+                final int subId = mRegistrationCallbacks.keyAt(i);
+                if (!isActiveSubscription(subId)) {
+                    callbacks.put(subId, mRegistrationCallbacks.valueAt(i));
+                    mRegistrationCallbacks.removeAt(i);
+                }
+            }
+        }
+        for (int i = 0; i < callbacks.size(); i++) {
+            final int subId = callbacks.keyAt(i);
+            invalidate(subId);
+            try {
+                ImsMmTelManager.createForSubscriptionId(subId)
+                        .unregisterImsRegistrationCallback(callbacks.valueAt(i));
+            } catch (RuntimeException exception) {
+                Log.w(TAG, "fail to stop monitoring IMS registration. subId=" + subId, exception);
+            }
+        }
+    }
+
+    @VisibleForTesting
+    boolean isActiveSubscription(int subId) {
+        return SubscriptionManager.getSlotIndex(subId)
+                != SubscriptionManager.INVALID_SIM_SLOT_INDEX;
+    }
+
+    /** Returns the query counters and latencies. */
+    public JSONObject dump() throws JSONException {
+        final JSONObject obj = new JSONObject();
+        final long completedCount = mCompletedCount.get();
+        obj.put("queries", mQueryCount.get());
+        obj.put("cache_hits", mCacheHitCount.get());
+        obj.put("coalesced", mCoalescedCount.get());
+        obj.put("completed", completedCount);
+        obj.put("timeouts", mTimeoutCount.get());
+        obj.put("failures", mFailureCount.get());
+        obj.put("avg_latency_us", completedCount > 0
+                ? mTotalLatencyNanos.get() / completedCount / 1000 : 0);
+        obj.put("max_latency_us", mMaxLatencyNanos.get() / 1000);
+        synchronized (mLock) {
+            obj.put("cached_results", mCache.size());
+            obj.put("monitored_subscriptions", mRegistrationCallbacks.size());
+        }
+        return obj;
+    }
+
+    private class RegistrationCallback extends ImsMmTelManager.RegistrationCallback {
+        private final int mSubId;
+
+        RegistrationCallback(int subId) {
+            mSubId = subId;
+        }
+
+        @Override
+        public void onRegistered(@AccessNetworkConstants.TransportType int imsTransportType) {
+            invalidate(mSubId);
+        }
+
+        @Override
+        public void onRegistering(@AccessNetworkConstants.TransportType int imsTransportType) {
+            invalidate(mSubId);
+        }
+
+        @Override
+        public void onUnregistered(@Nullable ImsReasonInfo info) {
+            invalidate(mSubId);
+            // Also reported when the subscription is removed.
+            releaseInactiveSubscriptions();
+        }
+
+        @Override
+        public void onTechnologyChangeFailed(
+                @AccessNetworkConstants.TransportType int imsTransportType,
+                @Nullable ImsReasonInfo info) {
+            invalidate(mSubId);
+        }
+    }
+
+    private static class QueryKey {
+        final int mSubId;
+        final int mType;
+        final int mCapability;
+        final int mTransportType;
+
+        QueryKey(int subId, int type, int capability, int transportType) {
+            mSubId = subId;
+            mType = type;
+            mCapability = capability;
+            mTransportType = transportType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof QueryKey)) {
+                return false;
+            }
+            final QueryKey other = (QueryKey) o;
+            return mSubId == other.mSubId && mType == other.mType
+                    && mCapability == other.mCapability
+                    && mTransportType == other.mTransportType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mSubId, mType, mCapability, mTransportType);
+        }
+    }
+
+    private static class CachedResult {
+        final int mValue;
+        final long mTimeMillis;
+
+        CachedResult(int value, long timeMillis) {
+            mValue = value;
+            mTimeMillis = timeMillis;
+        }
+    }
+}
@@ -23,9 +23,7 @@ import android.content.Intent;
 import android.database.ContentObserver;
 import android.os.Handler;
 import android.os.Looper;
-import android.os.PersistableBundle;
 import android.provider.Settings;
-import android.telephony.CarrierConfigManager;
 
 import androidx.annotation.VisibleForTesting;
 import androidx.preference.Preference;
@@ -33,6 +31,7 @@ import androidx.preference.PreferenceScreen;
 
 import com.android.settings.SettingsActivity;
 import com.android.settings.network.CarrierConfigCache;
+import com.android.settings.network.CarrierConfigProjection;
 import com.android.settings.network.apn.ApnSettings;
 import com.android.settingslib.RestrictedLockUtilsInternal;
 import com.android.settingslib.RestrictedPreference;
@@ -59,16 +58,16 @@ public class ApnPreferenceController extends TelephonyBasePreferenceController i
 
     @Override
     public int getAvailabilityStatus(int subId) {
-        final PersistableBundle carrierConfig = mCarrierConfigCache.getConfigForSubId(subId);
+        final CarrierConfigProjection carrierConfig =
+                mCarrierConfigCache.getProjectionForSubId(subId);
         final boolean isCdmaApn = MobileNetworkUtils.isCdmaOptions(mContext, subId)
                 && carrierConfig != null
-                && carrierConfig.getBoolean(CarrierConfigManager.KEY_SHOW_APN_SETTING_CDMA_BOOL);
+                && carrierConfig.showApnSettingCdma();
         final boolean isGsmApn = MobileNetworkUtils.isGsmOptions(mContext, subId)
                 && carrierConfig != null
-                && carrierConfig.getBoolean(CarrierConfigManager.KEY_APN_EXPAND_BOOL);
+                && carrierConfig.isApnExpand();
         final boolean hideCarrierNetwork = carrierConfig == null
-                || carrierConfig.getBoolean(
-                CarrierConfigManager.KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL);
+                || carrierConfig.hideCarrierNetworkSettings();
 
         return !hideCarrierNetwork && (isCdmaApn || isGsmApn)
                 ? AVAILABLE
@@ -19,9 +19,7 @@ package com.android.settings.network.telephony;
 import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
-import android.os.PersistableBundle;
 import android.provider.Settings;
-import android.telephony.CarrierConfigManager;
 import android.telephony.SubscriptionManager;
 import android.telephony.TelephonyManager;
 import android.text.TextUtils;
@@ -29,6 +27,7 @@ import android.text.TextUtils;
 import androidx.preference.Preference;
 
 import com.android.settings.network.CarrierConfigCache;
+import com.android.settings.network.CarrierConfigProjection;
 
 /**
  * Preference controller for "Data service setup"
@@ -49,11 +48,11 @@ public class DataServiceSetupPreferenceController extends TelephonyBasePreferenc
 
     @Override
     public int getAvailabilityStatus(int subId) {
-        final PersistableBundle carrierConfig = mCarrierConfigCache.getConfigForSubId(subId);
+        final CarrierConfigProjection carrierConfig =
+                mCarrierConfigCache.getProjectionForSubId(subId);
         return subId != SubscriptionManager.INVALID_SUBSCRIPTION_ID
                 && carrierConfig != null
-                && !carrierConfig.getBoolean(
-                CarrierConfigManager.KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL)
+                && !carrierConfig.hideCarrierNetworkSettings()
                 && mTelephonyManager.isLteCdmaEvdoGsmWcdmaEnabled() && !TextUtils.isEmpty(mSetupUrl)
                 ? AVAILABLE
                 : CONDITIONALLY_UNAVAILABLE;
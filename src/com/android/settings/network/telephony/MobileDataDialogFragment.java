@@ -69,7 +69,7 @@ public class MobileDataDialogFragment extends InstrumentedDialogFragment impleme
         super.onCreate(savedInstanceState);
         mSubscriptionManager = getContext().getSystemService(SubscriptionManager.class);
         mWifiPickerTrackerHelper = new WifiPickerTrackerHelper(getSettingsLifecycle(), getContext(),
-                null /* WifiPickerTrackerCallback */);
+                null /* WifiPickerTrackerCallback */, true /* shared */);
     }
 
     @Override
@@ -43,6 +43,7 @@ import com.android.settings.datausage.BillingCyclePreferenceController;
 import com.android.settings.datausage.DataUsageSummaryPreferenceController;
 import com.android.settings.network.ActiveSubscriptionsListener;
 import com.android.settings.network.CarrierWifiTogglePreferenceController;
+import com.android.settings.network.SubscriptionSnapshotService;
 import com.android.settings.network.SubscriptionUtil;
 import com.android.settings.network.telephony.cdma.CdmaSubscriptionPreferenceController;
 import com.android.settings.network.telephony.cdma.CdmaSystemSelectPreferenceController;
@@ -152,6 +153,7 @@ public class MobileNetworkSettings extends AbstractMobileNetworkSettings {
     public void onAttach(Context context) {
         super.onAttach(context);
 
+        SubscriptionSnapshotService.observe(context, getSettingsLifecycle());
         Intent intent = getIntent();
         SubscriptionInfo info = SubscriptionUtil.getSubscriptionOrDefault(context, mSubId);
         if (info == null) {
@@ -194,7 +196,7 @@ public class MobileNetworkSettings extends AbstractMobileNetworkSettings {
         use(MobileDataPreferenceController.class).init(getFragmentManager(), mSubId);
         use(MobileDataPreferenceController.class).setWifiPickerTrackerHelper(
                 new WifiPickerTrackerHelper(getSettingsLifecycle(), context,
-                        null /* WifiPickerTrackerCallback */));
+                        null /* WifiPickerTrackerCallback */, true /* shared */));
         use(RoamingPreferenceController.class).init(getFragmentManager(), mSubId);
         use(ApnPreferenceController.class).init(mSubId);
         use(CarrierPreferenceController.class).init(mSubId);
@@ -281,6 +283,7 @@ public class MobileNetworkSettings extends AbstractMobileNetworkSettings {
             return;
         }
 
+        TelephonyStateSnapshot.invalidate(mSubId);
         final SubscriptionInfo subInfo = SubscriptionUtil
                 .getSubscriptionOrDefault(getContext(), mSubId);
 
@@ -77,6 +77,7 @@ import com.android.settings.Utils;
 import com.android.settings.core.BasePreferenceController;
 import com.android.settings.core.SubSettingLauncher;
 import com.android.settings.network.CarrierConfigCache;
+import com.android.settings.network.CarrierConfigProjection;
 import com.android.settings.network.SubscriptionUtil;
 import com.android.settings.network.ims.WifiCallingQueryImsState;
 import com.android.settings.network.telephony.TelephonyConstants.TelephonyManagerConstants;
@@ -381,25 +382,20 @@ public class MobileNetworkUtils {
         if (subId == SubscriptionManager.INVALID_SUBSCRIPTION_ID) {
             return false;
         }
-        final PersistableBundle carrierConfig =
-                CarrierConfigCache.getInstance(context).getConfigForSubId(subId);
+        final TelephonyStateSnapshot snapshot = TelephonyStateSnapshot.get(context, subId);
+        final CarrierConfigProjection carrierConfig = snapshot.getCarrierConfigProjection();
         if (carrierConfig != null
-                && !carrierConfig.getBoolean(
-                CarrierConfigManager.KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL)
-                && carrierConfig.getBoolean(CarrierConfigManager.KEY_WORLD_PHONE_BOOL)) {
+                && !carrierConfig.hideCarrierNetworkSettings()
+                && carrierConfig.isWorldPhone()) {
             return true;
         }
 
-        final TelephonyManager telephonyManager = context.getSystemService(TelephonyManager.class)
-                .createForSubscriptionId(subId);
-        if (telephonyManager.getPhoneType() == TelephonyManager.PHONE_TYPE_CDMA) {
+        if (snapshot.getPhoneType() == TelephonyManager.PHONE_TYPE_CDMA) {
             return true;
         }
 
-        if (isWorldMode(context, subId)) {
-            final int settingsNetworkMode = getNetworkTypeFromRaf(
-                    (int) telephonyManager.getAllowedNetworkTypesForReason(
-                            TelephonyManager.ALLOWED_NETWORK_TYPES_REASON_USER));
+        if (isWorldMode(snapshot)) {
+            final int settingsNetworkMode = snapshot.getNetworkMode();
 
             if (settingsNetworkMode == NETWORK_MODE_LTE_GSM_WCDMA
                     || settingsNetworkMode == NETWORK_MODE_LTE_CDMA_EVDO
@@ -408,7 +404,7 @@ public class MobileNetworkUtils {
                 return true;
             }
 
-            if (shouldSpeciallyUpdateGsmCdma(context, subId)) {
+            if (shouldSpeciallyUpdateGsmCdma(context, snapshot)) {
                 return true;
             }
         }
@@ -423,21 +419,18 @@ public class MobileNetworkUtils {
         if (subId == SubscriptionManager.INVALID_SUBSCRIPTION_ID) {
             return false;
         }
-        if (isGsmBasicOptions(context, subId)) {
+        final TelephonyStateSnapshot snapshot = TelephonyStateSnapshot.get(context, subId);
+        if (isGsmBasicOptions(snapshot)) {
             return true;
         }
-        final TelephonyManager telephonyManager = context.getSystemService(TelephonyManager.class)
-                .createForSubscriptionId(subId);
-        final int networkMode = getNetworkTypeFromRaf(
-                (int) telephonyManager.getAllowedNetworkTypesForReason(
-                        TelephonyManager.ALLOWED_NETWORK_TYPES_REASON_USER));
-        if (isWorldMode(context, subId)) {
+        if (isWorldMode(snapshot)) {
+            final int networkMode = snapshot.getNetworkMode();
             if (networkMode == NETWORK_MODE_LTE_CDMA_EVDO
                     || networkMode == NETWORK_MODE_LTE_GSM_WCDMA
                     || networkMode == NETWORK_MODE_NR_LTE_CDMA_EVDO
                     || networkMode == NETWORK_MODE_NR_LTE_GSM_WCDMA) {
                 return true;
-            } else if (shouldSpeciallyUpdateGsmCdma(context, subId)) {
+            } else if (shouldSpeciallyUpdateGsmCdma(context, snapshot)) {
                 return true;
             }
         }
@@ -445,19 +438,15 @@ public class MobileNetworkUtils {
         return false;
     }
 
-    private static boolean isGsmBasicOptions(Context context, int subId) {
-        final PersistableBundle carrierConfig =
-                CarrierConfigCache.getInstance(context).getConfigForSubId(subId);
+    private static boolean isGsmBasicOptions(TelephonyStateSnapshot snapshot) {
+        final CarrierConfigProjection carrierConfig = snapshot.getCarrierConfigProjection();
         if (carrierConfig != null
-                && !carrierConfig.getBoolean(
-                CarrierConfigManager.KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL)
-                && carrierConfig.getBoolean(CarrierConfigManager.KEY_WORLD_PHONE_BOOL)) {
+                && !carrierConfig.hideCarrierNetworkSettings()
+                && carrierConfig.isWorldPhone()) {
             return true;
         }
 
-        final TelephonyManager telephonyManager = context.getSystemService(TelephonyManager.class)
-                .createForSubscriptionId(subId);
-        if (telephonyManager.getPhoneType() == TelephonyManager.PHONE_TYPE_GSM) {
+        if (snapshot.getPhoneType() == TelephonyManager.PHONE_TYPE_GSM) {
             return true;
         }
 
@@ -469,40 +458,35 @@ public class MobileNetworkUtils {
      * settings
      */
     public static boolean isWorldMode(Context context, int subId) {
-        final PersistableBundle carrierConfig =
-                CarrierConfigCache.getInstance(context).getConfigForSubId(subId);
-        return carrierConfig == null
-                ? false
-                : carrierConfig.getBoolean(CarrierConfigManager.KEY_WORLD_MODE_ENABLED_BOOL);
+        return isWorldMode(TelephonyStateSnapshot.get(context, subId));
+    }
+
+    private static boolean isWorldMode(TelephonyStateSnapshot snapshot) {
+        final CarrierConfigProjection carrierConfig = snapshot.getCarrierConfigProjection();
+        return carrierConfig == null ? false : carrierConfig.isWorldModeEnabled();
     }
 
     /**
      * Return {@code true} if we need show settings for network selection(i.e. Verizon)
      */
     public static boolean shouldDisplayNetworkSelectOptions(Context context, int subId) {
-        final TelephonyManager telephonyManager = context.getSystemService(TelephonyManager.class)
-                .createForSubscriptionId(subId);
-        final PersistableBundle carrierConfig =
-                CarrierConfigCache.getInstance(context).getConfigForSubId(subId);
+        final TelephonyStateSnapshot snapshot = TelephonyStateSnapshot.get(context, subId);
+        final CarrierConfigProjection carrierConfig = snapshot.getCarrierConfigProjection();
         if (subId == SubscriptionManager.INVALID_SUBSCRIPTION_ID
                 || carrierConfig == null
-                || !carrierConfig.getBoolean(
-                CarrierConfigManager.KEY_OPERATOR_SELECTION_EXPAND_BOOL)
-                || carrierConfig.getBoolean(
-                CarrierConfigManager.KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL)
-                || (carrierConfig.getBoolean(CarrierConfigManager.KEY_CSP_ENABLED_BOOL)
-                && !telephonyManager.isManualNetworkSelectionAllowed())) {
+                || !carrierConfig.isOperatorSelectionExpand()
+                || carrierConfig.hideCarrierNetworkSettings()
+                || (carrierConfig.isCspEnabled()
+                && !snapshot.isManualNetworkSelectionAllowed())) {
             return false;
         }
 
-        if (isWorldMode(context, subId)) {
-            final int networkMode = getNetworkTypeFromRaf(
-                    (int) telephonyManager.getAllowedNetworkTypesForReason(
-                            TelephonyManager.ALLOWED_NETWORK_TYPES_REASON_USER));
+        if (isWorldMode(snapshot)) {
+            final int networkMode = snapshot.getNetworkMode();
             if (networkMode == TelephonyManagerConstants.NETWORK_MODE_LTE_CDMA_EVDO) {
                 return false;
             }
-            if (shouldSpeciallyUpdateGsmCdma(context, subId)) {
+            if (shouldSpeciallyUpdateGsmCdma(context, snapshot)) {
                 return false;
             }
 
@@ -511,45 +495,39 @@ public class MobileNetworkUtils {
             }
         }
 
-        return isGsmBasicOptions(context, subId);
+        return isGsmBasicOptions(snapshot);
     }
 
     /**
      * Return {@code true} if Tdscdma is supported in current subscription
      */
     public static boolean isTdscdmaSupported(Context context, int subId) {
-        return isTdscdmaSupported(context,
-                context.getSystemService(TelephonyManager.class).createForSubscriptionId(subId));
+        return isTdscdmaSupported(context, TelephonyStateSnapshot.get(context, subId));
     }
 
     //TODO(b/117651939): move it to telephony
-    private static boolean isTdscdmaSupported(Context context, TelephonyManager telephonyManager) {
-        final PersistableBundle carrierConfig = CarrierConfigCache.getInstance(context).getConfig();
+    private static boolean isTdscdmaSupported(Context context, TelephonyStateSnapshot snapshot) {
+        final CarrierConfigProjection carrierConfig =
+                CarrierConfigCache.getInstance(context).getProjection();
 
         if (carrierConfig == null) {
             return false;
         }
 
-        if (carrierConfig.getBoolean(CarrierConfigManager.KEY_SUPPORT_TDSCDMA_BOOL)) {
+        if (carrierConfig.isTdscdmaSupported()) {
             return true;
         }
-        final String[] numericArray = carrierConfig.getStringArray(
-                CarrierConfigManager.KEY_SUPPORT_TDSCDMA_ROAMING_NETWORKS_STRING_ARRAY);
-        if (numericArray == null) {
+        final List<String> numericList = carrierConfig.getTdscdmaRoamingNetworks();
+        if (numericList == null) {
             return false;
         }
-        final ServiceState serviceState = telephonyManager.getServiceState();
+        final ServiceState serviceState = snapshot.getServiceState();
         final String operatorNumeric =
                 (serviceState != null) ? serviceState.getOperatorNumeric() : null;
         if (operatorNumeric == null) {
             return false;
         }
-        for (String numeric : numericArray) {
-            if (operatorNumeric.equals(numeric)) {
-                return true;
-            }
-        }
-        return false;
+        return numericList.contains(operatorNumeric);
     }
 
     /**
@@ -606,14 +584,15 @@ public class MobileNetworkUtils {
      */
     @VisibleForTesting
     static boolean shouldSpeciallyUpdateGsmCdma(Context context, int subId) {
-        if (!isWorldMode(context, subId)) {
+        return shouldSpeciallyUpdateGsmCdma(context, TelephonyStateSnapshot.get(context, subId));
+    }
+
+    private static boolean shouldSpeciallyUpdateGsmCdma(Context context,
+            TelephonyStateSnapshot snapshot) {
+        if (!isWorldMode(snapshot)) {
             return false;
         }
-        final TelephonyManager telephonyManager = context.getSystemService(TelephonyManager.class)
-                .createForSubscriptionId(subId);
-        final int networkMode = getNetworkTypeFromRaf(
-                (int) telephonyManager.getAllowedNetworkTypesForReason(
-                        TelephonyManager.ALLOWED_NETWORK_TYPES_REASON_USER));
+        final int networkMode = snapshot.getNetworkMode();
         if (networkMode == TelephonyManagerConstants.NETWORK_MODE_LTE_TDSCDMA_GSM
                 || networkMode == TelephonyManagerConstants.NETWORK_MODE_LTE_TDSCDMA_GSM_WCDMA
                 || networkMode == TelephonyManagerConstants.NETWORK_MODE_LTE_TDSCDMA
@@ -621,7 +600,7 @@ public class MobileNetworkUtils {
                 || networkMode
                 == TelephonyManagerConstants.NETWORK_MODE_LTE_TDSCDMA_CDMA_EVDO_GSM_WCDMA
                 || networkMode == TelephonyManagerConstants.NETWORK_MODE_LTE_CDMA_EVDO_GSM_WCDMA) {
-            if (!isTdscdmaSupported(context, subId)) {
+            if (!isTdscdmaSupported(context, snapshot)) {
                 return true;
             }
         }
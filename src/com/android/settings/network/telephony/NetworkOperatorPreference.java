@@ -97,6 +97,13 @@ public class NetworkOperatorPreference extends Preference {
         refresh();
     }
 
+    /**
+     * Return the cell information shown, null for the connected cell identity
+     */
+    public CellInfo getCellInfo() {
+        return mCellInfo;
+    }
+
     /**
      * Compare cell within preference
      */
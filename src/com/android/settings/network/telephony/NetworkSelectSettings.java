@@ -51,8 +51,8 @@ import com.android.settingslib.utils.ThreadUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -92,6 +92,12 @@ public class NetworkSelectSettings extends DashboardFragment {
     private long mWaitingForNumberOfScanResults;
     @VisibleForTesting
     boolean mIsAggregationEnabled = false;
+    // Incremented whenever a scan starts or stops, results of older scans are dropped.
+    private int mScanGeneration;
+    // Results accumulated by the running scan, only accessed from mNetworkScanExecutor.
+    private final LinkedHashMap<Object, CellInfo> mScanResults = new LinkedHashMap<>();
+    // The generation of the scan of mScanResults, only accessed from mNetworkScanExecutor.
+    private int mScanResultsGeneration;
 
     @Override
     public void onCreate(Bundle icicle) {
@@ -111,7 +117,8 @@ public class NetworkSelectSettings extends DashboardFragment {
         mSelectedPreference = null;
         mTelephonyManager = getTelephonyManager(getContext(), mSubId);
         mNetworkScanHelper = new NetworkScanHelper(
-                getContext(), mTelephonyManager, mCallback, mNetworkScanExecutor);
+                getContext(), mTelephonyManager, new ScanCallback(mScanGeneration),
+                mNetworkScanExecutor);
         PersistableBundle bundle = getCarrierConfigManager(getContext())
                 .getConfigForSubId(mSubId);
         if (bundle != null) {
@@ -305,10 +312,16 @@ public class NetworkSelectSettings extends DashboardFragment {
                     }
                     break;
                 case EVENT_NETWORK_SCAN_RESULTS:
+                    if (msg.arg1 != mScanGeneration) {
+                        break;
+                    }
                     scanResultHandler((List<CellInfo>) msg.obj);
                     break;
 
                 case EVENT_NETWORK_SCAN_ERROR:
+                    if (msg.arg2 != mScanGeneration) {
+                        break;
+                    }
                     stopNetworkQuery();
                     Log.i(TAG, "Network scan failure " + msg.arg1 + ":"
                             + " scan request 0x" + Long.toHexString(mRequestIdManualNetworkScan)
@@ -327,6 +340,9 @@ public class NetworkSelectSettings extends DashboardFragment {
                     break;
 
                 case EVENT_NETWORK_SCAN_COMPLETED:
+                    if (msg.arg1 != mScanGeneration) {
+                        break;
+                    }
                     stopNetworkQuery();
                     Log.d(TAG, "Network scan complete:"
                             + " scan request 0x" + Long.toHexString(mRequestIdManualNetworkScan)
@@ -355,50 +371,88 @@ public class NetworkSelectSettings extends DashboardFragment {
             Log.d(TAG, "no aggregation");
             return new ArrayList<>(cellInfoListInput);
         }
-        ArrayList<CellInfo> aggregatedList = new ArrayList<>();
+        final LinkedHashMap<Object, CellInfo> aggregatedMap = new LinkedHashMap<>();
         for (CellInfo cellInfo : cellInfoListInput) {
-            String plmn = CellInfoUtil.getNetworkTitle(cellInfo.getCellIdentity(),
-                    CellInfoUtil.getCellIdentityMccMnc(cellInfo.getCellIdentity()));
-            Class className = cellInfo.getClass();
-
-            Optional<CellInfo> itemInTheList = aggregatedList.stream().filter(
-                    item -> {
-                        String itemPlmn = CellInfoUtil.getNetworkTitle(item.getCellIdentity(),
-                                CellInfoUtil.getCellIdentityMccMnc(item.getCellIdentity()));
-                        return itemPlmn.equals(plmn) && item.getClass().equals(className);
-                    })
-                    .findFirst();
-            if (itemInTheList.isPresent()) {
-                if (cellInfo.isRegistered() && !itemInTheList.get().isRegistered()) {
-                    // Adding the registered cellinfo item into list. If there are two registered
-                    // cellinfo items, then select first one from source list.
-                    aggregatedList.set(aggregatedList.indexOf(itemInTheList.get()), cellInfo);
-                }
-                continue;
+            final Object key = getAggregationKey(cellInfo);
+            final CellInfo itemInTheList = aggregatedMap.get(key);
+            // Adding the registered cellinfo item into list. If there are two registered
+            // cellinfo items, then select first one from source list.
+            if (itemInTheList == null
+                    || (cellInfo.isRegistered() && !itemInTheList.isRegistered())) {
+                aggregatedMap.put(key, cellInfo);
             }
-            aggregatedList.add(cellInfo);
         }
-        return aggregatedList;
+        return new ArrayList<>(aggregatedMap.values());
     }
 
-    private final NetworkScanHelper.NetworkScanCallback mCallback =
-            new NetworkScanHelper.NetworkScanCallback() {
-                public void onResults(List<CellInfo> results) {
-                    final Message msg = mHandler.obtainMessage(EVENT_NETWORK_SCAN_RESULTS, results);
-                    msg.sendToTarget();
-                }
+    /**
+     * Returns the key identifying the row of {@code cellInfo}: its network title and radio
+     * access technology when aggregation is enabled, or its cell identity otherwise.
+     */
+    private Object getAggregationKey(CellInfo cellInfo) {
+        if (!mIsAggregationEnabled) {
+            return CellInfoUtil.getCellIdentity(cellInfo);
+        }
+        final String plmn = CellInfoUtil.getNetworkTitle(cellInfo.getCellIdentity(),
+                CellInfoUtil.getCellIdentityMccMnc(cellInfo.getCellIdentity()));
+        return Arrays.asList(plmn, cellInfo.getClass());
+    }
 
-                public void onComplete() {
-                    final Message msg = mHandler.obtainMessage(EVENT_NETWORK_SCAN_COMPLETED);
-                    msg.sendToTarget();
-                }
+    /**
+     * Merges a batch of scan results into the results of the running scan, and returns all of
+     * them. A network keeps its position in the list once seen, and is updated by later batches
+     * unless it would lose its registered state. Runs on {@link #mNetworkScanExecutor}.
+     */
+    @VisibleForTesting
+    List<CellInfo> mergeScanResults(List<CellInfo> results) {
+        for (CellInfo cellInfo : doAggregation(results)) {
+            final Object key = getAggregationKey(cellInfo);
+            final CellInfo previous = mScanResults.get(key);
+            if (previous == null || !previous.isRegistered() || cellInfo.isRegistered()) {
+                mScanResults.put(key, cellInfo);
+            }
+        }
+        return new ArrayList<>(mScanResults.values());
+    }
 
-                public void onError(int error) {
-                    final Message msg = mHandler.obtainMessage(EVENT_NETWORK_SCAN_ERROR, error,
-                            0 /* arg2 */);
-                    msg.sendToTarget();
-                }
-            };
+    /**
+     * Receives the results of one scan. The generation of the scan is fixed when it starts, since
+     * an error may be reported right away on the main thread.
+     */
+    private class ScanCallback implements NetworkScanHelper.NetworkScanCallback {
+        private final int mGeneration;
+
+        ScanCallback(int generation) {
+            mGeneration = generation;
+        }
+
+        public void onResults(List<CellInfo> results) {
+            // Runs on mNetworkScanExecutor, results of an older scan may still be queued.
+            if (mGeneration < mScanResultsGeneration) {
+                return;
+            }
+            if (mGeneration > mScanResultsGeneration) {
+                mScanResults.clear();
+                mScanResultsGeneration = mGeneration;
+            }
+            // De-duplicate off the main thread, which then only updates the rows.
+            final Message msg = mHandler.obtainMessage(EVENT_NETWORK_SCAN_RESULTS,
+                    mGeneration, 0 /* arg2 */, mergeScanResults(results));
+            msg.sendToTarget();
+        }
+
+        public void onComplete() {
+            final Message msg = mHandler.obtainMessage(EVENT_NETWORK_SCAN_COMPLETED,
+                    mGeneration, 0 /* arg2 */);
+            msg.sendToTarget();
+        }
+
+        public void onError(int error) {
+            final Message msg = mHandler.obtainMessage(EVENT_NETWORK_SCAN_ERROR, error,
+                    mGeneration);
+            msg.sendToTarget();
+        }
+    }
 
     @Keep
     @VisibleForTesting
@@ -413,7 +467,7 @@ public class NetworkSelectSettings extends DashboardFragment {
             stopNetworkQuery();
         }
 
-        mCellInfoList = doAggregation(results);
+        mCellInfoList = new ArrayList<>(results);
         Log.d(TAG, "CellInfoList: " + CellInfoUtil.cellInfoListToString(mCellInfoList));
         if (mCellInfoList != null && mCellInfoList.size() != 0) {
             final NetworkOperatorPreference connectedPref =
@@ -467,9 +521,11 @@ public class NetworkSelectSettings extends DashboardFragment {
             if (index < numberOfPreferences) {
                 final Preference rawPref = mPreferenceCategory.getPreference(index);
                 if (rawPref instanceof NetworkOperatorPreference) {
-                    // replace existing preference
+                    // reuse existing preference, only refreshed when its cell has changed
                     pref = (NetworkOperatorPreference) rawPref;
-                    pref.updateCell(cellInfo);
+                    if (!cellInfo.equals(pref.getCellInfo())) {
+                        pref.updateCell(cellInfo);
+                    }
                 } else {
                     mPreferenceCategory.removePreference(rawPref);
                 }
@@ -597,6 +653,10 @@ public class NetworkSelectSettings extends DashboardFragment {
     private void startNetworkQuery() {
         setProgressBarVisible(true);
         if (mNetworkScanHelper != null) {
+            // A scan still running would report to the callback of the previous generation.
+            mNetworkScanHelper.stopNetworkQuery();
+            mNetworkScanHelper = new NetworkScanHelper(getContext(), mTelephonyManager,
+                    new ScanCallback(++mScanGeneration), mNetworkScanExecutor);
             mRequestIdManualNetworkScan = getNewRequestId();
             mWaitingForNumberOfScanResults = MIN_NUMBER_OF_SCAN_REQUIRED;
             mNetworkScanHelper.startNetworkScan(
@@ -611,13 +671,17 @@ public class NetworkSelectSettings extends DashboardFragment {
         if (mNetworkScanHelper != null) {
             mWaitingForNumberOfScanResults = 0;
             mNetworkScanHelper.stopNetworkQuery();
+            mScanGeneration++;
+            mHandler.removeMessages(EVENT_NETWORK_SCAN_RESULTS);
+            mHandler.removeMessages(EVENT_NETWORK_SCAN_ERROR);
+            mHandler.removeMessages(EVENT_NETWORK_SCAN_COMPLETED);
         }
     }
 
     @Override
     public void onDestroy() {
         stopNetworkQuery();
-        mNetworkScanExecutor.shutdown();
+        mNetworkScanExecutor.shutdownNow();
         super.onDestroy();
     }
 }
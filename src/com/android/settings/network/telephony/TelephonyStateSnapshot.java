@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network.telephony;
+
+import android.content.Context;
+import android.telephony.ServiceState;
+import android.telephony.TelephonyManager;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settings.network.CarrierConfigCache;
+import com.android.settings.network.CarrierConfigProjection;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Telephony state of one subscription, as read by the {@link MobileNetworkUtils} helpers.
+ *
+ * <p>Each value is read lazily and at most once per snapshot. Outside of a session every call
+ * gets a new snapshot, so values are shared within a single helper call only. While a session is
+ * open, see {@link TelephonyStatusControlSession}, one snapshot per subscription is shared by all
+ * the preference controllers computing their availability. Snapshots are dropped when the session
+ * ends, or earlier when the subscription or its carrier config changes.
+ */
+public class TelephonyStateSnapshot {
+
+    private static final Object sSessionLock = new Object();
+    @GuardedBy("sSessionLock")
+    private static int sSessionCount;
+    private static final Map<Integer, TelephonyStateSnapshot> sSnapshots =
+            new ConcurrentHashMap<>();
+
+    private final Context mContext;
+    private final int mSubId;
+
+    @GuardedBy("this")
+    private TelephonyManager mTelephonyManager;
+    @GuardedBy("this")
+    private boolean mCarrierConfigProjectionLoaded;
+    @GuardedBy("this")
+    private CarrierConfigProjection mCarrierConfigProjection;
+    @GuardedBy("this")
+    private Integer mPhoneType;
+    @GuardedBy("this")
+    private Integer mNetworkMode;
+    @GuardedBy("this")
+    private Boolean mManualNetworkSelectionAllowed;
+    @GuardedBy("this")
+    private boolean mServiceStateLoaded;
+    @GuardedBy("this")
+    private ServiceState mServiceState;
+
+    /**
+     * Returns the snapshot of {@code subId}, shared with other callers while a session is open.
+     */
+    static TelephonyStateSnapshot get(Context context, int subId) {
+        synchronized (sSessionLock) {
+            if (sSessionCount > 0) {
+                return sSnapshots.computeIfAbsent(subId,
+                        id -> new TelephonyStateSnapshot(context, id));
+            }
+        }
+        return new TelephonyStateSnapshot(context, subId);
+    }
+
+    /** Starts sharing snapshots, sessions may be nested. */
+    static void beginSession() {
+        synchronized (sSessionLock) {
+            sSessionCount++;
+        }
+    }
+
+    /** Stops sharing snapshots once the outermost session ends. */
+    static void endSession() {
+        synchronized (sSessionLock) {
+            if (sSessionCount > 0 && --sSessionCount == 0) {
+                sSnapshots.clear();
+            }
+        }
+    }
+
+    /** Drops the shared snapshot of {@code subId}. */
+    public static void invalidate(int subId) {
+        sSnapshots.remove(subId);
+    }
+
+    /** Drops every shared snapshot. */
+    public static void invalidateAll() {
+        sSnapshots.clear();
+    }
+
+    @VisibleForTesting
+    TelephonyStateSnapshot(Context context, int subId) {
+        mContext = context;
+        mSubId = subId;
+    }
+
+    /** Returns the carrier config projection of the subscription, or {@code null}. */
+    synchronized CarrierConfigProjection getCarrierConfigProjection() {
+        if (!mCarrierConfigProjectionLoaded) {
+            mCarrierConfigProjection =
+                    CarrierConfigCache.getInstance(mContext).getProjectionForSubId(mSubId);
+            mCarrierConfigProjectionLoaded = true;
+        }
+        return mCarrierConfigProjection;
+    }
+
+    /** Returns {@link TelephonyManager#getPhoneType()}. */
+    synchronized int getPhoneType() {
+        if (mPhoneType == null) {
+            mPhoneType = getTelephonyManager().getPhoneType();
+        }
+        return mPhoneType;
+    }
+
+    /**
+     * Returns the network mode matching the network types allowed by the user, see
+     * {@link MobileNetworkUtils#getNetworkTypeFromRaf}.
+     */
+    synchronized int getNetworkMode() {
+        if (mNetworkMode == null) {
+            mNetworkMode = MobileNetworkUtils.getNetworkTypeFromRaf(
+                    (int) getTelephonyManager().getAllowedNetworkTypesForReason(
+                            TelephonyManager.ALLOWED_NETWORK_TYPES_REASON_USER));
+        }
+        return mNetworkMode;
+    }
+
+    /** Returns {@link TelephonyManager#isManualNetworkSelectionAllowed()}. */
+    synchronized boolean isManualNetworkSelectionAllowed() {
+        if (mManualNetworkSelectionAllowed == null) {
+            mManualNetworkSelectionAllowed =
+                    getTelephonyManager().isManualNetworkSelectionAllowed();
+        }
+        return mManualNetworkSelectionAllowed;
+    }
+
+    /** Returns {@link TelephonyManager#getServiceState()}, which may be {@code null}. */
+    synchronized ServiceState getServiceState() {
+        if (!mServiceStateLoaded) {
+            mServiceState = getTelephonyManager().getServiceState();
+            mServiceStateLoaded = true;
+        }
+        return mServiceState;
+    }
+
+    @GuardedBy("this")
+    private TelephonyManager getTelephonyManager() {
+        if (mTelephonyManager == null) {
+            mTelephonyManager = mContext.getSystemService(TelephonyManager.class)
+                    .createForSubscriptionId(mSubId);
+        }
+        return mTelephonyManager;
+    }
+}
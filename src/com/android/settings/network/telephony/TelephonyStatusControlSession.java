@@ -68,6 +68,8 @@ public class TelephonyStatusControlSession implements AutoCloseable {
 
     private TelephonyStatusControlSession(Collection<AbstractPreferenceController> controllers) {
         mControllers = controllers;
+        // Controllers of the same subscription share one snapshot of its telephony state.
+        TelephonyStateSnapshot.beginSession();
         controllers.forEach(prefCtrl -> mResult
                 .add(ThreadUtils.postOnBackgroundThread(() -> setupAvailabilityStatus(prefCtrl))));
 
@@ -88,6 +90,7 @@ public class TelephonyStatusControlSession implements AutoCloseable {
                 Log.e(LOG_TAG, "setup availability status failed!", exception);
             }
         }
+        TelephonyStateSnapshot.endSession();
         unsetAvailabilityStatus(mControllers);
     }
 
@@ -22,10 +22,14 @@ import android.animation.AnimatorSet;
 import android.animation.ObjectAnimator;
 import android.animation.ValueAnimator;
 import android.app.settings.SettingsEnums;
+import android.content.Context;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
 import android.text.TextUtils;
+import android.util.ArrayMap;
+import android.util.Log;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -55,12 +59,13 @@ import com.android.internal.annotations.VisibleForTesting;
 import com.android.settings.R;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settings.panel.PanelLoggingContract.PanelClosedKeys;
+import com.android.settings.slices.CustomSliceRegistry;
+import com.android.settings.slices.CustomSliceable;
 import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
 import com.android.settingslib.utils.ThreadUtils;
 
 import com.google.android.setupdesign.DividerItemDecoration;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -85,6 +90,13 @@ public class PanelFragment extends Fragment {
      */
     private static final int DURATION_SLICE_BINDING_TIMEOUT_MS = 250;
 
+    /**
+     * Maximum delay before the panel is shown, in milliseconds. Slices still loading by then
+     * are shown as placeholders, and fill in as soon as they bind.
+     */
+    @VisibleForTesting
+    static final int DURATION_FIRST_FRAME_DEADLINE_MS = 400;
+
     @VisibleForTesting
     View mLayoutView;
     private TextView mTitleView;
@@ -105,6 +117,15 @@ public class PanelFragment extends Fragment {
     private ProgressBar mProgressBar;
 
     private final Map<Uri, LiveData<Slice>> mSliceLiveData = new LinkedHashMap<>();
+    private final Map<Uri, Slice> mPrefetchedSlices = new ArrayMap<>();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    // Bumped every time the slices are reloaded, to drop the results of the previous load.
+    private int mLoadGeneration;
+    // Do not let a slow Slice hold the whole panel back, it shows a placeholder until it loads.
+    private final Runnable mFirstFrameDeadlineRunnable = () -> {
+        mPanelSlicesLoaderCountdownLatch.markDeadlineReached();
+        loadPanelWhenReady();
+    };
 
     @VisibleForTesting
     PanelSlicesLoaderCountdownLatch mPanelSlicesLoaderCountdownLatch;
@@ -327,7 +348,11 @@ public class PanelFragment extends Fragment {
     }
 
     private void loadAllSlices() {
+        final int generation = ++mLoadGeneration;
+        mHandler.removeCallbacksAndMessages(null);
+        mAdapter = null;
         mSliceLiveData.clear();
+        mPrefetchedSlices.clear();
         final List<Uri> sliceUris = mPanel.getSlices();
         mPanelSlicesLoaderCountdownLatch = new PanelSlicesLoaderCountdownLatch(sliceUris.size());
 
@@ -336,6 +361,8 @@ public class PanelFragment extends Fragment {
                     (int type, Throwable source)-> {
                             removeSliceLiveData(uri);
                             mPanelSlicesLoaderCountdownLatch.markSliceLoaded(uri);
+                            notifySliceChanged(uri);
+                            loadPanelWhenReady();
                     });
 
             // Add slice first to make it in order.  Will remove it later if there's an error.
@@ -343,12 +370,11 @@ public class PanelFragment extends Fragment {
 
             sliceLiveData.observe(getViewLifecycleOwner(), slice -> {
 
-                // If the Slice has already loaded, refresh list with slice data.
-                if (mPanelSlicesLoaderCountdownLatch.isSliceLoaded(uri)) {
-                    if (mAdapter != null) {
-                        int itemIndex = (new ArrayList<>(mSliceLiveData.keySet())).indexOf(uri);
-                        mAdapter.notifyItemChanged(itemIndex);
-                    }
+                // If the Slice has already loaded, refresh list with slice data. A prefetched
+                // Slice only stands in for the first bound one, which is still checked below.
+                final boolean prefetched = mPrefetchedSlices.remove(uri) != null;
+                if (mPanelSlicesLoaderCountdownLatch.isSliceLoaded(uri) && !prefetched) {
+                    notifySliceChanged(uri);
                     return;
                 }
 
@@ -373,16 +399,87 @@ public class PanelFragment extends Fragment {
                     mPanelSlicesLoaderCountdownLatch.markSliceLoaded(uri);
                 } else if (metadata.getLoadingState() == SliceMetadata.LOADED_ALL) {
                     mPanelSlicesLoaderCountdownLatch.markSliceLoaded(uri);
-                } else {
-                    Handler handler = new Handler();
-                    handler.postDelayed(() -> {
+                } else if (!prefetched) {
+                    mHandler.postDelayed(() -> {
                         mPanelSlicesLoaderCountdownLatch.markSliceLoaded(uri);
                         loadPanelWhenReady();
                     }, DURATION_SLICE_BINDING_TIMEOUT_MS);
                 }
+                notifySliceChanged(uri);
 
                 loadPanelWhenReady();
             });
+
+            if (CustomSliceRegistry.isValidUri(uri)) {
+                prefetchSlice(generation, uri);
+            }
+        }
+
+        mHandler.postDelayed(mFirstFrameDeadlineRunnable, DURATION_FIRST_FRAME_DEADLINE_MS);
+    }
+
+    /**
+     * Builds the first {@link Slice} of a Settings {@link CustomSliceable} in-process, without
+     * waiting for the SliceProvider to bind it. The row shows it until the {@link LiveData}
+     * delivers the bound Slice.
+     */
+    private void prefetchSlice(int generation, Uri uri) {
+        final Context context = getActivity().getApplicationContext();
+        ThreadUtils.postOnBackgroundThread(() -> {
+            Slice slice = null;
+            try {
+                final CustomSliceable sliceable = FeatureFactory.getFactory(context)
+                        .getSlicesFeatureProvider().getSliceableFromUri(context, uri);
+                if (sliceable != null) {
+                    slice = sliceable.getSlice();
+                }
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Failed to prefetch slice " + uri, e);
+            }
+            if (slice == null) {
+                return;
+            }
+            final Slice prefetchedSlice = slice;
+            mHandler.post(() -> {
+                if (generation != mLoadGeneration
+                        || mPanelSlicesLoaderCountdownLatch.isSliceLoaded(uri)
+                        || !mSliceLiveData.containsKey(uri)
+                        || mSliceLiveData.get(uri).getValue() != null) {
+                    return;
+                }
+                mPrefetchedSlices.put(uri, prefetchedSlice);
+                mPanelSlicesLoaderCountdownLatch.markSliceLoaded(uri);
+                notifySliceChanged(uri);
+                loadPanelWhenReady();
+            });
+        });
+    }
+
+    /**
+     * Returns the Slice of {@code uri} built in-process, if the SliceProvider has not bound it
+     * yet.
+     */
+    @Nullable
+    Slice getPrefetchedSlice(Uri uri) {
+        return mPrefetchedSlices.get(uri);
+    }
+
+    /**
+     * Returns {@code true} if the Slice of {@code uri} has not loaded yet.
+     */
+    boolean isSliceLoading(Uri uri) {
+        return mPanelSlicesLoaderCountdownLatch != null
+                && !mPanelSlicesLoaderCountdownLatch.isSliceLoaded(uri);
+    }
+
+    private void notifySliceChanged(Uri uri) {
+        if (mAdapter == null) {
+            return;
+        }
+        if (mSliceLiveData.containsKey(uri)) {
+            mAdapter.notifySliceChanged(uri);
+        } else {
+            mAdapter.updateSlices(mSliceLiveData);
         }
     }
 
@@ -396,14 +493,15 @@ public class PanelFragment extends Fragment {
     }
 
     /**
-     * When all of the Slices have loaded for the first time, then we can setup the
-     * {@link RecyclerView}.
+     * When all of the Slices have loaded for the first time, or the first frame deadline has
+     * passed, then we can setup the {@link RecyclerView}.
      * <p>
      * When the Recyclerview has been laid out, we can begin the animation with the
      * {@link mOnGlobalLayoutListener}, which calls {@link #animateIn()}.
      */
     private void loadPanelWhenReady() {
         if (mPanelSlicesLoaderCountdownLatch.isPanelReadyToLoad()) {
+            mHandler.removeCallbacks(mFirstFrameDeadlineRunnable);
             mAdapter = new PanelSlicesAdapter(
                     this, mSliceLiveData, mPanel.getMetricsCategory());
             mPanelSlices.setAdapter(mAdapter);
@@ -467,6 +565,7 @@ public class PanelFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        mHandler.removeCallbacksAndMessages(null);
 
         if (TextUtils.isEmpty(mPanelClosedKey)) {
             mPanelClosedKey = PanelClosedKeys.KEY_OTHERS;
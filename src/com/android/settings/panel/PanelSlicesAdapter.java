@@ -56,15 +56,42 @@ public class PanelSlicesAdapter
     @VisibleForTesting
     static final int MAX_NUM_OF_SLICES = 9;
 
-    private final List<LiveData<Slice>> mSliceLiveData;
+    private final List<Uri> mSliceUris = new ArrayList<>();
+    private final List<LiveData<Slice>> mSliceLiveData = new ArrayList<>();
     private final int mMetricsCategory;
     private final PanelFragment mPanelFragment;
 
     public PanelSlicesAdapter(
             PanelFragment fragment, Map<Uri, LiveData<Slice>> sliceLiveData, int metricsCategory) {
         mPanelFragment = fragment;
-        mSliceLiveData = new ArrayList<>(sliceLiveData.values());
         mMetricsCategory = metricsCategory;
+        setSlices(sliceLiveData);
+    }
+
+    /**
+     * Replaces the Slices shown by the adapter, e.g. after a Slice failed to load and was
+     * removed from the panel.
+     */
+    void updateSlices(Map<Uri, LiveData<Slice>> sliceLiveData) {
+        setSlices(sliceLiveData);
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Refreshes the row of {@code uri} once its Slice changed.
+     */
+    void notifySliceChanged(Uri uri) {
+        final int position = mSliceUris.indexOf(uri);
+        if (position >= 0 && position < getItemCount()) {
+            notifyItemChanged(position);
+        }
+    }
+
+    private void setSlices(Map<Uri, LiveData<Slice>> sliceLiveData) {
+        mSliceUris.clear();
+        mSliceUris.addAll(sliceLiveData.keySet());
+        mSliceLiveData.clear();
+        mSliceLiveData.addAll(sliceLiveData.values());
     }
 
     @NonNull
@@ -84,7 +111,17 @@ public class PanelSlicesAdapter
 
     @Override
     public void onBindViewHolder(@NonNull SliceRowViewHolder sliceRowViewHolder, int position) {
-        sliceRowViewHolder.onBind(mSliceLiveData.get(position).getValue());
+        final Uri uri = mSliceUris.get(position);
+        Slice slice = mSliceLiveData.get(position).getValue();
+        if (slice == null) {
+            // Settings Slices may have been built in-process before the provider bound them.
+            slice = mPanelFragment.getPrefetchedSlice(uri);
+        }
+        if (slice == null && mPanelFragment.isSliceLoading(uri)) {
+            sliceRowViewHolder.onBindPlaceholder();
+            return;
+        }
+        sliceRowViewHolder.onBind(slice);
     }
 
     /**
@@ -119,6 +156,8 @@ public class PanelSlicesAdapter
         final SliceView sliceView;
         @VisibleForTesting
         final LinearLayout mSliceSliderLayout;
+        @VisibleForTesting
+        final View mPlaceholder;
 
         public SliceRowViewHolder(View view) {
             super(view);
@@ -127,12 +166,26 @@ public class PanelSlicesAdapter
             sliceView.setShowTitleItems(true);
             sliceView.setImportantForAccessibility(View.IMPORTANT_FOR_ACCESSIBILITY_NO);
             mSliceSliderLayout = view.findViewById(R.id.slice_slider_layout);
+            mPlaceholder = view.findViewById(R.id.slice_placeholder);
+        }
+
+        /**
+         * Called when the view is displayed before its Slice is loaded.
+         */
+        void onBindPlaceholder() {
+            sliceView.setVisibility(View.GONE);
+            if (mPlaceholder != null) {
+                mPlaceholder.setVisibility(View.VISIBLE);
+            }
         }
 
         /**
          * Called when the view is displayed.
          */
         public void onBind(Slice slice) {
+            if (mPlaceholder != null) {
+                mPlaceholder.setVisibility(View.GONE);
+            }
             // Hides slice which reports with error hint or not contain any slice sub-item.
             if (slice == null || !isValidSlice(slice)) {
                 sliceView.setVisibility(View.GONE);
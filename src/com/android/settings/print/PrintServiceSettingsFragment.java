@@ -42,8 +42,6 @@ import android.view.View;
 import android.view.View.OnClickListener;
 import android.view.ViewGroup;
 import android.view.accessibility.AccessibilityManager;
-import android.widget.Filter;
-import android.widget.Filterable;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.SearchView;
@@ -86,6 +84,26 @@ public class PrintServiceSettingsFragment extends SettingsPreferenceFragment
             updateEmptyView();
         }
 
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            onChanged();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            onChanged();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            onChanged();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            onChanged();
+        }
+
         private void invalidateOptionsMenuIfNeeded() {
             final int unfilteredItemCount = mPrintersAdapter.getUnfilteredCount();
             if ((mLastUnfilteredItemCount <= 0 && unfilteredItemCount > 0)
@@ -162,6 +180,8 @@ public class PrintServiceSettingsFragment extends SettingsPreferenceFragment
         mSwitchBar.removeOnSwitchChangeListener(this);
         mSwitchBar.hide();
         mPrintersAdapter.unregisterAdapterDataObserver(mDataObserver);
+        Log.d(LOG_TAG, "Printer discovery events: " + mPrintersAdapter.getDiscoveryEventCount()
+                + ", rendered updates: " + mPrintersAdapter.getRenderedUpdateCount());
     }
 
     private void onPreferenceToggled(String preferenceKey, boolean enabled) {
@@ -377,7 +397,7 @@ public class PrintServiceSettingsFragment extends SettingsPreferenceFragment
 
                 @Override
                 public boolean onQueryTextChange(String searchString) {
-                    mPrintersAdapter.getFilter().filter(searchString);
+                    mPrintersAdapter.setQuery(searchString);
                     return true;
                 }
             });
@@ -414,15 +434,10 @@ public class PrintServiceSettingsFragment extends SettingsPreferenceFragment
 
 
     private final class PrintersAdapter extends RecyclerView.Adapter<ViewHolder>
-            implements LoaderManager.LoaderCallbacks<List<PrinterInfo>>, Filterable {
-
-        private final Object mLock = new Object();
-
-        private final List<PrinterInfo> mPrinters = new ArrayList<PrinterInfo>();
+            implements LoaderManager.LoaderCallbacks<List<PrinterInfo>> {
 
-        private final List<PrinterInfo> mFilteredPrinters = new ArrayList<PrinterInfo>();
-
-        private CharSequence mLastSearchString;
+        private final PrinterDiscoveryStream mStream =
+                new PrinterDiscoveryStream(diff -> diff.dispatchUpdatesTo(this));
 
         public void enable() {
             getLoaderManager().initLoader(LOADER_ID_PRINTERS_LOADER, null, this);
@@ -430,69 +445,32 @@ public class PrintServiceSettingsFragment extends SettingsPreferenceFragment
 
         public void disable() {
             getLoaderManager().destroyLoader(LOADER_ID_PRINTERS_LOADER);
-            mPrinters.clear();
+            mStream.clear();
         }
 
         public int getUnfilteredCount() {
-            return mPrinters.size();
+            return mStream.getUnfilteredCount();
         }
 
-        @Override
-        public Filter getFilter() {
-            return new Filter() {
-                @Override
-                protected FilterResults performFiltering(CharSequence constraint) {
-                    synchronized (mLock) {
-                        if (TextUtils.isEmpty(constraint)) {
-                            return null;
-                        }
-                        FilterResults results = new FilterResults();
-                        List<PrinterInfo> filteredPrinters = new ArrayList<PrinterInfo>();
-                        String constraintLowerCase = constraint.toString().toLowerCase();
-                        final int printerCount = mPrinters.size();
-                        for (int i = 0; i < printerCount; i++) {
-                            PrinterInfo printer = mPrinters.get(i);
-                            String name = printer.getName();
-                            if (name != null && name.toLowerCase().contains(constraintLowerCase)) {
-                                filteredPrinters.add(printer);
-                            }
-                        }
-                        results.values = filteredPrinters;
-                        results.count = filteredPrinters.size();
-                        return results;
-                    }
-                }
+        public void setQuery(CharSequence query) {
+            mStream.setQuery(query);
+        }
 
-                @Override
-                @SuppressWarnings("unchecked")
-                protected void publishResults(CharSequence constraint, FilterResults results) {
-                    synchronized (mLock) {
-                        mLastSearchString = constraint;
-                        mFilteredPrinters.clear();
-                        if (results == null) {
-                            mFilteredPrinters.addAll(mPrinters);
-                        } else {
-                            List<PrinterInfo> printers = (List<PrinterInfo>) results.values;
-                            mFilteredPrinters.addAll(printers);
-                        }
-                    }
-                    notifyDataSetChanged();
+        public int getDiscoveryEventCount() {
+            return mStream.getDiscoveryEventCount();
+        }
 
-                }
-            };
+        public int getRenderedUpdateCount() {
+            return mStream.getRenderedUpdateCount();
         }
 
         @Override
         public int getItemCount() {
-            synchronized (mLock) {
-                return mFilteredPrinters.size();
-            }
+            return mStream.getPrinters().size();
         }
 
         private Object getItem(int position) {
-            synchronized (mLock) {
-                return mFilteredPrinters.get(position);
-            }
+            return mStream.getPrinters().get(position);
         }
 
         @Override
@@ -575,11 +553,10 @@ public class PrintServiceSettingsFragment extends SettingsPreferenceFragment
             }
 
             holder.itemView.setOnClickListener(v -> {
-                PrinterInfo pi = (PrinterInfo) getItem(position);
-
-                if (pi.getInfoIntent() != null) {
+                // Items move without being bound again, so the position may be stale.
+                if (printer.getInfoIntent() != null) {
                     try {
-                        getActivity().startIntentSender(pi.getInfoIntent().getIntentSender(),
+                        getActivity().startIntentSender(printer.getInfoIntent().getIntentSender(),
                                 null, 0, 0, 0);
                     } catch (SendIntentException e) {
                         Log.e(LOG_TAG, "Could not execute info intent: %s", e);
@@ -599,32 +576,13 @@ public class PrintServiceSettingsFragment extends SettingsPreferenceFragment
         @Override
         public void onLoadFinished(Loader<List<PrinterInfo>> loader,
                 List<PrinterInfo> printers) {
-            synchronized (mLock) {
-                mPrinters.clear();
-                final int printerCount = printers.size();
-                for (int i = 0; i < printerCount; i++) {
-                    PrinterInfo printer = printers.get(i);
-                    if (printer.getId().getServiceName().equals(mComponentName)) {
-                        mPrinters.add(printer);
-                    }
-                }
-                mFilteredPrinters.clear();
-                mFilteredPrinters.addAll(mPrinters);
-                if (!TextUtils.isEmpty(mLastSearchString)) {
-                    getFilter().filter(mLastSearchString);
-                }
-            }
-            notifyDataSetChanged();
+            mStream.onPrintersDiscovered(printers, mComponentName);
         }
 
         @Override
         public void onLoaderReset(Loader<List<PrinterInfo>> loader) {
-            synchronized (mLock) {
-                mPrinters.clear();
-                mFilteredPrinters.clear();
-                mLastSearchString = null;
-            }
-            notifyDataSetChanged();
+            mStream.setQuery(null);
+            mStream.clear();
         }
     }
 
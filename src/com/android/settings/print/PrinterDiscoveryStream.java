@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.print;
+
+import android.content.ComponentName;
+import android.print.PrinterId;
+import android.print.PrinterInfo;
+import android.text.TextUtils;
+import android.util.ArrayMap;
+import android.view.Choreographer;
+
+import androidx.annotation.VisibleForTesting;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The printers discovered for a print service, as shown by {@link PrintServiceSettingsFragment}.
+ *
+ * <p>A discovery session reports the whole list of printers every time one of them changes, which
+ * happens many times per second on a busy network. The reported printers are keyed by
+ * {@link PrinterId}, and the shown list is updated at most once per frame, with only the printers
+ * that changed since the previous frame. The lower cased names of the printers are kept along with
+ * them for the search box, and typing one more character only searches the previous matches.
+ *
+ * <p>Must only be used on the main thread.
+ */
+class PrinterDiscoveryStream {
+
+    /** Receives the updates of the shown printers. */
+    interface Listener {
+        /**
+         * Called when the shown printers changed.
+         *
+         * @param diff The changes from the previously shown printers
+         */
+        void onPrintersUpdated(DiffUtil.DiffResult diff);
+    }
+
+    private final Listener mListener;
+    private final Choreographer.FrameCallback mFrameCallback = frameTimeNanos -> {
+        mFrameScheduled = false;
+        render();
+    };
+
+    /** The discovered printers, and their lower cased names for the search box. */
+    private Map<PrinterId, PrinterInfo> mPrinters = new LinkedHashMap<>();
+    private Map<PrinterId, String> mSearchKeys = new ArrayMap<>();
+
+    /** The printers matching the query when last shown. */
+    private List<PrinterInfo> mShownPrinters = Collections.emptyList();
+    private int mShownUnfilteredCount;
+
+    private String mQuery = "";
+    /** Whether printers were reported since the last frame, otherwise the matches only narrow. */
+    private boolean mPrintersChanged;
+    private boolean mFrameScheduled;
+
+    private int mDiscoveryEventCount;
+    private int mRenderedUpdateCount;
+
+    PrinterDiscoveryStream(Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Reports the printers currently discovered, only the ones of {@code serviceName} are kept.
+     * The shown printers are updated on the next frame.
+     */
+    void onPrintersDiscovered(List<PrinterInfo> printers, ComponentName serviceName) {
+        mDiscoveryEventCount++;
+        final Map<PrinterId, PrinterInfo> discovered = new LinkedHashMap<>();
+        final Map<PrinterId, String> searchKeys = new ArrayMap<>();
+        final int printerCount = printers.size();
+        for (int i = 0; i < printerCount; i++) {
+            final PrinterInfo printer = printers.get(i);
+            final PrinterId id = printer.getId();
+            if (!id.getServiceName().equals(serviceName)) {
+                continue;
+            }
+            discovered.put(id, printer);
+            // Most updates change the status of a printer, not its name.
+            final PrinterInfo known = mPrinters.get(id);
+            searchKeys.put(id, known != null && TextUtils.equals(known.getName(), printer.getName())
+                    ? mSearchKeys.get(id) : getSearchKey(printer));
+        }
+        mPrinters = discovered;
+        mSearchKeys = searchKeys;
+        mPrintersChanged = true;
+        scheduleFrame();
+    }
+
+    /** Sets the text the shown printers are filtered by, they are updated on the next frame. */
+    void setQuery(CharSequence query) {
+        final String lowerCaseQuery =
+                TextUtils.isEmpty(query) ? "" : query.toString().toLowerCase(Locale.getDefault());
+        if (lowerCaseQuery.equals(mQuery)) {
+            return;
+        }
+        if (!lowerCaseQuery.startsWith(mQuery)) {
+            mPrintersChanged = true;
+        }
+        mQuery = lowerCaseQuery;
+        scheduleFrame();
+    }
+
+    /** Forgets the discovered printers, and shows none right away. */
+    void clear() {
+        mPrinters = new LinkedHashMap<>();
+        mSearchKeys = new ArrayMap<>();
+        mPrintersChanged = true;
+        render();
+    }
+
+    /** Returns the printers shown, matching the query. */
+    List<PrinterInfo> getPrinters() {
+        return mShownPrinters;
+    }
+
+    /** Returns the number of printers shown if there was no query. */
+    int getUnfilteredCount() {
+        return mShownUnfilteredCount;
+    }
+
+    /** Returns the number of printer lists reported by the discovery session. */
+    int getDiscoveryEventCount() {
+        return mDiscoveryEventCount;
+    }
+
+    /** Returns the number of times the shown printers were updated. */
+    int getRenderedUpdateCount() {
+        return mRenderedUpdateCount;
+    }
+
+    @VisibleForTesting
+    void render() {
+        if (mFrameScheduled) {
+            Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+            mFrameScheduled = false;
+        }
+        // Until new printers are reported, the matches of a longer query are among the shown ones.
+        final List<PrinterInfo> candidates =
+                mPrintersChanged ? new ArrayList<>(mPrinters.values()) : mShownPrinters;
+        final List<PrinterInfo> printers = new ArrayList<>(candidates.size());
+        final int candidateCount = candidates.size();
+        for (int i = 0; i < candidateCount; i++) {
+            final PrinterInfo printer = candidates.get(i);
+            if (mQuery.isEmpty() || mSearchKeys.get(printer.getId()).contains(mQuery)) {
+                printers.add(printer);
+            }
+        }
+        mPrintersChanged = false;
+
+        if (printers.equals(mShownPrinters) && mShownUnfilteredCount == mPrinters.size()) {
+            return;
+        }
+        final DiffUtil.DiffResult diff =
+                DiffUtil.calculateDiff(new PrintersDiffCallback(mShownPrinters, printers));
+        mShownPrinters = Collections.unmodifiableList(printers);
+        mShownUnfilteredCount = mPrinters.size();
+        mRenderedUpdateCount++;
+        mListener.onPrintersUpdated(diff);
+    }
+
+    private void scheduleFrame() {
+        if (!mFrameScheduled) {
+            mFrameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
+        }
+    }
+
+    private static String getSearchKey(PrinterInfo printer) {
+        final String name = printer.getName();
+        return name == null ? "" : name.toLowerCase(Locale.getDefault());
+    }
+
+    private static class PrintersDiffCallback extends DiffUtil.Callback {
+        private final List<PrinterInfo> mOldPrinters;
+        private final List<PrinterInfo> mNewPrinters;
+
+        PrintersDiffCallback(List<PrinterInfo> oldPrinters, List<PrinterInfo> newPrinters) {
+            mOldPrinters = oldPrinters;
+            mNewPrinters = newPrinters;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldPrinters.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewPrinters.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return mOldPrinters.get(oldPosition).getId().equals(
+                    mNewPrinters.get(newPosition).getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return mOldPrinters.get(oldPosition).equals(mNewPrinters.get(newPosition));
+        }
+    }
+}
@@ -128,6 +128,7 @@ public class TextToSpeechSettings extends SettingsPreferenceFragment
 
     private TextToSpeech mTts = null;
     private TtsEngines mEnginesHelper = null;
+    private TtsEngineCatalog mEngineCatalog;
 
     private String mSampleText = null;
 
@@ -170,6 +171,7 @@ public class TextToSpeechSettings extends SettingsPreferenceFragment
         getActivity().setVolumeControlStream(TextToSpeech.Engine.DEFAULT_STREAM);
 
         mEnginesHelper = new TtsEngines(getActivity().getApplicationContext());
+        mEngineCatalog = TtsEngineCatalog.getInstance(getActivity());
 
         mLocalePreference = (ListPreference) findPreference(KEY_ENGINE_LOCALE);
         mLocalePreference.setOnPreferenceChangeListener(this);
@@ -345,11 +347,13 @@ public class TextToSpeechSettings extends SettingsPreferenceFragment
         }
 
         if (mCurrentEngine != null) {
-            EngineInfo info = mEnginesHelper.getEngineInfo(mCurrentEngine);
+            EngineInfo info = mEngineCatalog.getEngineInfo(mCurrentEngine);
 
             Preference mEnginePreference = findPreference(KEY_TTS_ENGINE_PREFERENCE);
             ((GearPreference) mEnginePreference).setOnGearClickListener(this);
-            mEnginePreference.setSummary(info.label);
+            if (info != null) {
+                mEnginePreference.setSummary(info.label);
+            }
         }
 
         checkVoiceData(mCurrentEngine);
@@ -504,10 +508,18 @@ public class TextToSpeechSettings extends SettingsPreferenceFragment
         if (requestCode == GET_SAMPLE_TEXT) {
             onSampleTextReceived(resultCode, data);
         } else if (requestCode == VOICE_DATA_INTEGRITY_CHECK) {
-            onVoiceDataIntegrityCheckDone(data);
-            if (resultCode != TextToSpeech.Engine.CHECK_VOICE_DATA_FAIL) {
-                updateDefaultLocalePref(data);
+            final String engine = mTts != null ? mTts.getCurrentEngine() : null;
+            if (engine != null && data != null) {
+                mEngineCatalog.putVoiceData(engine, resultCode, data, System.currentTimeMillis());
             }
+            onVoiceData(resultCode, data);
+        }
+    }
+
+    private void onVoiceData(int resultCode, Intent data) {
+        onVoiceDataIntegrityCheckDone(data);
+        if (resultCode != TextToSpeech.Engine.CHECK_VOICE_DATA_FAIL) {
+            updateDefaultLocalePref(data);
         }
     }
 
@@ -754,8 +766,19 @@ public class TextToSpeechSettings extends SettingsPreferenceFragment
         dialog.show();
     }
 
-    /** Check whether the voice data for the engine is ok. */
+    /**
+     * Check whether the voice data for the engine is ok. The last result of the check is shown
+     * right away, and the engine is only checked again if it changed or the result is old.
+     */
     private void checkVoiceData(String engine) {
+        final TtsEngineCatalog.VoiceData voiceData = mEngineCatalog.getVoiceData(engine);
+        if (voiceData != null) {
+            if (DBG) Log.d(TAG, "Using the last voice data check of " + engine);
+            onVoiceData(voiceData.mResultCode, voiceData.toIntent());
+            if (voiceData.isFresh(System.currentTimeMillis())) {
+                return;
+            }
+        }
         Intent intent = new Intent(TextToSpeech.Engine.ACTION_CHECK_TTS_DATA);
         intent.setPackage(engine);
         try {
@@ -801,6 +824,8 @@ public class TextToSpeechSettings extends SettingsPreferenceFragment
             EngineInfo info = mEnginesHelper.getEngineInfo(mCurrentEngine);
             final Intent settingsIntent = mEnginesHelper.getSettingsIntent(info.name);
             if (settingsIntent != null) {
+                // Voices may be installed or removed from the settings of the engine.
+                mEngineCatalog.invalidateVoiceData(info.name);
                 startActivity(settingsIntent);
             } else {
                 Log.e(TAG, "settingsIntent is null");
@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.tts;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.SharedPreferences;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.net.Uri;
+import android.speech.tts.TextToSpeech;
+import android.speech.tts.TextToSpeech.EngineInfo;
+import android.speech.tts.TtsEngines;
+import android.text.TextUtils;
+import android.util.ArrayMap;
+import android.util.ArraySet;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Process wide catalog of the TTS engines, shared by {@link TextToSpeechSettings} and
+ * {@link TtsEnginePreferenceFragment}.
+ *
+ * <p>The installed engines are listed once, and listed again when a package changes. The result of
+ * the {@link TextToSpeech.Engine#ACTION_CHECK_TTS_DATA} check of every engine is persisted along
+ * with the version of the engine, so that the voices of an engine are shown as soon as its page is
+ * opened. The persisted result is used until the engine is updated or the user opens the settings
+ * of the engine, where voices are installed, and is checked again in the background once it is
+ * older than {@link #VOICE_DATA_MAX_AGE_MILLIS}.
+ *
+ * <p>Must only be used on the main thread.
+ */
+class TtsEngineCatalog {
+    private static final String TAG = "TtsEngineCatalog";
+
+    private static final String SHARED_PREFERENCES_NAME = "tts_voice_data";
+    private static final String KEY_SUFFIX_VERSION = ":version";
+    private static final String KEY_SUFFIX_CHECK_TIME = ":check_time";
+    private static final String KEY_SUFFIX_RESULT_CODE = ":result_code";
+    private static final String KEY_SUFFIX_AVAILABLE_VOICES = ":available_voices";
+    private static final String KEY_SUFFIX_UNAVAILABLE_VOICES = ":unavailable_voices";
+
+    @VisibleForTesting
+    static final long VOICE_DATA_MAX_AGE_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private static TtsEngineCatalog sInstance;
+
+    /** The result of the voice data check of an engine. */
+    static class VoiceData {
+        final int mResultCode;
+        final ArrayList<String> mAvailableVoices;
+        final ArrayList<String> mUnavailableVoices;
+        final long mCheckTime;
+
+        VoiceData(int resultCode, ArrayList<String> availableVoices,
+                ArrayList<String> unavailableVoices, long checkTime) {
+            mResultCode = resultCode;
+            mAvailableVoices = availableVoices;
+            mUnavailableVoices = unavailableVoices;
+            mCheckTime = checkTime;
+        }
+
+        /** Returns whether the engine does not need to be checked again. */
+        boolean isFresh(long now) {
+            return now >= mCheckTime && now - mCheckTime < VOICE_DATA_MAX_AGE_MILLIS;
+        }
+
+        /** Returns the data as returned by the voice data check activity. */
+        Intent toIntent() {
+            return new Intent()
+                    .putStringArrayListExtra(TextToSpeech.Engine.EXTRA_AVAILABLE_VOICES,
+                            new ArrayList<>(mAvailableVoices))
+                    .putStringArrayListExtra(TextToSpeech.Engine.EXTRA_UNAVAILABLE_VOICES,
+                            new ArrayList<>(mUnavailableVoices));
+        }
+    }
+
+    private final Context mContext;
+    private final ArrayMap<String, VoiceData> mVoiceData = new ArrayMap<>();
+    private final BroadcastReceiver mPackageReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            mEngines = null;
+            final Uri data = intent.getData();
+            if (data != null) {
+                // The persisted data is checked against the version of the engine when read.
+                mVoiceData.remove(data.getSchemeSpecificPart());
+            }
+        }
+    };
+
+    private List<EngineInfo> mEngines;
+    private SharedPreferences mSharedPreferences;
+    private boolean mReceiverRegistered;
+
+    static TtsEngineCatalog getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new TtsEngineCatalog(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    static void reset() {
+        sInstance = null;
+    }
+
+    @VisibleForTesting
+    TtsEngineCatalog(Context context) {
+        mContext = context;
+    }
+
+    /** Returns the installed engines, see {@link TtsEngines#getEngines()}. */
+    List<EngineInfo> getEngines() {
+        registerReceiverIfNeeded();
+        if (mEngines == null) {
+            mEngines = Collections.unmodifiableList(
+                    new ArrayList<>(new TtsEngines(mContext).getEngines()));
+        }
+        return mEngines;
+    }
+
+    /** Returns the installed engine named {@code engine}, or {@code null}. */
+    @Nullable
+    EngineInfo getEngineInfo(String engine) {
+        for (EngineInfo info : getEngines()) {
+            if (TextUtils.equals(info.name, engine)) {
+                return info;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the last result of the voice data check of {@code engine}, or {@code null} if it was
+     * never checked or was updated since.
+     */
+    @Nullable
+    VoiceData getVoiceData(String engine) {
+        registerReceiverIfNeeded();
+        VoiceData voiceData = mVoiceData.get(engine);
+        if (voiceData != null) {
+            return voiceData;
+        }
+        final SharedPreferences prefs = getSharedPreferences();
+        final String version = getVersion(engine);
+        if (version == null
+                || !version.equals(prefs.getString(engine + KEY_SUFFIX_VERSION, null))) {
+            return null;
+        }
+        voiceData = new VoiceData(
+                prefs.getInt(engine + KEY_SUFFIX_RESULT_CODE,
+                        TextToSpeech.Engine.CHECK_VOICE_DATA_PASS),
+                getStringList(prefs, engine + KEY_SUFFIX_AVAILABLE_VOICES),
+                getStringList(prefs, engine + KEY_SUFFIX_UNAVAILABLE_VOICES),
+                prefs.getLong(engine + KEY_SUFFIX_CHECK_TIME, 0));
+        mVoiceData.put(engine, voiceData);
+        return voiceData;
+    }
+
+    /** Persists the result of the voice data check of {@code engine}. */
+    void putVoiceData(String engine, int resultCode, Intent data, long checkTime) {
+        final String version = getVersion(engine);
+        if (version == null) {
+            return;
+        }
+        final VoiceData voiceData = new VoiceData(resultCode,
+                getStringList(data, TextToSpeech.Engine.EXTRA_AVAILABLE_VOICES),
+                getStringList(data, TextToSpeech.Engine.EXTRA_UNAVAILABLE_VOICES), checkTime);
+        mVoiceData.put(engine, voiceData);
+        getSharedPreferences().edit()
+                .putString(engine + KEY_SUFFIX_VERSION, version)
+                .putLong(engine + KEY_SUFFIX_CHECK_TIME, checkTime)
+                .putInt(engine + KEY_SUFFIX_RESULT_CODE, resultCode)
+                .putStringSet(engine + KEY_SUFFIX_AVAILABLE_VOICES,
+                        new ArraySet<>(voiceData.mAvailableVoices))
+                .putStringSet(engine + KEY_SUFFIX_UNAVAILABLE_VOICES,
+                        new ArraySet<>(voiceData.mUnavailableVoices))
+                .apply();
+    }
+
+    /** Drops the result of the voice data check of {@code engine}, so that it is checked again. */
+    void invalidateVoiceData(String engine) {
+        mVoiceData.remove(engine);
+        getSharedPreferences().edit()
+                .remove(engine + KEY_SUFFIX_VERSION)
+                .apply();
+    }
+
+    /** Returns the version of the package of {@code engine}, or {@code null} if not installed. */
+    @Nullable
+    private String getVersion(String engine) {
+        if (TextUtils.isEmpty(engine)) {
+            return null;
+        }
+        try {
+            final PackageInfo info = mContext.getPackageManager().getPackageInfo(engine, 0);
+            return info.getLongVersionCode() + "/" + info.lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            Log.w(TAG, "Engine not installed: " + engine);
+            return null;
+        }
+    }
+
+    private SharedPreferences getSharedPreferences() {
+        if (mSharedPreferences == null) {
+            mSharedPreferences = mContext.getSharedPreferences(SHARED_PREFERENCES_NAME,
+                    Context.MODE_PRIVATE);
+        }
+        return mSharedPreferences;
+    }
+
+    private static ArrayList<String> getStringList(SharedPreferences prefs, String key) {
+        final Set<String> values = prefs.getStringSet(key, null);
+        return values == null ? new ArrayList<>() : new ArrayList<>(values);
+    }
+
+    private static ArrayList<String> getStringList(Intent data, String extra) {
+        final ArrayList<String> values = data.getStringArrayListExtra(extra);
+        return values == null ? new ArrayList<>() : new ArrayList<>(values);
+    }
+
+    private void registerReceiverIfNeeded() {
+        if (mReceiverRegistered) {
+            return;
+        }
+        // An installed, updated or removed package may be an engine: the engine list is read
+        // again, and the voice data of that package is checked against its new version.
+        final IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        filter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        filter.addDataScheme("package");
+        mContext.registerReceiver(mPackageReceiver, filter);
+        // Engine labels follow the locale.
+        mContext.registerReceiver(mPackageReceiver, new IntentFilter(Intent.ACTION_LOCALE_CHANGED));
+        mReceiverRegistered = true;
+    }
+}
@@ -37,6 +37,7 @@ public class TtsEnginePreferenceFragment extends RadioButtonPickerFragment {
 
     private TextToSpeech mTts = null;
     private TtsEngines mEnginesHelper = null;
+    private TtsEngineCatalog mEngineCatalog;
     private Context mContext;
     private Map<String, EngineCandidateInfo> mEngineMap;
     /**
@@ -55,6 +56,7 @@ public class TtsEnginePreferenceFragment extends RadioButtonPickerFragment {
     public void onCreate(Bundle savedInstanceState) {
         mContext = getContext().getApplicationContext();
         mEnginesHelper = new TtsEngines(mContext);
+        mEngineCatalog = TtsEngineCatalog.getInstance(mContext);
         mEngineMap = new HashMap<>();
         mTts = new TextToSpeech(mContext, null);
 
@@ -115,7 +117,7 @@ public class TtsEnginePreferenceFragment extends RadioButtonPickerFragment {
     @Override
     protected List<? extends CandidateInfo> getCandidates() {
         final List<EngineCandidateInfo> infos = new ArrayList<>();
-        final List<EngineInfo> engines = mEnginesHelper.getEngines();
+        final List<EngineInfo> engines = mEngineCatalog.getEngines();
         for (EngineInfo engine : engines) {
             final EngineCandidateInfo info = new EngineCandidateInfo(engine);
             infos.add(info);
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.users;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.UserHandle;
+import android.util.LruCache;
+import android.util.SparseIntArray;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.drawable.CircleFramedDrawable;
+
+import java.util.Map;
+
+/**
+ * Process wide cache of user avatars, already encircled and scaled to the size they are shown at.
+ *
+ * <p>Entries are keyed by user id and pixel size, and are dropped when
+ * {@link Intent#ACTION_USER_INFO_CHANGED} is received for the user. Every invalidation bumps the
+ * generation of the user so an icon loaded before the change is not stored afterwards.
+ */
+public class UserIconCache {
+
+    // A few dozen avatars at the usual list sizes.
+    private static final int MAX_SIZE_BYTES = 4 * 1024 * 1024;
+
+    private static UserIconCache sInstance;
+
+    private final LruCache<Long, Bitmap> mIcons = new LruCache<Long, Bitmap>(MAX_SIZE_BYTES) {
+        @Override
+        protected int sizeOf(Long key, Bitmap value) {
+            return value.getAllocationByteCount();
+        }
+    };
+    // Guarded by mIcons.
+    private final SparseIntArray mGenerations = new SparseIntArray();
+
+    private final BroadcastReceiver mUserInfoChangedReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            final int userId = intent.getIntExtra(Intent.EXTRA_USER_HANDLE, UserHandle.USER_NULL);
+            if (userId != UserHandle.USER_NULL) {
+                invalidate(userId);
+            }
+        }
+    };
+
+    /** Returns the process wide cache. */
+    public static synchronized UserIconCache getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new UserIconCache();
+            context.getApplicationContext().registerReceiverAsUser(
+                    sInstance.mUserInfoChangedReceiver, UserHandle.ALL,
+                    new IntentFilter(Intent.ACTION_USER_INFO_CHANGED), null /* permission */,
+                    null /* scheduler */);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    UserIconCache() {
+    }
+
+    /**
+     * Returns the current generation of {@code userId}, pass it to {@link #put} when the icon is
+     * loaded asynchronously.
+     */
+    public int getGeneration(int userId) {
+        synchronized (mIcons) {
+            return mGenerations.get(userId);
+        }
+    }
+
+    /**
+     * Returns the cached icon of {@code userId} at {@code sizePx}, or {@code null} if it isn't
+     * cached.
+     */
+    @Nullable
+    public Drawable get(Resources res, int userId, int sizePx) {
+        final Bitmap bitmap = mIcons.get(getKey(userId, sizePx));
+        return bitmap == null ? null : new BitmapDrawable(res, bitmap);
+    }
+
+    /**
+     * Encircles {@code icon} at {@code sizePx}, caches it, and returns it as a drawable.
+     *
+     * @param generation the value returned by {@link #getGeneration} before {@code icon} was
+     *                   loaded. The icon is still returned but not cached if the user changed
+     *                   since.
+     */
+    public Drawable put(Resources res, int userId, Bitmap icon, int sizePx, int generation) {
+        return putDrawable(res, userId, new CircleFramedDrawable(icon, sizePx), sizePx,
+                generation);
+    }
+
+    /**
+     * Renders {@code icon}, which is already in its final shape, at {@code sizePx} and caches it.
+     *
+     * @see #put
+     */
+    public Drawable putDrawable(Resources res, int userId, Drawable icon, int sizePx,
+            int generation) {
+        final Bitmap bitmap = Bitmap.createBitmap(sizePx, sizePx, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+        icon.setBounds(0, 0, sizePx, sizePx);
+        icon.draw(canvas);
+        synchronized (mIcons) {
+            if (mGenerations.get(userId) == generation) {
+                mIcons.put(getKey(userId, sizePx), bitmap);
+            }
+        }
+        return new BitmapDrawable(res, bitmap);
+    }
+
+    /** Drops every cached icon of {@code userId}. */
+    public void invalidate(int userId) {
+        synchronized (mIcons) {
+            mGenerations.put(userId, mGenerations.get(userId) + 1);
+            for (Map.Entry<Long, Bitmap> entry : mIcons.snapshot().entrySet()) {
+                if (getUserId(entry.getKey()) == userId) {
+                    mIcons.remove(entry.getKey());
+                }
+            }
+        }
+    }
+
+    /** Drops every cached icon. */
+    @VisibleForTesting
+    public void clear() {
+        synchronized (mIcons) {
+            for (int i = 0; i < mGenerations.size(); i++) {
+                mGenerations.put(mGenerations.keyAt(i), mGenerations.valueAt(i) + 1);
+            }
+            mIcons.evictAll();
+        }
+    }
+
+    private static long getKey(int userId, int sizePx) {
+        return ((long) userId << 32) | (sizePx & 0xFFFFFFFFL);
+    }
+
+    private static int getUserId(long key) {
+        return (int) (key >> 32);
+    }
+}
@@ -255,6 +255,7 @@ public class UserSettings extends SettingsPreferenceFragment
                 int userHandle = intent.getIntExtra(Intent.EXTRA_USER_HANDLE, -1);
                 if (userHandle != -1) {
                     mUserIcons.remove(userHandle);
+                    UserIconCache.getInstance(context).invalidate(userHandle);
                 }
             }
             mHandler.sendEmptyMessage(MESSAGE_UPDATE_LIST);
@@ -511,7 +512,7 @@ public class UserSettings extends SettingsPreferenceFragment
         int myUserId = UserHandle.myUserId();
         Bitmap b = mUserManager.getUserIcon(myUserId);
         if (b != null) {
-            mMePreference.setIcon(encircleUserIcon(b));
+            mMePreference.setIcon(getEncircledUserIcon(myUserId, b));
             mUserIcons.put(myUserId, b);
         }
     }
@@ -1236,7 +1237,12 @@ public class UserSettings extends SettingsPreferenceFragment
                 pref.setSummary(R.string.user_summary_restricted_profile);
             }
             if (user.iconPath != null) {
-                if (mUserIcons.get(user.id) == null) {
+                final Drawable cachedIcon = mUserIcons.get(user.id) == null
+                        ? getCachedUserIcon(user.id) : null;
+                if (cachedIcon != null) {
+                    // Already loaded by another screen
+                    pref.setIcon(cachedIcon);
+                } else if (mUserIcons.get(user.id) == null) {
                     // Icon not loaded yet, print a placeholder
                     missingIcons.add(user.id);
                     pref.setIcon(getEncircledDefaultIcon());
@@ -1545,10 +1551,29 @@ public class UserSettings extends SettingsPreferenceFragment
     private void setPhotoId(Preference pref, UserInfo user) {
         Bitmap bitmap = mUserIcons.get(user.id);
         if (bitmap != null) {
-            pref.setIcon(encircleUserIcon(bitmap));
+            pref.setIcon(getEncircledUserIcon(user.id, bitmap));
         }
     }
 
+    private Drawable getCachedUserIcon(int userId) {
+        final Resources res = getActivity().getResources();
+        return UserIconCache.getInstance(getContext()).get(res, userId,
+                res.getDimensionPixelSize(R.dimen.multiple_users_user_icon_size));
+    }
+
+    /** Returns the encircled icon of {@code userId}, shared with other screens showing it. */
+    private Drawable getEncircledUserIcon(int userId, Bitmap icon) {
+        final Drawable cachedIcon = getCachedUserIcon(userId);
+        if (cachedIcon != null) {
+            return cachedIcon;
+        }
+        final UserIconCache cache = UserIconCache.getInstance(getContext());
+        final Resources res = getActivity().getResources();
+        return cache.put(res, userId, icon,
+                res.getDimensionPixelSize(R.dimen.multiple_users_user_icon_size),
+                cache.getGeneration(userId));
+    }
+
     @Override
     public boolean onPreferenceClick(Preference pref) {
         if (isCurrentUserGuest()) {
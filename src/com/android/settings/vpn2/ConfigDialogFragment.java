@@ -140,6 +140,7 @@ public class ConfigDialogFragment extends InstrumentedDialogFragment implements
                     connect(profile, shouldLockdown);
                 } else {
                     save(profile, false);
+                    notifyVpnProfilesChanged();
                 }
             } catch (RemoteException e) {
                 Log.w(TAG, "Failed to check active VPN state. Skipping.", e);
@@ -155,6 +156,7 @@ public class ConfigDialogFragment extends InstrumentedDialogFragment implements
             LegacyVpnProfileStore.remove(Credentials.VPN + profile.key);
 
             updateLockdownVpn(false, profile);
+            notifyVpnProfilesChanged();
         }
         dismiss();
     }
@@ -196,6 +198,13 @@ public class ConfigDialogFragment extends InstrumentedDialogFragment implements
         updateLockdownVpn(lockdown, profile);
     }
 
+    private void notifyVpnProfilesChanged() {
+        // The list caches the profiles until they are edited.
+        if (getTargetFragment() instanceof VpnSettings) {
+            ((VpnSettings) getTargetFragment()).onVpnProfilesChanged();
+        }
+    }
+
     private void connect(VpnProfile profile, boolean lockdown) {
         save(profile, lockdown);
 
@@ -209,6 +218,8 @@ public class ConfigDialogFragment extends InstrumentedDialogFragment implements
                 Toast.makeText(mContext, R.string.vpn_no_network, Toast.LENGTH_LONG).show();
             }
         }
+        // Once the VPN is started, so that the list picks up its state.
+        notifyVpnProfilesChanged();
     }
 
     /**
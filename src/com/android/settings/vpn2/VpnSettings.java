@@ -24,10 +24,13 @@ import android.annotation.WorkerThread;
 import android.app.Activity;
 import android.app.AppOpsManager;
 import android.app.settings.SettingsEnums;
+import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
+import android.database.ContentObserver;
 import android.net.ConnectivityManager;
 import android.net.ConnectivityManager.NetworkCallback;
 import android.net.Network;
@@ -38,8 +41,10 @@ import android.os.Bundle;
 import android.os.Handler;
 import android.os.HandlerThread;
 import android.os.Message;
+import android.os.SystemClock;
 import android.os.UserHandle;
 import android.os.UserManager;
+import android.provider.Settings;
 import android.security.Credentials;
 import android.security.LegacyVpnProfileStore;
 import android.util.ArrayMap;
@@ -49,6 +54,7 @@ import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.MenuItem;
 
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceGroup;
@@ -70,6 +76,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -81,7 +88,12 @@ public class VpnSettings extends RestrictedSettingsFragment implements
     private static final String LOG_TAG = "VpnSettings";
 
     private static final int RESCAN_MESSAGE = 0;
+    // No callback reports the progress of a legacy VPN, so it is polled while it connects.
     private static final int RESCAN_INTERVAL_MS = 1000;
+    // How long it is polled after a profile is saved or connected. A connection that fails before
+    // it is ever reported as connecting, or that lockdown starts later, has no callback either.
+    @VisibleForTesting
+    static final long PROFILE_CHANGE_POLL_MS = 10_000;
 
     private static final NetworkRequest VPN_REQUEST = new NetworkRequest.Builder()
             .removeCapability(NetworkCapabilities.NET_CAPABILITY_NOT_VPN)
@@ -101,6 +113,16 @@ public class VpnSettings extends RestrictedSettingsFragment implements
     private HandlerThread mUpdaterThread;
     private LegacyVpnInfo mConnectedLegacyVpn;
 
+    // Read on the updater thread, and kept until they are edited or the VPN apps change.
+    private List<VpnProfile> mVpnProfiles;
+    private List<AppVpnInfo> mVpnApps;
+    private volatile boolean mVpnProfilesChanged = true;
+    private volatile boolean mVpnAppsChanged = true;
+    // Polled until then, see PROFILE_CHANGE_POLL_MS.
+    private volatile long mPollUntilMillis;
+    // The last update posted by the updater thread, the unchanged states are not posted again.
+    private UpdatePreferences mLastUpdate;
+
     private boolean mUnavailable;
 
     public VpnSettings() {
@@ -189,13 +211,37 @@ public class VpnSettings extends RestrictedSettingsFragment implements
         }
 
         // Start monitoring
+        final Context context = getContext();
         mConnectivityManager.registerNetworkCallback(VPN_REQUEST, mNetworkCallback);
-
-        // Trigger a refresh
+        final IntentFilter packageFilter = new IntentFilter();
+        packageFilter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        packageFilter.addDataScheme("package");
+        context.registerReceiverAsUser(mPackageReceiver, UserHandle.ALL, packageFilter, null,
+                null);
+        final AppOpsManager appOpsManager = context.getSystemService(AppOpsManager.class);
+        appOpsManager.startWatchingMode(OP_ACTIVATE_VPN, null /* packageName */, mOpListener);
+        appOpsManager.startWatchingMode(OP_ACTIVATE_PLATFORM_VPN, null /* packageName */,
+                mOpListener);
+        context.getContentResolver().registerContentObserver(
+                Settings.Secure.getUriFor(Settings.Secure.ALWAYS_ON_VPN_APP), false,
+                mAlwaysOnObserver, UserHandle.USER_ALL);
+        context.getContentResolver().registerContentObserver(
+                Settings.Secure.getUriFor(Settings.Secure.ALWAYS_ON_VPN_LOCKDOWN), false,
+                mAlwaysOnObserver, UserHandle.USER_ALL);
+
+        // Trigger a refresh. The profiles and the VPN apps may have changed while the page was
+        // paused.
+        mVpnProfilesChanged = true;
+        mVpnAppsChanged = true;
+        mLastUpdate = null;
         mUpdaterThread = new HandlerThread("Refresh VPN list in background");
         mUpdaterThread.start();
-        mUpdater = new Handler(mUpdaterThread.getLooper(), this);
-        mUpdater.sendEmptyMessage(RESCAN_MESSAGE);
+        synchronized (this) {
+            mUpdater = new Handler(mUpdaterThread.getLooper(), this);
+        }
+        rescan();
     }
 
     @Override
@@ -206,7 +252,11 @@ public class VpnSettings extends RestrictedSettingsFragment implements
         }
 
         // Stop monitoring
+        final Context context = getContext();
         mConnectivityManager.unregisterNetworkCallback(mNetworkCallback);
+        context.unregisterReceiver(mPackageReceiver);
+        context.getSystemService(AppOpsManager.class).stopWatchingMode(mOpListener);
+        context.getContentResolver().unregisterContentObserver(mAlwaysOnObserver);
 
         synchronized (this) {
             mUpdater.removeCallbacksAndMessages(null);
@@ -227,9 +277,16 @@ public class VpnSettings extends RestrictedSettingsFragment implements
         }
         final Context context = activity.getApplicationContext();
 
-        // Run heavy RPCs before switching to UI thread
-        final List<VpnProfile> vpnProfiles = loadVpnProfiles();
-        final List<AppVpnInfo> vpnApps = getVpnApps(context, /* includeProfiles */ true);
+        // Run heavy RPCs before switching to UI thread. The flags are cleared first, so that a
+        // change reported while loading is loaded by the next rescan.
+        if (mVpnProfilesChanged || mVpnProfiles == null) {
+            mVpnProfilesChanged = false;
+            mVpnProfiles = loadVpnProfiles();
+        }
+        if (mVpnAppsChanged || mVpnApps == null) {
+            mVpnAppsChanged = false;
+            mVpnApps = getVpnApps(context, /* includeProfiles */ true);
+        }
 
         final Map<String, LegacyVpnInfo> connectedLegacyVpns = getConnectedLegacyVpns();
         final Set<AppVpnInfo> connectedAppVpns = getConnectedAppVpns();
@@ -237,18 +294,63 @@ public class VpnSettings extends RestrictedSettingsFragment implements
         final Set<AppVpnInfo> alwaysOnAppVpnInfos = getAlwaysOnAppVpnInfos();
         final String lockdownVpnKey = VpnUtils.getLockdownVpn();
 
-        // Refresh list of VPNs
-        activity.runOnUiThread(new UpdatePreferences(this)
-                .legacyVpns(vpnProfiles, connectedLegacyVpns, lockdownVpnKey)
-                .appVpns(vpnApps, connectedAppVpns, alwaysOnAppVpnInfos));
+        // Refresh list of VPNs if anything changed since the last update
+        final UpdatePreferences update = new UpdatePreferences(this)
+                .legacyVpns(mVpnProfiles, connectedLegacyVpns, lockdownVpnKey)
+                .appVpns(mVpnApps, connectedAppVpns, alwaysOnAppVpnInfos);
+        if (mLastUpdate == null || !update.hasSameState(mLastUpdate)) {
+            mLastUpdate = update;
+            activity.runOnUiThread(update);
+        }
+
+        if (shouldPoll(mConnectedLegacyVpn, lockdownVpnKey, SystemClock.elapsedRealtime(),
+                mPollUntilMillis)) {
+            synchronized (this) {
+                if (mUpdater != null && !mUpdater.hasMessages(RESCAN_MESSAGE)) {
+                    mUpdater.sendEmptyMessageDelayed(RESCAN_MESSAGE, RESCAN_INTERVAL_MS);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the legacy VPN state has to be polled, as no callback reports it changing.
+     */
+    @VisibleForTesting
+    static boolean shouldPoll(@Nullable LegacyVpnInfo legacyVpn, @Nullable String lockdownVpnKey,
+            long nowMillis, long pollUntilMillis) {
+        if (nowMillis < pollUntilMillis) {
+            return true;
+        }
+        if (legacyVpn != null && (legacyVpn.state == LegacyVpnInfo.STATE_INITIALIZING
+                || legacyVpn.state == LegacyVpnInfo.STATE_CONNECTING)) {
+            return true;
+        }
+        // The lockdown VPN is started and restarted by the system until it connects.
+        return lockdownVpnKey != null && (legacyVpn == null
+                || !lockdownVpnKey.equals(legacyVpn.key)
+                || legacyVpn.state != LegacyVpnInfo.STATE_CONNECTED);
+    }
+
+    /**
+     * Reloads the VPN profiles, called after they are saved, deleted or connected. The connection
+     * state is polled for a while since nothing reports a legacy VPN failing to connect.
+     */
+    void onVpnProfilesChanged() {
+        mVpnProfilesChanged = true;
+        mPollUntilMillis = SystemClock.elapsedRealtime() + PROFILE_CHANGE_POLL_MS;
+        rescan();
+    }
 
+    private void rescan() {
         synchronized (this) {
             if (mUpdater != null) {
+                // Changes reported before the rescan runs are coalesced into it.
                 mUpdater.removeMessages(RESCAN_MESSAGE);
-                mUpdater.sendEmptyMessageDelayed(RESCAN_MESSAGE, RESCAN_INTERVAL_MS);
+                mUpdater.sendEmptyMessage(RESCAN_MESSAGE);
             }
         }
-        return true;
     }
 
     @VisibleForTesting
@@ -285,6 +387,27 @@ public class VpnSettings extends RestrictedSettingsFragment implements
             return this;
         }
 
+        /** Returns whether {@code other} would show the same VPNs in the same states. */
+        @VisibleForTesting
+        boolean hasSameState(UpdatePreferences other) {
+            // The profiles and apps are reloaded into new lists when they change.
+            return vpnProfiles == other.vpnProfiles
+                    && vpnApps == other.vpnApps
+                    && getLegacyVpnStates(connectedLegacyVpns)
+                            .equals(getLegacyVpnStates(other.connectedLegacyVpns))
+                    && connectedAppVpns.equals(other.connectedAppVpns)
+                    && alwaysOnAppVpnInfos.equals(other.alwaysOnAppVpnInfos)
+                    && Objects.equals(lockdownVpnKey, other.lockdownVpnKey);
+        }
+
+        private static Map<String, Integer> getLegacyVpnStates(Map<String, LegacyVpnInfo> vpns) {
+            final Map<String, Integer> states = new ArrayMap<>(vpns.size());
+            for (Map.Entry<String, LegacyVpnInfo> entry : vpns.entrySet()) {
+                states.put(entry.getKey(), entry.getValue().state);
+            }
+            return states;
+        }
+
         @Override @UiThread
         public void run() {
             if (!mSettings.canAddPreferences()) {
@@ -430,16 +553,33 @@ public class VpnSettings extends RestrictedSettingsFragment implements
     private NetworkCallback mNetworkCallback = new NetworkCallback() {
         @Override
         public void onAvailable(Network network) {
-            if (mUpdater != null) {
-                mUpdater.sendEmptyMessage(RESCAN_MESSAGE);
-            }
+            rescan();
         }
 
         @Override
         public void onLost(Network network) {
-            if (mUpdater != null) {
-                mUpdater.sendEmptyMessage(RESCAN_MESSAGE);
-            }
+            rescan();
+        }
+    };
+
+    private final BroadcastReceiver mPackageReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            mVpnAppsChanged = true;
+            rescan();
+        }
+    };
+
+    // Called when an app is allowed or no longer allowed to activate a VPN.
+    private final AppOpsManager.OnOpChangedListener mOpListener = (op, packageName) -> {
+        mVpnAppsChanged = true;
+        rescan();
+    };
+
+    private final ContentObserver mAlwaysOnObserver = new ContentObserver(null /* handler */) {
+        @Override
+        public void onChange(boolean selfChange) {
+            rescan();
         }
     };
 
@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.wifi;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SimpleClock;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+import androidx.lifecycle.OnLifecycleEvent;
+
+import com.android.settings.overlay.FeatureFactory;
+import com.android.wifitrackerlib.WifiEntry;
+import com.android.wifitrackerlib.WifiPickerTracker;
+
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Process wide {@link WifiPickerTracker} shared by the Wi-Fi screens and slices.
+ *
+ * <p>One worker thread and one tracker serve every consumer, so the scans and the Wi-Fi entries
+ * are shared. The tracker scans while at least one consumer is started and stops scanning as soon
+ * as the last one stops. Its Wi-Fi entries are kept for {@link #RELEASE_DELAY_MILLIS} after every
+ * consumer is destroyed, so the list is already populated when navigating from one Wi-Fi screen
+ * to another, and it is torn down afterwards. Consumers started while the tracker is running get
+ * its current state replayed right away.
+ *
+ * <p>A {@link WifiEntry} has a single listener, while its shared instance may be shown by several
+ * consumers at once. Consumers register with {@link #addWifiEntryCallback} instead of
+ * {@link WifiEntry#setListener}, and must unregister once the entry is no longer shown, so that a
+ * destroyed screen is not kept by the entries that outlive it.
+ *
+ * <p>Must be used from the main thread.
+ */
+public class SharedWifiPickerTracker implements LifecycleOwner,
+        WifiPickerTracker.WifiPickerTrackerCallback {
+
+    private static final String TAG = "SharedWifiPickerTracker";
+
+    // Max age of tracked WifiEntries
+    private static final long MAX_SCAN_AGE_MILLIS = 15_000;
+    // Interval between initiating WifiPickerTracker scans
+    private static final long SCAN_INTERVAL_MILLIS = 10_000;
+    @VisibleForTesting
+    static final long RELEASE_DELAY_MILLIS = 10_000;
+    // Clock used for evaluating the age of scans
+    private static final Clock ELAPSED_REALTIME_CLOCK = new SimpleClock(ZoneOffset.UTC) {
+        @Override
+        public long millis() {
+            return SystemClock.elapsedRealtime();
+        }
+    };
+
+    private static SharedWifiPickerTracker sInstance;
+    // Entries are dropped along with the tracker that made them.
+    private static final Map<WifiEntry, WifiEntryCallbacks> sWifiEntryCallbacks =
+            new WeakHashMap<>();
+
+    private final Context mContext;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final List<WifiPickerTracker.WifiPickerTrackerCallback> mCallbacks =
+            new CopyOnWriteArrayList<>();
+    private final Runnable mReleaseRunnable = this::stopIfUnused;
+
+    private LifecycleRegistry mLifecycleRegistry;
+    private HandlerThread mWorkerThread;
+    private WifiPickerTracker mWifiPickerTracker;
+    private int mConsumerCount;
+    private int mStartedConsumerCount;
+
+    /** Returns the process wide instance. */
+    public static synchronized SharedWifiPickerTracker getInstance(@NonNull Context context) {
+        if (sInstance == null) {
+            sInstance = new SharedWifiPickerTracker(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    SharedWifiPickerTracker(Context context) {
+        mContext = context;
+    }
+
+    /**
+     * Registers a consumer tied to {@code lifecycle} and returns the shared tracker.
+     *
+     * @param callback receives the tracker callbacks from the start to the stop of
+     *                 {@code lifecycle}, may be {@code null}.
+     */
+    public WifiPickerTracker acquire(@NonNull Lifecycle lifecycle,
+            @Nullable WifiPickerTracker.WifiPickerTrackerCallback callback) {
+        if (mWifiPickerTracker == null) {
+            createTracker();
+        }
+        mConsumerCount++;
+        lifecycle.addObserver(new ConsumerObserver(callback));
+        return mWifiPickerTracker;
+    }
+
+    /**
+     * Adds {@code callback} to the listeners of {@code wifiEntry}, along with the other consumers
+     * showing it.
+     */
+    public static void addWifiEntryCallback(@NonNull WifiEntry wifiEntry,
+            @NonNull WifiEntry.WifiEntryCallback callback) {
+        WifiEntryCallbacks callbacks = sWifiEntryCallbacks.get(wifiEntry);
+        if (callbacks == null) {
+            callbacks = new WifiEntryCallbacks();
+            sWifiEntryCallbacks.put(wifiEntry, callbacks);
+        }
+        callbacks.mCallbacks.addIfAbsent(callback);
+        // Set again in case the listener was replaced directly.
+        wifiEntry.setListener(callbacks);
+    }
+
+    /** Removes {@code callback} from the listeners of {@code wifiEntry}. */
+    public static void removeWifiEntryCallback(@NonNull WifiEntry wifiEntry,
+            @NonNull WifiEntry.WifiEntryCallback callback) {
+        final WifiEntryCallbacks callbacks = sWifiEntryCallbacks.get(wifiEntry);
+        if (callbacks == null) {
+            return;
+        }
+        callbacks.mCallbacks.remove(callback);
+        if (callbacks.mCallbacks.isEmpty()) {
+            sWifiEntryCallbacks.remove(wifiEntry);
+            wifiEntry.setListener(null);
+        }
+    }
+
+    @Override
+    public Lifecycle getLifecycle() {
+        return mLifecycleRegistry;
+    }
+
+    private void createTracker() {
+        mWorkerThread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+        mWorkerThread.start();
+        mLifecycleRegistry = new LifecycleRegistry(this);
+        mWifiPickerTracker = FeatureFactory.getFactory(mContext)
+                .getWifiTrackerLibProvider()
+                .createWifiPickerTracker(mLifecycleRegistry, mContext,
+                        mMainHandler,
+                        mWorkerThread.getThreadHandler(),
+                        ELAPSED_REALTIME_CLOCK,
+                        MAX_SCAN_AGE_MILLIS,
+                        SCAN_INTERVAL_MILLIS,
+                        this);
+        mLifecycleRegistry.markState(Lifecycle.State.CREATED);
+    }
+
+    private void onConsumerStarted(@Nullable WifiPickerTracker.WifiPickerTrackerCallback callback) {
+        mMainHandler.removeCallbacks(mReleaseRunnable);
+        mStartedConsumerCount++;
+        if (callback != null) {
+            mCallbacks.add(callback);
+        }
+        if (!mLifecycleRegistry.getCurrentState().isAtLeast(Lifecycle.State.STARTED)) {
+            // The tracker reports its state to every callback once started.
+            mLifecycleRegistry.markState(Lifecycle.State.STARTED);
+            mLifecycleRegistry.markState(Lifecycle.State.RESUMED);
+        } else if (callback != null) {
+            mMainHandler.post(() -> replayState(callback));
+        }
+    }
+
+    private void onConsumerStopped(@Nullable WifiPickerTracker.WifiPickerTrackerCallback callback) {
+        mCallbacks.remove(callback);
+        mStartedConsumerCount--;
+        // Scans are not wanted while nothing is shown, only the entries are kept.
+        stopIfUnused();
+    }
+
+    private void onConsumerDestroyed() {
+        mConsumerCount--;
+        if (mConsumerCount == 0 && mStartedConsumerCount == 0) {
+            mMainHandler.removeCallbacks(mReleaseRunnable);
+            mMainHandler.postDelayed(mReleaseRunnable, RELEASE_DELAY_MILLIS);
+        }
+    }
+
+    @VisibleForTesting
+    void stopIfUnused() {
+        if (mWifiPickerTracker == null || mStartedConsumerCount > 0) {
+            return;
+        }
+        if (mConsumerCount > 0) {
+            if (mLifecycleRegistry.getCurrentState().isAtLeast(Lifecycle.State.STARTED)) {
+                mLifecycleRegistry.markState(Lifecycle.State.CREATED);
+            }
+            return;
+        }
+        mLifecycleRegistry.markState(Lifecycle.State.DESTROYED);
+        mWorkerThread.quit();
+        mWorkerThread = null;
+        mWifiPickerTracker = null;
+    }
+
+    private void replayState(WifiPickerTracker.WifiPickerTrackerCallback callback) {
+        if (!mCallbacks.contains(callback)) {
+            return;
+        }
+        callback.onWifiStateChanged();
+        callback.onWifiEntriesChanged();
+        callback.onNumSavedNetworksChanged();
+        callback.onNumSavedSubscriptionsChanged();
+    }
+
+    @Override
+    public void onWifiStateChanged() {
+        for (WifiPickerTracker.WifiPickerTrackerCallback callback : mCallbacks) {
+            callback.onWifiStateChanged();
+        }
+    }
+
+    @Override
+    public void onWifiEntriesChanged() {
+        for (WifiPickerTracker.WifiPickerTrackerCallback callback : mCallbacks) {
+            callback.onWifiEntriesChanged();
+        }
+    }
+
+    @Override
+    public void onNumSavedNetworksChanged() {
+        for (WifiPickerTracker.WifiPickerTrackerCallback callback : mCallbacks) {
+            callback.onNumSavedNetworksChanged();
+        }
+    }
+
+    @Override
+    public void onNumSavedSubscriptionsChanged() {
+        for (WifiPickerTracker.WifiPickerTrackerCallback callback : mCallbacks) {
+            callback.onNumSavedSubscriptionsChanged();
+        }
+    }
+
+    /** Forwards the updates of a {@link WifiEntry} to every consumer showing it. */
+    private static class WifiEntryCallbacks implements WifiEntry.WifiEntryCallback {
+        final CopyOnWriteArrayList<WifiEntry.WifiEntryCallback> mCallbacks =
+                new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onUpdated() {
+            for (WifiEntry.WifiEntryCallback callback : mCallbacks) {
+                callback.onUpdated();
+            }
+        }
+    }
+
+    private class ConsumerObserver implements LifecycleObserver {
+        private final WifiPickerTracker.WifiPickerTrackerCallback mCallback;
+
+        ConsumerObserver(@Nullable WifiPickerTracker.WifiPickerTrackerCallback callback) {
+            mCallback = callback;
+        }
+
+        /** @OnLifecycleEvent(ON_START) */
+        @OnLifecycleEvent(Lifecycle.Event.ON_START)
+        public void onStart() {
+            onConsumerStarted(mCallback);
+        }
+
+        /** @OnLifecycleEvent(ON_STOP) */
+        @OnLifecycleEvent(Lifecycle.Event.ON_STOP)
+        public void onStop() {
+            onConsumerStopped(mCallback);
+        }
+
+        /** @OnLifecycleEvent(ON_DESTROY) */
+        @OnLifecycleEvent(Lifecycle.Event.ON_DESTROY)
+        public void onDestroy() {
+            onConsumerDestroyed();
+        }
+    }
+}
@@ -68,6 +68,10 @@ public class WifiEntryPreference extends Preference implements WifiEntry.WifiEnt
     private WifiEntry mWifiEntry;
     private int mLevel = -1;
     private boolean mShowX; // Shows the Wi-Fi signl icon of Pie+x when it's true.
+    // Drawn into the help button and the friction icon when the view is bound.
+    private String mHelpUriString;
+    private int mConnectedState = -1;
+    private int mSecurity = -1;
     private CharSequence mContentDescription;
     private OnButtonClickListener mOnButtonClickListener;
 
@@ -84,7 +88,7 @@ public class WifiEntryPreference extends Preference implements WifiEntry.WifiEnt
         setWidgetLayoutResource(R.layout.access_point_friction_widget);
         mFrictionSld = getFrictionStateListDrawable();
         mWifiEntry = wifiEntry;
-        mWifiEntry.setListener(this);
+        SharedWifiPickerTracker.addWifiEntryCallback(mWifiEntry, this);
         mIconInjector = iconInjector;
         refresh();
     }
@@ -93,6 +97,43 @@ public class WifiEntryPreference extends Preference implements WifiEntry.WifiEnt
         return mWifiEntry;
     }
 
+    /**
+     * Binds this preference to {@code wifiEntry}, a newer object for the same network, without
+     * recreating it. The view is only rebound if something it shows has changed.
+     *
+     * <p>Entries may be shared with other Wi-Fi screens and slices, see
+     * {@link SharedWifiPickerTracker#addWifiEntryCallback}.
+     */
+    public void setWifiEntry(@NonNull WifiEntry wifiEntry) {
+        if (wifiEntry == mWifiEntry) {
+            return;
+        }
+        final int iconColorAttr = getIconColorAttr();
+        final int level = mLevel;
+        final boolean showX = mShowX;
+        SharedWifiPickerTracker.removeWifiEntryCallback(mWifiEntry, this);
+        mWifiEntry = wifiEntry;
+        SharedWifiPickerTracker.addWifiEntryCallback(mWifiEntry, this);
+        refresh();
+        // The icon tint depends on the connected state, which may change with the same level.
+        if (level == mLevel && showX == mShowX && iconColorAttr != getIconColorAttr()) {
+            updateIcon(mShowX, mLevel);
+        }
+    }
+
+    @Override
+    public void onAttached() {
+        super.onAttached();
+        SharedWifiPickerTracker.addWifiEntryCallback(mWifiEntry, this);
+    }
+
+    @Override
+    public void onDetached() {
+        // The entry may outlive the screen showing this preference.
+        SharedWifiPickerTracker.removeWifiEntryCallback(mWifiEntry, this);
+        super.onDetached();
+    }
+
     @Override
     public void onBindViewHolder(final PreferenceViewHolder view) {
         super.onBindViewHolder(view);
@@ -147,10 +188,24 @@ public class WifiEntryPreference extends Preference implements WifiEntry.WifiEnt
         setTitle(mWifiEntry.getTitle());
         final int level = mWifiEntry.getLevel();
         final boolean showX = mWifiEntry.shouldShowXLevelIcon();
+        boolean changed = false;
         if (level != mLevel || showX != mShowX) {
             mLevel = level;
             mShowX = showX;
             updateIcon(mShowX, mLevel);
+            changed = true;
+        }
+        final String helpUriString = mWifiEntry.getHelpUriString();
+        final int connectedState = mWifiEntry.getConnectedState();
+        final int security = mWifiEntry.getSecurity();
+        if (!TextUtils.equals(helpUriString, mHelpUriString)
+                || connectedState != mConnectedState || security != mSecurity) {
+            mHelpUriString = helpUriString;
+            mConnectedState = connectedState;
+            mSecurity = security;
+            changed = true;
+        }
+        if (changed) {
             notifyChanged();
         }
 
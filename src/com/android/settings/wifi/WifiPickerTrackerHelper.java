@@ -21,11 +21,9 @@ import android.net.wifi.WifiManager;
 import android.os.Handler;
 import android.os.HandlerThread;
 import android.os.Looper;
-import android.os.PersistableBundle;
 import android.os.Process;
 import android.os.SimpleClock;
 import android.os.SystemClock;
-import android.telephony.CarrierConfigManager;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -36,6 +34,7 @@ import androidx.lifecycle.OnLifecycleEvent;
 
 import com.android.internal.annotations.VisibleForTesting;
 import com.android.settings.network.CarrierConfigCache;
+import com.android.settings.network.CarrierConfigProjection;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.wifitrackerlib.MergedCarrierEntry;
 import com.android.wifitrackerlib.WifiEntry;
@@ -61,7 +60,7 @@ public class WifiPickerTrackerHelper implements LifecycleObserver {
     };
 
     protected WifiPickerTracker mWifiPickerTracker;
-    // Worker thread used for WifiPickerTracker work
+    // Worker thread used for WifiPickerTracker work, null when the tracker is shared
     protected HandlerThread mWorkerThread;
 
     protected final WifiManager mWifiManager;
@@ -69,24 +68,39 @@ public class WifiPickerTrackerHelper implements LifecycleObserver {
 
     public WifiPickerTrackerHelper(@NonNull Lifecycle lifecycle, @NonNull Context context,
             @Nullable WifiPickerTracker.WifiPickerTrackerCallback listener) {
+        this(lifecycle, context, listener, false /* shared */);
+    }
+
+    /**
+     * @param shared whether to use the {@link SharedWifiPickerTracker} instead of a tracker and
+     *               worker thread owned by this helper. Shared entries are already populated
+     *               when another Wi-Fi screen or slice was active recently.
+     */
+    public WifiPickerTrackerHelper(@NonNull Lifecycle lifecycle, @NonNull Context context,
+            @Nullable WifiPickerTracker.WifiPickerTrackerCallback listener, boolean shared) {
         if (lifecycle == null) {
             throw new IllegalArgumentException("lifecycle must be non-null.");
         }
         lifecycle.addObserver(this);
-        mWorkerThread = new HandlerThread(TAG
-                + "{" + Integer.toHexString(System.identityHashCode(this)) + "}",
-                Process.THREAD_PRIORITY_BACKGROUND);
-        mWorkerThread.start();
-
-        mWifiPickerTracker = FeatureFactory.getFactory(context)
-                .getWifiTrackerLibProvider()
-                .createWifiPickerTracker(lifecycle, context,
-                new Handler(Looper.getMainLooper()),
-                mWorkerThread.getThreadHandler(),
-                ELAPSED_REALTIME_CLOCK,
-                MAX_SCAN_AGE_MILLIS,
-                SCAN_INTERVAL_MILLIS,
-                listener);
+        if (shared) {
+            mWifiPickerTracker = SharedWifiPickerTracker.getInstance(context)
+                    .acquire(lifecycle, listener);
+        } else {
+            mWorkerThread = new HandlerThread(TAG
+                    + "{" + Integer.toHexString(System.identityHashCode(this)) + "}",
+                    Process.THREAD_PRIORITY_BACKGROUND);
+            mWorkerThread.start();
+
+            mWifiPickerTracker = FeatureFactory.getFactory(context)
+                    .getWifiTrackerLibProvider()
+                    .createWifiPickerTracker(lifecycle, context,
+                    new Handler(Looper.getMainLooper()),
+                    mWorkerThread.getThreadHandler(),
+                    ELAPSED_REALTIME_CLOCK,
+                    MAX_SCAN_AGE_MILLIS,
+                    SCAN_INTERVAL_MILLIS,
+                    listener);
+        }
 
         mWifiManager = context.getSystemService(WifiManager.class);
         mCarrierConfigCache = CarrierConfigCache.getInstance(context);
@@ -95,7 +109,9 @@ public class WifiPickerTrackerHelper implements LifecycleObserver {
     /** @OnLifecycleEvent(ON_DESTROY) */
     @OnLifecycleEvent(Lifecycle.Event.ON_DESTROY)
     public void onDestroy() {
-        mWorkerThread.quit();
+        if (mWorkerThread != null) {
+            mWorkerThread.quit();
+        }
     }
 
     /** Return the WifiPickerTracker class */
@@ -105,13 +121,12 @@ public class WifiPickerTrackerHelper implements LifecycleObserver {
 
     /** Return the enabled/disabled state of the carrier network provision */
     public boolean isCarrierNetworkProvisionEnabled(int subId) {
-        final PersistableBundle config = mCarrierConfigCache.getConfigForSubId(subId);
+        final CarrierConfigProjection config = mCarrierConfigCache.getProjectionForSubId(subId);
         if (config == null) {
             Log.e(TAG, "Could not get carrier config, subId:" + subId);
             return false;
         }
-        final boolean enabled = config.getBoolean(
-                CarrierConfigManager.KEY_CARRIER_PROVISIONS_WIFI_MERGED_NETWORKS_BOOL);
+        final boolean enabled = config.carrierProvisionsWifiMergedNetworks();
         Log.i(TAG, "isCarrierNetworkProvisionEnabled:" + enabled);
         return enabled;
     }
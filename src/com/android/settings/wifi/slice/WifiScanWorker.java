@@ -29,12 +29,14 @@ import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LifecycleRegistry;
 
 import com.android.settings.slices.SliceBackgroundWorker;
+import com.android.settings.wifi.SharedWifiPickerTracker;
 import com.android.settings.wifi.WifiPickerTrackerHelper;
 import com.android.wifitrackerlib.WifiEntry;
 import com.android.wifitrackerlib.WifiEntry.WifiEntryCallback;
 import com.android.wifitrackerlib.WifiPickerTracker;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -50,13 +52,16 @@ public class WifiScanWorker extends SliceBackgroundWorker<WifiSliceItem> impleme
     @VisibleForTesting
     protected WifiPickerTracker mWifiPickerTracker;
     protected WifiPickerTrackerHelper mWifiPickerTrackerHelper;
+    // The entries of the slice, whose updates this worker listens to.
+    private List<WifiEntry> mListenedEntries = Collections.emptyList();
 
     public WifiScanWorker(Context context, Uri uri) {
         super(context, uri);
 
         mLifecycleRegistry = new LifecycleRegistry(this);
 
-        mWifiPickerTrackerHelper = new WifiPickerTrackerHelper(mLifecycleRegistry, context, this);
+        mWifiPickerTrackerHelper = new WifiPickerTrackerHelper(mLifecycleRegistry, context, this,
+                true /* shared */);
         mWifiPickerTracker = mWifiPickerTrackerHelper.getWifiPickerTracker();
 
         mLifecycleRegistry.markState(Lifecycle.State.INITIALIZED);
@@ -74,11 +79,13 @@ public class WifiScanWorker extends SliceBackgroundWorker<WifiSliceItem> impleme
     protected void onSliceUnpinned() {
         mLifecycleRegistry.markState(Lifecycle.State.STARTED);
         mLifecycleRegistry.markState(Lifecycle.State.CREATED);
+        setListenedEntries(Collections.emptyList());
     }
 
     @Override
     public void close() {
         mLifecycleRegistry.markState(Lifecycle.State.DESTROYED);
+        setListenedEntries(Collections.emptyList());
     }
 
     @Override
@@ -147,14 +154,16 @@ public class WifiScanWorker extends SliceBackgroundWorker<WifiSliceItem> impleme
     void updateResults() {
         if (mWifiPickerTracker.getWifiState() != WifiManager.WIFI_STATE_ENABLED
                 || mLifecycleRegistry.getCurrentState() != Lifecycle.State.RESUMED) {
+            setListenedEntries(Collections.emptyList());
             super.updateResults(null);
             return;
         }
 
         final List<WifiSliceItem> resultList = new ArrayList<>();
+        final List<WifiEntry> listenedEntries = new ArrayList<>();
         final WifiEntry connectedWifiEntry = mWifiPickerTracker.getConnectedWifiEntry();
         if (connectedWifiEntry != null) {
-            connectedWifiEntry.setListener(this);
+            listenedEntries.add(connectedWifiEntry);
             resultList.add(new WifiSliceItem(getContext(), connectedWifiEntry));
         }
         for (WifiEntry wifiEntry : mWifiPickerTracker.getWifiEntries()) {
@@ -162,13 +171,27 @@ public class WifiScanWorker extends SliceBackgroundWorker<WifiSliceItem> impleme
                 break;
             }
             if (wifiEntry.getLevel() != WifiEntry.WIFI_LEVEL_UNREACHABLE) {
-                wifiEntry.setListener(this);
+                listenedEntries.add(wifiEntry);
                 resultList.add(new WifiSliceItem(getContext(), wifiEntry));
             }
         }
+        setListenedEntries(listenedEntries);
         super.updateResults(resultList);
     }
 
+    /** Listens to {@code wifiEntries}, along with the Wi-Fi screens which may show them. */
+    private void setListenedEntries(List<WifiEntry> wifiEntries) {
+        for (WifiEntry wifiEntry : mListenedEntries) {
+            if (!wifiEntries.contains(wifiEntry)) {
+                SharedWifiPickerTracker.removeWifiEntryCallback(wifiEntry, this);
+            }
+        }
+        for (WifiEntry wifiEntry : wifiEntries) {
+            SharedWifiPickerTracker.addWifiEntryCallback(wifiEntry, this);
+        }
+        mListenedEntries = wifiEntries;
+    }
+
     /** Enables/disables the carrier network if the carrier network provision disabled */
     public void setCarrierNetworkEnabledIfNeeded(boolean enabled, int subId) {
         if (!mWifiPickerTrackerHelper.isCarrierNetworkProvisionEnabled(subId)) {
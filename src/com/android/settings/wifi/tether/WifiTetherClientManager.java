@@ -29,13 +29,17 @@ import android.net.wifi.SoftApConfiguration;
 import android.net.wifi.WifiManager;
 import android.os.Bundle;
 import android.text.TextUtils;
+import android.util.ArrayMap;
+import android.util.LruCache;
 
+import androidx.annotation.VisibleForTesting;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceCategory;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.android.settings.R;
 import com.android.settings.SettingsPreferenceFragment;
@@ -54,12 +58,23 @@ public class WifiTetherClientManager extends SettingsPreferenceFragment implemen
     private static final String PREF_KEY_CONNECTED_CLIENT_LIST = "connected_client_list";
     private static final String PREF_KEY_FOOTER = "footer";
 
-    private WifiManager mWifiManager;
+    private static final int MAX_CACHED_HOST_NAMES = 64;
+
+    // Host names last reported by the clients while this screen is shown, so that a client
+    // reconnecting without a lease yet, or blocked from here, is still shown by name. Not kept
+    // across visits, a MAC address may belong to another device in the next hotspot session.
+    private final LruCache<MacAddress, String> mHostNames =
+            new LruCache<>(MAX_CACHED_HOST_NAMES);
+
+    @VisibleForTesting
+    WifiManager mWifiManager;
     private TetheringManager mTetheringManager;
 
     private WifiTetherClientLimitPreference mClientLimitPref;
-    private PreferenceCategory mConnectedClientsPref;
-    private PreferenceCategory mBlockedClientsPref;
+    @VisibleForTesting
+    PreferenceCategory mConnectedClientsPref;
+    @VisibleForTesting
+    PreferenceCategory mBlockedClientsPref;
     private FooterPreference mFooterPref;
 
     private boolean mSupportForceDisconnect;
@@ -118,27 +133,56 @@ public class WifiTetherClientManager extends SettingsPreferenceFragment implemen
 
     private void updateBlockedClients() {
         final SoftApConfiguration softApConfiguration = mWifiManager.getSoftApConfiguration();
-        final List<MacAddress> blockedClientList = softApConfiguration.getBlockedClientList();
-        mBlockedClientsPref.removeAll();
+        updateBlockedClients(softApConfiguration.getBlockedClientList());
+    }
+
+    private void updateBlockedClients(List<MacAddress> blockedClientList) {
+        final Map<String, BlockedClientPreference> stalePrefs = new ArrayMap<>();
+        for (int i = 0; i < mBlockedClientsPref.getPreferenceCount(); i++) {
+            final Preference preference = mBlockedClientsPref.getPreference(i);
+            stalePrefs.put(preference.getKey(), (BlockedClientPreference) preference);
+        }
         for (MacAddress mac : blockedClientList) {
-            BlockedClientPreference preference = new BlockedClientPreference(getActivity(), mac);
-            preference.setOnPreferenceClickListener(this);
-            mBlockedClientsPref.addPreference(preference);
+            BlockedClientPreference preference = stalePrefs.remove(mac.toString());
+            if (preference == null) {
+                preference = new BlockedClientPreference(mBlockedClientsPref.getContext(), mac);
+                preference.setOnPreferenceClickListener(this);
+                mBlockedClientsPref.addPreference(preference);
+            } else {
+                preference.updateName();
+            }
+        }
+        for (Preference preference : stalePrefs.values()) {
+            mBlockedClientsPref.removePreference(preference);
         }
         updatePreferenceVisible();
     }
 
     @Override
     public void onClientsChanged(Collection<TetheredClient> clients) {
-        mConnectedClientsPref.removeAll();
+        // Clients are matched by MAC address, only the added and removed ones change the list.
+        final Map<String, ConnectedClientPreference> stalePrefs = new ArrayMap<>();
+        for (int i = 0; i < mConnectedClientsPref.getPreferenceCount(); i++) {
+            final Preference preference = mConnectedClientsPref.getPreference(i);
+            stalePrefs.put(preference.getKey(), (ConnectedClientPreference) preference);
+        }
         for (TetheredClient client : clients) {
             if (client.getTetheringType() != TetheringManager.TETHERING_WIFI) {
                 continue;
             }
             ConnectedClientPreference preference =
-                new ConnectedClientPreference(getActivity(), client);
-            preference.setOnPreferenceClickListener(this);
-            mConnectedClientsPref.addPreference(preference);
+                    stalePrefs.remove(client.getMacAddress().toString());
+            if (preference == null) {
+                preference = new ConnectedClientPreference(mConnectedClientsPref.getContext(),
+                        client);
+                preference.setOnPreferenceClickListener(this);
+                mConnectedClientsPref.addPreference(preference);
+            } else {
+                preference.updateClient(client);
+            }
+        }
+        for (Preference preference : stalePrefs.values()) {
+            mConnectedClientsPref.removePreference(preference);
         }
         updatePreferenceVisible();
     }
@@ -173,7 +217,8 @@ public class WifiTetherClientManager extends SettingsPreferenceFragment implemen
         return false;
     }
 
-    private void blockClient(MacAddress mac, boolean isBlock) {
+    @VisibleForTesting
+    void blockClient(MacAddress mac, boolean isBlock) {
         final SoftApConfiguration softApConfiguration = mWifiManager.getSoftApConfiguration();
         final List<MacAddress> blockedClientList = softApConfiguration.getBlockedClientList();
         if (isBlock) {
@@ -187,8 +232,9 @@ public class WifiTetherClientManager extends SettingsPreferenceFragment implemen
                 new SoftApConfiguration.Builder(softApConfiguration)
                         .setBlockedClientList(blockedClientList)
                         .build();
-        mWifiManager.setSoftApConfiguration(newSoftApConfiguration);
-        updateBlockedClients();
+        if (mWifiManager.setSoftApConfiguration(newSoftApConfiguration)) {
+            updateBlockedClients(blockedClientList);
+        }
     }
 
     private void showBlockClientDialog(MacAddress mac, CharSequence deviceName) {
@@ -236,30 +282,46 @@ public class WifiTetherClientManager extends SettingsPreferenceFragment implemen
         return SettingsEnums.WIFI_TETHER_SETTINGS;
     }
 
+    /**
+     * Returns the host name reported by {@code client}, or the last one it reported if it has
+     * none at the moment, or null.
+     */
+    private String resolveHostName(TetheredClient client) {
+        final MacAddress mac = client.getMacAddress();
+        for (TetheredClient.AddressInfo addressInfo : client.getAddresses()) {
+            final String hostName = addressInfo.getHostname();
+            if (!TextUtils.isEmpty(hostName)) {
+                mHostNames.put(mac, hostName);
+                return hostName;
+            }
+        }
+        return mHostNames.get(mac);
+    }
+
+    private static void setClientName(Preference preference, MacAddress mac, String hostName) {
+        final String macAddress = mac.toString();
+        if (!TextUtils.isEmpty(hostName)) {
+            preference.setTitle(hostName);
+            preference.setSummary(macAddress);
+        } else {
+            preference.setTitle(macAddress);
+            preference.setSummary(null);
+        }
+    }
+
     private class ConnectedClientPreference extends Preference {
         private MacAddress mMacAddress;
 
         public ConnectedClientPreference(Context context, TetheredClient client) {
             super(context);
             mMacAddress = client.getMacAddress();
+            setKey(mMacAddress.toString());
+            updateClient(client);
+        }
 
-            String hostName = null;
-            String macAddress = client.getMacAddress().toString();
-
-            for (TetheredClient.AddressInfo addressInfo : client.getAddresses()) {
-                if (!TextUtils.isEmpty(addressInfo.getHostname())) {
-                    hostName = addressInfo.getHostname();
-                    break;
-                }
-            }
-
-            setKey(macAddress);
-            if (!TextUtils.isEmpty(hostName)) {
-                setTitle(hostName);
-                setSummary(macAddress);
-            } else {
-                setTitle(macAddress);
-            }
+        /** Updates the shown name, the title and summary only change if the name did. */
+        public void updateClient(TetheredClient client) {
+            setClientName(this, mMacAddress, resolveHostName(client));
         }
 
         public MacAddress getMacAddress() {
@@ -274,7 +336,12 @@ public class WifiTetherClientManager extends SettingsPreferenceFragment implemen
             super(context);
             mMacAddress = mac;
             setKey(mac.toString());
-            setTitle(mac.toString());
+            updateName();
+        }
+
+        /** Shows the last host name known for the client, if any. */
+        public void updateName() {
+            setClientName(this, mMacAddress, mHostNames.get(mMacAddress));
         }
 
         public MacAddress getMacAddress() {
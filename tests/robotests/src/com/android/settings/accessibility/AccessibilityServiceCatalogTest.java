@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.accessibility;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static java.util.Collections.singletonList;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+import android.accessibilityservice.AccessibilityServiceInfo;
+import android.app.AppOpsManager;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.ResolveInfo;
+import android.content.pm.ServiceInfo;
+import android.content.res.Resources;
+import android.provider.Settings;
+import android.util.ArrayMap;
+import android.view.accessibility.AccessibilityManager;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.android.settings.R;
+import com.android.settingslib.RestrictedPreference;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadow.api.Shadow;
+import org.robolectric.shadows.ShadowAccessibilityManager;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+
+/** Tests for {@link AccessibilityServiceCatalog}. */
+@RunWith(RobolectricTestRunner.class)
+public class AccessibilityServiceCatalogTest {
+    private static final String PACKAGE_NAME = "com.android.test";
+    private static final String CLASS_NAME = PACKAGE_NAME + ".test_a11y_service";
+    private static final ComponentName COMPONENT_NAME = new ComponentName(PACKAGE_NAME, CLASS_NAME);
+    private static final String PRE_BUNDLED_CATEGORY = "pre_bundled_category";
+    private static final String DEFAULT_CATEGORY = "default_category";
+
+    private final Context mContext = ApplicationProvider.getApplicationContext();
+    private ShadowAccessibilityManager mShadowAccessibilityManager;
+    private AccessibilityServiceCatalog mCatalog;
+
+    @Before
+    public void setUp() {
+        mContext.setTheme(R.style.Theme_AppCompat);
+        mShadowAccessibilityManager = Shadow.extract(AccessibilityManager.getInstance(mContext));
+        mShadowAccessibilityManager.setInstalledAccessibilityServiceList(
+                singletonList(createServiceInfo()));
+        mCatalog = new AccessibilityServiceCatalog(mContext, new ArrayMap<>(), DEFAULT_CATEGORY);
+    }
+
+    @Test
+    public void refresh_firstTime_addsServicePreference() {
+        final AccessibilityServiceCatalog.Update update = mCatalog.refresh();
+
+        assertThat(update.mRemoved).isEmpty();
+        assertThat(update.mAdded).hasSize(1);
+        final Map.Entry<RestrictedPreference, String> added =
+                update.mAdded.entrySet().iterator().next();
+        assertThat(added.getKey().getKey()).isEqualTo(COMPONENT_NAME.flattenToString());
+        assertThat(added.getValue()).isEqualTo(DEFAULT_CATEGORY);
+        assertThat(mCatalog.getComponentNames()).containsExactly(COMPONENT_NAME);
+    }
+
+    @Test
+    public void refresh_preBundledService_addsToItsCategory() {
+        final Map<ComponentName, String> preBundled = new ArrayMap<>();
+        preBundled.put(COMPONENT_NAME, PRE_BUNDLED_CATEGORY);
+        mCatalog = new AccessibilityServiceCatalog(mContext, preBundled, DEFAULT_CATEGORY);
+
+        final AccessibilityServiceCatalog.Update update = mCatalog.refresh();
+
+        assertThat(update.mAdded.values()).containsExactly(PRE_BUNDLED_CATEGORY);
+    }
+
+    @Test
+    public void refresh_nothingChanged_isEmpty() {
+        mCatalog.refresh();
+
+        assertThat(mCatalog.refresh().isEmpty()).isTrue();
+    }
+
+    @Test
+    public void refresh_serviceEnabled_replacesPreference() {
+        final RestrictedPreference preference =
+                mCatalog.refresh().mAdded.keySet().iterator().next();
+        Settings.Secure.putString(mContext.getContentResolver(),
+                Settings.Secure.ENABLED_ACCESSIBILITY_SERVICES, COMPONENT_NAME.flattenToString());
+
+        final AccessibilityServiceCatalog.Update update = mCatalog.refresh();
+
+        assertThat(update.mRemoved).containsExactly(preference);
+        assertThat(update.mAdded).hasSize(1);
+    }
+
+    @Test
+    public void refresh_packageInvalidated_replacesPreference() {
+        final RestrictedPreference preference =
+                mCatalog.refresh().mAdded.keySet().iterator().next();
+        mCatalog.invalidatePackage(PACKAGE_NAME);
+
+        final AccessibilityServiceCatalog.Update update = mCatalog.refresh();
+
+        assertThat(update.mRemoved).containsExactly(preference);
+        assertThat(update.mAdded).hasSize(1);
+    }
+
+    @Test
+    public void refresh_restrictedSettingsAllowed_replacesPreference() {
+        final Context context = spy(mContext);
+        final Resources resources = spy(mContext.getResources());
+        doReturn(resources).when(context).getResources();
+        doReturn(true).when(resources).getBoolean(
+                com.android.internal.R.bool.config_enhancedConfirmationModeEnabled);
+        final AppOpsManager appOps = mContext.getSystemService(AppOpsManager.class);
+        appOps.setMode(AppOpsManager.OP_ACCESS_RESTRICTED_SETTINGS, /* uid= */ 0, PACKAGE_NAME,
+                AppOpsManager.MODE_ERRORED);
+        mCatalog = new AccessibilityServiceCatalog(context, new ArrayMap<>(), DEFAULT_CATEGORY);
+        final RestrictedPreference preference =
+                mCatalog.refresh().mAdded.keySet().iterator().next();
+        appOps.setMode(AppOpsManager.OP_ACCESS_RESTRICTED_SETTINGS, /* uid= */ 0, PACKAGE_NAME,
+                AppOpsManager.MODE_ALLOWED);
+
+        final AccessibilityServiceCatalog.Update update = mCatalog.refresh();
+
+        assertThat(update.mRemoved).containsExactly(preference);
+        assertThat(update.mAdded).hasSize(1);
+    }
+
+    @Test
+    public void refresh_serviceUninstalled_removesPreference() {
+        final RestrictedPreference preference =
+                mCatalog.refresh().mAdded.keySet().iterator().next();
+        mShadowAccessibilityManager.setInstalledAccessibilityServiceList(new ArrayList<>());
+
+        final AccessibilityServiceCatalog.Update update = mCatalog.refresh();
+
+        assertThat(update.mRemoved).containsExactly(preference);
+        assertThat(update.mAdded).isEmpty();
+        assertThat(mCatalog.getComponentNames()).isEmpty();
+    }
+
+    private AccessibilityServiceInfo createServiceInfo() {
+        final ApplicationInfo applicationInfo = new ApplicationInfo();
+        final ServiceInfo serviceInfo = new ServiceInfo();
+        applicationInfo.packageName = PACKAGE_NAME;
+        serviceInfo.packageName = PACKAGE_NAME;
+        serviceInfo.name = CLASS_NAME;
+        serviceInfo.applicationInfo = applicationInfo;
+
+        final ResolveInfo resolveInfo = new ResolveInfo();
+        resolveInfo.serviceInfo = serviceInfo;
+        try {
+            final AccessibilityServiceInfo info = new AccessibilityServiceInfo(resolveInfo,
+                    mContext);
+            info.setComponentName(COMPONENT_NAME);
+            return info;
+        } catch (XmlPullParserException | IOException e) {
+            // Do nothing
+        }
+
+        return null;
+    }
+}
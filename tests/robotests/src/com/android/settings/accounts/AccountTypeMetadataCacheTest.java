@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.accounts;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+import android.graphics.drawable.ColorDrawable;
+import android.os.UserHandle;
+
+import com.android.settingslib.accounts.AuthenticatorHelper;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class AccountTypeMetadataCacheTest {
+    private static final String ACCOUNT_TYPE = "com.acct1";
+    private static final String PACKAGE_NAME = "com.example.authenticator";
+    private static final int LABEL_RES_ID = 1;
+    private static final UserHandle USER = UserHandle.of(0);
+
+    @Mock
+    private AuthenticatorHelper mHelper;
+    @Mock
+    private AccountTypeMetadataCache.OnInvalidatedListener mListener;
+
+    private Context mContext;
+    private AccountTypeMetadataCache mCache;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        mContext = RuntimeEnvironment.application;
+        mCache = new AccountTypeMetadataCache(mContext);
+        when(mHelper.getPackageForType(ACCOUNT_TYPE)).thenReturn(PACKAGE_NAME);
+        when(mHelper.getLabelIdForType(ACCOUNT_TYPE)).thenReturn(LABEL_RES_ID);
+        when(mHelper.getLabelForType(any(Context.class), any())).thenReturn("Label");
+        when(mHelper.getDrawableForType(any(Context.class), any()))
+                .thenReturn(new ColorDrawable());
+    }
+
+    @Test
+    public void get_twice_loadsMetadataOnce() {
+        final AccountTypeMetadataCache.Metadata first =
+                mCache.get(mContext, mHelper, USER, ACCOUNT_TYPE);
+        final AccountTypeMetadataCache.Metadata second =
+                mCache.get(mContext, mHelper, USER, ACCOUNT_TYPE);
+
+        assertThat(second).isSameInstanceAs(first);
+        assertThat(first.mLabel.toString()).isEqualTo("Label");
+        verify(mHelper, times(1)).getDrawableForType(any(Context.class), any());
+    }
+
+    @Test
+    public void get_noLabel_returnsNull() {
+        when(mHelper.getLabelForType(any(Context.class), any())).thenReturn(null);
+
+        assertThat(mCache.get(mContext, mHelper, USER, ACCOUNT_TYPE)).isNull();
+    }
+
+    @Test
+    public void get_authenticatorMoved_reloadsMetadata() {
+        mCache.get(mContext, mHelper, USER, ACCOUNT_TYPE);
+        when(mHelper.getPackageForType(ACCOUNT_TYPE)).thenReturn("com.example.other");
+
+        final AccountTypeMetadataCache.Metadata metadata =
+                mCache.get(mContext, mHelper, USER, ACCOUNT_TYPE);
+
+        assertThat(metadata.mPackageName).isEqualTo("com.example.other");
+        verify(mHelper, times(2)).getDrawableForType(any(Context.class), any());
+    }
+
+    @Test
+    public void invalidatePackage_authenticatorPackage_reloadsAndNotifiesUser() {
+        mCache.get(mContext, mHelper, USER, ACCOUNT_TYPE);
+        mCache.addOnInvalidatedListener(mListener);
+
+        mCache.invalidatePackage(USER.getIdentifier(), PACKAGE_NAME);
+        mCache.get(mContext, mHelper, USER, ACCOUNT_TYPE);
+
+        verify(mListener).onAccountTypeMetadataInvalidated(USER.getIdentifier());
+        verify(mHelper, times(2)).getDrawableForType(any(Context.class), any());
+    }
+
+    @Test
+    public void invalidatePackage_otherUser_keepsMetadata() {
+        mCache.get(mContext, mHelper, USER, ACCOUNT_TYPE);
+        mCache.addOnInvalidatedListener(mListener);
+
+        mCache.invalidatePackage(10, PACKAGE_NAME);
+
+        verify(mListener, never()).onAccountTypeMetadataInvalidated(anyInt());
+        assertThat(mCache.get(mContext, mHelper, USER, ACCOUNT_TYPE)).isNotNull();
+        verify(mHelper, times(1)).getDrawableForType(any(Context.class), any());
+    }
+}
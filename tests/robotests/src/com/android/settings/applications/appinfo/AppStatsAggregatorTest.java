@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications.appinfo;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.android.settings.fuelgauge.batteryusage.BatteryDiffEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class AppStatsAggregatorTest {
+    private static final String PACKAGE_NAME = "com.example.app";
+
+    private AppStatsAggregator mAggregator;
+    private List<BatteryDiffEntry> mResults;
+    private int mLoadCount;
+
+    @Before
+    public void setUp() {
+        mAggregator = new AppStatsAggregator(RuntimeEnvironment.application, PACKAGE_NAME,
+                Runnable::run);
+        mResults = new ArrayList<>();
+        // Skip the battery history query, no app uses the battery in these tests.
+        AppStatsAggregator.sBatteryUsageSnapshot.get(Collections::emptyList);
+    }
+
+    @After
+    public void tearDown() {
+        AppStatsAggregator.sBatteryUsageSnapshot.clear();
+    }
+
+    @Test
+    public void sharedSnapshot_getTwice_loadsOnce() {
+        final AppStatsAggregator.SharedSnapshot<Object> snapshot =
+                new AppStatsAggregator.SharedSnapshot<>();
+
+        final Object first = snapshot.get(this::load);
+        final Object second = snapshot.get(this::load);
+
+        assertThat(second).isSameInstanceAs(first);
+        assertThat(mLoadCount).isEqualTo(1);
+    }
+
+    @Test
+    public void sharedSnapshot_clear_loadsAgain() {
+        final AppStatsAggregator.SharedSnapshot<Object> snapshot =
+                new AppStatsAggregator.SharedSnapshot<>();
+        snapshot.get(this::load);
+
+        snapshot.clear();
+        snapshot.get(this::load);
+
+        assertThat(mLoadCount).isEqualTo(2);
+    }
+
+    @Test
+    public void requestBatteryDiffEntry_deliversResultOnMainThread() {
+        mAggregator.requestBatteryDiffEntry(mResults::add);
+
+        assertThat(mResults).isEmpty();
+        ShadowLooper.idleMainLooper();
+        assertThat(mResults).containsExactly((BatteryDiffEntry) null);
+    }
+
+    @Test
+    public void requestBatteryDiffEntry_released_dropsResult() {
+        mAggregator.requestBatteryDiffEntry(mResults::add);
+
+        mAggregator.release();
+        ShadowLooper.idleMainLooper();
+
+        assertThat(mResults).isEmpty();
+    }
+
+    private Object load() {
+        mLoadCount++;
+        return new Object();
+    }
+}
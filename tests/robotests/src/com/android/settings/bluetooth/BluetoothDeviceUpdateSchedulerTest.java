@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.bluetooth;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.when;
+
+import android.bluetooth.BluetoothDevice;
+
+import com.android.settingslib.bluetooth.CachedBluetoothDevice;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class BluetoothDeviceUpdateSchedulerTest {
+
+    @Mock
+    private CachedBluetoothDevice mCachedDevice1;
+    @Mock
+    private CachedBluetoothDevice mCachedDevice1Updated;
+    @Mock
+    private CachedBluetoothDevice mCachedDevice2;
+    @Mock
+    private BluetoothDevice mDevice1;
+    @Mock
+    private BluetoothDevice mDevice2;
+
+    private final List<CachedBluetoothDevice> mUpdatedDevices = new ArrayList<>();
+    private BluetoothDeviceUpdateScheduler mScheduler;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(mCachedDevice1.getDevice()).thenReturn(mDevice1);
+        when(mCachedDevice1Updated.getDevice()).thenReturn(mDevice1);
+        when(mCachedDevice2.getDevice()).thenReturn(mDevice2);
+        mScheduler = new BluetoothDeviceUpdateScheduler(mUpdatedDevices::add);
+    }
+
+    @Test
+    public void schedule_doesNotUpdateRightAway() {
+        mScheduler.schedule(mCachedDevice1);
+
+        assertThat(mUpdatedDevices).isEmpty();
+        assertThat(mScheduler.hasPendingUpdates()).isTrue();
+    }
+
+    @Test
+    public void flush_sameDeviceScheduledTwice_updatesOnceWithLatest() {
+        mScheduler.schedule(mCachedDevice1);
+        mScheduler.schedule(mCachedDevice2);
+        mScheduler.schedule(mCachedDevice1Updated);
+
+        mScheduler.flush();
+
+        assertThat(mUpdatedDevices).containsExactly(mCachedDevice1Updated, mCachedDevice2)
+                .inOrder();
+        assertThat(mScheduler.hasPendingUpdates()).isFalse();
+    }
+
+    @Test
+    public void cancel_dropsPendingUpdateOfDevice() {
+        mScheduler.schedule(mCachedDevice1);
+        mScheduler.schedule(mCachedDevice2);
+
+        mScheduler.cancel(mCachedDevice1);
+        mScheduler.flush();
+
+        assertThat(mUpdatedDevices).containsExactly(mCachedDevice2);
+    }
+
+    @Test
+    public void clear_dropsAllPendingUpdates() {
+        mScheduler.schedule(mCachedDevice1);
+        mScheduler.schedule(mCachedDevice2);
+
+        mScheduler.clear();
+        mScheduler.flush();
+
+        assertThat(mUpdatedDevices).isEmpty();
+    }
+}
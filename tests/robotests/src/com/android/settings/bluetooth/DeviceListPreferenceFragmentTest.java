@@ -21,9 +21,12 @@ import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import android.bluetooth.BluetoothAdapter;
 import android.content.Context;
@@ -169,6 +172,31 @@ public class DeviceListPreferenceFragmentTest {
         verify(mFragment, times(1)).startScanning();
     }
 
+    @Test
+    public void onDeviceAdded_queuedUntilNextFrame() {
+        final CachedBluetoothDevice cachedDevice = mock(CachedBluetoothDevice.class);
+        when(cachedDevice.getDevice()).thenReturn(
+                mFragment.mBluetoothAdapter.getRemoteDevice("00:11:22:33:44:55"));
+
+        mFragment.onDeviceAdded(cachedDevice);
+        mFragment.onDeviceAdded(cachedDevice);
+
+        assertThat(mFragment.mUpdateScheduler.hasPendingUpdates()).isTrue();
+        verify(mFragment, never()).createDevicePreference(cachedDevice);
+    }
+
+    @Test
+    public void onDeviceDeleted_dropsQueuedAdd() {
+        final CachedBluetoothDevice cachedDevice = mock(CachedBluetoothDevice.class);
+        when(cachedDevice.getDevice()).thenReturn(
+                mFragment.mBluetoothAdapter.getRemoteDevice("00:11:22:33:44:55"));
+        mFragment.onDeviceAdded(cachedDevice);
+
+        mFragment.onDeviceDeleted(cachedDevice);
+
+        assertThat(mFragment.mUpdateScheduler.hasPendingUpdates()).isFalse();
+    }
+
     /**
      * Fragment to test since {@code DeviceListPreferenceFragment} is abstract
      */
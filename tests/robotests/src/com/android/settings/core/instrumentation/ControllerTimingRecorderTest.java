@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core.instrumentation;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class ControllerTimingRecorderTest {
+
+    private static final String FAST_CONTROLLER = "com.android.settings.FastController";
+    private static final String SLOW_CONTROLLER = "com.android.settings.SlowController";
+
+    @Test
+    public void begin_disabled_doesNotRecord() throws Exception {
+        final ControllerTimingRecorder recorder = new ControllerTimingRecorder(false);
+
+        final long token = recorder.begin(ControllerTimingRecorder.PHASE_UPDATE_STATE,
+                FAST_CONTROLLER);
+        recorder.end(ControllerTimingRecorder.PHASE_UPDATE_STATE, FAST_CONTROLLER, token);
+
+        final JSONObject dump = recorder.dump();
+        assertThat(dump.getBoolean("enabled")).isFalse();
+        assertThat(dump.getJSONArray("controllers").length()).isEqualTo(0);
+    }
+
+    @Test
+    public void beginAndEnd_enabled_recordsPhase() throws Exception {
+        final ControllerTimingRecorder recorder = new ControllerTimingRecorder(true);
+
+        final long token = recorder.begin(ControllerTimingRecorder.PHASE_IS_AVAILABLE,
+                FAST_CONTROLLER);
+        recorder.end(ControllerTimingRecorder.PHASE_IS_AVAILABLE, FAST_CONTROLLER, token);
+
+        final JSONObject controller = recorder.dump().getJSONArray("controllers")
+                .getJSONObject(0);
+        assertThat(controller.getString("name")).isEqualTo(FAST_CONTROLLER);
+        assertThat(controller.getJSONObject("isAvailable").getInt("count")).isEqualTo(1);
+        assertThat(controller.has("updateState")).isFalse();
+    }
+
+    @Test
+    public void dump_sortsSlowestControllerFirst() throws Exception {
+        final ControllerTimingRecorder recorder = new ControllerTimingRecorder(true);
+        recorder.record(ControllerTimingRecorder.PHASE_DISPLAY_PREFERENCE, FAST_CONTROLLER,
+                1_000L);
+        recorder.record(ControllerTimingRecorder.PHASE_UPDATE_STATE, SLOW_CONTROLLER,
+                5_000_000L);
+        recorder.record(ControllerTimingRecorder.PHASE_UPDATE_STATE, SLOW_CONTROLLER,
+                3_000_000L);
+
+        final JSONArray controllers = recorder.dump().getJSONArray("controllers");
+
+        assertThat(controllers.getJSONObject(0).getString("name")).isEqualTo(SLOW_CONTROLLER);
+        final JSONObject updateState = controllers.getJSONObject(0).getJSONObject("updateState");
+        assertThat(updateState.getInt("count")).isEqualTo(2);
+        assertThat(updateState.getLong("total_us")).isEqualTo(8_000L);
+        assertThat(updateState.getLong("max_us")).isEqualTo(5_000L);
+    }
+
+    @Test
+    public void getBucket_usesLog2OfMicros() {
+        assertThat(ControllerTimingRecorder.getBucket(500L)).isEqualTo(0);
+        assertThat(ControllerTimingRecorder.getBucket(1_000L)).isEqualTo(1);
+        assertThat(ControllerTimingRecorder.getBucket(3_000L)).isEqualTo(2);
+        assertThat(ControllerTimingRecorder.getBucket(Long.MAX_VALUE))
+                .isEqualTo(ControllerTimingRecorder.BUCKET_COUNT - 1);
+    }
+
+    @Test
+    public void reset_clearsTimings() throws Exception {
+        final ControllerTimingRecorder recorder = new ControllerTimingRecorder(true);
+        recorder.record(ControllerTimingRecorder.PHASE_CREATE, FAST_CONTROLLER, 1_000L);
+
+        recorder.reset();
+
+        assertThat(recorder.dump().getJSONArray("controllers").length()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core.instrumentation;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class LogEventRingBufferTest {
+
+    @Test
+    public void constructor_roundsCapacityToPowerOfTwo() {
+        assertThat(new LogEventRingBuffer(1).capacity()).isEqualTo(1);
+        assertThat(new LogEventRingBuffer(150).capacity()).isEqualTo(256);
+        assertThat(new LogEventRingBuffer(256).capacity()).isEqualTo(256);
+    }
+
+    @Test
+    public void drain_returnsEventsInOrder() {
+        final LogEventRingBuffer buffer = new LogEventRingBuffer(4);
+        buffer.offer(100L, 1, 2, 3, "key1", 4);
+        buffer.offer(200L, 5, 6, 7, "key2", 8);
+        final List<String> events = new ArrayList<>();
+
+        final int count = buffer.drain((timestamp, attribution, action, pageId, key, value) ->
+                events.add(timestamp + ":" + attribution + ":" + action + ":" + pageId + ":"
+                        + key + ":" + value));
+
+        assertThat(count).isEqualTo(2);
+        assertThat(events).containsExactly("100:1:2:3:key1:4", "200:5:6:7:key2:8").inOrder();
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void offer_bufferFull_dropsAndCountsEvent() {
+        final LogEventRingBuffer buffer = new LogEventRingBuffer(2);
+        assertThat(buffer.offer(1L, 0, 0, 0, "", 0)).isTrue();
+        assertThat(buffer.offer(2L, 0, 0, 0, "", 0)).isTrue();
+
+        assertThat(buffer.offer(3L, 0, 0, 0, "", 0)).isFalse();
+        assertThat(buffer.getDroppedCount()).isEqualTo(1);
+        assertThat(buffer.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void offer_afterDrain_reusesSlots() {
+        final LogEventRingBuffer buffer = new LogEventRingBuffer(2);
+        buffer.offer(1L, 0, 0, 0, "", 0);
+        buffer.offer(2L, 0, 0, 0, "", 0);
+        buffer.drain((timestamp, attribution, action, pageId, key, value) -> { });
+
+        assertThat(buffer.offer(3L, 0, 0, 0, "", 0)).isTrue();
+        final List<Long> timestamps = new ArrayList<>();
+        buffer.drain((timestamp, attribution, action, pageId, key, value) ->
+                timestamps.add(timestamp));
+        assertThat(timestamps).containsExactly(3L);
+        assertThat(buffer.getDroppedCount()).isEqualTo(0);
+    }
+}
@@ -22,6 +22,8 @@ import android.content.Context;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
 
+import org.json.JSONException;
+import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -49,4 +51,13 @@ public class MetricsFeatureProviderTest {
 
         assertThat(feature1).isSameInstanceAs(feature2);
     }
+
+    @Test
+    public void dump_includesIntelligenceLogWriter() throws JSONException {
+        final JSONObject dump = new SettingsMetricsFeatureProvider().dump();
+
+        final JSONObject intelligence = dump.getJSONObject("intelligence");
+        assertThat(intelligence.getLong("dropped_events")).isEqualTo(0L);
+        assertThat(intelligence.has("max_flush_latency_ms")).isTrue();
+    }
 }
@@ -18,17 +18,23 @@ package com.android.settings.core.instrumentation;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
 import android.app.settings.SettingsEnums;
 import android.content.Context;
 
 import com.android.settings.intelligence.LogProto.SettingsLog;
 
+import org.json.JSONException;
+import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.MockitoAnnotations;
 import org.robolectric.RuntimeEnvironment;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -75,4 +81,40 @@ public class SettingsIntelligenceLogWriterTest {
         assertThat(settingsLog.getChangedPreferenceKey()).isEqualTo("package");
         assertThat(settingsLog.getChangedPreferenceIntValue()).isEqualTo(100);
     }
+
+    @Test
+    public void serialize_reusedStream_onlyContainsLatestLogs() throws IOException {
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        final List<SettingsLog> events = new ArrayList<>();
+        events.add(SettingsLog.newBuilder().setChangedPreferenceKey("first").build());
+        SettingsIntelligenceLogWriter.serialize(events, bout);
+        events.clear();
+        events.add(SettingsLog.newBuilder().setChangedPreferenceKey("second").build());
+
+        final byte[] data = SettingsIntelligenceLogWriter.serialize(events, bout);
+
+        final DataInputStream inputStream =
+                new DataInputStream(new ByteArrayInputStream(data));
+        assertThat(inputStream.readInt()).isEqualTo(1);
+        final byte[] change = new byte[inputStream.readInt()];
+        inputStream.read(change);
+        assertThat(inputStream.available()).isEqualTo(0);
+        inputStream.close();
+        assertThat(SettingsLog.parseFrom(change).getChangedPreferenceKey()).isEqualTo("second");
+    }
+
+    @Test
+    public void dump_reportsDroppedEventsAndFlushLatency() throws JSONException {
+        final SettingsIntelligenceLogWriter writer = spy(new SettingsIntelligenceLogWriter());
+        doReturn(3L).when(writer).getDroppedEventCount();
+        doReturn(12L).when(writer).getLastFlushLatencyMillis();
+        doReturn(40L).when(writer).getMaxFlushLatencyMillis();
+
+        final JSONObject dump = writer.dump();
+
+        assertThat(dump.getLong("dropped_events")).isEqualTo(3L);
+        assertThat(dump.getLong("last_flush_latency_ms")).isEqualTo(12L);
+        assertThat(dump.getLong("max_flush_latency_ms")).isEqualTo(40L);
+        assertThat(dump.getInt("buffered_events")).isEqualTo(0);
+    }
 }
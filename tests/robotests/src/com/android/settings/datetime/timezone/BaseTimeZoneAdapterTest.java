@@ -54,6 +54,27 @@ public class BaseTimeZoneAdapterTest {
         assertSearch(adapter, "sec", secretCountry);
     }
 
+    @Test
+    public void testFilter_foldedAndNarrowed() throws InterruptedException {
+        TestItem zurich = new TestItem("Zürich");
+        TestItem moscow = new TestItem("Москва");
+        TestItem newYork = new TestItem("New York");
+        List<TestItem> items = new ArrayList<>();
+        items.add(zurich);
+        items.add(moscow);
+        items.add(newYork);
+
+        TestTimeZoneAdapter adapter = new TestTimeZoneAdapter(items);
+        assertSearch(adapter, "zur", zurich);
+        assertSearch(adapter, "ZÜRI", zurich);
+        assertSearch(adapter, "Мос", moscow);
+        assertSearch(adapter, "mosk", moscow);
+        assertSearch(adapter, "n", newYork);
+        assertSearch(adapter, "new y", newYork);
+        assertSearch(adapter, "new z");
+        assertSearch(adapter, "yor", newYork);
+    }
+
     private void assertSearch(TestTimeZoneAdapter adapter , String searchText, TestItem... items)
             throws InterruptedException {
         Observer observer = new Observer(adapter);
@@ -18,6 +18,10 @@ package com.android.settings.deviceinfo.storage;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
 import android.content.Context;
 import android.os.UserHandle;
 
@@ -90,6 +94,78 @@ public class StorageCacheHelperTest {
         assertThat(mHelper.retrieveUsedSize()).isEqualTo(FAKE_USED_SIZE);
     }
 
+    @Test
+    public void getStaleCategories_noCacheData_allCategoriesStale() {
+        assertThat(mHelper.getStaleCategories()).isEqualTo(StorageCacheHelper.ALL_CATEGORIES);
+    }
+
+    @Test
+    public void getStaleCategories_cachedWithoutTokens_allCategoriesStale() {
+        mHelper.cacheSizeInfo(getFakeStorageCache());
+
+        assertThat(mHelper.getStaleCategories()).isEqualTo(StorageCacheHelper.ALL_CATEGORIES);
+    }
+
+    @Test
+    public void getStaleCategories_appSizesOlderThanMaxAge_appCategoriesStale() {
+        mHelper = spy(mHelper);
+        doReturn(false).when(mHelper).hasPackagesChangedSince(anyLong());
+        mHelper.cacheSizeInfo(getFakeStorageCache(), mHelper.captureValidationTokens());
+        final int appCategories = (1 << StorageAsyncLoader.CATEGORY_APPS)
+                | (1 << StorageAsyncLoader.CATEGORY_GAMES);
+        assertThat(mHelper.getStaleCategories() & appCategories).isEqualTo(0);
+
+        final long updatedTime = System.currentTimeMillis()
+                - StorageCacheHelper.APP_SIZES_MAX_AGE_MILLIS;
+        mContext.getSharedPreferences("StorageCache" + UserHandle.myUserId(),
+                Context.MODE_PRIVATE).edit()
+                .putLong("apps_size_key_updated_time", updatedTime)
+                .putLong("games_size_key_updated_time", updatedTime)
+                .commit();
+
+        assertThat(mHelper.getStaleCategories() & appCategories).isEqualTo(appCategories);
+    }
+
+    @Test
+    public void getCategoryAgeMillis_notCached_returnsUnknown() {
+        assertThat(mHelper.getCategoryAgeMillis(StorageAsyncLoader.CATEGORY_IMAGES))
+                .isEqualTo(-1L);
+    }
+
+    @Test
+    public void cacheCategorySize_shouldSaveSizeAndAge() {
+        mHelper.cacheCategorySize(StorageAsyncLoader.CATEGORY_VIDEOS, FAKE_VIDEOS_SIZE);
+
+        assertThat(mHelper.retrieveCachedSize().videosSize).isEqualTo(FAKE_VIDEOS_SIZE);
+        assertThat(mHelper.getCategoryAgeMillis(StorageAsyncLoader.CATEGORY_VIDEOS))
+                .isAtLeast(0L);
+        assertThat(mHelper.getCategoryAgeMillis(StorageAsyncLoader.CATEGORY_IMAGES))
+                .isEqualTo(-1L);
+    }
+
+    @Test
+    public void constructor_differentVolume_doesNotShareCache() {
+        mHelper.cacheSizeInfo(getFakeStorageCache());
+
+        final StorageCacheHelper otherVolumeHelper =
+                new StorageCacheHelper(mContext, UserHandle.myUserId(), "fake-uuid");
+
+        assertThat(otherVolumeHelper.hasCachedSizeInfo()).isFalse();
+    }
+
+    @Test
+    public void constructor_oldCacheVersion_dropsCache() {
+        mHelper.cacheSizeInfo(getFakeStorageCache());
+        mContext.getSharedPreferences("StorageCache" + UserHandle.myUserId(),
+                Context.MODE_PRIVATE).edit()
+                .putInt("cache_version_key", StorageCacheHelper.CACHE_VERSION - 1)
+                .commit();
+
+        mHelper = new StorageCacheHelper(mContext, UserHandle.myUserId());
+
+        assertThat(mHelper.hasCachedSizeInfo()).isFalse();
+    }
+
     private StorageCacheHelper.StorageCache getFakeStorageCache() {
         StorageCacheHelper.StorageCache result = new StorageCacheHelper.StorageCache();
         result.trashSize = FAKE_TRASH_SIZE;
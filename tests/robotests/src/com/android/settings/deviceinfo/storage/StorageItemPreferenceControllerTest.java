@@ -22,10 +22,13 @@ import static com.android.settings.utils.FileSizeFormatter.MEGABYTE_IN_BYTES;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -354,6 +357,32 @@ public class StorageItemPreferenceControllerTest {
         assertThat(mController.mTrashPreference.getSummary().toString()).isEqualTo("100 kB");
     }
 
+    @Test
+    @Config(shadows = ShadowUserManager.class)
+    public void onCategorySizeLoaded_updatesOnlyThatCategory() {
+        mController.displayPreference(mPreferenceScreen);
+
+        mController.onCategorySizeLoaded(StorageAsyncLoader.CATEGORY_IMAGES,
+                MEGABYTE_IN_BYTES * 350);
+
+        assertThat(mController.mImagesPreference.getSummary().toString()).isEqualTo("350 MB");
+        verify(mController.mVideosPreference, never())
+                .setStorageSize(anyLong(), anyLong(), anyBoolean());
+    }
+
+    @Test
+    @Config(shadows = ShadowUserManager.class)
+    public void onCategorySizeLoaded_noVolume_ignored() {
+        mController.displayPreference(mPreferenceScreen);
+        mController.setVolume(null);
+
+        mController.onCategorySizeLoaded(StorageAsyncLoader.CATEGORY_IMAGES,
+                MEGABYTE_IN_BYTES * 350);
+
+        verify(mController.mImagesPreference, never())
+                .setStorageSize(anyLong(), anyLong(), anyBoolean());
+    }
+
     @Test
     public void settingUserIdAppliesNewIcons() {
         mController.displayPreference(mPreferenceScreen);
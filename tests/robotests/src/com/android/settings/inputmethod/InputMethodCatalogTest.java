@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.inputmethod;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+import android.view.inputmethod.InputMethodInfo;
+import android.view.inputmethod.InputMethodManager;
+import android.view.inputmethod.InputMethodSubtype;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+@RunWith(RobolectricTestRunner.class)
+public class InputMethodCatalogTest {
+
+    @Mock
+    private InputMethodManager mInputMethodManager;
+    @Mock
+    private InputMethodInfo mInputMethodInfo;
+
+    private InputMethodCatalog mCatalog;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        final Context context = spy(RuntimeEnvironment.application);
+        doReturn(mInputMethodManager).when(context).getSystemService(InputMethodManager.class);
+        when(mInputMethodManager.getEnabledInputMethodList())
+                .thenReturn(Collections.singletonList(mInputMethodInfo));
+        when(mInputMethodManager.getEnabledInputMethodSubtypeList(any(), anyBoolean()))
+                .thenReturn(Arrays.asList(createSubtype("en_US"), createSubtype(""),
+                        createSubtype("fr")));
+        mCatalog = new InputMethodCatalog(context);
+    }
+
+    @Test
+    public void getSnapshot_shouldCollectEnabledSubtypeLocales() {
+        final InputMethodCatalog.Snapshot snapshot = mCatalog.getSnapshot();
+
+        assertThat(snapshot.getEnabledInputMethods()).containsExactly(mInputMethodInfo);
+        assertThat(snapshot.getEnabledSubtypeLocales()).containsExactly("en_US", "fr");
+    }
+
+    @Test
+    public void getSnapshot_twice_shouldReadInputMethodsOnce() {
+        mCatalog.getSnapshot();
+        mCatalog.getSnapshot();
+
+        verify(mInputMethodManager, times(1)).getEnabledInputMethodList();
+    }
+
+    @Test
+    public void getSnapshot_afterInvalidate_shouldReadInputMethodsAgain() {
+        mCatalog.getSnapshot();
+
+        mCatalog.invalidate();
+        mCatalog.getSnapshot();
+
+        verify(mInputMethodManager, times(2)).getEnabledInputMethodList();
+    }
+
+    private static InputMethodSubtype createSubtype(String locale) {
+        return new InputMethodSubtype.InputMethodSubtypeBuilder()
+                .setSubtypeLocale(locale)
+                .build();
+    }
+}
@@ -54,6 +54,40 @@ public class UserDictionaryCursorLoaderTest {
         assertThat(cursor.getCount()).isEqualTo(4);
     }
 
+    @Test
+    public void testLoad_largeDictionary_shouldLoadOnePage() {
+        final LargeProvider provider = new LargeProvider();
+        ShadowContentResolver.registerProviderInternal(UserDictionary.AUTHORITY, provider);
+
+        final Cursor cursor = mLoader.loadInBackground();
+
+        assertThat(cursor.getCount()).isEqualTo(UserDictionaryCursorLoader.PAGE_SIZE);
+        assertThat(mLoader.hasMore()).isTrue();
+        assertThat(provider.mSortOrder)
+                .endsWith(" LIMIT " + (UserDictionaryCursorLoader.PAGE_SIZE + 1));
+    }
+
+    @Test
+    public void testToSqlUpperCase_shouldOnlyConvertAscii() {
+        assertThat(UserDictionaryCursorLoader.toSqlUpperCase("abcé")).isEqualTo("ABCé");
+    }
+
+    public static class LargeProvider extends FakeProvider {
+        private String mSortOrder;
+
+        @Override
+        public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
+                String sortOrder) {
+            mSortOrder = sortOrder;
+            final MatrixCursor cursor = new MatrixCursor(
+                    UserDictionaryCursorLoader.QUERY_PROJECTION);
+            for (int i = 0; i < 2 * UserDictionaryCursorLoader.PAGE_SIZE; i++) {
+                cursor.addRow(new Object[]{i, "word" + i, null});
+            }
+            return cursor;
+        }
+    }
+
     public static class FakeProvider extends ContentProvider {
 
         @Override
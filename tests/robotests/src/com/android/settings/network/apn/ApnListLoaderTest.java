@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network.apn;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.provider.Telephony;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowContentResolver;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class ApnListLoaderTest {
+    private static final Uri APN_URI = Uri.withAppendedPath(Telephony.Carriers.SIM_APN_URI, "1");
+    private static final Uri PREFERRED_APN_URI = Uri.parse(ApnSettings.PREFERRED_APN_URI);
+
+    private FakeProvider mProvider;
+    private FakeCallback mCallback;
+    private ApnListLoader mLoader;
+
+    @Before
+    public void setUp() {
+        mProvider = new FakeProvider();
+        ShadowContentResolver.registerProviderInternal("telephony", mProvider);
+        mCallback = new FakeCallback();
+        mLoader = new ApnListLoader(RuntimeEnvironment.application.getContentResolver(),
+                mCallback, Runnable::run);
+    }
+
+    @Test
+    public void load_manyRows_deliversWindowsThenFinishes() {
+        mProvider.mRowCount = ApnListLoader.WINDOW_SIZE + 1;
+
+        mLoader.load(APN_URI, null /* selection */, PREFERRED_APN_URI);
+        ShadowLooper.idleMainLooper();
+
+        assertThat(mCallback.mWindowSizes).containsExactly(ApnListLoader.WINDOW_SIZE, 1);
+        assertThat(mCallback.mPreferredKey).isEqualTo("0");
+        assertThat(mCallback.mFinishedCount).isEqualTo(1);
+    }
+
+    @Test
+    public void load_superseded_dropsPreviousResults() {
+        mProvider.mRowCount = 1;
+
+        mLoader.load(APN_URI, null /* selection */, PREFERRED_APN_URI);
+        mLoader.load(APN_URI, null /* selection */, PREFERRED_APN_URI);
+        ShadowLooper.idleMainLooper();
+
+        assertThat(mCallback.mWindowSizes).containsExactly(1);
+        assertThat(mCallback.mFinishedCount).isEqualTo(1);
+    }
+
+    @Test
+    public void load_twice_queriesPreferredApnOnce() {
+        mLoader.load(APN_URI, null /* selection */, PREFERRED_APN_URI);
+        mLoader.load(APN_URI, null /* selection */, PREFERRED_APN_URI);
+
+        assertThat(mProvider.mPreferredApnQueryCount).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidatePreferredApn_queriesPreferredApnAgain() {
+        mLoader.load(APN_URI, null /* selection */, PREFERRED_APN_URI);
+
+        mLoader.invalidatePreferredApn();
+        mLoader.load(APN_URI, null /* selection */, PREFERRED_APN_URI);
+
+        assertThat(mProvider.mPreferredApnQueryCount).isEqualTo(2);
+    }
+
+    @Test
+    public void setPreferredApn_updatesProviderAndCachedKey() {
+        mLoader.setPreferredApn(PREFERRED_APN_URI, "5");
+
+        mLoader.load(APN_URI, null /* selection */, PREFERRED_APN_URI);
+        ShadowLooper.idleMainLooper();
+
+        assertThat(mProvider.mUpdatedValues.getAsString(ApnSettings.APN_ID)).isEqualTo("5");
+        assertThat(mProvider.mPreferredApnQueryCount).isEqualTo(0);
+        assertThat(mCallback.mPreferredKey).isEqualTo("5");
+    }
+
+    @Test
+    public void setPreferredApn_duringLoad_deliversSelectedKey() {
+        mProvider.mRowCount = 1;
+        mLoader.load(APN_URI, null /* selection */, PREFERRED_APN_URI);
+
+        mLoader.setPreferredApn(PREFERRED_APN_URI, "5");
+        ShadowLooper.idleMainLooper();
+
+        assertThat(mCallback.mPreferredKey).isEqualTo("5");
+    }
+
+    @Test
+    public void release_thenLoad_ignored() {
+        mLoader.release();
+
+        mLoader.load(APN_URI, null /* selection */, PREFERRED_APN_URI);
+        mLoader.setPreferredApn(PREFERRED_APN_URI, "5");
+        ShadowLooper.idleMainLooper();
+
+        assertThat(mCallback.mFinishedCount).isEqualTo(0);
+        assertThat(mProvider.mUpdatedValues).isNull();
+    }
+
+    private static class FakeCallback implements ApnListLoader.Callback {
+        final List<Integer> mWindowSizes = new ArrayList<>();
+        String mPreferredKey;
+        int mFinishedCount;
+
+        @Override
+        public void onApnsLoaded(List<ApnListLoader.ApnEntry> entries, String preferredKey) {
+            mWindowSizes.add(entries.size());
+            mPreferredKey = preferredKey;
+        }
+
+        @Override
+        public void onLoadFinished() {
+            mFinishedCount++;
+        }
+    }
+
+    public static class FakeProvider extends ContentProvider {
+        int mRowCount;
+        int mPreferredApnQueryCount;
+        ContentValues mUpdatedValues;
+
+        @Override
+        public boolean onCreate() {
+            return false;
+        }
+
+        @Override
+        public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
+                String sortOrder) {
+            if (uri.equals(PREFERRED_APN_URI)) {
+                mPreferredApnQueryCount++;
+                final MatrixCursor cursor = new MatrixCursor(new String[] {"_id"});
+                cursor.addRow(new Object[] {0});
+                return cursor;
+            }
+            final MatrixCursor cursor = new MatrixCursor(ApnListLoader.CARRIERS_PROJECTION);
+            for (int i = 0; i < mRowCount; i++) {
+                cursor.addRow(new Object[] {i, "name" + i, "apn" + i, "default", "", "",
+                        Telephony.Carriers.UNEDITED});
+            }
+            return cursor;
+        }
+
+        @Override
+        public String getType(Uri uri) {
+            return null;
+        }
+
+        @Override
+        public Uri insert(Uri uri, ContentValues values) {
+            return null;
+        }
+
+        @Override
+        public int delete(Uri uri, String selection, String[] selectionArgs) {
+            return 0;
+        }
+
+        @Override
+        public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+            mUpdatedValues = values;
+            return 1;
+        }
+    }
+}
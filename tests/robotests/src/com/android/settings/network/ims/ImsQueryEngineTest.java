@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network.ims;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import android.telephony.AccessNetworkConstants;
+import android.telephony.SubscriptionManager;
+import android.telephony.ims.ImsMmTelManager;
+import android.telephony.ims.feature.MmTelFeature;
+import android.util.ArraySet;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+@RunWith(RobolectricTestRunner.class)
+public class ImsQueryEngineTest {
+
+    private static final int SUB_ID_1 = 1;
+    private static final int SUB_ID_2 = 2;
+
+    private final Set<Integer> mActiveSubIds = new ArraySet<>();
+    private ImsQueryEngine mEngine;
+
+    @Before
+    public void setUp() {
+        mEngine = new ImsQueryEngine() {
+            @Override
+            boolean isActiveSubscription(int subId) {
+                return mActiveSubIds.contains(subId);
+            }
+        };
+    }
+
+    @Test
+    public void querySupported_invalidSubId_completesExceptionally() throws Exception {
+        final CompletableFuture<Boolean> future = mEngine.querySupported(
+                SubscriptionManager.INVALID_SUBSCRIPTION_ID,
+                MmTelFeature.MmTelCapabilities.CAPABILITY_TYPE_VOICE,
+                AccessNetworkConstants.TRANSPORT_TYPE_WWAN);
+
+        assertThat(future.isCompletedExceptionally()).isTrue();
+        try {
+            mEngine.await(future, 0 /* timeoutMillis */, false);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void await_notCompleted_returnsDefaultValueAndCountsTimeout() throws Exception {
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+        assertThat(mEngine.await(future, 0 /* timeoutMillis */, 5)).isEqualTo(5);
+
+        final JSONObject dump = mEngine.dump();
+        assertThat(dump.getLong("timeouts")).isEqualTo(1);
+    }
+
+    @Test
+    public void await_queryTimedOut_returnsDefaultValueAndCountsTimeout() throws Exception {
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        future.completeExceptionally(new TimeoutException());
+
+        assertThat(mEngine.await(future, 0 /* timeoutMillis */, 5)).isEqualTo(5);
+
+        final JSONObject dump = mEngine.dump();
+        assertThat(dump.getLong("timeouts")).isEqualTo(1);
+    }
+
+    @Test
+    public void releaseInactiveSubscriptions_stopsMonitoringRemovedSubscription()
+            throws Exception {
+        final ImsMmTelManager imsMmTelManager = mock(ImsMmTelManager.class);
+        mActiveSubIds.add(SUB_ID_1);
+        mActiveSubIds.add(SUB_ID_2);
+        mEngine.ensureRegistrationCallback(imsMmTelManager, SUB_ID_1);
+        mEngine.ensureRegistrationCallback(imsMmTelManager, SUB_ID_2);
+        assertThat(mEngine.dump().getInt("monitored_subscriptions")).isEqualTo(2);
+
+        mActiveSubIds.remove(SUB_ID_1);
+        mEngine.releaseInactiveSubscriptions();
+
+        final JSONObject dump = mEngine.dump();
+        assertThat(dump.getInt("monitored_subscriptions")).isEqualTo(1);
+    }
+
+    @Test
+    public void await_completed_returnsValue() throws Exception {
+        assertThat(mEngine.await(CompletableFuture.completedFuture(true), 0 /* timeoutMillis */,
+                false)).isTrue();
+    }
+}
@@ -21,6 +21,7 @@ import static com.google.common.truth.Truth.assertThat;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -32,11 +33,15 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
+import android.widget.FrameLayout;
 import android.widget.LinearLayout;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 
 import androidx.core.graphics.drawable.IconCompat;
+import androidx.lifecycle.LiveData;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.slice.Slice;
 
 import com.android.settings.R;
 import com.android.settings.testutils.FakeFeatureFactory;
@@ -49,8 +54,12 @@ import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.android.controller.ActivityController;
+import org.robolectric.shadows.ShadowLooper;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 @RunWith(RobolectricTestRunner.class)
 public class PanelFragmentTest {
@@ -109,6 +118,57 @@ public class PanelFragmentTest {
         assertThat(countdownLatch.isPanelReadyToLoad()).isTrue();
     }
 
+    @Test
+    public void onCreateView_firstFrameDeadline_panelReadyWithSlicesStillLoading() {
+        initFakeActivity();
+        mPanelFragment.onCreateView(LayoutInflater.from(mContext),
+                new LinearLayout(mContext), null);
+        PanelSlicesLoaderCountdownLatch countdownLatch =
+                mPanelFragment.mPanelSlicesLoaderCountdownLatch;
+
+        countdownLatch.markDeadlineReached();
+
+        assertThat(countdownLatch.isPanelReadyToLoad()).isTrue();
+        for (Uri sliceUri : mFakePanelContent.getSlices()) {
+            assertThat(mPanelFragment.isSliceLoading(sliceUri)).isTrue();
+        }
+    }
+
+    @Test
+    public void onCreateView_firstFrameDeadlinePassed_showsPanel() {
+        initFakeActivity();
+        final View view = mPanelFragment.onCreateView(LayoutInflater.from(mContext),
+                new LinearLayout(mContext), null);
+        final RecyclerView panelSlices = view.findViewById(R.id.panel_parent_layout);
+
+        ShadowLooper.idleMainLooper(PanelFragment.DURATION_FIRST_FRAME_DEADLINE_MS,
+                TimeUnit.MILLISECONDS);
+
+        assertThat(panelSlices.getAdapter()).isNotNull();
+        assertThat(panelSlices.getVisibility()).isEqualTo(View.VISIBLE);
+        for (Uri sliceUri : mFakePanelContent.getSlices()) {
+            assertThat(mPanelFragment.isSliceLoading(sliceUri)).isTrue();
+        }
+    }
+
+    @Test
+    public void onBindViewHolder_sliceStillLoading_bindsPlaceholder() {
+        initFakeActivity();
+        mPanelFragment.onCreateView(LayoutInflater.from(mContext),
+                new LinearLayout(mContext), null);
+        final Map<Uri, LiveData<Slice>> sliceLiveData = new LinkedHashMap<>();
+        sliceLiveData.put(mFakePanelContent.getSlices().get(0), mock(LiveData.class));
+        final PanelSlicesAdapter adapter =
+                new PanelSlicesAdapter(mPanelFragment, sliceLiveData, 0 /* metrics category */);
+        final PanelSlicesAdapter.SliceRowViewHolder viewHolder =
+                adapter.onCreateViewHolder(new FrameLayout(mContext), 0 /* view type */);
+
+        adapter.onBindViewHolder(viewHolder, 0);
+
+        assertThat(viewHolder.mPlaceholder.getVisibility()).isEqualTo(View.VISIBLE);
+        assertThat(viewHolder.sliceView.getVisibility()).isEqualTo(View.GONE);
+    }
+
     @Test
     public void onCreate_logsOpenEvent() {
         initFakeActivity();
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.print;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.ComponentName;
+import android.print.PrinterId;
+import android.print.PrinterInfo;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+
+@RunWith(RobolectricTestRunner.class)
+public class PrinterDiscoveryStreamTest {
+    private static final ComponentName SERVICE =
+            new ComponentName("com.example.print", "com.example.print.PrintService");
+    private static final ComponentName OTHER_SERVICE =
+            new ComponentName("com.example.other", "com.example.other.PrintService");
+
+    private PrinterDiscoveryStream mStream;
+    private int mUpdateCount;
+
+    @Before
+    public void setUp() {
+        mStream = new PrinterDiscoveryStream(diff -> mUpdateCount++);
+    }
+
+    @Test
+    public void onPrintersDiscovered_keepsPrintersOfServiceOnce() {
+        final PrinterInfo printer = createPrinter(SERVICE, "1", "Laser");
+        final PrinterInfo updated = createPrinter(SERVICE, "1", "Laser (busy)");
+
+        mStream.onPrintersDiscovered(Arrays.asList(printer,
+                createPrinter(OTHER_SERVICE, "2", "Inkjet"), updated), SERVICE);
+        mStream.render();
+
+        assertThat(mStream.getPrinters()).containsExactly(updated);
+        assertThat(mStream.getUnfilteredCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void onPrintersDiscovered_severalTimes_rendersOnce() {
+        mStream.onPrintersDiscovered(Arrays.asList(createPrinter(SERVICE, "1", "Laser")), SERVICE);
+        mStream.onPrintersDiscovered(Arrays.asList(createPrinter(SERVICE, "1", "Laser"),
+                createPrinter(SERVICE, "2", "Inkjet")), SERVICE);
+        mStream.render();
+
+        assertThat(mStream.getPrinters()).hasSize(2);
+        assertThat(mStream.getDiscoveryEventCount()).isEqualTo(2);
+        assertThat(mStream.getRenderedUpdateCount()).isEqualTo(1);
+        assertThat(mUpdateCount).isEqualTo(1);
+    }
+
+    @Test
+    public void onPrintersDiscovered_nothingChanged_doesNotRender() {
+        mStream.onPrintersDiscovered(Arrays.asList(createPrinter(SERVICE, "1", "Laser")), SERVICE);
+        mStream.render();
+
+        mStream.onPrintersDiscovered(Arrays.asList(createPrinter(SERVICE, "1", "Laser")), SERVICE);
+        mStream.render();
+
+        assertThat(mStream.getDiscoveryEventCount()).isEqualTo(2);
+        assertThat(mStream.getRenderedUpdateCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void setQuery_filtersByNameIgnoringCase() {
+        final PrinterInfo laser = createPrinter(SERVICE, "1", "Office Laser");
+        final PrinterInfo inkjet = createPrinter(SERVICE, "2", "Lab Inkjet");
+        mStream.onPrintersDiscovered(Arrays.asList(laser, inkjet), SERVICE);
+
+        mStream.setQuery("LA");
+        mStream.render();
+        assertThat(mStream.getPrinters()).containsExactly(laser, inkjet).inOrder();
+
+        mStream.setQuery("las");
+        mStream.render();
+        assertThat(mStream.getPrinters()).containsExactly(laser);
+
+        mStream.setQuery("lab");
+        mStream.render();
+        assertThat(mStream.getPrinters()).containsExactly(inkjet);
+        assertThat(mStream.getUnfilteredCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void clear_removesPrinters() {
+        mStream.onPrintersDiscovered(Arrays.asList(createPrinter(SERVICE, "1", "Laser")), SERVICE);
+        mStream.render();
+
+        mStream.clear();
+
+        assertThat(mStream.getPrinters()).isEmpty();
+        assertThat(mStream.getUnfilteredCount()).isEqualTo(0);
+    }
+
+    private static PrinterInfo createPrinter(ComponentName service, String localId, String name) {
+        return new PrinterInfo.Builder(new PrinterId(service, localId), name,
+                PrinterInfo.STATUS_IDLE).build();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.tts;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.Intent;
+import android.speech.tts.TextToSpeech;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+@RunWith(RobolectricTestRunner.class)
+public class TtsEngineCatalogTest {
+    private static final String MISSING_ENGINE = "com.example.missing.tts";
+    private static final long CHECK_TIME = 1_000_000L;
+
+    private Context mContext;
+    private String mEngine;
+    private TtsEngineCatalog mCatalog;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        // The engine only has to be an installed package.
+        mEngine = mContext.getPackageName();
+        mCatalog = new TtsEngineCatalog(mContext);
+    }
+
+    @Test
+    public void getVoiceData_neverChecked_returnsNull() {
+        assertThat(mCatalog.getVoiceData(mEngine)).isNull();
+    }
+
+    @Test
+    public void putVoiceData_persistedForNextCatalog() {
+        mCatalog.putVoiceData(mEngine, TextToSpeech.Engine.CHECK_VOICE_DATA_PASS,
+                createData("eng-USA", "fra-FRA"), CHECK_TIME);
+
+        final TtsEngineCatalog.VoiceData voiceData =
+                new TtsEngineCatalog(mContext).getVoiceData(mEngine);
+
+        assertThat(voiceData).isNotNull();
+        assertThat(voiceData.mResultCode).isEqualTo(TextToSpeech.Engine.CHECK_VOICE_DATA_PASS);
+        assertThat(voiceData.mAvailableVoices).containsExactly("eng-USA", "fra-FRA");
+        assertThat(voiceData.mCheckTime).isEqualTo(CHECK_TIME);
+        assertThat(voiceData.toIntent().getStringArrayListExtra(
+                TextToSpeech.Engine.EXTRA_AVAILABLE_VOICES)).containsExactly("eng-USA", "fra-FRA");
+    }
+
+    @Test
+    public void invalidateVoiceData_returnsNull() {
+        mCatalog.putVoiceData(mEngine, TextToSpeech.Engine.CHECK_VOICE_DATA_PASS,
+                createData("eng-USA"), CHECK_TIME);
+
+        mCatalog.invalidateVoiceData(mEngine);
+
+        assertThat(mCatalog.getVoiceData(mEngine)).isNull();
+        assertThat(new TtsEngineCatalog(mContext).getVoiceData(mEngine)).isNull();
+    }
+
+    @Test
+    public void putVoiceData_engineNotInstalled_notPersisted() {
+        mCatalog.putVoiceData(MISSING_ENGINE, TextToSpeech.Engine.CHECK_VOICE_DATA_PASS,
+                createData("eng-USA"), CHECK_TIME);
+
+        assertThat(mCatalog.getVoiceData(MISSING_ENGINE)).isNull();
+    }
+
+    @Test
+    public void isFresh_olderThanMaxAge_returnsFalse() {
+        mCatalog.putVoiceData(mEngine, TextToSpeech.Engine.CHECK_VOICE_DATA_PASS,
+                createData("eng-USA"), CHECK_TIME);
+        final TtsEngineCatalog.VoiceData voiceData = mCatalog.getVoiceData(mEngine);
+
+        assertThat(voiceData.isFresh(CHECK_TIME + 1)).isTrue();
+        assertThat(voiceData.isFresh(
+                CHECK_TIME + TtsEngineCatalog.VOICE_DATA_MAX_AGE_MILLIS)).isFalse();
+        assertThat(voiceData.isFresh(CHECK_TIME - 1)).isFalse();
+    }
+
+    private static Intent createData(String... availableVoices) {
+        return new Intent().putStringArrayListExtra(TextToSpeech.Engine.EXTRA_AVAILABLE_VOICES,
+                new ArrayList<>(Arrays.asList(availableVoices)));
+    }
+}
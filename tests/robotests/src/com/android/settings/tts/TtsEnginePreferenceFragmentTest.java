@@ -73,6 +73,7 @@ public class TtsEnginePreferenceFragmentTest {
     @After
     public void tearDown() {
         ShadowTtsEngines.reset();
+        TtsEngineCatalog.reset();
     }
 
     @Test
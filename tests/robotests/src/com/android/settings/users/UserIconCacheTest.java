@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.users;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class UserIconCacheTest {
+
+    private static final int USER_ID = 10;
+    private static final int ICON_SIZE = 48;
+
+    private Resources mResources;
+    private UserIconCache mCache;
+    private Bitmap mIcon;
+
+    @Before
+    public void setUp() {
+        mResources = RuntimeEnvironment.application.getResources();
+        mCache = new UserIconCache();
+        mIcon = Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+    }
+
+    @Test
+    public void get_notCached_returnsNull() {
+        assertThat(mCache.get(mResources, USER_ID, ICON_SIZE)).isNull();
+    }
+
+    @Test
+    public void put_returnsIconAtRequestedSize() {
+        mCache.put(mResources, USER_ID, mIcon, ICON_SIZE, mCache.getGeneration(USER_ID));
+
+        assertThat(mCache.get(mResources, USER_ID, ICON_SIZE).getIntrinsicWidth())
+                .isEqualTo(ICON_SIZE);
+        assertThat(mCache.get(mResources, USER_ID, ICON_SIZE * 2)).isNull();
+    }
+
+    @Test
+    public void invalidate_dropsIconsOfUser() {
+        mCache.put(mResources, USER_ID, mIcon, ICON_SIZE, mCache.getGeneration(USER_ID));
+        mCache.put(mResources, USER_ID + 1, mIcon, ICON_SIZE,
+                mCache.getGeneration(USER_ID + 1));
+
+        mCache.invalidate(USER_ID);
+
+        assertThat(mCache.get(mResources, USER_ID, ICON_SIZE)).isNull();
+        assertThat(mCache.get(mResources, USER_ID + 1, ICON_SIZE)).isNotNull();
+    }
+
+    @Test
+    public void put_generationChanged_doesNotCache() {
+        final int generation = mCache.getGeneration(USER_ID);
+        mCache.invalidate(USER_ID);
+
+        assertThat(mCache.put(mResources, USER_ID, mIcon, ICON_SIZE, generation)).isNotNull();
+        assertThat(mCache.get(mResources, USER_ID, ICON_SIZE)).isNull();
+    }
+}
@@ -140,6 +140,7 @@ public class UserSettingsTest {
         MockitoAnnotations.initMocks(this);
         mActivity = spy(ActivityController.of(new FragmentActivity()).get());
         mContext = spy(RuntimeEnvironment.application);
+        UserIconCache.getInstance(mContext).clear();
         mUserCapabilities = UserCapabilities.create(mContext);
         mUserCapabilities.mUserSwitcherEnabled = true;
 
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.wifi;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.android.settings.testutils.FakeFeatureFactory;
+import com.android.wifitrackerlib.WifiEntry;
+import com.android.wifitrackerlib.WifiPickerTracker;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class SharedWifiPickerTrackerTest {
+
+    private FakeFeatureFactory mFeatureFactory;
+    private SharedWifiPickerTracker mSharedTracker;
+
+    @Before
+    public void setUp() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        mFeatureFactory = FakeFeatureFactory.setupForTest();
+        when(mFeatureFactory.wifiTrackerLibProvider
+                .createWifiPickerTracker(
+                        any(), any(), any(), any(), any(), anyLong(), anyLong(), any()))
+                .thenAnswer(invocation -> mock(WifiPickerTracker.class));
+        mSharedTracker = new SharedWifiPickerTracker(context);
+    }
+
+    @Test
+    public void acquire_twice_sharesOneTracker() {
+        final WifiPickerTracker tracker = mSharedTracker.acquire(createLifecycle(), null);
+
+        assertThat(mSharedTracker.acquire(createLifecycle(), null)).isSameInstanceAs(tracker);
+        verify(mFeatureFactory.wifiTrackerLibProvider, times(1)).createWifiPickerTracker(
+                any(), any(), any(), any(), any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void consumerStarted_trackerResumed() {
+        final LifecycleRegistry lifecycle = createLifecycle();
+        mSharedTracker.acquire(lifecycle, null);
+
+        lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_START);
+
+        assertThat(mSharedTracker.getLifecycle().getCurrentState())
+                .isEqualTo(Lifecycle.State.RESUMED);
+    }
+
+    @Test
+    public void consumerStopped_stopsScanningRightAway() {
+        final LifecycleRegistry lifecycle = createLifecycle();
+        mSharedTracker.acquire(lifecycle, null);
+        lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_START);
+
+        lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_STOP);
+
+        assertThat(mSharedTracker.getLifecycle().getCurrentState())
+                .isEqualTo(Lifecycle.State.CREATED);
+    }
+
+    @Test
+    public void stopIfUnused_consumerStopped_trackerCreated() {
+        final LifecycleRegistry lifecycle = createLifecycle();
+        mSharedTracker.acquire(lifecycle, null);
+        lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_START);
+        lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_STOP);
+
+        mSharedTracker.stopIfUnused();
+
+        assertThat(mSharedTracker.getLifecycle().getCurrentState())
+                .isEqualTo(Lifecycle.State.CREATED);
+    }
+
+    @Test
+    public void stopIfUnused_consumerDestroyed_trackerDestroyedAndRecreatedOnAcquire() {
+        final LifecycleRegistry lifecycle = createLifecycle();
+        final WifiPickerTracker tracker = mSharedTracker.acquire(lifecycle, null);
+        lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_START);
+        lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_DESTROY);
+        final Lifecycle trackerLifecycle = mSharedTracker.getLifecycle();
+
+        mSharedTracker.stopIfUnused();
+
+        assertThat(trackerLifecycle.getCurrentState()).isEqualTo(Lifecycle.State.DESTROYED);
+        assertThat(mSharedTracker.acquire(createLifecycle(), null)).isNotSameInstanceAs(tracker);
+    }
+
+    @Test
+    public void addWifiEntryCallback_twoConsumers_bothUpdated() {
+        final WifiEntry wifiEntry = mock(WifiEntry.class);
+        final WifiEntry.WifiEntryCallback screen = mock(WifiEntry.WifiEntryCallback.class);
+        final WifiEntry.WifiEntryCallback slice = mock(WifiEntry.WifiEntryCallback.class);
+        SharedWifiPickerTracker.addWifiEntryCallback(wifiEntry, screen);
+        SharedWifiPickerTracker.addWifiEntryCallback(wifiEntry, slice);
+
+        getWifiEntryListener(wifiEntry).onUpdated();
+
+        verify(screen).onUpdated();
+        verify(slice).onUpdated();
+    }
+
+    @Test
+    public void removeWifiEntryCallback_lastConsumer_clearsListener() {
+        final WifiEntry wifiEntry = mock(WifiEntry.class);
+        final WifiEntry.WifiEntryCallback screen = mock(WifiEntry.WifiEntryCallback.class);
+        final WifiEntry.WifiEntryCallback slice = mock(WifiEntry.WifiEntryCallback.class);
+        SharedWifiPickerTracker.addWifiEntryCallback(wifiEntry, screen);
+        SharedWifiPickerTracker.addWifiEntryCallback(wifiEntry, slice);
+        final WifiEntry.WifiEntryCallback listener = getWifiEntryListener(wifiEntry);
+
+        SharedWifiPickerTracker.removeWifiEntryCallback(wifiEntry, screen);
+        listener.onUpdated();
+
+        verify(screen, never()).onUpdated();
+        verify(slice).onUpdated();
+        verify(wifiEntry, never()).setListener(null);
+
+        SharedWifiPickerTracker.removeWifiEntryCallback(wifiEntry, slice);
+
+        verify(wifiEntry).setListener(null);
+    }
+
+    private static WifiEntry.WifiEntryCallback getWifiEntryListener(WifiEntry wifiEntry) {
+        final ArgumentCaptor<WifiEntry.WifiEntryCallback> captor =
+                ArgumentCaptor.forClass(WifiEntry.WifiEntryCallback.class);
+        verify(wifiEntry, atLeastOnce()).setListener(captor.capture());
+        return captor.getValue();
+    }
+
+    private static LifecycleRegistry createLifecycle() {
+        final LifecycleRegistry lifecycle = new LifecycleRegistry(mock(LifecycleOwner.class));
+        lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_CREATE);
+        return lifecycle;
+    }
+}
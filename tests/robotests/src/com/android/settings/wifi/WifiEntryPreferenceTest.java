@@ -18,6 +18,10 @@ package com.android.settings.wifi;
 import static com.google.common.truth.Truth.assertThat;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -27,7 +31,11 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.LinearLayout;
 
+import androidx.preference.PreferenceGroupAdapter;
+import androidx.preference.PreferenceManager;
+import androidx.preference.PreferenceScreen;
 import androidx.preference.PreferenceViewHolder;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.android.settingslib.R;
 import com.android.settingslib.wifi.WifiUtils;
@@ -264,4 +272,74 @@ public class WifiEntryPreferenceTest {
 
         verify(mMockDrawable4).setTintList(any());
     }
+
+    @Test
+    public void setWifiEntry_shouldRebindToNewEntry() {
+        final WifiEntryPreference pref =
+                new WifiEntryPreference(mContext, mMockWifiEntry, mMockIconInjector);
+        final WifiEntry newWifiEntry = mock(WifiEntry.class);
+        final String updatedSummary = "updated summary";
+        when(newWifiEntry.getTitle()).thenReturn(MOCK_TITLE);
+        when(newWifiEntry.getSummary(false /* concise */)).thenReturn(updatedSummary);
+        when(newWifiEntry.getLevel()).thenReturn(2);
+
+        pref.setWifiEntry(newWifiEntry);
+
+        assertThat(pref.getWifiEntry()).isEqualTo(newWifiEntry);
+        assertThat(pref.getSummary()).isEqualTo(updatedSummary);
+        assertThat(pref.getIcon()).isEqualTo(mMockDrawable2);
+        verify(mMockWifiEntry).setListener(null);
+        verify(newWifiEntry).setListener(any());
+    }
+
+    @Test
+    public void setWifiEntry_onlyHelpUriChanged_rebindsView() {
+        final WifiEntryPreference pref =
+                new WifiEntryPreference(mContext, mMockWifiEntry, mMockIconInjector);
+        final PreferenceScreen screen =
+                new PreferenceManager(mContext).createPreferenceScreen(mContext);
+        screen.addPreference(pref);
+        final PreferenceGroupAdapter adapter = new PreferenceGroupAdapter(screen);
+        final RecyclerView.AdapterDataObserver observer =
+                mock(RecyclerView.AdapterDataObserver.class);
+        adapter.registerAdapterDataObserver(observer);
+        final WifiEntry newWifiEntry = mock(WifiEntry.class);
+        when(newWifiEntry.getTitle()).thenReturn(MOCK_TITLE);
+        when(newWifiEntry.getSummary(false /* concise */)).thenReturn(MOCK_SUMMARY);
+        when(newWifiEntry.getHelpUriString()).thenReturn(FAKE_URI_STRING);
+
+        pref.setWifiEntry(newWifiEntry);
+
+        verify(observer).onItemRangeChanged(eq(0), eq(1), any());
+    }
+
+    @Test
+    public void setWifiEntry_nothingShownChanged_doesNotRebindView() {
+        final WifiEntryPreference pref =
+                new WifiEntryPreference(mContext, mMockWifiEntry, mMockIconInjector);
+        final PreferenceScreen screen =
+                new PreferenceManager(mContext).createPreferenceScreen(mContext);
+        screen.addPreference(pref);
+        final PreferenceGroupAdapter adapter = new PreferenceGroupAdapter(screen);
+        final RecyclerView.AdapterDataObserver observer =
+                mock(RecyclerView.AdapterDataObserver.class);
+        adapter.registerAdapterDataObserver(observer);
+        final WifiEntry newWifiEntry = mock(WifiEntry.class);
+        when(newWifiEntry.getTitle()).thenReturn(MOCK_TITLE);
+        when(newWifiEntry.getSummary(false /* concise */)).thenReturn(MOCK_SUMMARY);
+
+        pref.setWifiEntry(newWifiEntry);
+
+        verify(observer, never()).onItemRangeChanged(anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void onDetached_stopsListeningToEntry() {
+        final WifiEntryPreference pref =
+                new WifiEntryPreference(mContext, mMockWifiEntry, mMockIconInjector);
+
+        pref.onDetached();
+
+        verify(mMockWifiEntry).setListener(null);
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package con.android.settings.wifi.tether;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+import android.net.LinkAddress;
+import android.net.MacAddress;
+import android.net.TetheredClient;
+import android.net.TetheringManager;
+import android.net.wifi.SoftApConfiguration;
+import android.net.wifi.WifiManager;
+
+import androidx.preference.Preference;
+import androidx.preference.PreferenceCategory;
+import androidx.preference.PreferenceManager;
+import androidx.preference.PreferenceScreen;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+@RunWith(RobolectricTestRunner.class)
+public class WifiTetherClientManagerTest {
+    private static final MacAddress MAC_1 = MacAddress.fromString("00:11:22:33:44:01");
+    private static final MacAddress MAC_2 = MacAddress.fromString("00:11:22:33:44:02");
+    private static final String HOST_NAME_1 = "phone";
+    private static final String HOST_NAME_2 = "laptop";
+
+    @Rule
+    public final MockitoRule mMockitoRule = MockitoJUnit.rule();
+    @Mock
+    private WifiManager mWifiManager;
+
+    private WifiTetherClientManager mClientManager;
+
+    @Before
+    public void setUp() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final PreferenceManager preferenceManager = new PreferenceManager(context);
+        final PreferenceScreen screen = preferenceManager.createPreferenceScreen(context);
+        mClientManager = new WifiTetherClientManager();
+        mClientManager.mWifiManager = mWifiManager;
+        mClientManager.mConnectedClientsPref = new PreferenceCategory(context);
+        mClientManager.mBlockedClientsPref = new PreferenceCategory(context);
+        screen.addPreference(mClientManager.mConnectedClientsPref);
+        screen.addPreference(mClientManager.mBlockedClientsPref);
+        when(mWifiManager.getSoftApConfiguration())
+                .thenReturn(new SoftApConfiguration.Builder().build());
+    }
+
+    @Test
+    public void onClientsChanged_clientStillConnected_keepsPreference() {
+        mClientManager.onClientsChanged(Arrays.asList(
+                createClient(MAC_1, HOST_NAME_1), createClient(MAC_2, HOST_NAME_2)));
+        final Preference preference = mClientManager.mConnectedClientsPref.findPreference(
+                MAC_1.toString());
+
+        mClientManager.onClientsChanged(Collections.singletonList(
+                createClient(MAC_1, HOST_NAME_1)));
+
+        assertThat(mClientManager.mConnectedClientsPref.getPreferenceCount()).isEqualTo(1);
+        assertThat(mClientManager.mConnectedClientsPref.<Preference>findPreference(
+                MAC_1.toString())).isSameInstanceAs(preference);
+        assertThat(preference.getTitle().toString()).isEqualTo(HOST_NAME_1);
+        assertThat(preference.getSummary().toString()).isEqualTo(MAC_1.toString());
+    }
+
+    @Test
+    public void onClientsChanged_otherTetheringType_notListed() {
+        mClientManager.onClientsChanged(Collections.singletonList(new TetheredClient(MAC_1,
+                Collections.emptyList(), TetheringManager.TETHERING_USB)));
+
+        assertThat(mClientManager.mConnectedClientsPref.getPreferenceCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void onClientsChanged_hostNameLost_keepsLastHostName() {
+        mClientManager.onClientsChanged(Collections.singletonList(
+                createClient(MAC_1, HOST_NAME_1)));
+
+        mClientManager.onClientsChanged(Collections.singletonList(
+                createClient(MAC_1, null /* hostName */)));
+
+        final Preference preference = mClientManager.mConnectedClientsPref.findPreference(
+                MAC_1.toString());
+        assertThat(preference.getTitle().toString()).isEqualTo(HOST_NAME_1);
+    }
+
+    @Test
+    public void blockClient_saved_listsClientByHostName() {
+        mClientManager.onClientsChanged(Collections.singletonList(
+                createClient(MAC_1, HOST_NAME_1)));
+        when(mWifiManager.setSoftApConfiguration(any())).thenReturn(true);
+
+        mClientManager.blockClient(MAC_1, true /* isBlock */);
+
+        final Preference preference = mClientManager.mBlockedClientsPref.findPreference(
+                MAC_1.toString());
+        assertThat(preference).isNotNull();
+        assertThat(preference.getTitle().toString()).isEqualTo(HOST_NAME_1);
+    }
+
+    @Test
+    public void blockClient_notSaved_blockedListUnchanged() {
+        when(mWifiManager.setSoftApConfiguration(any())).thenReturn(false);
+
+        mClientManager.blockClient(MAC_1, true /* isBlock */);
+
+        assertThat(mClientManager.mBlockedClientsPref.getPreferenceCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void blockClient_unblockSaved_removesPreference() {
+        when(mWifiManager.setSoftApConfiguration(any())).thenReturn(true);
+        mClientManager.blockClient(MAC_1, true /* isBlock */);
+        when(mWifiManager.getSoftApConfiguration()).thenReturn(new SoftApConfiguration.Builder()
+                .setBlockedClientList(Collections.singletonList(MAC_1)).build());
+
+        mClientManager.blockClient(MAC_1, false /* isBlock */);
+
+        assertThat(mClientManager.mBlockedClientsPref.getPreferenceCount()).isEqualTo(0);
+    }
+
+    private static TetheredClient createClient(MacAddress mac, String hostName) {
+        final TetheredClient.AddressInfo addressInfo = new TetheredClient.AddressInfo(
+                new LinkAddress("192.168.43.2/24"), hostName);
+        return new TetheredClient(mac, Collections.singletonList(addressInfo),
+                TetheringManager.TETHERING_WIFI);
+    }
+}
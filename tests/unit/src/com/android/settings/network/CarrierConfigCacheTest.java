@@ -18,6 +18,7 @@ package com.android.settings.network;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -44,6 +45,7 @@ public class CarrierConfigCacheTest {
 
     static final int ONCE_SUB_ID = 11;
     static final int TWICE_SUB_ID = 12;
+    static final int PROJECTION_SUB_ID = 13;
 
     @Rule
     public final MockitoRule mMockitoRule = MockitoJUnit.rule();
@@ -98,4 +100,33 @@ public class CarrierConfigCacheTest {
 
         verify(mCarrierConfigManager, times(1)).getConfigForSubId(TWICE_SUB_ID);
     }
+
+    @Test
+    public void getProjectionForSubId_getTwice_sameProjectionWithConfigValues() {
+        final PersistableBundle config = new PersistableBundle();
+        config.putBoolean(CarrierConfigManager.KEY_WORLD_PHONE_BOOL, true);
+        config.putStringArray(
+                CarrierConfigManager.KEY_SUPPORT_TDSCDMA_ROAMING_NETWORKS_STRING_ARRAY,
+                new String[] {"46001"});
+        when(mCarrierConfigManager.getConfigForSubId(PROJECTION_SUB_ID)).thenReturn(config);
+
+        final CarrierConfigProjection projection =
+                mCarrierConfigCache.getProjectionForSubId(PROJECTION_SUB_ID);
+
+        assertThat(mCarrierConfigCache.getProjectionForSubId(PROJECTION_SUB_ID))
+                .isSameInstanceAs(projection);
+        assertThat(projection.isWorldPhone()).isTrue();
+        assertThat(projection.isWorldModeEnabled()).isFalse();
+        assertThat(projection.getTdscdmaRoamingNetworks()).containsExactly("46001");
+        verify(mCarrierConfigManager, times(1)).getConfigForSubId(PROJECTION_SUB_ID);
+    }
+
+    @Test
+    public void getProjectionForSubId_testInstance_projectsStubbedConfig() {
+        final CarrierConfigCache cache = mock(CarrierConfigCache.class);
+        mCarrierConfig.putBoolean(CarrierConfigManager.KEY_APN_EXPAND_BOOL, true);
+        when(cache.getConfigForSubId(ONCE_SUB_ID)).thenReturn(mCarrierConfig);
+
+        assertThat(cache.getProjectionForSubId(ONCE_SUB_ID).isApnExpand()).isTrue();
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network;
+
+import static android.telephony.SubscriptionManager.INVALID_SIM_SLOT_INDEX;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+import android.os.ParcelUuid;
+import android.telephony.SubscriptionInfo;
+import android.telephony.SubscriptionManager;
+import android.telephony.TelephonyManager;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(AndroidJUnit4.class)
+public class SubscriptionSnapshotTest {
+    private static final int SUBID_1 = 1;
+    private static final int SUBID_2 = 2;
+    private static final int SUBID_3 = 3;
+    private static final CharSequence CARRIER_1 = "carrier1";
+    private static final CharSequence CARRIER_2 = "carrier2";
+    private static final ParcelUuid GROUP_UUID =
+            ParcelUuid.fromString("01234567-89ab-cdef-0123-456789abcdef");
+
+    private Context mContext;
+    @Mock
+    private SubscriptionManager mSubMgr;
+    @Mock
+    private TelephonyManager mTelMgr;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        mContext = spy(ApplicationProvider.getApplicationContext());
+        when(mContext.getSystemService(SubscriptionManager.class)).thenReturn(mSubMgr);
+        when(mContext.getSystemService(TelephonyManager.class)).thenReturn(mTelMgr);
+        when(mTelMgr.getUiccSlotsInfo()).thenReturn(null);
+    }
+
+    @Test
+    public void create_computesSelectableSubscriptionsAndDisplayNames() {
+        final SubscriptionInfo info1 = mockSubscription(SUBID_1, CARRIER_1, 0);
+        final SubscriptionInfo info2 = mockSubscription(SUBID_2, CARRIER_2, 1);
+        final List<SubscriptionInfo> subscriptions = Arrays.asList(info1, info2);
+        when(mSubMgr.getAvailableSubscriptionInfoList()).thenReturn(subscriptions);
+        when(mSubMgr.getAllSubscriptionInfoList()).thenReturn(subscriptions);
+
+        final SubscriptionSnapshot snapshot = SubscriptionSnapshot.create(mContext, 7);
+
+        assertThat(snapshot.getVersion()).isEqualTo(7);
+        assertThat(snapshot.getSelectableSubscriptionInfoList()).containsExactly(info1, info2);
+        final Map<Integer, CharSequence> names = snapshot.getUniqueDisplayNames();
+        assertThat(names.get(SUBID_1)).isEqualTo(CARRIER_1);
+        assertThat(names.get(SUBID_2)).isEqualTo(CARRIER_2);
+        assertThat(snapshot.getSimSlotIndex(SUBID_2)).isEqualTo(1);
+        assertThat(snapshot.getSimSlotIndex(SUBID_3)).isEqualTo(INVALID_SIM_SLOT_INDEX);
+    }
+
+    @Test
+    public void findAllSubscriptionsInGroup_returnsEmbeddedMembersOfGroup() {
+        final SubscriptionInfo info1 = mockSubscription(SUBID_1, CARRIER_1, 0);
+        final SubscriptionInfo info2 = mockSubscription(SUBID_2, CARRIER_1, INVALID_SIM_SLOT_INDEX);
+        final SubscriptionInfo info3 = mockSubscription(SUBID_3, CARRIER_2, 1);
+        for (SubscriptionInfo info : Arrays.asList(info1, info2)) {
+            when(info.getGroupUuid()).thenReturn(GROUP_UUID);
+            when(info.isEmbedded()).thenReturn(true);
+        }
+        final List<SubscriptionInfo> subscriptions = Arrays.asList(info1, info2, info3);
+
+        final SubscriptionSnapshot snapshot = new SubscriptionSnapshot(1, subscriptions,
+                subscriptions, subscriptions, Collections.emptyMap(), null /* slotsInfo */);
+
+        assertThat(snapshot.findAllSubscriptionsInGroup(SUBID_2)).containsExactly(info1, info2);
+        assertThat(snapshot.findAllSubscriptionsInGroup(SUBID_3)).containsExactly(info3);
+    }
+
+    @Test
+    public void findAllSubscriptionsInGroup_unknownSubscription_returnsEmptyList() {
+        final SubscriptionSnapshot snapshot = new SubscriptionSnapshot(1, null, null, null,
+                Collections.emptyMap(), null /* slotsInfo */);
+
+        assertThat(snapshot.findAllSubscriptionsInGroup(SUBID_1)).isEmpty();
+    }
+
+    private static SubscriptionInfo mockSubscription(int subId, CharSequence name, int slot) {
+        final SubscriptionInfo info = mock(SubscriptionInfo.class);
+        when(info.getSubscriptionId()).thenReturn(subId);
+        when(info.getDisplayName()).thenReturn(name);
+        when(info.getSimSlotIndex()).thenReturn(slot);
+        return info;
+    }
+}
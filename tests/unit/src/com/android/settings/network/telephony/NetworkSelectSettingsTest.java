@@ -281,6 +281,32 @@ public class NetworkSelectSettingsTest {
         assertThat(mNetworkSelectSettings.doAggregation(testList)).isEqualTo(expected);
     }
 
+    @Test
+    public void mergeScanResults_severalBatches_accumulatesInFirstSeenOrder() {
+        final CellInfoLte carrierA = createLteCellInfo(false, 123, "123", "232", "CarrierA");
+        final CellInfoGsm carrierB = createGsmCellInfo(false, 124, "123", "233", "CarrierB");
+        final CellInfoLte carrierAUpdated =
+                createLteCellInfo(false, 125, "123", "232", "CarrierA");
+
+        mNetworkSelectSettings.mergeScanResults(Arrays.asList(carrierA));
+        final List<CellInfo> results = mNetworkSelectSettings.mergeScanResults(
+                Arrays.asList(carrierB, carrierAUpdated));
+
+        assertThat(results).containsExactly(carrierAUpdated, carrierB).inOrder();
+    }
+
+    @Test
+    public void mergeScanResults_laterBatchNotRegistered_keepsRegisteredCell() {
+        final CellInfoLte registered = createLteCellInfo(true, 123, "123", "232", "CarrierA");
+        final CellInfoLte unregistered = createLteCellInfo(false, 124, "123", "232", "CarrierA");
+
+        mNetworkSelectSettings.mergeScanResults(Arrays.asList(registered));
+        final List<CellInfo> results =
+                mNetworkSelectSettings.mergeScanResults(Arrays.asList(unregistered));
+
+        assertThat(results).containsExactly(registered);
+    }
+
     private CellInfoLte createLteCellInfo(boolean registered, int cellId, String mcc, String mnc,
             String plmnName) {
         CellIdentityLte cil = new CellIdentityLte(
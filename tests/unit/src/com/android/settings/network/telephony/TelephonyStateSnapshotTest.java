@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network.telephony;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+import android.telephony.TelephonyManager;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+@RunWith(AndroidJUnit4.class)
+public class TelephonyStateSnapshotTest {
+    private static final int SUB_ID = 1;
+
+    @Mock
+    private TelephonyManager mTelephonyManager;
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        mContext = spy(ApplicationProvider.getApplicationContext());
+        when(mContext.getSystemService(TelephonyManager.class)).thenReturn(mTelephonyManager);
+        when(mTelephonyManager.createForSubscriptionId(SUB_ID)).thenReturn(mTelephonyManager);
+        when(mTelephonyManager.getPhoneType()).thenReturn(TelephonyManager.PHONE_TYPE_GSM);
+    }
+
+    @After
+    public void tearDown() {
+        TelephonyStateSnapshot.invalidateAll();
+    }
+
+    @Test
+    public void get_noSession_returnsNewSnapshot() {
+        assertThat(TelephonyStateSnapshot.get(mContext, SUB_ID))
+                .isNotSameInstanceAs(TelephonyStateSnapshot.get(mContext, SUB_ID));
+    }
+
+    @Test
+    public void get_inSession_sharesSnapshotAndReadsOnce() {
+        TelephonyStateSnapshot.beginSession();
+        try {
+            final TelephonyStateSnapshot snapshot = TelephonyStateSnapshot.get(mContext, SUB_ID);
+
+            assertThat(TelephonyStateSnapshot.get(mContext, SUB_ID)).isSameInstanceAs(snapshot);
+            assertThat(snapshot.getPhoneType()).isEqualTo(TelephonyManager.PHONE_TYPE_GSM);
+            assertThat(snapshot.getPhoneType()).isEqualTo(TelephonyManager.PHONE_TYPE_GSM);
+            verify(mTelephonyManager, times(1)).getPhoneType();
+        } finally {
+            TelephonyStateSnapshot.endSession();
+        }
+    }
+
+    @Test
+    public void invalidate_inSession_returnsNewSnapshot() {
+        TelephonyStateSnapshot.beginSession();
+        try {
+            final TelephonyStateSnapshot snapshot = TelephonyStateSnapshot.get(mContext, SUB_ID);
+
+            TelephonyStateSnapshot.invalidate(SUB_ID);
+
+            assertThat(TelephonyStateSnapshot.get(mContext, SUB_ID))
+                    .isNotSameInstanceAs(snapshot);
+        } finally {
+            TelephonyStateSnapshot.endSession();
+        }
+    }
+
+    @Test
+    public void endSession_nested_keepsSnapshotUntilOutermostEnds() {
+        TelephonyStateSnapshot.beginSession();
+        TelephonyStateSnapshot.beginSession();
+        final TelephonyStateSnapshot snapshot = TelephonyStateSnapshot.get(mContext, SUB_ID);
+
+        TelephonyStateSnapshot.endSession();
+        assertThat(TelephonyStateSnapshot.get(mContext, SUB_ID)).isSameInstanceAs(snapshot);
+
+        TelephonyStateSnapshot.endSession();
+        assertThat(TelephonyStateSnapshot.get(mContext, SUB_ID)).isNotSameInstanceAs(snapshot);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.vpn2;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.android.internal.net.LegacyVpnInfo;
+import com.android.internal.net.VpnProfile;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RunWith(AndroidJUnit4.class)
+public final class VpnSettingsTest {
+    private static final String VPN_KEY = "vpn_key";
+
+    private final List<VpnProfile> mProfiles = new ArrayList<>();
+    private final List<AppVpnInfo> mApps = new ArrayList<>();
+    private final Set<AppVpnInfo> mNoApps = Collections.emptySet();
+
+    @Test
+    public void hasSameState_sameProfilesAndStates_returnsTrue() {
+        final VpnSettings.UpdatePreferences first = createUpdate(mProfiles,
+                LegacyVpnInfo.STATE_CONNECTED);
+        final VpnSettings.UpdatePreferences second = createUpdate(mProfiles,
+                LegacyVpnInfo.STATE_CONNECTED);
+
+        assertThat(second.hasSameState(first)).isTrue();
+    }
+
+    @Test
+    public void hasSameState_legacyVpnStateChanged_returnsFalse() {
+        final VpnSettings.UpdatePreferences first = createUpdate(mProfiles,
+                LegacyVpnInfo.STATE_CONNECTING);
+        final VpnSettings.UpdatePreferences second = createUpdate(mProfiles,
+                LegacyVpnInfo.STATE_CONNECTED);
+
+        assertThat(second.hasSameState(first)).isFalse();
+    }
+
+    @Test
+    public void hasSameState_profilesReloaded_returnsFalse() {
+        final VpnSettings.UpdatePreferences first = createUpdate(mProfiles,
+                LegacyVpnInfo.STATE_CONNECTED);
+        final VpnSettings.UpdatePreferences second = createUpdate(new ArrayList<>(mProfiles),
+                LegacyVpnInfo.STATE_CONNECTED);
+
+        assertThat(second.hasSameState(first)).isFalse();
+    }
+
+    @Test
+    public void shouldPoll_afterProfileChange_pollsForAWhile() {
+        final LegacyVpnInfo failed = createInfo(LegacyVpnInfo.STATE_FAILED);
+
+        assertThat(VpnSettings.shouldPoll(failed, null /* lockdownVpnKey */, 0 /* nowMillis */,
+                VpnSettings.PROFILE_CHANGE_POLL_MS)).isTrue();
+        assertThat(VpnSettings.shouldPoll(failed, null /* lockdownVpnKey */,
+                VpnSettings.PROFILE_CHANGE_POLL_MS, VpnSettings.PROFILE_CHANGE_POLL_MS)).isFalse();
+    }
+
+    @Test
+    public void shouldPoll_lockdownNotConnected_returnsTrue() {
+        assertThat(VpnSettings.shouldPoll(null /* legacyVpn */, VPN_KEY, 0 /* nowMillis */,
+                0 /* pollUntilMillis */)).isTrue();
+        assertThat(VpnSettings.shouldPoll(createInfo(LegacyVpnInfo.STATE_CONNECTED), VPN_KEY,
+                0 /* nowMillis */, 0 /* pollUntilMillis */)).isFalse();
+    }
+
+    private static LegacyVpnInfo createInfo(int state) {
+        final LegacyVpnInfo info = new LegacyVpnInfo();
+        info.key = VPN_KEY;
+        info.state = state;
+        return info;
+    }
+
+    private VpnSettings.UpdatePreferences createUpdate(List<VpnProfile> profiles, int state) {
+        final LegacyVpnInfo info = new LegacyVpnInfo();
+        info.key = VPN_KEY;
+        info.state = state;
+        final Map<String, LegacyVpnInfo> connected = Collections.singletonMap(VPN_KEY, info);
+        return new VpnSettings.UpdatePreferences(null /* settings */)
+                .legacyVpns(profiles, connected, null /* lockdownVpnKey */)
+                .appVpns(mApps, mNoApps, mNoApps);
+    }
+}